@@ -0,0 +1,112 @@
+package com.apo.sandbox.bench;
+
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.fault.InProcessHooks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-request cost of the fault plumbing on the JVM side, for each path in
+ * both states. tc, Toxiproxy and the Go proxy inject their delay outside the
+ * process, so what a request pays here is the guard itself; the in-process
+ * path also runs a no-op hook when armed. {@link #atomicBaseline} is the
+ * AtomicBoolean check the guards replaced.
+ *
+ * This is the guard only; what a request pays once a path is armed is in
+ * {@link InProcessArmedBenchmark} and {@link RedisRoundTripBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaultPathOverheadBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean armed;
+
+    private final AtomicBoolean legacyFlag = new AtomicBoolean();
+    private final InProcessHooks.Hook noopHook = backend -> {
+    };
+    private int payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        legacyFlag.set(armed);
+        if (armed) {
+            FaultSwitches.arm(FaultSwitches.Path.TC);
+            FaultSwitches.arm(FaultSwitches.Path.TOXIPROXY);
+            FaultSwitches.arm(FaultSwitches.Path.REDIS_PROXY);
+            InProcessHooks.register(noopHook);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FaultSwitches.disarm(FaultSwitches.Path.TC);
+        FaultSwitches.disarm(FaultSwitches.Path.TOXIPROXY);
+        FaultSwitches.disarm(FaultSwitches.Path.REDIS_PROXY);
+        InProcessHooks.unregister(noopHook);
+    }
+
+    @Benchmark
+    public void baseline(Blackhole bh) {
+        bh.consume(payload++);
+    }
+
+    @Benchmark
+    public void atomicBaseline(Blackhole bh) {
+        if (legacyFlag.get()) {
+            bh.consume(-1);
+        }
+        bh.consume(payload++);
+    }
+
+    @Benchmark
+    public void tc(Blackhole bh) {
+        if (FaultSwitches.tcArmed()) {
+            bh.consume(-1);
+        }
+        bh.consume(payload++);
+    }
+
+    @Benchmark
+    public void toxiproxy(Blackhole bh) {
+        if (FaultSwitches.toxiproxyArmed()) {
+            bh.consume(-1);
+        }
+        bh.consume(payload++);
+    }
+
+    @Benchmark
+    public void redisProxy(Blackhole bh) {
+        if (FaultSwitches.redisProxyArmed()) {
+            bh.consume(-1);
+        }
+        bh.consume(payload++);
+    }
+
+    @Benchmark
+    public void inProcess(Blackhole bh) throws Exception {
+        if (FaultSwitches.inProcessArmed()) {
+            InProcessHooks.beforeCall(InProcessHooks.Backend.REDIS);
+        }
+        bh.consume(payload++);
+    }
+}
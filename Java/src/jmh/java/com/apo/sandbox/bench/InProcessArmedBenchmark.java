@@ -0,0 +1,98 @@
+package com.apo.sandbox.bench;
+
+import com.apo.sandbox.fault.BackendLatencyFault;
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.fault.RequestFaultContext;
+import com.apo.sandbox.fault.RequestFaultSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one Store call pays on the in-process path while it is armed, with
+ * the real hooks configured to inject nothing, so only the plumbing is
+ * measured. Compare with {@code FaultPathOverheadBenchmark.inProcess} at
+ * {@code armed=false}.
+ *
+ * noop: an empty hook. backendLatency: the backend_latency fault at 0 ms,
+ * which samples its profile per call. requestScoped: the X-Fault hook seen
+ * by a request without a spec, which is what clean traffic pays while
+ * faulted requests keep the hook registered. requestSpec: the same hook
+ * applying a spec of zeros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InProcessArmedBenchmark {
+
+    @Param({ "noop", "backendLatency", "requestScoped", "requestSpec" })
+    public String hook;
+
+    private final BackendLatencyFault latencyFault = new BackendLatencyFault();
+    private InProcessHooks.Hook registered;
+    private int payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        switch (hook) {
+            case "backendLatency":
+                latencyFault.start(Map.of("duration", 0));
+                break;
+            case "requestScoped":
+                registered = backend -> {
+                    RequestFaultSpec spec = RequestFaultContext.get();
+                    if (spec != null) {
+                        spec.apply(backend);
+                    }
+                };
+                break;
+            case "requestSpec":
+                RequestFaultSpec spec = RequestFaultSpec.parse("delay=0; error=0");
+                registered = spec::apply;
+                break;
+            default:
+                registered = backend -> {
+                };
+        }
+        if (registered != null) {
+            InProcessHooks.register(registered);
+        }
+        if (!FaultSwitches.inProcessArmed()) {
+            throw new IllegalStateException("in-process path did not arm");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        latencyFault.stop();
+        if (registered != null) {
+            InProcessHooks.unregister(registered);
+        }
+    }
+
+    @Benchmark
+    public void storeCall(Blackhole bh) throws Exception {
+        if (FaultSwitches.inProcessArmed()) {
+            InProcessHooks.beforeCall(InProcessHooks.Backend.REDIS);
+        }
+        bh.consume(payload++);
+    }
+}
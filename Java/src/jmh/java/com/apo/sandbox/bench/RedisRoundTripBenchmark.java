@@ -0,0 +1,131 @@
+package com.apo.sandbox.bench;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Redis GET through each out-of-process fault path while it is armed with
+ * a zero delay, against the same GET on a direct connection. The difference
+ * is what an armed path costs a request before any delay is injected: the
+ * netem qdisc, the Toxiproxy hop and the Go proxy hop.
+ *
+ * Needs live endpoints, given as system properties in the forked JVM, e.g.
+ * mvn -Pbenchmark package exec:exec -Djmh.args="RedisRoundTrip -p path=direct,goProxy
+ *   -jvmArgsAppend -Dbench.redis=127.0.0.1:6379 -Dbench.goProxy=127.0.0.1:20000"
+ *
+ * bench.redis: Redis itself (direct and tc). bench.tc.dev: interface for a
+ * netem qdisc on the route to bench.redis; needs root. bench.toxiproxy.api
+ * and bench.toxiproxy.proxy: Toxiproxy API address and the name of its
+ * Redis proxy (default "redis"). bench.goProxy: the Go proxy listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisRoundTripBenchmark {
+    private static final String TOXIC = "bench-armed";
+
+    @Param({ "direct", "tc", "toxiproxy", "goProxy" })
+    public String path;
+
+    private Jedis jedis;
+    private Proxy toxiproxy;
+    private String tcDevice;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        HostAndPort target;
+        switch (path) {
+            case "tc":
+                target = address("bench.redis");
+                tcDevice = required("bench.tc.dev");
+                tc("add", "dev", tcDevice, "root", "netem", "delay", "0ms");
+                break;
+            case "toxiproxy":
+                HostAndPort api = address("bench.toxiproxy.api");
+                toxiproxy = new ToxiproxyClient(api.getHost(), api.getPort())
+                        .getProxy(System.getProperty("bench.toxiproxy.proxy", "redis"));
+                toxiproxy.toxics().latency(TOXIC, ToxicDirection.DOWNSTREAM, 0);
+                target = HostAndPort.from(toxiproxy.getListen());
+                if ("0.0.0.0".equals(target.getHost()) || target.getHost().isEmpty()) {
+                    target = new HostAndPort(api.getHost(), target.getPort());
+                }
+                break;
+            case "goProxy":
+                target = address("bench.goProxy");
+                break;
+            default:
+                target = address("bench.redis");
+        }
+        jedis = new Jedis(target);
+        if ("goProxy".equals(path)) {
+            jedis.sendCommand(() -> "FAULT.START".getBytes(), "0".getBytes());
+        }
+        jedis.set("bench:roundtrip", "x".repeat(64));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (jedis != null) {
+            if ("goProxy".equals(path)) {
+                jedis.sendCommand(() -> "FAULT.STOP".getBytes());
+            }
+            jedis.close();
+        }
+        if (toxiproxy != null) {
+            toxiproxy.toxics().get(TOXIC).remove();
+        }
+        if (tcDevice != null) {
+            tc("del", "dev", tcDevice, "root");
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        return jedis.get("bench:roundtrip");
+    }
+
+    private static HostAndPort address(String property) {
+        return HostAndPort.from(required(property));
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("-D" + property + " is required for this path");
+        }
+        return value;
+    }
+
+    private static void tc(String... args) throws IOException, InterruptedException {
+        String[] command = new String[args.length + 2];
+        command[0] = "tc";
+        command[1] = "qdisc";
+        System.arraycopy(args, 0, command, 2, args.length);
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("tc exited with " + process.exitValue());
+        }
+    }
+}
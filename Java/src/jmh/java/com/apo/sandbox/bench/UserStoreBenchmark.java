@@ -0,0 +1,155 @@
+package com.apo.sandbox.bench;
+
+import com.apo.sandbox.cache.OffHeapUsers;
+import com.apo.sandbox.cache.UserResponseCache;
+import com.apo.sandbox.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The on-heap user list against {@link OffHeapUsers} for the same users:
+ * point lookups, writing the whole set as a response body, and a full GC
+ * with the set live. Run with {@code -prof gc} for allocation rates; the
+ * live heap after setup is printed once per trial.
+ *
+ * The heap body is what {@link UserResponseCache} does for an unchanged
+ * list: fingerprint the loaded list, then write the bytes it encoded
+ * earlier. The off-heap body is what it does for a snapshot list: copy the
+ * chunks out, with nothing to hash. Both are written to a sink that copies
+ * into a socket-sized buffer, as the connector would.
+ *
+ * mvn -Pbenchmark package exec:exec -Djmh.args="UserStore -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g", "-XX:MaxDirectMemorySize=4g" })
+public class UserStoreBenchmark {
+    private static final int SAMPLE_IDS = 1024;
+
+    @Param({ "100000", "1000000" })
+    public int users;
+
+    @Param({ "heap", "offheap" })
+    public String store;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<User> list;
+    private byte[] cachedBody;
+    private final Sink sink = new Sink();
+    private Map<String, User> index;
+    private OffHeapUsers snapshot;
+    private String[] sampleIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<User> generated = new ArrayList<>(users);
+        sampleIds = new String[SAMPLE_IDS];
+        int stride = users / SAMPLE_IDS;
+        for (int i = 0; i < users; i++) {
+            String id = UUID.randomUUID().toString();
+            generated.add(new User(id, "Bench User " + i, "bench.user" + i + "@apo.com"));
+            if (i % stride == 0 && i / stride < SAMPLE_IDS) {
+                sampleIds[i / stride] = id;
+            }
+        }
+        if ("heap".equals(store)) {
+            list = generated;
+            index = new HashMap<>(users * 2);
+            for (User user : generated) {
+                index.put(user.getId(), user);
+            }
+            cachedBody = objectMapper.writeValueAsBytes(generated);
+        } else {
+            snapshot = OffHeapUsers.build(generated, 1, OffHeapUsers.MAX_CHUNK_BYTES);
+        }
+        generated = null;
+
+        System.gc();
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%n%s, %d users: %d MB live heap, %d MB off-heap%n", store, users,
+                used >> 20, snapshot == null ? 0 : snapshot.offHeapBytes() >> 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        list = null;
+        index = null;
+        cachedBody = null;
+        if (snapshot != null) {
+            snapshot.release();
+            snapshot = null;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public User lookup() throws Exception {
+        String id = sampleIds[next++ & (SAMPLE_IDS - 1)];
+        return snapshot == null ? index.get(id) : snapshot.get(id);
+    }
+
+    @Benchmark
+    public long writeBody() throws Exception {
+        if (snapshot == null) {
+            long version = UserResponseCache.fingerprint(list);
+            sink.write(cachedBody);
+            return version;
+        } else {
+            snapshot.writeJsonTo(sink);
+            return snapshot.version();
+        }
+    }
+
+    // Full-GC pause with the set live: tracing cost follows object count.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public void fullGc() {
+        System.gc();
+    }
+
+    private static final class Sink extends OutputStream {
+        private final byte[] buffer = new byte[8192];
+
+        @Override
+        public void write(int b) {
+            buffer[0] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                int n = Math.min(len, buffer.length);
+                System.arraycopy(b, off, buffer, 0, n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+}
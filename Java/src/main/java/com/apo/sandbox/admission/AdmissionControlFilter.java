@@ -0,0 +1,199 @@
+package com.apo.sandbox.admission;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.RequestFaultFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load shedding for the business endpoints.
+ *
+ * Requests are split into two lanes. The business lane ({@code /api/users/**})
+ * goes through a per-endpoint {@link AimdLimiter} and a shared cap that
+ * leaves {@code ADMISSION_RESERVED_THREADS} Tomcat workers free. Everything
+ * else (health, metrics, fault control) is the priority lane and is never
+ * limited, so it can still be served while business traffic is being shed.
+ * Rejected requests get an immediate 503 with Retry-After.
+ *
+ * A request fails for the limiter when it ends in a 5xx or when the handler
+ * called {@link #markBackendFailed()}; the list endpoints answer a backend
+ * failure with an empty 200 and would otherwise never report one.
+ *
+ * Limiters and their gauges are keyed by route template, not by URI, and
+ * URIs matching no known route share the {@link #OTHER} limiter, so clients
+ * cannot grow the limiter map or the metric cardinality.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final String BUSINESS_PREFIX = "/api/users";
+    private static final String BY_ID_PREFIX = "/api/users/by-id/";
+    private static final Set<String> FIXED_ROUTES = Set.of("/api/users", "/api/users/1", "/api/users/2",
+            "/api/users/3");
+    public static final String BY_ID_ROUTE = "/api/users/by-id/{id}";
+    // Every key endpointKey returns other than OTHER.
+    public static final Set<String> ROUTES = Set.of("/api/users", "/api/users/1", "/api/users/2", "/api/users/3",
+            BY_ID_ROUTE);
+    public static final String OTHER = "other";
+    static final String BACKEND_FAILED = AdmissionControlFilter.class.getName() + ".backendFailed";
+    // Upper bound on limiters; the route table above needs six.
+    private static final int MAX_LIMITERS = 16;
+
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+    private final int businessCap;
+    private final AtomicInteger businessInFlight = new AtomicInteger();
+    private final Map<String, AimdLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdmissionControlFilter(AppProperties appProperties, MeterRegistry meterRegistry,
+                                  @Value("${server.tomcat.threads.max:200}") int tomcatMaxThreads) {
+        this.appProperties = appProperties;
+        this.meterRegistry = meterRegistry;
+        this.businessCap = Math.max(1, tomcatMaxThreads - appProperties.getAdmissionReservedThreads());
+        Gauge.builder("sandbox.admission.inflight", businessInFlight, AtomicInteger::get)
+                .tag("endpoint", "all")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !appProperties.getAdmissionEnabled() || !request.getRequestURI().startsWith(BUSINESS_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = endpointKey(request.getRequestURI());
+        AimdLimiter limiter = limiter(endpoint);
+
+        if (businessInFlight.incrementAndGet() > businessCap) {
+            businessInFlight.decrementAndGet();
+            reject(response, endpoint, "reserved");
+            return;
+        }
+        int inFlightAtStart = limiter.tryAcquire();
+        if (inFlightAtStart < 0) {
+            businessInFlight.decrementAndGet();
+            reject(response, endpoint, "limit");
+            return;
+        }
+
+        // Requests carrying their own fault spec are slow on purpose; they
+        // count against the limit but must not shrink it for clean traffic.
+        boolean feedback = !RequestFaultFilter.carriesFault(request);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = failed(request, response);
+        } finally {
+            if (feedback) {
+                limiter.release(inFlightAtStart, System.nanoTime() - start, failed);
+            } else {
+                limiter.releaseWithoutFeedback();
+            }
+            businessInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Marks the current request as failed even though it is answered
+     * normally, e.g. with an empty list after a backend error. Does nothing
+     * outside a request.
+     */
+    public static void markBackendFailed() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(BACKEND_FAILED, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /** True if the request ended in a 5xx or was marked by {@link #markBackendFailed()}. */
+    public static boolean failed(HttpServletRequest request, HttpServletResponse response) {
+        return response.getStatus() >= 500 || request.getAttribute(BACKEND_FAILED) != null;
+    }
+
+    /**
+     * Route template for a request URI: one of the business routes, with the
+     * id in /api/users/by-id/{id} collapsed, or {@link #OTHER} for anything
+     * else.
+     */
+    public static String endpointKey(String uri) {
+        if (FIXED_ROUTES.contains(uri)) {
+            return uri;
+        }
+        if (uri.startsWith(BY_ID_PREFIX) && uri.length() > BY_ID_PREFIX.length()
+                && uri.indexOf('/', BY_ID_PREFIX.length()) < 0) {
+            return BY_ID_ROUTE;
+        }
+        return OTHER;
+    }
+
+    private AimdLimiter limiter(String endpoint) {
+        AimdLimiter limiter = limiters.get(endpoint);
+        if (limiter != null) {
+            return limiter;
+        }
+        if (limiters.size() >= MAX_LIMITERS) {
+            endpoint = OTHER;
+        }
+        return limiters.computeIfAbsent(endpoint, this::newLimiter);
+    }
+
+    int limiterCount() {
+        return limiters.size();
+    }
+
+    private AimdLimiter newLimiter(String endpoint) {
+        AimdLimiter limiter = new AimdLimiter(
+                appProperties.getAdmissionInitialLimit(),
+                appProperties.getAdmissionMinLimit(),
+                appProperties.getAdmissionMaxLimit(),
+                0.9,
+                appProperties.getAdmissionLatencyTargetMs() * 1_000_000L);
+        Gauge.builder("sandbox.admission.limit", limiter, AimdLimiter::getLimit)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("sandbox.admission.inflight", limiter, AimdLimiter::getInFlight)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private void reject(HttpServletResponse response, String endpoint, String reason) throws IOException {
+        Counter.builder("sandbox.admission.rejected")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Shedding request to {} ({}).", endpoint, reason);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(appProperties.getAdmissionRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"overloaded\",\"endpoint\":\"" + endpoint + "\"}");
+    }
+}
@@ -0,0 +1,81 @@
+package com.apo.sandbox.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Additive-increase / multiplicative-decrease concurrency limit.
+ *
+ * Every completed request that stayed under the latency target and did not
+ * fail raises the limit by one, as long as the limit was actually being
+ * used; a slow or failed request cuts it by {@code backoffRatio}. Under a
+ * latency or CPU fault the limit quickly settles near what the backend can
+ * serve, and excess callers are rejected instead of queueing.
+ */
+public class AimdLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Double bits of the current limit, updated with CAS so the hot path never locks.
+    private final AtomicLong limitBits;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyTargetNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.max(minLimit, Math.min(this.maxLimit, initialLimit))));
+    }
+
+    /**
+     * Returns the in-flight count observed at admission, or -1 if the caller
+     * is over the limit and must be rejected.
+     */
+    public int tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release(int inFlightAtStart, long latencyNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next;
+            if (failed || latencyNanos > latencyTargetNanos) {
+                next = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightAtStart * 2 >= limit) {
+                next = Math.min(maxLimit, limit + 1);
+            } else {
+                return;
+            }
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    // For requests whose latency says nothing about backend health.
+    public void releaseWithoutFeedback() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,80 @@
+package com.apo.sandbox.cache;
+
+import com.apo.sandbox.model.User;
+
+import java.lang.ref.Cleaner;
+import java.util.AbstractList;
+
+/**
+ * The users of an {@link OffHeapUsers} snapshot as a list, so the list
+ * endpoints can hand the snapshot to {@link UserResponseCache} in place of a
+ * list loaded from the backends.
+ *
+ * Users are decoded on access. Reading in order decodes each one once;
+ * going back restarts from the first record. The list holds a reference to
+ * the snapshot until it is closed, or collected if it is dropped unclosed.
+ * Not for concurrent use.
+ */
+public final class OffHeapUserList extends AbstractList<User> implements AutoCloseable {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final OffHeapUsers snapshot;
+    private final Cleaner.Cleanable cleanable;
+    private OffHeapUsers.Cursor cursor;
+    private int next;
+    private boolean closed;
+
+    // Takes over a reference the caller already holds.
+    OffHeapUserList(OffHeapUsers snapshot) {
+        this.snapshot = snapshot;
+        // The action must not capture this list, or it would never be collected.
+        this.cleanable = CLEANER.register(this, snapshot::release);
+    }
+
+    /** Closes the list if it is an off-heap one; other lists are left alone. */
+    public static void release(Iterable<User> users) {
+        if (users instanceof OffHeapUserList list) {
+            list.close();
+        }
+    }
+
+    public OffHeapUsers snapshot() {
+        ensureOpen();
+        return snapshot;
+    }
+
+    @Override
+    public User get(int index) {
+        ensureOpen();
+        if (index < 0 || index >= snapshot.size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + snapshot.size());
+        }
+        if (cursor == null || index < next) {
+            cursor = snapshot.new Cursor();
+            next = 0;
+        }
+        User user = cursor.next();
+        while (next++ < index) {
+            user = cursor.next();
+        }
+        return user;
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    /** Gives the reference back; the list must not be read afterwards. */
+    @Override
+    public void close() {
+        closed = true;
+        cleanable.clean();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("off-heap user list is closed");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.apo.sandbox.cache;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.model.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Holds the current {@link OffHeapUsers} snapshot when
+ * USER_STORE_OFFHEAP_ENABLED is set.
+ *
+ * While a snapshot is current the Store serves the list endpoints and point
+ * lookups from it without loading anything from the backends. After a
+ * write or a change-feed update invalidates it, the next list load
+ * publishes a fresh one, keyed by the same fingerprint the response cache
+ * uses for ETags. Each invalidation bumps a generation; a load that started
+ * before the latest invalidation may have read the old data, so what it
+ * publishes is served to its own request but never installed.
+ *
+ * Snapshots are reference counted. The store holds one for the current
+ * snapshot and callers get their own, so a replaced snapshot's memory is
+ * freed as soon as the last response streaming from it is done.
+ */
+@Component
+public class OffHeapUserStore {
+    private static final Logger log = LoggerFactory.getLogger(OffHeapUserStore.class);
+
+    private final AppProperties appProperties;
+    // Serializes builds, so concurrent loads of the same list build it once.
+    private final Object buildLock = new Object();
+    // Both guarded by this.
+    private volatile OffHeapUsers current;
+    private volatile long generation;
+
+    public OffHeapUserStore(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        Gauge.builder("sandbox.users.offheap.users", this, s -> s.sample(OffHeapUsers::size))
+                .register(meterRegistry);
+        Gauge.builder("sandbox.users.offheap.bytes", this, s -> s.sample(OffHeapUsers::offHeapBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return appProperties.getUserStoreOffHeapEnabled();
+    }
+
+    /** Read before loading the users that will be passed to {@link #publish}. */
+    public long generation() {
+        return generation;
+    }
+
+    /** The current snapshot as a list, or null if there is none. */
+    public OffHeapUserList users() {
+        OffHeapUsers snapshot = acquire();
+        return snapshot == null ? null : new OffHeapUserList(snapshot);
+    }
+
+    /**
+     * The snapshot for this list as loaded at {@code generation}, building
+     * it if the current one is for a different version.
+     */
+    public OffHeapUserList publish(List<User> users, long generation) {
+        return new OffHeapUserList(publish(users, UserResponseCache.fingerprint(users), generation));
+    }
+
+    // Returns a reference the caller must release.
+    private OffHeapUsers publish(List<User> users, long version, long generation) {
+        OffHeapUsers snapshot = acquire(version);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (buildLock) {
+            snapshot = acquire(version);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long start = System.nanoTime();
+            snapshot = OffHeapUsers.build(users, version,
+                    (int) Math.min(OffHeapUsers.MAX_CHUNK_BYTES, appProperties.getUserStoreOffHeapChunkMb() * 1024L * 1024L));
+            synchronized (this) {
+                if (this.generation != generation) {
+                    log.info("Not installing off-heap user snapshot: the users changed while it was loaded");
+                    return snapshot;
+                }
+                snapshot.retain();
+                replace(snapshot);
+            }
+            log.info("Built off-heap user snapshot: {} users, {} bytes in {} ms", snapshot.size(),
+                    snapshot.offHeapBytes(), (System.nanoTime() - start) / 1_000_000);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Serves a snapshot loaded from elsewhere, such as a snapshot file, until
+     * the list changes. The store takes its own reference.
+     */
+    public synchronized void install(OffHeapUsers snapshot) {
+        if (!snapshot.retain()) {
+            throw new IllegalArgumentException("snapshot has already been freed");
+        }
+        replace(snapshot);
+    }
+
+    /** The current snapshot with a reference the caller must release, or null. */
+    public OffHeapUsers acquire() {
+        while (true) {
+            OffHeapUsers snapshot = current;
+            // Fails only if it was replaced and freed since the read.
+            if (snapshot == null || snapshot.retain()) {
+                return snapshot;
+            }
+        }
+    }
+
+    private OffHeapUsers acquire(long version) {
+        OffHeapUsers snapshot = acquire();
+        if (snapshot != null && snapshot.version() != version) {
+            snapshot.release();
+            return null;
+        }
+        return snapshot;
+    }
+
+    /** The user from the current snapshot; null if absent or there is no snapshot. */
+    public User get(String id) {
+        OffHeapUsers snapshot = acquire();
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            return snapshot.get(id);
+        } finally {
+            snapshot.release();
+        }
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        replace(null);
+    }
+
+    private void replace(OffHeapUsers snapshot) {
+        OffHeapUsers previous = current;
+        current = snapshot;
+        if (previous != null) {
+            previous.release();
+        }
+    }
+
+    private double sample(ToLongFunction<OffHeapUsers> metric) {
+        OffHeapUsers snapshot = acquire();
+        if (snapshot == null) {
+            return 0;
+        }
+        try {
+            return metric.applyAsLong(snapshot);
+        } finally {
+            snapshot.release();
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.apo.sandbox.cache;
+
+import com.apo.sandbox.fault.DirectBuffers;
+import com.apo.sandbox.model.User;
+import org.apache.catalina.connector.CoyoteOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable user set held outside the Java heap.
+ *
+ * Each user is stored once, as the UTF-8 JSON object the list endpoints
+ * send, in direct-buffer chunks. Records are laid out back to back with
+ * commas between them, so the chunks are the body of the JSON array and
+ * can be written to a response as they are. An open-addressing table,
+ * also in direct memory, maps ID hashes to records, so the GC has nothing
+ * to trace however many users there are. {@link UserSnapshotFile} writes
+ * the same chunks and table to disk and maps them back.
+ *
+ * Instances are safe for concurrent readers: buffers are only read with
+ * absolute gets or through duplicates. The memory is reference counted and
+ * freed, or unmapped, when the last reference is released; a new instance
+ * holds one reference, and readers must hold their own while they use it.
+ */
+public final class OffHeapUsers {
+    private static final byte[] OPEN = { '[' };
+    private static final byte[] CLOSE = { ']' };
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // {"id":"<id>","name":<name>,"email":<email>}
+    private static final byte[] ID_PREFIX = "{\"id\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NAME_PREFIX = "\",\"name\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMAIL_PREFIX = ",\"email\":".getBytes(StandardCharsets.US_ASCII);
+
+    // A slot packs chunk (12 bits), position (28 bits) and length (24 bits);
+    // 0 is never a valid record, so it marks an empty slot.
+    private static final int LENGTH_BITS = 24;
+    private static final int POSITION_BITS = 28;
+    private static final int MAX_RECORD_BYTES = (1 << LENGTH_BITS) - 1;
+    public static final int MAX_CHUNK_BYTES = 1 << POSITION_BITS;
+    private static final int MAX_CHUNKS = 1 << (64 - LENGTH_BITS - POSITION_BITS);
+    // Keeps the slot table within one buffer at a load factor of at most 1/2.
+    private static final int MAX_USERS = 1 << 26;
+
+    private final long version;
+    private final ByteBuffer[] chunks;
+    private final ByteBuffer slotBytes;
+    private final ByteBuffer hashBytes;
+    private final LongBuffer slots;
+    private final IntBuffer hashes;
+    private final int size;
+    private final long jsonLength;
+    private final boolean mapped;
+    // The buffers as allocated or mapped, which are what can be freed.
+    private final ByteBuffer[] memory;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    // Index buffers must be little-endian; chunks must be flipped.
+    OffHeapUsers(long version, ByteBuffer[] chunks, ByteBuffer slotBytes, ByteBuffer hashBytes, int size,
+                 long jsonLength, boolean mapped) {
+        this.version = version;
+        this.chunks = new ByteBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            this.chunks[i] = chunks[i].asReadOnlyBuffer();
+        }
+        this.slotBytes = slotBytes;
+        this.hashBytes = hashBytes;
+        this.slots = slotBytes.asLongBuffer();
+        this.hashes = hashBytes.asIntBuffer();
+        this.size = size;
+        this.jsonLength = jsonLength;
+        this.mapped = mapped;
+        this.memory = new ByteBuffer[chunks.length + 2];
+        System.arraycopy(chunks, 0, memory, 0, chunks.length);
+        memory[chunks.length] = slotBytes;
+        memory[chunks.length + 1] = hashBytes;
+    }
+
+    /**
+     * Encodes the users in list order. Users without an ID are skipped; if an
+     * ID repeats, lookups return the last one while the array keeps both, as
+     * the list did.
+     */
+    public static OffHeapUsers build(List<User> users, long version, int chunkBytes) {
+        chunkBytes = Math.max(1024, Math.min(chunkBytes, MAX_CHUNK_BYTES));
+
+        // Size everything first so the chunks can be allocated to fit.
+        long total = 0;
+        int count = 0;
+        for (User user : users) {
+            if (user != null && user.getId() != null) {
+                int length = recordLength(user);
+                if (length > MAX_RECORD_BYTES) {
+                    throw new IllegalArgumentException("user " + user.getId() + " encodes to " + length + " bytes");
+                }
+                total += length + (count > 0 ? 1 : 0);
+                count++;
+            }
+        }
+
+        if (count > MAX_USERS) {
+            throw new IllegalArgumentException(count + " users exceeds the limit of " + MAX_USERS);
+        }
+        int capacity = Integer.highestOneBit(Math.max(16, count * 2 - 1)) << 1;
+        ByteBuffer slotBytes = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer hashBytes = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        LongBuffer slots = slotBytes.asLongBuffer();
+        IntBuffer hashes = hashBytes.asIntBuffer();
+        List<ByteBuffer> chunks = new ArrayList<>();
+        ByteBuffer chunk = null;
+        long remaining = total;
+        int written = 0;
+        for (User user : users) {
+            if (user == null || user.getId() == null) {
+                continue;
+            }
+            int length = recordLength(user);
+            int needed = length + (written > 0 ? 1 : 0);
+            if (chunk == null || chunk.remaining() < needed) {
+                if (chunks.size() == MAX_CHUNKS) {
+                    throw new IllegalArgumentException("user set needs more than " + MAX_CHUNKS + " chunks");
+                }
+                chunk = ByteBuffer.allocateDirect((int) Math.max(needed, Math.min(chunkBytes, remaining)));
+                chunks.add(chunk);
+            }
+            if (written > 0) {
+                chunk.put((byte) ',');
+            }
+            int position = chunk.position();
+            putRecord(chunk, user);
+            remaining -= needed;
+            written++;
+
+            long slot = ((long) (chunks.size() - 1) << (POSITION_BITS + LENGTH_BITS))
+                    | ((long) position << LENGTH_BITS) | length;
+            insert(slots, hashes, chunks, user.getId(), slot);
+        }
+        ByteBuffer[] sealed = new ByteBuffer[chunks.size()];
+        for (int i = 0; i < sealed.length; i++) {
+            sealed[i] = chunks.get(i).flip();
+        }
+        return new OffHeapUsers(version, sealed, slotBytes, hashBytes, written,
+                total + OPEN.length + CLOSE.length, false);
+    }
+
+    private static void insert(LongBuffer slots, IntBuffer hashes, List<ByteBuffer> chunks, String id, long slot) {
+        int hash = hash(id);
+        int mask = slots.capacity() - 1;
+        byte[] key = null;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long existing = slots.get(i);
+            if (existing == 0) {
+                slots.put(i, slot);
+                hashes.put(i, hash);
+                return;
+            }
+            if (hashes.get(i) == hash) {
+                key = key == null ? escape(id) : key;
+                if (matches(chunks.get(chunk(existing)), existing, key)) {
+                    slots.put(i, slot);
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Takes another reference; false if the memory has already been freed. */
+    public boolean retain() {
+        for (int count = references.get(); count > 0; count = references.get()) {
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Drops a reference, freeing the memory with the last one. */
+    public void release() {
+        int count = references.decrementAndGet();
+        if (count == 0) {
+            for (ByteBuffer buffer : memory) {
+                DirectBuffers.free(buffer);
+            }
+        } else if (count < 0) {
+            throw new IllegalStateException("snapshot released more often than retained");
+        }
+    }
+
+    boolean isFreed() {
+        return references.get() <= 0;
+    }
+
+    /** The user with this ID, decoded onto the heap, or null. */
+    public User get(String id) {
+        long slot = find(id);
+        if (slot == 0) {
+            return null;
+        }
+        return decode(chunks[chunk(slot)], new int[] { position(slot) });
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(User user) throws Exception;
+    }
+
+    /** Every user in array order, decoded one at a time. */
+    public void forEach(Visitor visitor) throws Exception {
+        Cursor cursor = new Cursor();
+        for (int i = 0; i < size; i++) {
+            visitor.visit(cursor.next());
+        }
+    }
+
+    /** Walks the records in array order; next() must not be called past the last. */
+    final class Cursor {
+        private int chunk;
+        private final int[] position = { 0 };
+
+        User next() {
+            while (position[0] >= chunks[chunk].limit()) {
+                chunk++;
+                position[0] = 0;
+            }
+            if (chunks[chunk].get(position[0]) == ',') {
+                position[0]++;
+            }
+            return decode(chunks[chunk], position);
+        }
+    }
+
+    public boolean contains(String id) {
+        return find(id) != 0;
+    }
+
+    private long find(String id) {
+        int hash = hash(id);
+        int mask = slots.capacity() - 1;
+        byte[] key = null;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long slot = slots.get(i);
+            if (slot == 0) {
+                return 0;
+            }
+            if (hashes.get(i) == hash) {
+                key = key == null ? escape(id) : key;
+                if (matches(chunks[chunk(slot)], slot, key)) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the whole set as a JSON array. On Tomcat the chunks go to the
+     * connector as buffers; other streams get them through a small staging
+     * array.
+     */
+    public void writeJsonTo(OutputStream out) throws IOException {
+        out.write(OPEN);
+        if (out instanceof CoyoteOutputStream coyote) {
+            for (ByteBuffer chunk : chunks) {
+                coyote.write(chunk.duplicate());
+            }
+        } else {
+            byte[] staging = new byte[8192];
+            for (ByteBuffer chunk : chunks) {
+                ByteBuffer view = chunk.duplicate();
+                while (view.hasRemaining()) {
+                    int n = Math.min(staging.length, view.remaining());
+                    view.get(staging, 0, n);
+                    out.write(staging, 0, n);
+                }
+            }
+        }
+        out.write(CLOSE);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Length of the array {@link #writeJsonTo} produces. */
+    public long jsonLength() {
+        return jsonLength;
+    }
+
+    /** Direct or mapped memory held by the chunks and the index. */
+    public long offHeapBytes() {
+        long bytes = slotBytes.capacity() + hashBytes.capacity();
+        for (ByteBuffer chunk : chunks) {
+            bytes += chunk.capacity();
+        }
+        return bytes;
+    }
+
+    /** Whether this set is served from a mapped snapshot file. */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    // Read-only views for UserSnapshotFile.
+    ByteBuffer[] chunks() {
+        ByteBuffer[] views = new ByteBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            views[i] = chunks[i].duplicate();
+        }
+        return views;
+    }
+
+    ByteBuffer slotBytes() {
+        return slotBytes.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    ByteBuffer hashBytes() {
+        return hashBytes.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    int capacity() {
+        return slots.capacity();
+    }
+
+    private static int chunk(long slot) {
+        return (int) (slot >>> (POSITION_BITS + LENGTH_BITS));
+    }
+
+    private static int position(long slot) {
+        return (int) (slot >>> LENGTH_BITS) & (MAX_CHUNK_BYTES - 1);
+    }
+
+    private static int length(long slot) {
+        return (int) slot & MAX_RECORD_BYTES;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(ByteBuffer chunk, long slot, byte[] key) {
+        int start = position(slot) + ID_PREFIX.length;
+        if (length(slot) < ID_PREFIX.length + key.length + 1 || chunk.get(start + key.length) != '"') {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int recordLength(User user) {
+        return ID_PREFIX.length + escapedLength(user.getId())
+                + NAME_PREFIX.length + fieldLength(user.getName())
+                + EMAIL_PREFIX.length + fieldLength(user.getEmail()) + 1;
+    }
+
+    private static void putRecord(ByteBuffer buffer, User user) {
+        buffer.put(ID_PREFIX);
+        putEscaped(buffer, user.getId());
+        buffer.put(NAME_PREFIX);
+        putField(buffer, user.getName());
+        buffer.put(EMAIL_PREFIX);
+        putField(buffer, user.getEmail());
+        buffer.put((byte) '}');
+    }
+
+    // Reads back what putRecord wrote, leaving the cursor after the record.
+    // The layout is fixed, so only the values need parsing.
+    private static User decode(ByteBuffer chunk, int[] cursor) {
+        cursor[0] += ID_PREFIX.length - 1;
+        String id = readValue(chunk, cursor);
+        cursor[0] += NAME_PREFIX.length - 1;
+        String name = readValue(chunk, cursor);
+        cursor[0] += EMAIL_PREFIX.length;
+        String email = readValue(chunk, cursor);
+        cursor[0]++;
+        return new User(id, name, email);
+    }
+
+    private static String readValue(ByteBuffer chunk, int[] cursor) {
+        int pos = cursor[0];
+        if (chunk.get(pos) == 'n') {
+            cursor[0] = pos + NULL.length;
+            return null;
+        }
+        int start = pos + 1;
+        int end = start;
+        boolean escaped = false;
+        for (byte b; (b = chunk.get(end)) != '"'; end++) {
+            if (b == '\\') {
+                escaped = true;
+                end++;
+            }
+        }
+        cursor[0] = end + 1;
+        byte[] bytes = new byte[end - start];
+        chunk.get(start, bytes);
+        return escaped ? unescape(bytes) : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String unescape(byte[] bytes) {
+        StringBuilder unescaped = new StringBuilder(bytes.length);
+        int start = 0;
+        int pos = 0;
+        while (pos < bytes.length) {
+            if (bytes[pos] != '\\') {
+                pos++;
+                continue;
+            }
+            unescaped.append(new String(bytes, start, pos - start, StandardCharsets.UTF_8));
+            if (bytes[pos + 1] == 'u') {
+                unescaped.append((char) Integer.parseInt(new String(bytes, pos + 2, 4, StandardCharsets.US_ASCII), 16));
+                pos += 6;
+            } else {
+                unescaped.append((char) bytes[pos + 1]);
+                pos += 2;
+            }
+            start = pos;
+        }
+        return unescaped.append(new String(bytes, start, pos - start, StandardCharsets.UTF_8)).toString();
+    }
+
+    private static int fieldLength(String value) {
+        return value == null ? NULL.length : escapedLength(value) + 2;
+    }
+
+    private static void putField(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.put(NULL);
+            return;
+        }
+        buffer.put((byte) '"');
+        putEscaped(buffer, value);
+        buffer.put((byte) '"');
+    }
+
+    private static byte[] escape(String value) {
+        byte[] bytes = new byte[escapedLength(value)];
+        putEscaped(ByteBuffer.wrap(bytes), value);
+        return bytes;
+    }
+
+    // JSON string escaping and UTF-8 encoding in one pass, without
+    // intermediate arrays. Unpaired surrogates become '?', as in
+    // String.getBytes(UTF_8).
+    private static int escapedLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                length += 2;
+            } else if (c < 0x20) {
+                length += 6;
+            } else if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void putEscaped(ByteBuffer buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                buffer.put((byte) '\\').put((byte) c);
+            } else if (c < 0x20) {
+                buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                        .put(HEX[c >> 4]).put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6))).put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (cp >> 18)))
+                        .put((byte) (0x80 | ((cp >> 12) & 0x3F)))
+                        .put((byte) (0x80 | ((cp >> 6) & 0x3F)))
+                        .put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)))
+                        .put((byte) (0x80 | ((c >> 6) & 0x3F)))
+                        .put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
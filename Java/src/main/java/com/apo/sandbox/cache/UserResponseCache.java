@@ -0,0 +1,239 @@
+package com.apo.sandbox.cache;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.model.User;
+import com.apo.sandbox.profile.RequestProfiler;
+import com.apo.sandbox.profile.Stage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Already-encoded JSON bodies for the user list endpoints.
+ *
+ * Each endpoint keeps the bytes for the last dataset version it served. The
+ * version is a 64-bit hash of the user fields, which costs a pass over the
+ * strings but no allocation, so an unchanged list is written straight from
+ * the cached bytes without touching Jackson. The same fingerprint is the
+ * ETag (suffixed "-gzip" for the compressed body), and a matching
+ * If-None-Match gets a bodyless 304. With
+ * USER_STORE_OFFHEAP_ENABLED the Store hands over an {@link OffHeapUserList},
+ * and the body is served from its snapshot instead of a heap array.
+ */
+@Component
+public class UserResponseCache {
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserResponseCache(ObjectMapper objectMapper, AppProperties appProperties) {
+        this.objectMapper = objectMapper;
+        this.appProperties = appProperties;
+    }
+
+    public void write(String endpoint, List<User> users, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (users instanceof OffHeapUserList snapshotUsers) {
+            try {
+                writeOffHeap(snapshotUsers.snapshot(), request, response);
+            } finally {
+                snapshotUsers.close();
+            }
+            return;
+        }
+        if (!appProperties.getResponseCacheEnabled()) {
+            long start = RequestProfiler.start();
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(users);
+            } finally {
+                RequestProfiler.stop(Stage.SERIALIZE, start);
+            }
+            writeBody(response, body, null);
+            return;
+        }
+
+        long start = RequestProfiler.start();
+        Entry entry;
+        try {
+            entry = lookup(endpoint, users);
+        } finally {
+            RequestProfiler.stop(Stage.SERIALIZE, start);
+        }
+        boolean gzip = entry.gzip != null && acceptsGzip(request);
+        String etag = gzip ? entry.gzipEtag : entry.etag;
+        if (entry.gzip != null) {
+            // Sent on every response, 304s included, so shared caches key
+            // the two encodings apart.
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (notModified(request, etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        if (gzip) {
+            writeBody(response, entry.gzip, "gzip");
+        } else {
+            writeBody(response, entry.json, null);
+        }
+    }
+
+    // The body stays in the off-heap snapshot and is sent uncompressed; no
+    // copy of it is kept on the heap. The snapshot's version is the list's
+    // fingerprint, so nothing needs hashing here.
+    private void writeOffHeap(OffHeapUsers snapshot, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String etag = etag(snapshot.version(), "");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (notModified(request, etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLengthLong(snapshot.jsonLength());
+        long start = RequestProfiler.start();
+        try {
+            snapshot.writeJsonTo(response.getOutputStream());
+        } finally {
+            RequestProfiler.stop(Stage.RESPONSE_WRITE, start);
+        }
+    }
+
+    private Entry lookup(String endpoint, List<User> users) throws IOException {
+        long version = fingerprint(users);
+        Entry entry = entries.get(endpoint);
+        if (entry != null && entry.version == version) {
+            return entry;
+        }
+        byte[] json = objectMapper.writeValueAsBytes(users);
+        byte[] gzip = appProperties.getResponseCacheGzip() ? gzip(json) : null;
+        entry = new Entry(version, json, gzip);
+        entries.put(endpoint, entry);
+        return entry;
+    }
+
+    /**
+     * Dataset version, also used as the ETag and the off-heap snapshot
+     * version: a 64-bit hash over every character of every field, with field
+     * lengths mixed in so boundaries count. String.hashCode() is not used
+     * because it collides trivially ("Aa" and "BB"), and a collision would
+     * keep serving a stale body under a still-valid ETag.
+     */
+    public static long fingerprint(List<User> users) {
+        long h = FNV_OFFSET ^ users.size();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            h = hash(h, user.getId());
+            h = hash(h, user.getName());
+            h = hash(h, user.getEmail());
+        }
+        return finish(h);
+    }
+
+    // FNV-1a over UTF-16 code units, preceded by the length (-1 for null).
+    private static long hash(long h, String value) {
+        int length = value == null ? -1 : value.length();
+        h = (h ^ length) * FNV_PRIME;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    // Final avalanche (from MurmurHash3's fmix64) so nearby lists spread out.
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    // If-None-Match is "*" or a comma-separated list of entity tags, and
+    // compares weakly: a W/ prefix on either side is ignored.
+    private static boolean notModified(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (header == null) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || opaque(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    // Each encoding is its own representation, so gzip gets a distinct tag.
+    private static String etag(long version, String suffix) {
+        return "\"" + Long.toHexString(version) + suffix + "\"";
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeBody(HttpServletResponse response, byte[] body, String encoding) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        response.setContentLength(body.length);
+        long start = RequestProfiler.start();
+        try {
+            response.getOutputStream().write(body);
+        } finally {
+            RequestProfiler.stop(Stage.RESPONSE_WRITE, start);
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        Entry(long version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag(version, "");
+            this.gzipEtag = etag(version, "-gzip");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.apo.sandbox.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk form of {@link OffHeapUsers}.
+ *
+ * The file is a 64-byte header followed by the chunk length table, the slot
+ * table, the hash table and the record chunks, all little-endian. The
+ * tables each start on an 8-byte boundary, since they are read as longs and
+ * ints; the chunks are plain bytes and follow back to back, unpadded. Because the sections are the in-memory
+ * buffers byte for byte, loading is a set of read-only mappings and the
+ * users can be served from the page cache straight away. A CRC32C over
+ * everything after the header, and one over the header itself, catch torn
+ * or corrupted files. Files are written next to the target and renamed into
+ * place, so readers never see a partial snapshot.
+ *
+ * Header: magic, format, data CRC, version, users, chunks, slot capacity,
+ * reserved, JSON length, created-at millis, header CRC.
+ */
+public final class UserSnapshotFile {
+    private static final int MAGIC = 0x504E5355; // "USNP"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int HEADER_CRC_OFFSET = 56;
+
+    private UserSnapshotFile() {
+    }
+
+    public static UserSnapshotInfo write(OffHeapUsers users, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer[] chunks = users.chunks();
+        long createdAt = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer table = ByteBuffer.allocate(chunks.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (ByteBuffer chunk : chunks) {
+                table.putLong(chunk.remaining());
+            }
+            table.flip();
+
+            CRC32C crc = new CRC32C();
+            channel.position(HEADER_BYTES);
+            writeFully(channel, table, crc);
+            writeFully(channel, users.slotBytes(), crc);
+            writeFully(channel, users.hashBytes(), crc);
+            for (ByteBuffer chunk : chunks) {
+                writeFully(channel, chunk, crc);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC)
+                    .putInt(FORMAT)
+                    .putLong(crc.getValue())
+                    .putLong(users.version())
+                    .putInt(users.size())
+                    .putInt(chunks.length)
+                    .putInt(users.capacity())
+                    .putInt(0)
+                    .putLong(users.jsonLength())
+                    .putLong(createdAt);
+            header.putLong(HEADER_CRC_OFFSET, checksum(header, HEADER_CRC_OFFSET));
+            header.clear();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new UserSnapshotInfo(path.toString(), Files.size(path), users.size(), users.version(),
+                Instant.ofEpochMilli(createdAt));
+    }
+
+    /** Maps the file read-only; verify re-checks the data CRC, which reads every page once. */
+    public static OffHeapUsers map(Path path, boolean verify) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = readHeader(channel, path);
+
+            int chunkCount = header.getInt(28);
+            int capacity = header.getInt(32);
+            if (chunkCount < 0 || capacity < 16 || Integer.bitCount(capacity) != 1) {
+                throw new IOException(path + " has an invalid index layout");
+            }
+            long position = HEADER_BYTES;
+            ByteBuffer table = map(channel, position, (long) chunkCount * Long.BYTES);
+            position += table.capacity();
+            ByteBuffer slots = map(channel, position, (long) capacity * Long.BYTES);
+            position += slots.capacity();
+            ByteBuffer hashes = map(channel, position, (long) capacity * Integer.BYTES);
+            position += hashes.capacity();
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long length = table.getLong(i * Long.BYTES);
+                if (length < 0 || position + length > fileSize) {
+                    throw new IOException(path + " is truncated");
+                }
+                chunks[i] = map(channel, position, length);
+                position += length;
+            }
+            if (position != fileSize) {
+                throw new IOException(path + " is " + fileSize + " bytes, expected " + position);
+            }
+
+            if (verify) {
+                CRC32C crc = new CRC32C();
+                crc.update(table.duplicate());
+                crc.update(slots.duplicate());
+                crc.update(hashes.duplicate());
+                for (ByteBuffer chunk : chunks) {
+                    crc.update(chunk.duplicate());
+                }
+                if (crc.getValue() != header.getLong(8)) {
+                    throw new IOException(path + " failed its data checksum");
+                }
+            }
+            return new OffHeapUsers(header.getLong(16), chunks, slots, hashes, header.getInt(24),
+                    header.getLong(40), true);
+        }
+    }
+
+    /** Header fields only, without mapping or verifying the data. */
+    public static UserSnapshotInfo inspect(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel, path);
+            return new UserSnapshotInfo(path.toString(), channel.size(), header.getInt(24), header.getLong(16),
+                    Instant.ofEpochMilli(header.getLong(48)));
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException(path + " is too short to be a user snapshot");
+            }
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a user snapshot");
+        }
+        if (header.getInt(4) != FORMAT) {
+            throw new IOException(path + " has unsupported snapshot format " + header.getInt(4));
+        }
+        if (header.getLong(HEADER_CRC_OFFSET) != checksum(header, HEADER_CRC_OFFSET)) {
+            throw new IOException(path + " failed its header checksum");
+        }
+        return header;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long checksum(ByteBuffer header, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(header.duplicate().position(0).limit(length));
+        return crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
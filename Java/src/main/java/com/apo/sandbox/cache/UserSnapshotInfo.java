@@ -0,0 +1,42 @@
+package com.apo.sandbox.cache;
+
+import java.time.Instant;
+
+/**
+ * Header of a user snapshot file for the /api/snapshot endpoints.
+ */
+public class UserSnapshotInfo {
+    private final String path;
+    private final long fileBytes;
+    private final int users;
+    private final String version;
+    private final Instant createdAt;
+
+    public UserSnapshotInfo(String path, long fileBytes, int users, long version, Instant createdAt) {
+        this.path = path;
+        this.fileBytes = fileBytes;
+        this.users = users;
+        this.version = Long.toHexString(version);
+        this.createdAt = createdAt;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
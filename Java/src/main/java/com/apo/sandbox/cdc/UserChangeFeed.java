@@ -0,0 +1,219 @@
+package com.apo.sandbox.cdc;
+
+import com.apo.sandbox.cache.OffHeapUserStore;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.IDatabaseClient;
+import com.apo.sandbox.dao.IRedisClient;
+import com.apo.sandbox.model.User;
+import com.apo.sandbox.model.UserChange;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the Redis user cache in step with the MySQL users table.
+ *
+ * Changes are captured by triggers into users_outbox and polled here in
+ * batches. Each batch is applied to the per-user keys, the ID index is
+ * rewritten once, and the cursor (kept in Redis next to the data it
+ * describes) is advanced. If the cursor is missing, because the cache was
+ * never synced or Redis was flushed, the whole table is copied once and
+ * incremental polling resumes from the outbox head.
+ *
+ * Outbox seqs are allocated at insert time but become visible at commit, so
+ * a lower seq can show up after higher ones. The cursor therefore only moves
+ * over an unbroken run of seqs; rows above a hole are applied but re-read on
+ * the next poll, and a hole is given up on, as a rolled-back insert, only
+ * once it is older than CDC_GAP_TIMEOUT_MS. Rows are purged up to the cursor
+ * and never past a hole that may still fill. A Redis lease keeps instances
+ * from polling and purging concurrently.
+ *
+ * Polling runs every CDC_POLL_INTERVAL_MS on a thread of its own: a poll can
+ * wait on an exhausted MySQL pool for the whole connection timeout, and the
+ * shared Spring scheduler is what PoolController grows the pool from.
+ */
+@Component
+public class UserChangeFeed {
+    private static final Logger log = LoggerFactory.getLogger(UserChangeFeed.class);
+    private static final String LEASE_KEY = "user_ids:cdc_lease";
+    private final IRedisClient redisClient;
+    private final IDatabaseClient dbClient;
+    private final AppProperties appProperties;
+    private final OffHeapUserStore offHeapUserStore;
+    private final String owner = UUID.randomUUID().toString();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "user-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // First seq of each open hole -> when this instance first saw it.
+    private final Map<Long, Long> gapsSeenNanos = new HashMap<>();
+    private long appliedThrough = -1;
+
+    public UserChangeFeed(IRedisClient redisClient, IDatabaseClient dbClient, AppProperties appProperties,
+                          OffHeapUserStore offHeapUserStore) {
+        this.redisClient = redisClient;
+        this.dbClient = dbClient;
+        this.appProperties = appProperties;
+        this.offHeapUserStore = offHeapUserStore;
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = Math.max(10, appProperties.getCdcPollIntervalMs());
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    public void poll() {
+        if (!appProperties.getCdcEnabled() || redisClient.isMock() || !dbClient.isConnected()) {
+            return;
+        }
+        try {
+            if (!redisClient.tryLease(LEASE_KEY, owner, appProperties.getCdcLeaseMs())) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Failed to take the change feed lease: {}", e.getMessage());
+            return;
+        }
+        try {
+            pollOnce();
+        } catch (Exception e) {
+            log.error("Failed to apply user change feed: {}", e.getMessage());
+        } finally {
+            try {
+                redisClient.releaseLease(LEASE_KEY, owner);
+            } catch (Exception e) {
+                log.warn("Failed to release the change feed lease: {}", e.getMessage());
+            }
+        }
+    }
+
+    synchronized void pollOnce() throws Exception {
+        Long cursor = redisClient.getChangeCursor();
+        if (cursor == null) {
+            fullSync();
+            return;
+        }
+        int batchSize = appProperties.getCdcBatchSize();
+        long now = System.nanoTime();
+        long readFrom = cursor;
+        long watermark = cursor;
+        boolean blocked = false;
+        List<UserChange> changes;
+        do {
+            changes = dbClient.getUserChanges(readFrom, batchSize);
+            if (changes == null || changes.isEmpty()) {
+                break;
+            }
+            apply(changes);
+            long previous = readFrom;
+            for (UserChange change : changes) {
+                long seq = change.getSeq();
+                if (seq > previous + 1) {
+                    gapsSeenNanos.putIfAbsent(previous + 1, now);
+                }
+                previous = seq;
+                if (blocked) {
+                    continue;
+                }
+                if (seq == watermark + 1 || gapExpired(watermark + 1, seq, now)) {
+                    watermark = seq;
+                } else {
+                    blocked = true;
+                }
+            }
+            readFrom = previous;
+        } while (changes.size() == batchSize);
+
+        if (watermark > cursor) {
+            long applied = watermark;
+            gapsSeenNanos.keySet().removeIf(seq -> seq <= applied);
+            redisClient.setChangeCursor(watermark);
+            dbClient.purgeUserChanges(watermark);
+            offHeapUserStore.invalidate();
+        }
+    }
+
+    // True once the hole [from, to) has been open longer than the timeout,
+    // and never on the poll that found it.
+    private boolean gapExpired(long from, long to, long now) {
+        Long seen = gapsSeenNanos.get(from);
+        if (seen == null || seen == now || now - seen < appProperties.getCdcGapTimeoutMs() * 1_000_000L) {
+            return false;
+        }
+        log.warn("Change feed skipped seqs {}..{}: not committed after {} ms, assumed rolled back.", from, to - 1,
+                appProperties.getCdcGapTimeoutMs());
+        return true;
+    }
+
+    // Outbox rows are left in place: one below the head that commits after
+    // the copy is still replayed from here.
+    private void fullSync() throws Exception {
+        // Read the head first so changes racing with the copy are replayed afterwards.
+        long head = dbClient.getLatestChangeSeq();
+        List<User> users = dbClient.getUsers();
+        if (head < 0 || users == null) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(users.size());
+        for (User user : users) {
+            redisClient.setUser(user);
+            ids.add(user.getId());
+        }
+        redisClient.setUserIDs(ids);
+        redisClient.setChangeCursor(head);
+        gapsSeenNanos.clear();
+        appliedThrough = head;
+        offHeapUserStore.invalidate();
+        log.info("Full sync copied {} users into Redis; change feed resumes after seq {}.", users.size(), head);
+    }
+
+    // Applying is idempotent, so rows re-read above an open hole are simply
+    // written again, in seq order.
+    private void apply(List<UserChange> changes) throws Exception {
+        List<String> current = redisClient.getUserIDs();
+        Set<String> ids = current == null ? new LinkedHashSet<>() : new LinkedHashSet<>(current);
+        int upserts = 0;
+        int deletes = 0;
+        for (UserChange change : changes) {
+            User user = change.getUser();
+            if (change.getOp() == UserChange.Op.DELETE) {
+                redisClient.deleteUser(user.getId());
+                ids.remove(user.getId());
+                deletes++;
+            } else {
+                redisClient.setUser(user);
+                ids.add(user.getId());
+                upserts++;
+            }
+        }
+        long last = changes.get(changes.size() - 1).getSeq();
+        redisClient.setUserIDs(new ArrayList<>(ids));
+        if (last > appliedThrough) {
+            appliedThrough = last;
+            offHeapUserStore.invalidate();
+            log.info("Applied {} upserts and {} deletes from change feed up to seq {}.", upserts, deletes, last);
+        } else {
+            log.debug("Re-applied {} changes above an open gap, up to seq {}.", changes.size(), last);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.apo.sandbox.cluster;
+
+import java.time.Instant;
+
+/**
+ * One instance's report on a {@link ClusterCommand}: when the command
+ * arrived, how far from startAt the local operation was fired, and how long
+ * it then queued and took to apply. activeAt is when the fault was in
+ * effect on that instance.
+ */
+public class ClusterAck {
+    public enum Status {
+        APPLIED,
+        FAILED,
+        REJECTED
+    }
+
+    private String commandId;
+    private String instance;
+    private Status status;
+    private Instant receivedAt;
+    private Instant firedAt;
+    private Instant activeAt;
+    private double skewMs;
+    private double queuedMs;
+    private double applyMs;
+    private String error;
+
+    public ClusterAck() {
+    }
+
+    public String getCommandId() {
+        return commandId;
+    }
+
+    public void setCommandId(String commandId) {
+        this.commandId = commandId;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public void setInstance(String instance) {
+        this.instance = instance;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Instant receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public Instant getFiredAt() {
+        return firedAt;
+    }
+
+    public void setFiredAt(Instant firedAt) {
+        this.firedAt = firedAt;
+    }
+
+    public Instant getActiveAt() {
+        return activeAt;
+    }
+
+    public void setActiveAt(Instant activeAt) {
+        this.activeAt = activeAt;
+    }
+
+    public double getSkewMs() {
+        return skewMs;
+    }
+
+    public void setSkewMs(double skewMs) {
+        this.skewMs = skewMs;
+    }
+
+    public double getQueuedMs() {
+        return queuedMs;
+    }
+
+    public void setQueuedMs(double queuedMs) {
+        this.queuedMs = queuedMs;
+    }
+
+    public double getApplyMs() {
+        return applyMs;
+    }
+
+    public void setApplyMs(double applyMs) {
+        this.applyMs = applyMs;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.apo.sandbox.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Topic-based messaging between sandbox instances. A published message is
+ * delivered to every subscriber of the topic, the publishing instance
+ * included, so each instance handles its own broadcasts the same way as
+ * everyone else's.
+ */
+public interface ClusterChannel {
+
+    void publish(String topic, String message) throws Exception;
+
+    // Handlers run on the channel's delivery thread and must not block.
+    void subscribe(String topic, Consumer<String> handler);
+
+    // True while published messages reach other instances.
+    boolean isShared();
+
+    String getName();
+}
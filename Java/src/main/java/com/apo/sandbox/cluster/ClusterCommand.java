@@ -0,0 +1,92 @@
+package com.apo.sandbox.cluster;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A fault operation broadcast to every instance, to be applied at startAt.
+ */
+public class ClusterCommand {
+    public enum Type {
+        START,
+        UPDATE,
+        STOP,
+        STOP_ALL
+    }
+
+    private String id;
+    private Type type;
+    private String fault;
+    private Map<String, Object> params;
+    private Long ttlMs;
+    private Instant startAt;
+    private Instant issuedAt;
+    private String origin;
+
+    public ClusterCommand() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getFault() {
+        return fault;
+    }
+
+    public void setFault(String fault) {
+        this.fault = fault;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    public void setParams(Map<String, Object> params) {
+        this.params = params;
+    }
+
+    public Long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(Long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public Instant getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(Instant startAt) {
+        this.startAt = startAt;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(Instant issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+}
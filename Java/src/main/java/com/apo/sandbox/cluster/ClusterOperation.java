@@ -0,0 +1,101 @@
+package com.apo.sandbox.cluster;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A broadcast command as seen by the instance that issued it, with the
+ * acks collected so far. spreadMs is the gap between the first and last
+ * instance on which the fault became active.
+ */
+public class ClusterOperation {
+    private final ClusterCommand command;
+    private final Set<String> expected;
+    private final Map<String, ClusterAck> acks = new ConcurrentHashMap<>();
+
+    ClusterOperation(ClusterCommand command, Set<String> expected) {
+        this.command = command;
+        this.expected = expected;
+    }
+
+    void ack(ClusterAck ack) {
+        acks.put(ack.getInstance(), ack);
+    }
+
+    @JsonIgnore
+    public ClusterCommand getCommand() {
+        return command;
+    }
+
+    public String getId() {
+        return command.getId();
+    }
+
+    public ClusterCommand.Type getType() {
+        return command.getType();
+    }
+
+    public String getFault() {
+        return command.getFault();
+    }
+
+    public Map<String, Object> getParams() {
+        return command.getParams();
+    }
+
+    public Instant getIssuedAt() {
+        return command.getIssuedAt();
+    }
+
+    public Instant getStartAt() {
+        return command.getStartAt();
+    }
+
+    public Set<String> getExpected() {
+        return expected;
+    }
+
+    public Collection<ClusterAck> getAcks() {
+        return acks.values().stream()
+                .sorted((a, b) -> a.getInstance().compareTo(b.getInstance()))
+                .toList();
+    }
+
+    public Set<String> getMissing() {
+        Set<String> missing = new TreeSet<>(expected);
+        missing.removeAll(acks.keySet());
+        return missing;
+    }
+
+    public boolean isComplete() {
+        return acks.keySet().containsAll(expected);
+    }
+
+    public Double getSpreadMs() {
+        List<Instant> active = acks.values().stream()
+                .filter(ack -> ack.getStatus() == ClusterAck.Status.APPLIED && ack.getActiveAt() != null)
+                .map(ClusterAck::getActiveAt)
+                .sorted()
+                .toList();
+        if (active.isEmpty()) {
+            return null;
+        }
+        return Duration.between(active.get(0), active.get(active.size() - 1)).toNanos() / 1_000_000.0;
+    }
+
+    public Double getMaxSkewMs() {
+        return acks.values().stream()
+                .filter(ack -> ack.getStatus() != ClusterAck.Status.REJECTED)
+                .map(ack -> Math.abs(ack.getSkewMs()))
+                .max(Double::compare)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,308 @@
+package com.apo.sandbox.cluster;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.Fault;
+import com.apo.sandbox.fault.FaultManager;
+import com.apo.sandbox.fault.FaultOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies fault operations on every sandbox instance at the same moment.
+ *
+ * A broadcast carries a startAt a short lead (CLUSTER_START_LEAD_MS) in the
+ * future, long enough for the message to reach every subscriber. Each
+ * instance, the issuer included, schedules the matching FaultManager
+ * operation for startAt and, once it has been applied, publishes an ack
+ * with its timings; the issuer collects them on the {@link ClusterOperation}.
+ * startAt is wall-clock time, so the instances' clocks must be kept in sync
+ * (NTP or chrony); the acks' skew shows how well that holds.
+ *
+ * Instances announce themselves every CLUSTER_HEARTBEAT_MS, which is how
+ * the issuer knows whose acks to expect.
+ */
+@Service
+public class FaultCoordinator {
+    private static final Logger log = LoggerFactory.getLogger(FaultCoordinator.class);
+
+    static final String COMMANDS = "sandbox:cluster:faults";
+    static final String ACKS = "sandbox:cluster:acks";
+    static final String HEARTBEATS = "sandbox:cluster:heartbeats";
+    private static final int MAX_OPERATIONS = 100;
+
+    private final ClusterChannel channel;
+    private final FaultManager faultManager;
+    private final ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+    private final String instanceId;
+    private final Map<String, Instant> lastSeen = new ConcurrentHashMap<>();
+    private final Map<String, ClusterOperation> operations = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ClusterOperation> eldest) {
+            return size() > MAX_OPERATIONS;
+        }
+    };
+    private final DistributionSummary skew;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-faults");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FaultCoordinator(ClusterChannel channel, FaultManager faultManager, ObjectMapper objectMapper,
+                            AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.faultManager = faultManager;
+        this.objectMapper = objectMapper;
+        this.appProperties = appProperties;
+        this.instanceId = instanceId(appProperties.getClusterInstanceId());
+        this.skew = DistributionSummary.builder("sandbox.cluster.fault.skew")
+                .description("Distance between a broadcast's startAt and the local fire time")
+                .baseUnit("milliseconds")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        channel.subscribe(COMMANDS, this::onCommand);
+        channel.subscribe(ACKS, this::onAck);
+        channel.subscribe(HEARTBEATS, this::onHeartbeat);
+        warmUpCodecs();
+        lastSeen.put(instanceId, Instant.now());
+        long interval = Math.max(100, appProperties.getClusterHeartbeatMs());
+        scheduler.scheduleAtFixedRate(this::heartbeat, 0, interval, TimeUnit.MILLISECONDS);
+        log.info("Cluster fault coordination as {} over the {} channel.", instanceId, channel.getName());
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Publishes the operation for every instance to apply at now + lead.
+     * Throws IllegalArgumentException for a fault this instance does not
+     * know or a negative lead.
+     */
+    public ClusterOperation broadcast(ClusterCommand.Type type, String fault, Map<String, Object> params,
+                                      Duration ttl, Duration lead) throws Exception {
+        if (type != ClusterCommand.Type.STOP_ALL && faultManager.getFault(fault) == null) {
+            throw new IllegalArgumentException("unknown fault: " + fault);
+        }
+        Duration startLead = lead == null ? Duration.ofMillis(appProperties.getClusterStartLeadMs()) : lead;
+        if (startLead.isNegative()) {
+            throw new IllegalArgumentException("lead must not be negative");
+        }
+        Instant now = Instant.now();
+        ClusterCommand command = new ClusterCommand();
+        command.setId(UUID.randomUUID().toString());
+        command.setType(type);
+        command.setFault(fault);
+        command.setParams(params == null ? Map.of() : params);
+        command.setTtlMs(ttl == null ? null : ttl.toMillis());
+        command.setIssuedAt(now);
+        command.setStartAt(now.plus(startLead));
+        command.setOrigin(instanceId);
+
+        ClusterOperation operation = new ClusterOperation(command, getLiveInstances().keySet());
+        synchronized (operations) {
+            operations.put(command.getId(), operation);
+        }
+        channel.publish(COMMANDS, objectMapper.writeValueAsString(command));
+        return operation;
+    }
+
+    public ClusterOperation getOperation(String id) {
+        synchronized (operations) {
+            return operations.get(id);
+        }
+    }
+
+    // Most recent first.
+    public List<ClusterOperation> getOperations() {
+        List<ClusterOperation> recent;
+        synchronized (operations) {
+            recent = new ArrayList<>(operations.values());
+        }
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    // Instances heard from within three heartbeat intervals, with when.
+    public Map<String, Instant> getLiveInstances() {
+        Instant cutoff = Instant.now().minusMillis(3 * Math.max(100, appProperties.getClusterHeartbeatMs()));
+        Map<String, Instant> live = new LinkedHashMap<>();
+        new TreeSet<>(lastSeen.keySet()).forEach(instance -> {
+            Instant seen = lastSeen.get(instance);
+            if (instance.equals(instanceId) || (seen != null && seen.isAfter(cutoff))) {
+                live.put(instance, seen);
+            }
+        });
+        return live;
+    }
+
+    public boolean isShared() {
+        return channel.isShared();
+    }
+
+    public String getChannelName() {
+        return channel.getName();
+    }
+
+    private void onCommand(String message) {
+        Instant receivedAt = Instant.now();
+        ClusterCommand command;
+        try {
+            command = objectMapper.readValue(message, ClusterCommand.class);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cluster command: {}", e.getMessage());
+            return;
+        }
+        long delayNanos = Duration.between(Instant.now(), command.getStartAt()).toNanos();
+        if (delayNanos < 0) {
+            log.warn("Cluster command {} arrived {} ms after its start time", command.getId(),
+                    -delayNanos / 1_000_000.0);
+        }
+        scheduler.schedule(() -> fire(command, receivedAt), Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    private void fire(ClusterCommand command, Instant receivedAt) {
+        Instant firedAt = Instant.now();
+        ClusterAck ack = new ClusterAck();
+        ack.setCommandId(command.getId());
+        ack.setInstance(instanceId);
+        ack.setReceivedAt(receivedAt);
+        ack.setFiredAt(firedAt);
+        ack.setSkewMs(Duration.between(command.getStartAt(), firedAt).toNanos() / 1_000_000.0);
+
+        List<FaultOperation> submitted;
+        try {
+            submitted = submit(command);
+        } catch (IllegalArgumentException e) {
+            ack.setStatus(ClusterAck.Status.REJECTED);
+            ack.setError(e.getMessage());
+            publishAck(ack);
+            return;
+        }
+        skew.record(ack.getSkewMs());
+        CompletableFuture.allOf(submitted.stream().map(FaultOperation::getCompletion)
+                        .toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, failure) -> {
+                    double queued = 0;
+                    double apply = 0;
+                    String error = null;
+                    for (FaultOperation operation : submitted) {
+                        queued = Math.max(queued, operation.getQueuedMs());
+                        apply = Math.max(apply, operation.getApplyMs());
+                        if (operation.getStatus() == FaultOperation.Status.FAILED && error == null) {
+                            error = operation.getFault() + ": " + operation.getError();
+                        }
+                    }
+                    ack.setQueuedMs(queued);
+                    ack.setApplyMs(apply);
+                    ack.setActiveAt(firedAt.plusNanos((long) ((queued + apply) * 1_000_000)));
+                    ack.setStatus(error == null ? ClusterAck.Status.APPLIED : ClusterAck.Status.FAILED);
+                    ack.setError(error);
+                    publishAck(ack);
+                });
+    }
+
+    private List<FaultOperation> submit(ClusterCommand command) {
+        Map<String, Object> params = command.getParams() == null ? Map.of() : command.getParams();
+        return switch (command.getType()) {
+            case START -> List.of(faultManager.startFaultAsync(command.getFault(), params,
+                    command.getTtlMs() == null ? null : Duration.ofMillis(command.getTtlMs())));
+            case UPDATE -> List.of(faultManager.updateFaultAsync(command.getFault(), params));
+            case STOP -> List.of(faultManager.stopFaultAsync(command.getFault()));
+            case STOP_ALL -> faultManager.getFaults().values().stream()
+                    .filter(Fault::isActive)
+                    .map(fault -> faultManager.stopFaultAsync(fault.getName()))
+                    .toList();
+        };
+    }
+
+    private void publishAck(ClusterAck ack) {
+        try {
+            channel.publish(ACKS, objectMapper.writeValueAsString(ack));
+        } catch (Exception e) {
+            log.warn("Could not publish ack for cluster command {}: {}", ack.getCommandId(), e.getMessage());
+        }
+    }
+
+    private void onAck(String message) {
+        try {
+            ClusterAck ack = objectMapper.readValue(message, ClusterAck.class);
+            ClusterOperation operation = getOperation(ack.getCommandId());
+            if (operation != null) {
+                operation.ack(ack);
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cluster ack: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        try {
+            channel.publish(HEARTBEATS, instanceId);
+        } catch (Exception e) {
+            log.debug("Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void onHeartbeat(String instance) {
+        lastSeen.put(instance, Instant.now());
+    }
+
+    // Builds the Jackson (de)serializers now, so the first broadcast does not
+    // spend its lead on them.
+    private void warmUpCodecs() {
+        try {
+            ClusterCommand command = new ClusterCommand();
+            command.setType(ClusterCommand.Type.START);
+            command.setStartAt(Instant.now());
+            objectMapper.readValue(objectMapper.writeValueAsString(command), ClusterCommand.class);
+            ClusterAck ack = new ClusterAck();
+            ack.setStatus(ClusterAck.Status.APPLIED);
+            ack.setFiredAt(Instant.now());
+            objectMapper.readValue(objectMapper.writeValueAsString(ack), ClusterAck.class);
+        } catch (Exception e) {
+            log.debug("Cluster codec warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private static String instanceId(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "sandbox";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.apo.sandbox.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Channel that never leaves the JVM. Messages are handed to subscribers on
+ * a delivery thread, as with Redis, so a single instance (or several
+ * coordinators sharing one channel) behaves like a cluster without a
+ * broker.
+ */
+public class InMemoryClusterChannel implements ClusterChannel {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryClusterChannel.class);
+
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-channel");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void publish(String topic, String message) {
+        delivery.execute(() -> deliver(handlers, topic, message));
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> handler) {
+        handlers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    public void close() {
+        delivery.shutdownNow();
+    }
+
+    static void deliver(Map<String, List<Consumer<String>>> handlers, String topic, String message) {
+        for (Consumer<String> handler : handlers.getOrDefault(topic, List.of())) {
+            try {
+                handler.accept(message);
+            } catch (Exception e) {
+                log.warn("Cluster handler for {} failed: {}", topic, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.apo.sandbox.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub over a small pool of its own.
+ *
+ * The pool should reach Redis itself (REDIS_DIRECT_ADDR): the Go fault
+ * proxy does not relay pushed messages, and the subscriber holds its
+ * connection for as long as it is subscribed, which should not come out of
+ * the request pool. A subscriber thread keeps one connection subscribed to
+ * every registered topic and delivers messages inline, resubscribing when
+ * the connection drops.
+ *
+ * Once subscribed, the channel publishes a probe of its own and only counts
+ * as shared when that probe comes back, so a path that accepts commands but
+ * never delivers messages is not taken for a working one. Until then
+ * published messages are delivered to this instance only, so a lone
+ * sandbox keeps working and the acks show who was reached.
+ */
+public class RedisClusterChannel implements ClusterChannel {
+    private static final Logger log = LoggerFactory.getLogger(RedisClusterChannel.class);
+    static final String PROBE = "sandbox:cluster:probe";
+    private static final long RETRY_MS = 1000;
+
+    private final JedisPool pool;
+    private final String probeToken = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private final ExecutorService localDelivery = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-local");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread subscriber;
+    private volatile Subscription subscription;
+    private volatile boolean running = true;
+
+    public RedisClusterChannel(JedisPool pool) {
+        this.pool = pool;
+        this.subscriber = new Thread(this::run, "cluster-subscriber");
+        this.subscriber.setDaemon(true);
+        this.subscriber.start();
+    }
+
+    @Override
+    public void publish(String topic, String message) {
+        if (isShared()) {
+            try (Jedis jedis = pool.getResource()) {
+                jedis.publish(topic, message);
+                return;
+            } catch (Exception e) {
+                log.warn("Publishing to {} failed, delivering locally only: {}", topic, e.getMessage());
+            }
+        }
+        localDelivery.execute(() -> InMemoryClusterChannel.deliver(handlers, topic, message));
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> handler) {
+        handlers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(handler);
+        Subscription current = subscription;
+        if (current != null && current.isSubscribed()) {
+            current.subscribe(topic);
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        Subscription current = subscription;
+        return current != null && current.confirmed;
+    }
+
+    @Override
+    public String getName() {
+        return "redis";
+    }
+
+    public void close() {
+        running = false;
+        Subscription current = subscription;
+        if (current != null && current.isSubscribed()) {
+            current.unsubscribe();
+        }
+        subscriber.interrupt();
+        localDelivery.shutdownNow();
+        pool.close();
+    }
+
+    private void run() {
+        while (running) {
+            Subscription current = new Subscription();
+            subscription = current;
+            try (Jedis jedis = pool.getResource()) {
+                jedis.subscribe(current, topics());
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Cluster subscription lost: {}", e.getMessage());
+                }
+            } finally {
+                current.confirmed = false;
+                subscription = null;
+            }
+            try {
+                Thread.sleep(RETRY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // The probe goes last, so its confirmation means the rest are subscribed too.
+    private String[] topics() {
+        List<String> topics = new ArrayList<>(handlers.keySet());
+        topics.add(PROBE);
+        return topics.toArray(String[]::new);
+    }
+
+    private void probe() {
+        try (Jedis jedis = pool.getResource()) {
+            jedis.publish(PROBE, probeToken);
+        } catch (Exception e) {
+            log.warn("Cluster probe failed, staying local: {}", e.getMessage());
+        }
+    }
+
+    private final class Subscription extends JedisPubSub {
+        private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+        private volatile boolean confirmed;
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            subscribed.add(channel);
+            if (!PROBE.equals(channel)) {
+                return;
+            }
+            // Topics registered while the first SUBSCRIBE was in flight.
+            if (isSubscribed()) {
+                for (String topic : handlers.keySet()) {
+                    if (!subscribed.contains(topic)) {
+                        subscribe(topic);
+                    }
+                }
+            }
+            localDelivery.execute(RedisClusterChannel.this::probe);
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            if (!PROBE.equals(channel)) {
+                InMemoryClusterChannel.deliver(handlers, channel, message);
+            } else if (probeToken.equals(message) && !confirmed) {
+                confirmed = true;
+                log.info("Cluster topics are shared over Redis: this instance's probe came back.");
+            }
+        }
+    }
+}
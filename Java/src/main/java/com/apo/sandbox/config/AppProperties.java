@@ -16,6 +16,11 @@ public class AppProperties {
     @Value("${REDIS_PASSWORD:}")
     private String redisPassword;
 
+    // host:port of Redis itself when REDIS_HOST:REDIS_PORT is the Go fault
+    // proxy; empty when the app talks to Redis directly.
+    @Value("${REDIS_DIRECT_ADDR:}")
+    private String redisDirectAddr;
+
     // --- Faults Configuration ---
     @Value("${CPU_FAULT_DEFAULT_DURATION:200}")
     private int cpuFaultDefaultDuration;
@@ -29,6 +34,11 @@ public class AppProperties {
     @Value("${REDIS_FAULT_DEFAULT_DELAY:100}")
     private int redisFaultDefaultDelay;
 
+    // How long mode=1 requests wait after a failed on-demand fault start
+    // before trying again.
+    @Value("${FAULT_RETRY_BACKOFF_MS:30000}")
+    private long faultRetryBackoffMs;
+
     // --- Toxiproxy Configuration ---
     @Value("${PROXY_ADDR:localhost:8474}")
     private String proxyAddr;
@@ -39,6 +49,242 @@ public class AppProperties {
     @Value("${DEPLOY_PROXY:false}")
     private Boolean deployProxy;
 
+    @Value("${PROXY_DB_LISTEN_ADDR:localhost:13306}")
+    private String proxyDbListenAddr;
+
+    // Connections to the Toxiproxy Redis listener, on top of REDIS_POOL_MAX_SIZE.
+    @Value("${REDIS_PROXY_POOL_SIZE:16}")
+    private int redisProxyPoolSize;
+
+    // --- Pool Autosizing Configuration ---
+    @Value("${POOL_AUTOSIZE_ENABLED:true}")
+    private Boolean poolAutosizeEnabled;
+
+    @Value("${POOL_TARGET_BORROW_WAIT_MS:5}")
+    private int poolTargetBorrowWaitMs;
+
+    @Value("${REDIS_POOL_MIN_SIZE:10}")
+    private int redisPoolMinSize;
+
+    @Value("${REDIS_POOL_MAX_SIZE:64}")
+    private int redisPoolMaxSize;
+
+    @Value("${DB_POOL_MIN_SIZE:1}")
+    private int dbPoolMinSize;
+
+    @Value("${DB_POOL_MAX_SIZE:32}")
+    private int dbPoolMaxSize;
+
+    // --- Admission Control Configuration ---
+    @Value("${ADMISSION_ENABLED:true}")
+    private Boolean admissionEnabled;
+
+    @Value("${ADMISSION_INITIAL_LIMIT:20}")
+    private int admissionInitialLimit;
+
+    @Value("${ADMISSION_MIN_LIMIT:2}")
+    private int admissionMinLimit;
+
+    @Value("${ADMISSION_MAX_LIMIT:150}")
+    private int admissionMaxLimit;
+
+    @Value("${ADMISSION_LATENCY_TARGET_MS:1000}")
+    private int admissionLatencyTargetMs;
+
+    @Value("${ADMISSION_RESERVED_THREADS:10}")
+    private int admissionReservedThreads;
+
+    @Value("${ADMISSION_RETRY_AFTER_SECONDS:1}")
+    private int admissionRetryAfterSeconds;
+
+    // --- Change Feed Configuration ---
+    @Value("${CDC_ENABLED:true}")
+    private Boolean cdcEnabled;
+
+    @Value("${CDC_BATCH_SIZE:500}")
+    private int cdcBatchSize;
+
+    @Value("${CDC_POLL_INTERVAL_MS:500}")
+    private long cdcPollIntervalMs;
+
+    // How long a hole in the outbox sequence is waited for before it is
+    // taken to be a rolled-back insert; longer than any users transaction.
+    @Value("${CDC_GAP_TIMEOUT_MS:10000}")
+    private long cdcGapTimeoutMs;
+
+    @Value("${CDC_LEASE_MS:30000}")
+    private long cdcLeaseMs;
+
+    // --- Response Cache Configuration ---
+    @Value("${RESPONSE_CACHE_ENABLED:true}")
+    private Boolean responseCacheEnabled;
+
+    @Value("${RESPONSE_CACHE_GZIP:true}")
+    private Boolean responseCacheGzip;
+
+    // --- Memory Fault Configuration ---
+    @Value("${MEMORY_FAULT_DEFAULT_RATE_MB:50}")
+    private int memoryFaultDefaultRateMb;
+
+    @Value("${MEMORY_FAULT_DEFAULT_RETAIN_MB:128}")
+    private int memoryFaultDefaultRetainMb;
+
+    // --- Disk I/O Fault Configuration ---
+    @Value("${DISK_FAULT_DIR:/tmp/sandbox-disk-fault}")
+    private String diskFaultDir;
+
+    @Value("${DISK_FAULT_SCRATCH_MB:512}")
+    private int diskFaultScratchMb;
+
+    @Value("${DISK_FAULT_DEFAULT_RATE_MB:50}")
+    private int diskFaultDefaultRateMb;
+
+    // --- Scenario Configuration ---
+    @Value("${SCENARIO_DIR:scenarios}")
+    private String scenarioDir;
+
+    // --- Request-Scoped Fault Configuration ---
+    @Value("${REQUEST_FAULTS_ENABLED:false}")
+    private Boolean requestFaultsEnabled;
+
+    @Value("${REQUEST_FAULT_MAX_DELAY_MS:10000}")
+    private long requestFaultMaxDelayMs;
+
+    // --- Request Profiler Configuration ---
+    @Value("${PROFILER_ENABLED:true}")
+    private Boolean profilerEnabled;
+
+    @Value("${PROFILER_SLOWEST_N:20}")
+    private int profilerSlowestN;
+
+    @Value("${PROFILER_OTLP_ENDPOINT:}")
+    private String profilerOtlpEndpoint;
+
+    @Value("${PROFILER_EXPORT_THRESHOLD_MS:100}")
+    private long profilerExportThresholdMs;
+
+    // --- Warm-up Configuration ---
+    @Value("${WARMUP_ENABLED:true}")
+    private Boolean warmupEnabled;
+
+    @Value("${WARMUP_REQUESTS:2000}")
+    private int warmupRequests;
+
+    @Value("${WARMUP_CONCURRENCY:4}")
+    private int warmupConcurrency;
+
+    @Value("${WARMUP_MAX_SECONDS:30}")
+    private int warmupMaxSeconds;
+
+    // --- Backend Health Monitor Configuration ---
+    @Value("${HEALTH_CHECK_INTERVAL_MS:1000}")
+    private long healthCheckIntervalMs;
+
+    @Value("${HEALTH_FAILURE_THRESHOLD:2}")
+    private int healthFailureThreshold;
+
+    @Value("${HEALTH_BACKOFF_INITIAL_MS:1000}")
+    private long healthBackoffInitialMs;
+
+    @Value("${HEALTH_BACKOFF_MAX_MS:30000}")
+    private long healthBackoffMaxMs;
+
+    // --- User Lookup Batching Configuration ---
+    @Value("${USER_BATCH_WINDOW_MICROS:1000}")
+    private long userBatchWindowMicros;
+
+    @Value("${USER_BATCH_MAX_KEYS:100}")
+    private int userBatchMaxKeys;
+
+    @Value("${USER_BATCH_DISPATCH_THREADS:4}")
+    private int userBatchDispatchThreads;
+
+    // Lookups waiting for a batch, and closed batches waiting for a dispatch
+    // thread; beyond either bound new lookups fail fast.
+    @Value("${USER_BATCH_QUEUE_SIZE:10000}")
+    private int userBatchQueueSize;
+
+    @Value("${USER_BATCH_DISPATCH_QUEUE_SIZE:64}")
+    private int userBatchDispatchQueueSize;
+
+    @Value("${USER_LOOKUP_TIMEOUT_MS:3000}")
+    private long userLookupTimeoutMs;
+
+    // --- User write group commit ---
+    @Value("${USER_WRITE_BATCH_WINDOW_MICROS:2000}")
+    private long userWriteBatchWindowMicros;
+
+    @Value("${USER_WRITE_BATCH_MAX_ROWS:200}")
+    private int userWriteBatchMaxRows;
+
+    @Value("${USER_WRITE_QUEUE_CAPACITY:10000}")
+    private int userWriteQueueCapacity;
+
+    @Value("${USER_WRITE_TIMEOUT_MS:5000}")
+    private long userWriteTimeoutMs;
+
+    // --- Off-heap user store ---
+    @Value("${USER_STORE_OFFHEAP_ENABLED:false}")
+    private Boolean userStoreOffHeapEnabled;
+
+    @Value("${USER_STORE_OFFHEAP_CHUNK_MB:64}")
+    private int userStoreOffHeapChunkMb;
+
+    // --- User snapshot file ---
+    @Value("${USER_SNAPSHOT_PATH:}")
+    private String userSnapshotPath;
+
+    @Value("${USER_SNAPSHOT_VERIFY:true}")
+    private Boolean userSnapshotVerify;
+
+    @Value("${USER_SNAPSHOT_RESTORE_TARGETS:redis,mysql}")
+    private String userSnapshotRestoreTargets;
+
+    @Value("${USER_SNAPSHOT_BATCH_SIZE:1000}")
+    private int userSnapshotBatchSize;
+
+    // --- Startup ---
+    @Value("${BACKEND_LAZY_INIT:false}")
+    private Boolean backendLazyInit;
+
+    // --- Cluster fault coordination ---
+    @Value("${CLUSTER_CHANNEL:redis}")
+    private String clusterChannel;
+
+    @Value("${CLUSTER_INSTANCE_ID:}")
+    private String clusterInstanceId;
+
+    @Value("${CLUSTER_START_LEAD_MS:250}")
+    private long clusterStartLeadMs;
+
+    @Value("${CLUSTER_HEARTBEAT_MS:2000}")
+    private long clusterHeartbeatMs;
+
+    // --- SLO guardrails ---
+    @Value("${GUARDRAIL_ENABLED:false}")
+    private Boolean guardrailEnabled;
+
+    @Value("${GUARDRAIL_ENDPOINT_P99_MS:2000}")
+    private double guardrailEndpointP99Ms;
+
+    @Value("${GUARDRAIL_BACKEND_P99_MS:1000}")
+    private double guardrailBackendP99Ms;
+
+    @Value("${GUARDRAIL_ERROR_RATE:0.05}")
+    private double guardrailErrorRate;
+
+    @Value("${GUARDRAIL_WINDOW_SECONDS:10}")
+    private long guardrailWindowSeconds;
+
+    @Value("${GUARDRAIL_SUSTAIN_SECONDS:15}")
+    private long guardrailSustainSeconds;
+
+    @Value("${GUARDRAIL_MIN_REQUESTS:20}")
+    private long guardrailMinRequests;
+
+    @Value("${GUARDRAIL_TICK_MS:1000}")
+    private long guardrailTickMs;
+
     // --- Getters ---
     public String getRedisHost() {
         return redisHost;
@@ -64,10 +310,18 @@ public class AppProperties {
         return networkFaultInterface;
     }
 
+    public String getRedisDirectAddr() {
+        return redisDirectAddr;
+    }
+
     public int getRedisFaultDefaultDelay() {
         return redisFaultDefaultDelay;
     }
 
+    public long getFaultRetryBackoffMs() {
+        return faultRetryBackoffMs;
+    }
+
     public String getProxyAddr() {
         return proxyAddr;
     }
@@ -79,4 +333,288 @@ public class AppProperties {
     public Boolean getDeployProxy() {
         return deployProxy;
     }
+
+    public String getProxyDbListenAddr() {
+        return proxyDbListenAddr;
+    }
+
+    public Boolean getPoolAutosizeEnabled() {
+        return poolAutosizeEnabled;
+    }
+
+    public int getPoolTargetBorrowWaitMs() {
+        return poolTargetBorrowWaitMs;
+    }
+
+    public int getRedisPoolMinSize() {
+        return redisPoolMinSize;
+    }
+
+    public int getRedisPoolMaxSize() {
+        return redisPoolMaxSize;
+    }
+
+    public int getDbPoolMinSize() {
+        return dbPoolMinSize;
+    }
+
+    public int getDbPoolMaxSize() {
+        return dbPoolMaxSize;
+    }
+
+    public Boolean getAdmissionEnabled() {
+        return admissionEnabled;
+    }
+
+    public int getAdmissionInitialLimit() {
+        return admissionInitialLimit;
+    }
+
+    public int getAdmissionMinLimit() {
+        return admissionMinLimit;
+    }
+
+    public int getAdmissionMaxLimit() {
+        return admissionMaxLimit;
+    }
+
+    public int getAdmissionLatencyTargetMs() {
+        return admissionLatencyTargetMs;
+    }
+
+    public int getAdmissionReservedThreads() {
+        return admissionReservedThreads;
+    }
+
+    public int getAdmissionRetryAfterSeconds() {
+        return admissionRetryAfterSeconds;
+    }
+
+    public Boolean getCdcEnabled() {
+        return cdcEnabled;
+    }
+
+    public int getCdcBatchSize() {
+        return cdcBatchSize;
+    }
+
+    public long getCdcPollIntervalMs() {
+        return cdcPollIntervalMs;
+    }
+
+    public long getCdcGapTimeoutMs() {
+        return cdcGapTimeoutMs;
+    }
+
+    public long getCdcLeaseMs() {
+        return cdcLeaseMs;
+    }
+
+    public Boolean getResponseCacheEnabled() {
+        return responseCacheEnabled;
+    }
+
+    public Boolean getResponseCacheGzip() {
+        return responseCacheGzip;
+    }
+
+    public int getMemoryFaultDefaultRateMb() {
+        return memoryFaultDefaultRateMb;
+    }
+
+    public int getMemoryFaultDefaultRetainMb() {
+        return memoryFaultDefaultRetainMb;
+    }
+
+    public String getDiskFaultDir() {
+        return diskFaultDir;
+    }
+
+    public int getDiskFaultScratchMb() {
+        return diskFaultScratchMb;
+    }
+
+    public int getDiskFaultDefaultRateMb() {
+        return diskFaultDefaultRateMb;
+    }
+
+    public String getScenarioDir() {
+        return scenarioDir;
+    }
+
+    public Boolean getRequestFaultsEnabled() {
+        return requestFaultsEnabled;
+    }
+
+    public long getRequestFaultMaxDelayMs() {
+        return requestFaultMaxDelayMs;
+    }
+
+    public Boolean getProfilerEnabled() {
+        return profilerEnabled;
+    }
+
+    public int getProfilerSlowestN() {
+        return profilerSlowestN;
+    }
+
+    public String getProfilerOtlpEndpoint() {
+        return profilerOtlpEndpoint;
+    }
+
+    public long getProfilerExportThresholdMs() {
+        return profilerExportThresholdMs;
+    }
+
+    public Boolean getWarmupEnabled() {
+        return warmupEnabled;
+    }
+
+    public int getWarmupRequests() {
+        return warmupRequests;
+    }
+
+    public int getWarmupConcurrency() {
+        return warmupConcurrency;
+    }
+
+    public int getWarmupMaxSeconds() {
+        return warmupMaxSeconds;
+    }
+
+    public long getHealthCheckIntervalMs() {
+        return healthCheckIntervalMs;
+    }
+
+    public int getHealthFailureThreshold() {
+        return healthFailureThreshold;
+    }
+
+    public long getHealthBackoffInitialMs() {
+        return healthBackoffInitialMs;
+    }
+
+    public long getHealthBackoffMaxMs() {
+        return healthBackoffMaxMs;
+    }
+
+    public long getUserBatchWindowMicros() {
+        return userBatchWindowMicros;
+    }
+
+    public int getUserBatchMaxKeys() {
+        return userBatchMaxKeys;
+    }
+
+    public int getUserBatchDispatchThreads() {
+        return userBatchDispatchThreads;
+    }
+
+    public int getUserBatchQueueSize() {
+        return userBatchQueueSize;
+    }
+
+    public int getUserBatchDispatchQueueSize() {
+        return userBatchDispatchQueueSize;
+    }
+
+    public long getUserLookupTimeoutMs() {
+        return userLookupTimeoutMs;
+    }
+
+    public long getUserWriteBatchWindowMicros() {
+        return userWriteBatchWindowMicros;
+    }
+
+    public int getUserWriteBatchMaxRows() {
+        return userWriteBatchMaxRows;
+    }
+
+    public int getUserWriteQueueCapacity() {
+        return userWriteQueueCapacity;
+    }
+
+    public long getUserWriteTimeoutMs() {
+        return userWriteTimeoutMs;
+    }
+
+    public Boolean getUserStoreOffHeapEnabled() {
+        return userStoreOffHeapEnabled;
+    }
+
+    public int getUserStoreOffHeapChunkMb() {
+        return userStoreOffHeapChunkMb;
+    }
+
+    public String getUserSnapshotPath() {
+        return userSnapshotPath;
+    }
+
+    public Boolean getUserSnapshotVerify() {
+        return userSnapshotVerify;
+    }
+
+    public String getUserSnapshotRestoreTargets() {
+        return userSnapshotRestoreTargets;
+    }
+
+    public int getUserSnapshotBatchSize() {
+        return userSnapshotBatchSize;
+    }
+
+    public Boolean getBackendLazyInit() {
+        return backendLazyInit;
+    }
+
+    public String getClusterChannel() {
+        return clusterChannel;
+    }
+
+    public String getClusterInstanceId() {
+        return clusterInstanceId;
+    }
+
+    public long getClusterStartLeadMs() {
+        return clusterStartLeadMs;
+    }
+
+    public long getClusterHeartbeatMs() {
+        return clusterHeartbeatMs;
+    }
+
+    public Boolean getGuardrailEnabled() {
+        return guardrailEnabled;
+    }
+
+    public double getGuardrailEndpointP99Ms() {
+        return guardrailEndpointP99Ms;
+    }
+
+    public double getGuardrailBackendP99Ms() {
+        return guardrailBackendP99Ms;
+    }
+
+    public double getGuardrailErrorRate() {
+        return guardrailErrorRate;
+    }
+
+    public long getGuardrailWindowSeconds() {
+        return guardrailWindowSeconds;
+    }
+
+    public long getGuardrailSustainSeconds() {
+        return guardrailSustainSeconds;
+    }
+
+    public long getGuardrailMinRequests() {
+        return guardrailMinRequests;
+    }
+
+    public long getGuardrailTickMs() {
+        return guardrailTickMs;
+    }
+
+    public int getRedisProxyPoolSize() {
+        return redisProxyPoolSize;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.apo.sandbox.config;
+
+import com.apo.sandbox.cluster.ClusterChannel;
+import com.apo.sandbox.cluster.InMemoryClusterChannel;
+import com.apo.sandbox.cluster.RedisClusterChannel;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ClusterConfig {
+
+    // CLUSTER_CHANNEL=memory keeps coordination inside this JVM.
+    @Bean
+    public ClusterChannel clusterChannel(AppProperties props, RedisConfig redisConfig) {
+        if ("memory".equalsIgnoreCase(props.getClusterChannel())) {
+            return new InMemoryClusterChannel();
+        }
+        return new RedisClusterChannel(redisConfig.clusterPool());
+    }
+}
@@ -2,38 +2,69 @@ package com.apo.sandbox.config;
 
 import com.apo.sandbox.dao.DatabaseClient;
 import com.apo.sandbox.dao.IDatabaseClient;
+import com.apo.sandbox.pool.PoolController;
+import com.apo.sandbox.pool.ResizablePool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 
 @Configuration
 public class DatabaseConfig {
     private static final Logger log = LoggerFactory.getLogger(DatabaseConfig.class);
 
     private final DatabaseProperties databaseProperties;
+    private final AppProperties appProperties;
+    private final PoolController poolController;
 
     @Autowired
-    public DatabaseConfig(DatabaseProperties databaseProperties) {
+    public DatabaseConfig(DatabaseProperties databaseProperties, AppProperties appProperties,
+                          PoolController poolController) {
         this.databaseProperties = databaseProperties;
+        this.appProperties = appProperties;
+        this.poolController = poolController;
     }
 
     @Bean
+    @DependsOn("toxicsManager")
     public IDatabaseClient databaseClient() {
         log.info("Creating database client with properties: {}", databaseProperties);
 
-        // Create and return DatabaseClient instance
-        return new DatabaseClient(
-                databaseProperties.getHost(),
-                databaseProperties.getPort(),
+        // With Toxiproxy deployed all DB traffic goes through the "mysql" proxy,
+        // so toxics can be put on it at any time.
+        String host = databaseProperties.getHost();
+        int port = databaseProperties.getPort();
+        if (appProperties.getDeployProxy()) {
+            String[] listen = ToxiProxyConfig.connectAddress(appProperties, appProperties.getProxyDbListenAddr());
+            host = listen[0];
+            port = Integer.parseInt(listen[1]);
+            log.info("Routing database traffic through Toxiproxy at {}:{}.", host, port);
+        }
+
+        // Create DatabaseClient instance
+        DatabaseClient client = new DatabaseClient(
+                host,
+                port,
                 databaseProperties.getUsername(),
                 databaseProperties.getPassword(),
                 databaseProperties.getDatabase(),
                 databaseProperties.getMaxConnections(),
                 databaseProperties.getConnTimeout(),
                 databaseProperties.getReadTimeout(),
-                databaseProperties.getWriteTimeout()
+                databaseProperties.getWriteTimeout(),
+                !appProperties.getBackendLazyInit()
         );
+
+        ResizablePool pool = client.getPool();
+        if (pool != null) {
+            registerPool(pool);
+        }
+        return client;
+    }
+
+    public void registerPool(ResizablePool pool) {
+        poolController.register(pool, appProperties.getDbPoolMinSize(), appProperties.getDbPoolMaxSize());
     }
 }
\ No newline at end of file
@@ -1,14 +1,17 @@
 package com.apo.sandbox.config;
 
-import com.apo.sandbox.dao.IRedisClient;
-import com.apo.sandbox.dao.MockRedisClient;
 import com.apo.sandbox.dao.RedisClient;
+import com.apo.sandbox.dao.SwitchableRedisClient;
+import com.apo.sandbox.pool.JedisResizablePool;
+import com.apo.sandbox.pool.PoolController;
+import com.apo.sandbox.pool.TimedJedisPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
 
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.exceptions.JedisConnectionException;
@@ -16,34 +19,131 @@ import redis.clients.jedis.exceptions.JedisConnectionException;
 import java.time.Duration;
 
 @Configuration
-@DependsOn("toxiProxy")
+@DependsOn("toxicsManager")
 public class RedisConfig {
 
     private static final Logger log = LoggerFactory.getLogger(RedisConfig.class);
 
+    private final AppProperties props;
+    private final PoolController poolController;
+
+    public RedisConfig(AppProperties props, PoolController poolController) {
+        this.props = props;
+        this.poolController = poolController;
+    }
+
+    // Starts on the mock client if Redis is down, or without trying when
+    // BACKEND_LAZY_INIT is set; BackendHealthMonitor swaps in the real one
+    // once it can connect.
     @Bean
-    public IRedisClient redisClient(AppProperties props) {
+    public SwitchableRedisClient redisClient() {
+        if (props.getBackendLazyInit()) {
+            log.info("Deferring Redis connection to {}:{} to the health monitor.",
+                    props.getRedisHost(), props.getRedisPort());
+            return new SwitchableRedisClient(null);
+        }
         try {
-            final JedisPoolConfig poolConfig = new JedisPoolConfig();
-            poolConfig.setMaxTotal(10);
-            poolConfig.setBlockWhenExhausted(true);
-            poolConfig.setMaxWait(Duration.ofMillis(3000));
-
-            JedisPool jedisPool;
-            String password = props.getRedisPassword();
-            if (password != null && !password.isEmpty()) {
-                jedisPool = new JedisPool(poolConfig, props.getRedisHost(), props.getRedisPort(), 2000, password);
-            } else {
-                jedisPool = new JedisPool(poolConfig, props.getRedisHost(), props.getRedisPort(), 2000);
-            }
-            // Test connection
-            jedisPool.getResource().close();
-            log.info("Successfully connected to Redis at {}:{}.", props.getRedisHost(), props.getRedisPort());
-            return new RedisClient(jedisPool);
+            return new SwitchableRedisClient(connect());
         } catch (JedisConnectionException e) {
             log.error("Could not connect to Redis at {}:{}. Using mock client. Error: {}",
                     props.getRedisHost(), props.getRedisPort(), e.getMessage());
-            return new MockRedisClient();
+            return new SwitchableRedisClient(null);
+        }
+    }
+
+    // Opens the pools and checks one connection. Also used by the health
+    // monitor to reconnect.
+    public RedisClient connect() {
+        final JedisPoolConfig poolConfig = new JedisPoolConfig();
+        // Initial size; PoolController resizes it within the configured bounds.
+        poolConfig.setMaxTotal(props.getRedisPoolMinSize());
+        poolConfig.setMaxIdle(props.getRedisPoolMinSize());
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setMaxWait(Duration.ofMillis(3000));
+
+        TimedJedisPool jedisPool = new TimedJedisPool(poolConfig, props.getRedisHost(), props.getRedisPort(), 2000,
+                props.getRedisPassword());
+        // Test connection
+        try {
+            jedisPool.getResource().close();
+        } catch (JedisConnectionException e) {
+            jedisPool.close();
+            throw e;
+        }
+        log.info("Successfully connected to Redis at {}:{}.", props.getRedisHost(), props.getRedisPort());
+        poolController.register(new JedisResizablePool("redis", jedisPool),
+                props.getRedisPoolMinSize(), props.getRedisPoolMaxSize());
+        return new RedisClient(jedisPool, proxyPool(), directPool());
+    }
+
+    // A couple of connections to Redis itself for health pings, when
+    // REDIS_HOST:REDIS_PORT is the Go fault proxy and may be delayed on purpose.
+    private JedisPool directPool() {
+        HostAndPort direct = directAddress();
+        if (direct == null) {
+            return null;
+        }
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(2);
+        poolConfig.setMaxIdle(2);
+        poolConfig.setMinIdle(0);
+        poolConfig.setMaxWait(Duration.ofMillis(2000));
+        log.info("Health-checking Redis directly at {}.", direct);
+        return newPool(poolConfig, direct);
+    }
+
+    // Cluster pub/sub gets its own pool: the subscriber keeps one connection
+    // for good and publishes borrow the others. It goes to REDIS_DIRECT_ADDR
+    // when set, since the Go fault proxy does not relay pushed messages.
+    // Connections are opened on first use, so Redis may be down at startup.
+    public JedisPool clusterPool() {
+        HostAndPort address = directAddress();
+        if (address == null) {
+            address = new HostAndPort(props.getRedisHost(), props.getRedisPort());
+            log.info("Cluster channel using {}; if that is the Go fault proxy, set REDIS_DIRECT_ADDR "
+                    + "or the channel stays local.", address);
+        }
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(4);
+        poolConfig.setMaxIdle(2);
+        poolConfig.setMinIdle(0);
+        poolConfig.setMaxWait(Duration.ofMillis(2000));
+        return newPool(poolConfig, address);
+    }
+
+    private HostAndPort directAddress() {
+        String addr = props.getRedisDirectAddr();
+        return addr == null || addr.isBlank() ? null : HostAndPort.from(addr.trim());
+    }
+
+    // Second pool pointed at the Toxiproxy listener. RedisClient only borrows
+    // from it while a toxic is armed, so normal traffic skips the extra hop.
+    // It is a separate pool of REDIS_PROXY_POOL_SIZE connections that
+    // PoolController does not resize, so with DEPLOY_PROXY set Redis can see
+    // up to REDIS_POOL_MAX_SIZE + REDIS_PROXY_POOL_SIZE clients from this app.
+    private JedisPool proxyPool() {
+        if (!props.getDeployProxy()) {
+            return null;
+        }
+        String[] listen = ToxiProxyConfig.connectAddress(props, props.getProxyListenAddr());
+        String host = listen[0];
+        int port = Integer.parseInt(listen[1]);
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(props.getRedisProxyPoolSize());
+        poolConfig.setMaxIdle(props.getRedisProxyPoolSize());
+        poolConfig.setMinIdle(0);
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setMaxWait(Duration.ofMillis(3000));
+        log.info("Routing armed Toxiproxy traffic through {}:{} with up to {} connections.", host, port,
+                props.getRedisProxyPoolSize());
+        return newPool(poolConfig, new HostAndPort(host, port));
+    }
+
+    private JedisPool newPool(JedisPoolConfig poolConfig, HostAndPort address) {
+        String password = props.getRedisPassword();
+        if (password != null && !password.isEmpty()) {
+            return new JedisPool(poolConfig, address.getHost(), address.getPort(), 2000, password);
         }
+        return new JedisPool(poolConfig, address.getHost(), address.getPort(), 2000);
     }
-}
\ No newline at end of file
+}
@@ -1,41 +1,87 @@
 package com.apo.sandbox.config;
 
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.fault.ToxicsManager;
 import eu.rekawek.toxiproxy.Proxy;
 import eu.rekawek.toxiproxy.ToxiproxyClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
 @Configuration
 public class ToxiProxyConfig {
+    private static final Logger log = LoggerFactory.getLogger(ToxiProxyConfig.class);
+
     @Autowired
     private AppProperties appProperties;
 
+    @Autowired
+    private DatabaseProperties databaseProperties;
+
+    // One proxy per backend. Without DEPLOY_PROXY the manager has no proxies
+    // and every toxic fault fails to start.
     @Bean
-    public Proxy toxiProxy() {
+    public ToxicsManager toxicsManager() {
         if (!appProperties.getDeployProxy()) {
-            return null;
+            return new ToxicsManager(Map.of());
         }
 
         try {
-            if (!appProperties.getDeployProxy()) {
-                return null;
-            }
             String addr = appProperties.getProxyAddr();
             String[] parts = addr.split(":");
             String host = parts[0];
             int port = Integer.parseInt(parts[1]);
             ToxiproxyClient client = new ToxiproxyClient(host, port);
-            String proxyName = "redis";
-            String redisTarget = appProperties.getRedisHost() + ":" + appProperties.getRedisPort();
 
-            Proxy existingProxy = client.getProxy(proxyName);
-            if (existingProxy != null) {
+            Map<InProcessHooks.Backend, Proxy> proxies = new EnumMap<>(InProcessHooks.Backend.class);
+            proxies.put(InProcessHooks.Backend.REDIS, proxy(client, "redis", appProperties.getProxyListenAddr(),
+                    appProperties.getRedisHost() + ":" + appProperties.getRedisPort()));
+            proxies.put(InProcessHooks.Backend.MYSQL, proxy(client, "mysql", appProperties.getProxyDbListenAddr(),
+                    databaseProperties.getHost() + ":" + databaseProperties.getPort()));
+            // Toxics outlive the app on the Toxiproxy server, so a restart mid-fault
+            // would otherwise keep injecting with no switch armed to show it.
+            ToxicsManager manager = new ToxicsManager(proxies);
+            manager.removeAll();
+            return manager;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create Toxiproxy proxies", e);
+        }
+    }
+
+    // Reuses a proxy left by an earlier run only if it still points where this
+    // configuration says; otherwise it is recreated, so a changed upstream
+    // never keeps routing to the old backend.
+    static Proxy proxy(ToxiproxyClient client, String name, String listen, String upstream)
+            throws IOException {
+        Proxy existingProxy = client.getProxyOrNull(name);
+        if (existingProxy != null) {
+            if (listen.equals(existingProxy.getListen()) && upstream.equals(existingProxy.getUpstream())) {
+                if (!existingProxy.isEnabled()) {
+                    existingProxy.enable();
+                }
                 return existingProxy;
             }
-            return client.createProxy(proxyName, appProperties.getProxyListenAddr(), redisTarget);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create Toxiproxy proxy for Redis", e);
+            log.info("Recreating Toxiproxy proxy '{}': {} -> {} is now {} -> {}.", name,
+                    existingProxy.getListen(), existingProxy.getUpstream(), listen, upstream);
+            existingProxy.delete();
+        }
+        return client.createProxy(name, listen, upstream);
+    }
+
+    // Address clients use to reach a proxy listener. A wildcard listen host is
+    // reached through the Toxiproxy API host.
+    static String[] connectAddress(AppProperties props, String listenAddr) {
+        String[] listen = listenAddr.split(":");
+        String host = listen[0];
+        if (host.isEmpty() || "0.0.0.0".equals(host)) {
+            host = props.getProxyAddr().split(":")[0];
         }
+        return new String[]{host, listen[1]};
     }
-}
\ No newline at end of file
+}
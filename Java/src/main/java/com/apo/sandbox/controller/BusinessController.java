@@ -1,47 +1,98 @@
 package com.apo.sandbox.controller;
 
+import com.apo.sandbox.cache.UserResponseCache;
 import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.EmailConflictException;
 import com.apo.sandbox.model.User;
 import com.apo.sandbox.service.BusinessService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api")
 public class BusinessController {
+    private static final Logger log = LoggerFactory.getLogger(BusinessController.class);
 
     private final BusinessService businessService;
     private final AppProperties appProperties;
+    private final UserResponseCache responseCache;
 
-    public BusinessController(BusinessService businessService, AppProperties appProperties) {
+    public BusinessController(BusinessService businessService, AppProperties appProperties,
+                              UserResponseCache responseCache) {
         this.businessService = businessService;
         this.appProperties = appProperties;
+        this.responseCache = responseCache;
     }
 
+    // The user list endpoints write pre-encoded JSON from the response cache
+    // directly to the servlet output stream instead of returning the list.
     @GetMapping("/users/1")
-    public ResponseEntity<List<User>> getUsersWithLatency(@RequestParam("mode") Optional<String> mode) {
+    public void getUsersWithLatency(@RequestParam("mode") Optional<String> mode,
+                                    HttpServletRequest request, HttpServletResponse response) throws IOException {
         int duration = appProperties.getLatencyFaultDefaultDelay();
         List<User> users = businessService.getUsersWithLatency(mode, duration);
-        return ResponseEntity.ok(users);
+        responseCache.write("/users/1", users, request, response);
     }
 
     @GetMapping("/users/2")
-    public ResponseEntity<List<User>> getUsersWithCPUBurn(@RequestParam("mode") Optional<String> mode) {
+    public void getUsersWithCPUBurn(@RequestParam("mode") Optional<String> mode,
+                                    HttpServletRequest request, HttpServletResponse response) throws IOException {
         int duration = appProperties.getCpuFaultDefaultDuration();
         List<User> users = businessService.getUsersWithCPUBurn(mode, duration);
-        return ResponseEntity.ok(users);
+        responseCache.write("/users/2", users, request, response);
     }
 
     @GetMapping("/users/3")
-    public ResponseEntity<List<User>> getUsersWithRedisLatency(@RequestParam("mode") Optional<String> mode) {
+    public void getUsersWithRedisLatency(@RequestParam("mode") Optional<String> mode,
+                                         HttpServletRequest request, HttpServletResponse response) throws IOException {
         int duration = appProperties.getRedisFaultDefaultDelay();
         List<User> users = businessService.getUsersWithRedisLatency(mode, duration);
-        return ResponseEntity.ok(users);
+        responseCache.write("/users/3", users, request, response);
+    }
+
+    @GetMapping("/users/by-id/{id}")
+    public ResponseEntity<User> getUserById(@PathVariable("id") String id) {
+        try {
+            User user = businessService.getUserById(id);
+            return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(user);
+        } catch (Exception e) {
+            log.error("Failed to look up user {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // Acknowledged only after the write's group commit has reached MySQL.
+    @PostMapping("/users")
+    public ResponseEntity<User> saveUser(@RequestBody User user) {
+        if (isBlank(user.getName()) || isBlank(user.getEmail())) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(businessService.saveUser(user));
+        } catch (EmailConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Failed to save user {}: {}", user.getEmail(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 }
\ No newline at end of file
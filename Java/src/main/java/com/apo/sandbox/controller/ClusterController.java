@@ -0,0 +1,108 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.cluster.ClusterCommand;
+import com.apo.sandbox.cluster.ClusterOperation;
+import com.apo.sandbox.cluster.FaultCoordinator;
+import com.apo.sandbox.fault.FaultManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cluster-wide counterpart of /api/faults: operations are broadcast to
+// every instance and applied at a common start time. The 202 body is the
+// operation; GET /api/cluster/operations/{id} shows the acks as they arrive.
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+    private static final Logger log = LoggerFactory.getLogger(ClusterController.class);
+
+    private final FaultCoordinator coordinator;
+    private final FaultManager faultManager;
+
+    public ClusterController(FaultCoordinator coordinator, FaultManager faultManager) {
+        this.coordinator = coordinator;
+        this.faultManager = faultManager;
+    }
+
+    @GetMapping
+    public Map<String, Object> getCluster() {
+        Map<String, Object> cluster = new LinkedHashMap<>();
+        cluster.put("instance", coordinator.getInstanceId());
+        cluster.put("channel", coordinator.getChannelName());
+        cluster.put("shared", coordinator.isShared());
+        cluster.put("instances", coordinator.getLiveInstances());
+        return cluster;
+    }
+
+    // e.g. POST /api/cluster/faults/latency/start?ttl=30s&lead=500ms with {"duration": 200}
+    @PostMapping("/faults/{name}/start")
+    public ResponseEntity<ClusterOperation> start(@PathVariable("name") String name,
+                                                  @RequestBody(required = false) Map<String, Object> params,
+                                                  @RequestParam(value = "ttl", required = false) String ttl,
+                                                  @RequestParam(value = "lead", required = false) String lead) {
+        return broadcast(ClusterCommand.Type.START, name, params, ttl, lead);
+    }
+
+    @PutMapping("/faults/{name}")
+    public ResponseEntity<ClusterOperation> update(@PathVariable("name") String name,
+                                                   @RequestBody(required = false) Map<String, Object> params,
+                                                   @RequestParam(value = "lead", required = false) String lead) {
+        return broadcast(ClusterCommand.Type.UPDATE, name, params, null, lead);
+    }
+
+    @PostMapping("/faults/{name}/stop")
+    public ResponseEntity<ClusterOperation> stop(@PathVariable("name") String name,
+                                                 @RequestParam(value = "lead", required = false) String lead) {
+        return broadcast(ClusterCommand.Type.STOP, name, null, null, lead);
+    }
+
+    @DeleteMapping("/faults")
+    public ResponseEntity<ClusterOperation> stopAll(@RequestParam(value = "lead", required = false) String lead) {
+        return broadcast(ClusterCommand.Type.STOP_ALL, null, null, null, lead);
+    }
+
+    @GetMapping("/operations")
+    public List<ClusterOperation> getOperations() {
+        return coordinator.getOperations();
+    }
+
+    @GetMapping("/operations/{id}")
+    public ResponseEntity<ClusterOperation> getOperation(@PathVariable("id") String id) {
+        ClusterOperation operation = coordinator.getOperation(id);
+        return operation == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(operation);
+    }
+
+    private ResponseEntity<ClusterOperation> broadcast(ClusterCommand.Type type, String name,
+                                                      Map<String, Object> params, String ttl, String lead) {
+        if (type != ClusterCommand.Type.STOP_ALL && faultManager.getFault(name) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            Duration ttlDuration = ttl == null ? null : DurationStyle.detectAndParse(ttl);
+            Duration leadDuration = lead == null ? null : DurationStyle.detectAndParse(lead);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(coordinator.broadcast(type, name, params, ttlDuration, leadDuration));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Cluster broadcast of {} {} failed", type, name, e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.fault.FaultManager;
+import com.apo.sandbox.fault.FaultOperation;
+import com.apo.sandbox.fault.FaultStatus;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Operations are applied asynchronously: the endpoints answer 202 with the
+// queued operation, and GET /api/faults/{name} shows how it went.
+@RestController
+@RequestMapping("/api/faults")
+public class FaultController {
+
+    private final FaultManager faultManager;
+
+    public FaultController(FaultManager faultManager) {
+        this.faultManager = faultManager;
+    }
+
+    @GetMapping
+    public List<FaultStatus> getFaults() {
+        return faultManager.getFaults().keySet().stream()
+                .sorted()
+                .map(faultManager::getStatus)
+                .toList();
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<FaultStatus> getFault(@PathVariable("name") String name) {
+        FaultStatus status = faultManager.getStatus(name);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    // e.g. POST /api/faults/latency/start?ttl=30s with {"duration": 200}
+    @PostMapping("/{name}/start")
+    public ResponseEntity<?> start(@PathVariable("name") String name,
+                                                @RequestBody(required = false) Map<String, Object> params,
+                                                @RequestParam(value = "ttl", required = false) String ttl) {
+        if (faultManager.getFault(name) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            Duration duration = ttl == null ? null : DurationStyle.detectAndParse(ttl);
+            if (duration != null && duration.isNegative()) {
+                throw new IllegalArgumentException("ttl must not be negative: " + ttl);
+            }
+            return accepted(faultManager.startFaultAsync(name, params == null ? Map.of() : params, duration));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{name}")
+    public ResponseEntity<?> update(@PathVariable("name") String name,
+                                                 @RequestBody(required = false) Map<String, Object> params) {
+        if (faultManager.getFault(name) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return accepted(faultManager.updateFaultAsync(name, params == null ? Map.of() : params));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{name}/stop")
+    public ResponseEntity<FaultOperation> stop(@PathVariable("name") String name) {
+        if (faultManager.getFault(name) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return accepted(faultManager.stopFaultAsync(name));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<List<FaultOperation>> stopAll() {
+        List<FaultOperation> operations = faultManager.getFaults().values().stream()
+                .filter(fault -> fault.isActive())
+                .map(fault -> faultManager.stopFaultAsync(fault.getName()))
+                .toList();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(operations);
+    }
+
+    private static ResponseEntity<FaultOperation> accepted(FaultOperation operation) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(operation);
+    }
+}
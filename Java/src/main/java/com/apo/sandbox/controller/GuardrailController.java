@@ -0,0 +1,36 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.guardrail.GuardrailAbort;
+import com.apo.sandbox.guardrail.SloGuardrails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/guardrails")
+public class GuardrailController {
+
+    private final SloGuardrails guardrails;
+
+    public GuardrailController(SloGuardrails guardrails) {
+        this.guardrails = guardrails;
+    }
+
+    @GetMapping
+    public Map<String, Object> getGuardrails() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", guardrails.isEnabled());
+        status.put("signals", guardrails.getSignals());
+        status.put("aborts", guardrails.getAborts());
+        return status;
+    }
+
+    @GetMapping("/aborts")
+    public List<GuardrailAbort> getAborts() {
+        return guardrails.getAborts();
+    }
+}
@@ -0,0 +1,42 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.profile.ProfileRecorder;
+import com.apo.sandbox.profile.ProfileSnapshot;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/profile")
+public class ProfileController {
+
+    private final ProfileRecorder profileRecorder;
+
+    public ProfileController(ProfileRecorder profileRecorder) {
+        this.profileRecorder = profileRecorder;
+    }
+
+    @GetMapping("/stages")
+    public Map<String, Map<String, Object>> getStages() {
+        return profileRecorder.getStageSummaries();
+    }
+
+    // Slowest requests first, each with its per-stage breakdown and spans.
+    @GetMapping("/slowest")
+    public List<ProfileSnapshot> getSlowest(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<ProfileSnapshot> slowest = profileRecorder.getSlowest();
+        return slowest.subList(0, Math.min(Math.max(0, limit), slowest.size()));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        profileRecorder.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
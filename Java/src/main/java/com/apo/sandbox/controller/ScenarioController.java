@@ -0,0 +1,102 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.scenario.InvalidScenarioException;
+import com.apo.sandbox.scenario.ScenarioAction;
+import com.apo.sandbox.scenario.ScenarioEngine;
+import com.apo.sandbox.scenario.ScenarioPlan;
+import com.apo.sandbox.scenario.ScenarioRun;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/scenarios")
+public class ScenarioController {
+
+    private final ScenarioEngine scenarioEngine;
+    private final AppProperties appProperties;
+
+    public ScenarioController(ScenarioEngine scenarioEngine, AppProperties appProperties) {
+        this.scenarioEngine = scenarioEngine;
+        this.appProperties = appProperties;
+    }
+
+    // Body is a YAML or JSON plan; with dryRun=true it is only validated.
+    @PostMapping
+    public ResponseEntity<?> run(@RequestBody String source,
+                                 @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun)
+            throws IOException {
+        return runPlan(scenarioEngine.parse(source), dryRun);
+    }
+
+    // Runs a plan file from SCENARIO_DIR, e.g. /api/scenarios/files/redis-ramp-cpu.yaml
+    @PostMapping("/files/{file}")
+    public ResponseEntity<?> runFile(@PathVariable("file") String file,
+                                     @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun)
+            throws IOException {
+        Path dir = Paths.get(appProperties.getScenarioDir()).toAbsolutePath().normalize();
+        Path path = dir.resolve(file).normalize();
+        if (!path.startsWith(dir) || !Files.isRegularFile(path)) {
+            return ResponseEntity.notFound().build();
+        }
+        return runPlan(scenarioEngine.parse(Files.readString(path)), dryRun);
+    }
+
+    private ResponseEntity<?> runPlan(ScenarioPlan plan, boolean dryRun) {
+        if (dryRun) {
+            List<ScenarioAction> actions = scenarioEngine.validate(plan);
+            return ResponseEntity.ok(Map.of("valid", true, "actions", actions.size()));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(scenarioEngine.start(plan));
+    }
+
+    @GetMapping("/runs")
+    public Collection<ScenarioRun> getRuns() {
+        return scenarioEngine.getRuns();
+    }
+
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<ScenarioRun> getRun(@PathVariable("id") String id) {
+        ScenarioRun run = scenarioEngine.getRun(id);
+        return run == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(run);
+    }
+
+    @PostMapping("/runs/{id}/replay")
+    public ResponseEntity<ScenarioRun> replay(@PathVariable("id") String id) {
+        ScenarioRun run = scenarioEngine.replay(id);
+        return run == null ? ResponseEntity.notFound().build() : ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+    }
+
+    @DeleteMapping("/runs/{id}")
+    public ResponseEntity<ScenarioRun> abort(@PathVariable("id") String id) {
+        ScenarioRun run = scenarioEngine.abort(id);
+        return run == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(run);
+    }
+
+    @ExceptionHandler(InvalidScenarioException.class)
+    public ResponseEntity<Map<String, Object>> invalid(InvalidScenarioException e) {
+        return ResponseEntity.badRequest().body(Map.of("valid", false, "errors", e.getErrors()));
+    }
+
+    @ExceptionHandler(IOException.class)
+    public ResponseEntity<Map<String, Object>> unreadable(IOException e) {
+        return ResponseEntity.badRequest().body(Map.of("valid", false, "errors", List.of(e.getMessage())));
+    }
+}
@@ -0,0 +1,69 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.cache.UserSnapshotInfo;
+import com.apo.sandbox.snapshot.UserSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/snapshot")
+public class SnapshotController {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotController.class);
+
+    private final UserSnapshotService snapshotService;
+
+    public SnapshotController(UserSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @GetMapping
+    public ResponseEntity<UserSnapshotInfo> inspect() {
+        try {
+            UserSnapshotInfo info = snapshotService.inspect();
+            return info == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(info);
+        } catch (Exception e) {
+            log.error("Failed to read user snapshot: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> save() {
+        try {
+            return ResponseEntity.ok(snapshotService.save());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to write user snapshot: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // targets is a comma-separated subset of redis,mysql; both are primed
+    // even if they already hold users.
+    @PostMapping("/restore")
+    public ResponseEntity<?> restore(@RequestParam(value = "targets", defaultValue = "") String targets) {
+        try {
+            return ResponseEntity.ok(snapshotService.restore(UserSnapshotService.parseTargets(targets), false));
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "unknown target in " + targets));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to restore user snapshot: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
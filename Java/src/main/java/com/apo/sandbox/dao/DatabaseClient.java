@@ -1,12 +1,29 @@
 package com.apo.sandbox.dao;
 
+import com.apo.sandbox.jfr.BackendCallEvent;
 import com.apo.sandbox.model.User;
+import com.apo.sandbox.model.UserChange;
+import com.apo.sandbox.pool.BorrowWaitTracker;
+import com.apo.sandbox.pool.HikariResizablePool;
+import com.apo.sandbox.pool.ResizablePool;
+import com.apo.sandbox.profile.RequestProfiler;
+import com.apo.sandbox.profile.Stage;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 public class DatabaseClient implements IDatabaseClient {
@@ -20,11 +37,16 @@ public class DatabaseClient implements IDatabaseClient {
     private final Duration connTimeout;
     private final Duration readTimeout;
     private final Duration writeTimeout;
-    private Connection connection;
-    private boolean initialized = false;
+    private final BorrowWaitTracker borrowWaitTracker = new BorrowWaitTracker();
+    private volatile HikariDataSource dataSource;
+    private volatile boolean initialized = false;
+    // Result of the last health probe; isConnected() only reads this.
+    private volatile boolean healthy = false;
 
+    // With connectOnStart false, the first probe() opens the pool instead.
     public DatabaseClient(String host, int port, String username, String password, String database,
-                         int maxConnections, Duration connTimeout, Duration readTimeout, Duration writeTimeout) {
+                         int maxConnections, Duration connTimeout, Duration readTimeout, Duration writeTimeout,
+                         boolean connectOnStart) {
         this.host = host;
         this.port = port;
         this.username = username;
@@ -35,8 +57,9 @@ public class DatabaseClient implements IDatabaseClient {
         this.readTimeout = readTimeout;
         this.writeTimeout = writeTimeout;
 
-        // Initialize connection
-        initialize();
+        if (connectOnStart) {
+            initialize();
+        }
     }
 
     private void initialize() {
@@ -48,22 +71,52 @@ public class DatabaseClient implements IDatabaseClient {
             String url = String.format("jdbc:mysql://%s:%d/%s?serverTimezone=UTC&connectTimeout=%d&socketTimeout=%d",
                     host, port, database, (int)connTimeout.toMillis(), (int)readTimeout.toMillis());
 
-            // Establish connection
+            // Establish connection pool. Its size is adjusted at runtime by the
+            // PoolController, starting from maxConnections.
             log.info("Attempting to connect to database at {}", url);
-            connection = DriverManager.getConnection(url, username, password);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("mysql");
+            config.setJdbcUrl(url);
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(Math.max(1, maxConnections));
+            config.setMinimumIdle(1);
+            config.setConnectionTimeout(connTimeout.toMillis());
+            config.setInitializationFailTimeout(1);
+            dataSource = new HikariDataSource(config);
             initialized = true;
+            healthy = true;
             log.info("Successfully connected to database");
 
             // Create users table if it doesn't exist
             createUsersTable();
+            createUsersOutbox();
         } catch (ClassNotFoundException e) {
             log.error("MySQL JDBC driver not found: {}", e.getMessage());
-        } catch (SQLException e) {
+        } catch (HikariPool.PoolInitializationException e) {
             log.error("Failed to connect to database: {}", e.getMessage());
             // Don't set initialized to true
         }
     }
 
+    // Borrow a pooled connection, recording how long the caller waited.
+    private Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return dataSource.getConnection();
+        } finally {
+            borrowWaitTracker.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ResizablePool getPool() {
+        if (!initialized) {
+            return null;
+        }
+        return new HikariResizablePool("mysql", dataSource, borrowWaitTracker);
+    }
+
     private void createUsersTable() {
         String createTableSQL = "CREATE TABLE IF NOT EXISTS users (" +
                 "id VARCHAR(36) PRIMARY KEY, " +
@@ -71,7 +124,8 @@ public class DatabaseClient implements IDatabaseClient {
                 "email VARCHAR(100) NOT NULL UNIQUE" +
                 ")";
 
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = borrow();
+             Statement stmt = connection.createStatement()) {
             stmt.execute(createTableSQL);
             log.info("Users table created or already exists");
         } catch (SQLException e) {
@@ -79,22 +133,70 @@ public class DatabaseClient implements IDatabaseClient {
         }
     }
 
+    // Triggers copy every change on users into users_outbox, so the cache can
+    // follow writes from any client, not just this service.
+    private void createUsersOutbox() {
+        String createOutboxSQL = "CREATE TABLE IF NOT EXISTS users_outbox (" +
+                "seq BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "op CHAR(1) NOT NULL, " +
+                "user_id VARCHAR(36) NOT NULL, " +
+                "name VARCHAR(100), " +
+                "email VARCHAR(100)" +
+                ")";
+        String[] triggers = {
+                "CREATE TRIGGER users_outbox_insert AFTER INSERT ON users FOR EACH ROW " +
+                        "INSERT INTO users_outbox (op, user_id, name, email) VALUES ('I', NEW.id, NEW.name, NEW.email)",
+                "CREATE TRIGGER users_outbox_update AFTER UPDATE ON users FOR EACH ROW " +
+                        "INSERT INTO users_outbox (op, user_id, name, email) VALUES ('U', NEW.id, NEW.name, NEW.email)",
+                "CREATE TRIGGER users_outbox_delete AFTER DELETE ON users FOR EACH ROW " +
+                        "INSERT INTO users_outbox (op, user_id) VALUES ('D', OLD.id)"
+        };
+
+        try (Connection connection = borrow();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(createOutboxSQL);
+            for (String trigger : triggers) {
+                try {
+                    stmt.execute(trigger);
+                } catch (SQLException e) {
+                    // ER_TRG_ALREADY_EXISTS
+                    if (e.getErrorCode() != 1359) {
+                        throw e;
+                    }
+                }
+            }
+            log.info("Users outbox table and triggers created or already exist");
+        } catch (SQLException e) {
+            log.error("Failed to create users outbox: {}", e.getMessage());
+        }
+    }
+
     @Override
     public boolean isConnected() {
-        if (!initialized) {
-            return false;
-        }
+        return healthy;
+    }
 
-        try {
-            if (connection == null || connection.isClosed()) {
-                log.warn("Database connection is closed. Reconnecting...");
-                initialize();
+    // Runs on the health monitor thread, never on a request thread: a
+    // reconnect can take up to connTimeout.
+    @Override
+    public synchronized boolean probe() {
+        if (!initialized || dataSource == null || dataSource.isClosed()) {
+            if (dataSource != null) {
+                dataSource.close();
             }
-            return !connection.isClosed();
+            initialized = false;
+            initialize();
+            return healthy;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            healthy = connection.isValid((int) Math.max(1, readTimeout.toSeconds()));
         } catch (SQLException e) {
-            log.error("Error checking connection status: {}", e.getMessage());
-            return false;
+            if (healthy) {
+                log.warn("Database health check failed: {}", e.getMessage());
+            }
+            healthy = false;
         }
+        return healthy;
     }
 
     @Override
@@ -107,7 +209,10 @@ public class DatabaseClient implements IDatabaseClient {
         List<User> users = new ArrayList<>();
         String query = "SELECT id, name, email FROM users";
 
-        try (Statement stmt = connection.createStatement();
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.MYSQL, "SELECT users");
+        long start = RequestProfiler.start();
+        try (Connection connection = borrow();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -124,6 +229,58 @@ public class DatabaseClient implements IDatabaseClient {
         } catch (SQLException e) {
             log.error("Failed to retrieve users from database: {}", e.getMessage());
             return null;
+        } finally {
+            RequestProfiler.stop(Stage.MYSQL_GET_USERS, start);
+            event.finish(users.size(), event.isEnabled() ? payloadBytes(users) : 0);
+        }
+    }
+
+    @Override
+    public long countUsers() {
+        if (!isConnected()) {
+            return -1;
+        }
+
+        try (Connection connection = borrow();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            log.error("Failed to count users: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public List<User> getUsersByIds(Collection<String> ids) {
+        if (!isConnected()) {
+            return null;
+        }
+        List<User> users = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return users;
+        }
+
+        String query = "SELECT id, name, email FROM users WHERE id IN (" +
+                String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.MYSQL, "SELECT users by id");
+        try (Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            int index = 1;
+            for (String id : ids) {
+                pstmt.setString(index++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(new User(rs.getString("id"), rs.getString("name"), rs.getString("email")));
+                }
+            }
+            return users;
+        } catch (SQLException e) {
+            log.error("Failed to retrieve users by id from database: {}", e.getMessage());
+            return null;
+        } finally {
+            event.finish(ids.size(), event.isEnabled() ? payloadBytes(users) : 0);
         }
     }
 
@@ -134,50 +291,148 @@ public class DatabaseClient implements IDatabaseClient {
             return;
         }
 
-        String insertSQL = "INSERT INTO users (id, name, email) VALUES (?, ?, ?)";
+        try {
+            upsertUsers(users);
+            log.info("Successfully saved {} users to database", users.size());
+        } catch (SQLException e) {
+            log.error("Failed to save users to database: {}", e.getMessage());
+        }
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(insertSQL)) {
-            connection.setAutoCommit(false);
+    // One multi-row statement under auto-commit: the batch commits or fails as
+    // a unit without switching the pooled connection's transaction mode.
+    // ON DUPLICATE KEY fires for the email key too, so the update only takes
+    // effect when the conflicting row is the same user; a new ID with a
+    // taken email becomes a no-op. A read-back on the same connection then
+    // tells which rows hold what was written. Row aliases need MySQL 8.0.19.
+    @Override
+    public Set<String> upsertUsers(List<User> users) throws SQLException {
+        if (!isConnected()) {
+            throw new SQLException("database not connected");
+        }
+        if (users.isEmpty()) {
+            return Set.of();
+        }
 
-            for (User user : users) {
-                pstmt.setString(1, user.getId());
-                pstmt.setString(2, user.getName());
-                pstmt.setString(3, user.getEmail());
-                pstmt.addBatch();
-            }
+        String upsertSQL = "INSERT INTO users (id, name, email) VALUES " +
+                String.join(", ", Collections.nCopies(users.size(), "(?, ?, ?)")) +
+                " AS new ON DUPLICATE KEY UPDATE" +
+                " name = IF(users.id = new.id, new.name, users.name)," +
+                " email = IF(users.id = new.id, new.email, users.email)";
+        String readBackSQL = "SELECT id, email FROM users WHERE id IN (" +
+                String.join(", ", Collections.nCopies(users.size(), "?")) + ")";
 
-            int[] result = pstmt.executeBatch();
-            connection.commit();
-            log.info("Successfully saved {} users to database", result.length);
-        } catch (SQLException e) {
-            try {
-                if (connection != null) {
-                    connection.rollback();
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.MYSQL, "UPSERT users");
+        long start = RequestProfiler.start();
+        try (Connection connection = borrow()) {
+            try (PreparedStatement pstmt = connection.prepareStatement(upsertSQL)) {
+                int index = 1;
+                for (User user : users) {
+                    pstmt.setString(index++, user.getId());
+                    pstmt.setString(index++, user.getName());
+                    pstmt.setString(index++, user.getEmail());
                 }
-            } catch (SQLException rollbackEx) {
-                log.error("Failed to rollback transaction: {}", rollbackEx.getMessage());
+                pstmt.executeUpdate();
             }
-            log.error("Failed to save users to database: {}", e.getMessage());
+            Map<String, String> emails = new HashMap<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(readBackSQL)) {
+                int index = 1;
+                for (User user : users) {
+                    pstmt.setString(index++, user.getId());
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        emails.put(rs.getString("id"), rs.getString("email"));
+                    }
+                }
+            }
+            Set<String> written = new HashSet<>();
+            for (User user : users) {
+                if (Objects.equals(emails.get(user.getId()), user.getEmail())) {
+                    written.add(user.getId());
+                }
+            }
+            return written;
         } finally {
-            try {
-                if (connection != null) {
-                    connection.setAutoCommit(true);
+            RequestProfiler.stop(Stage.MYSQL_SAVE_USERS, start);
+            event.finish(users.size(), event.isEnabled() ? payloadBytes(users) : 0);
+        }
+    }
+
+    // UTF-8 size of the row values for JFR; only computed while the event is enabled.
+    private static long payloadBytes(List<User> users) {
+        long bytes = 0;
+        for (User user : users) {
+            bytes += BackendCallEvent.utf8Length(user.getId()) + BackendCallEvent.utf8Length(user.getName())
+                    + BackendCallEvent.utf8Length(user.getEmail());
+        }
+        return bytes;
+    }
+
+    @Override
+    public List<UserChange> getUserChanges(long afterSeq, int limit) {
+        if (!isConnected()) {
+            return null;
+        }
+
+        List<UserChange> changes = new ArrayList<>();
+        String query = "SELECT seq, op, user_id, name, email FROM users_outbox WHERE seq > ? ORDER BY seq LIMIT ?";
+
+        try (Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setLong(1, afterSeq);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new UserChange(
+                            rs.getLong("seq"),
+                            UserChange.Op.fromCode(rs.getString("op")),
+                            new User(rs.getString("user_id"), rs.getString("name"), rs.getString("email"))));
                 }
-            } catch (SQLException autoCommitEx) {
-                log.error("Failed to set auto-commit: {}", autoCommitEx.getMessage());
             }
+            return changes;
+        } catch (SQLException e) {
+            log.error("Failed to read user changes: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public long getLatestChangeSeq() {
+        if (!isConnected()) {
+            return -1;
+        }
+
+        try (Connection connection = borrow();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM users_outbox")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            log.error("Failed to read latest change sequence: {}", e.getMessage());
+            return -1;
         }
     }
 
-    // Close connection when not needed
+    @Override
+    public void purgeUserChanges(long upToSeq) {
+        if (!isConnected()) {
+            return;
+        }
+
+        try (Connection connection = borrow();
+             PreparedStatement pstmt = connection.prepareStatement("DELETE FROM users_outbox WHERE seq <= ?")) {
+            pstmt.setLong(1, upToSeq);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Failed to purge user changes: {}", e.getMessage());
+        }
+    }
+
+    // Close connection pool when not needed
     public void close() {
-        if (connection != null) {
-            try {
-                connection.close();
-                log.info("Database connection closed");
-            } catch (SQLException e) {
-                log.error("Failed to close database connection: {}", e.getMessage());
-            }
+        if (dataSource != null) {
+            dataSource.close();
+            log.info("Database connection pool closed");
         }
     }
 }
\ No newline at end of file
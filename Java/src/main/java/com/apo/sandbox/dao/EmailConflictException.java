@@ -0,0 +1,15 @@
+package com.apo.sandbox.dao;
+
+// A write whose email already belongs to another user; nothing was written.
+public class EmailConflictException extends Exception {
+    private final String email;
+
+    public EmailConflictException(String email) {
+        super("email " + email + " belongs to another user");
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
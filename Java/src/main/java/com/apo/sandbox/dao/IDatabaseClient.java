@@ -1,10 +1,39 @@
 package com.apo.sandbox.dao;
 
 import com.apo.sandbox.model.User;
+import com.apo.sandbox.model.UserChange;
+import com.apo.sandbox.pool.ResizablePool;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface IDatabaseClient {
+    // Answers from the last probe() and never touches the network.
     boolean isConnected();
+
+    // Checks the backend, reconnecting if needed, and updates isConnected().
+    boolean probe();
+
+    // Connection pool, or null while the backend has never been reached.
+    ResizablePool getPool();
+
     List<User> getUsers();
+
+    // Row count of the users table; -1 on failure.
+    long countUsers();
     void saveUsers(List<User> users);
+
+    // Inserts new users and updates existing ones by ID in one statement. A
+    // row whose email belongs to another user is left untouched rather than
+    // merged into that user; returns the IDs whose row now holds what was written.
+    Set<String> upsertUsers(List<User> users) throws SQLException;
+
+    // Users with the given IDs, in no particular order; null on failure.
+    List<User> getUsersByIds(Collection<String> ids);
+
+    // Change feed over the users table, populated by triggers into users_outbox.
+    List<UserChange> getUserChanges(long afterSeq, int limit);
+    long getLatestChangeSeq();
+    void purgeUserChanges(long upToSeq);
 }
\ No newline at end of file
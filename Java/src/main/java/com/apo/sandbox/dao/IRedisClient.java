@@ -3,6 +3,7 @@ package com.apo.sandbox.dao;
 import com.apo.sandbox.model.User;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface IRedisClient {
@@ -14,7 +15,65 @@ public interface IRedisClient {
 
     void setUserIDs(List<String> userIds) throws JsonProcessingException;
 
+    // Replaces the ID list with one written a chunk at a time, for lists too
+    // big to build in one piece. Readers see the old list until commit; a
+    // writer closed without committing leaves it alone. This default only
+    // collects the chunks and sets them at once.
+    default UserIdsWriter userIdsWriter() {
+        List<String> ids = new ArrayList<>();
+        return new UserIdsWriter() {
+            @Override
+            public void append(List<String> chunk) {
+                ids.addAll(chunk);
+            }
+
+            @Override
+            public void commit() throws JsonProcessingException {
+                setUserIDs(ids);
+            }
+        };
+    }
+
+    // One MGET for all keys; the result lines up with userIds, null where missing.
+    List<User> getUsers(List<String> userIds) throws JsonProcessingException;
+
+    // Writes all users in one pipelined round trip.
+    void setUsers(List<User> users) throws JsonProcessingException;
+
+    void deleteUser(String userId);
+
+    // Last users_outbox sequence applied to the cache, or null if the cache
+    // has never been synced (or was flushed).
+    Long getChangeCursor();
+
+    void setChangeCursor(long seq);
+
+    // Expiring lock so only one instance runs a job at a time. False if
+    // another owner holds it.
+    boolean tryLease(String key, String owner, long ttlMillis);
+
+    // Releases the lease if owner still holds it.
+    void releaseLease(String key, String owner);
+
     void startFault(int delay);
 
+    // Per-command delays drawn from the given microsecond values, weighted by count.
+    void startFaultProfile(long[] delaysMicros, long[] weights);
+
     void stopFault();
-}
\ No newline at end of file
+
+    // True while operations are only simulated because Redis is unavailable.
+    default boolean isMock() {
+        return false;
+    }
+
+    interface UserIdsWriter extends AutoCloseable {
+        void append(List<String> ids) throws JsonProcessingException;
+
+        void commit() throws JsonProcessingException;
+
+        @Override
+        default void close() {
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.apo.sandbox.model.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -36,13 +37,58 @@ public class MockRedisClient implements IRedisClient {
         log.info("MOCK: Setting user IDs list.");
     }
 
+    @Override
+    public List<User> getUsers(List<String> userIds) {
+        log.info("MOCK: Getting {} users.", userIds.size());
+        return Arrays.asList(new User[userIds.size()]);
+    }
+
+    @Override
+    public void setUsers(List<User> users) {
+        log.info("MOCK: Setting {} users.", users.size());
+    }
+
+    @Override
+    public void deleteUser(String userId) {
+        log.info("MOCK: Deleting user: {}", userId);
+    }
+
+    @Override
+    public Long getChangeCursor() {
+        return null;
+    }
+
+    @Override
+    public void setChangeCursor(long seq) {
+        log.info("MOCK: Setting change cursor to {}.", seq);
+    }
+
+    @Override
+    public boolean tryLease(String key, String owner, long ttlMillis) {
+        return true;
+    }
+
+    @Override
+    public void releaseLease(String key, String owner) {
+    }
+
     @Override
     public void startFault(int delay) {
         log.warn("MOCK: Cannot start Redis fault. Redis is not connected.");
     }
 
+    @Override
+    public void startFaultProfile(long[] delaysMicros, long[] weights) {
+        log.warn("MOCK: Cannot start Redis fault profile. Redis is not connected.");
+    }
+
     @Override
     public void stopFault() {
         log.warn("MOCK: Cannot stop Redis fault. Redis is not connected.");
     }
+
+    @Override
+    public boolean isMock() {
+        return true;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.apo.sandbox.dao;
 
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.jfr.BackendCallEvent;
 import com.apo.sandbox.model.User;
+import com.apo.sandbox.profile.RequestProfiler;
+import com.apo.sandbox.profile.Stage;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -8,17 +12,61 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.params.SetParams;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 public class RedisClient implements IRedisClient {
     private static final Logger log = LoggerFactory.getLogger(RedisClient.class);
     private final JedisPool jedisPool;
+    // Pool through the Toxiproxy listen port; only used while a toxic is armed.
+    private final JedisPool proxyPool;
+    // Pool to Redis itself when jedisPool goes through the Go fault proxy; null otherwise.
+    private final JedisPool directPool;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private static final String USER_IDS_KEY = "user_ids";
+    private static final String CHANGE_CURSOR_KEY = "user_ids:cdc_cursor";
+    private static final String RELEASE_LEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
 
     public RedisClient(JedisPool jedisPool) {
+        this(jedisPool, null);
+    }
+
+    public RedisClient(JedisPool jedisPool, JedisPool proxyPool) {
+        this(jedisPool, proxyPool, null);
+    }
+
+    public RedisClient(JedisPool jedisPool, JedisPool proxyPool, JedisPool directPool) {
         this.jedisPool = jedisPool;
+        this.proxyPool = proxyPool;
+        this.directPool = directPool;
+    }
+
+    // True if ping() reaches Redis without passing through the Go fault proxy.
+    public boolean pingsDirect() {
+        return directPool != null;
+    }
+
+    // Data commands only pay the extra proxy hop while a toxic is armed.
+    private Jedis resource() {
+        if (FaultSwitches.toxiproxyArmed() && proxyPool != null) {
+            return proxyPool.getResource();
+        }
+        return jedisPool.getResource();
+    }
+
+    // Health check that bypasses Toxiproxy and, with REDIS_DIRECT_ADDR set,
+    // the Go fault proxy, so an injected delay is not mistaken for an outage.
+    public boolean ping() {
+        try (Jedis jedis = (directPool != null ? directPool : jedisPool).getResource()) {
+            return "PONG".equals(jedis.ping());
+        } catch (Exception e) {
+            return false;
+        }
     }
 
     private String userKey(String userId) {
@@ -27,40 +75,218 @@ public class RedisClient implements IRedisClient {
 
     @Override
     public List<String> getUserIDs() throws JsonProcessingException {
-        try (Jedis jedis = jedisPool.getResource()) {
-            String json = jedis.get(USER_IDS_KEY);
-            if (json == null || json.isEmpty()) {
-                return null;
-            }
+        String json = null;
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.REDIS, "GET user_ids");
+        long start = RequestProfiler.start();
+        try (Jedis jedis = resource()) {
+            json = jedis.get(USER_IDS_KEY);
+        } finally {
+            RequestProfiler.stop(Stage.REDIS_GET_IDS, start);
+            event.finish(1, json);
+        }
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        start = RequestProfiler.start();
+        try {
             return objectMapper.readValue(json, new TypeReference<>() {
             });
+        } finally {
+            RequestProfiler.stop(Stage.JSON_DECODE, start);
         }
     }
 
     @Override
     public User getUser(String userId) throws JsonProcessingException {
-        try (Jedis jedis = jedisPool.getResource()) {
-            String json = jedis.get(userKey(userId));
-            if (json == null || json.isEmpty()) {
-                return null;
-            }
+        String json = null;
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.REDIS, "GET user");
+        long start = RequestProfiler.start();
+        try (Jedis jedis = resource()) {
+            json = jedis.get(userKey(userId));
+        } finally {
+            RequestProfiler.stop(Stage.REDIS_GET_USER, start);
+            event.finish(1, json);
+        }
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        start = RequestProfiler.start();
+        try {
             return objectMapper.readValue(json, User.class);
+        } finally {
+            RequestProfiler.stop(Stage.JSON_DECODE, start);
         }
     }
 
     @Override
     public void setUser(User user) throws JsonProcessingException {
-        try (Jedis jedis = jedisPool.getResource()) {
-            String json = objectMapper.writeValueAsString(user);
+        String json = objectMapper.writeValueAsString(user);
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.REDIS, "SET user");
+        long start = RequestProfiler.start();
+        try (Jedis jedis = resource()) {
             jedis.set(userKey(user.getId()), json);
+        } finally {
+            RequestProfiler.stop(Stage.REDIS_SET, start);
+            event.finish(1, json);
         }
     }
 
     @Override
     public void setUserIDs(List<String> userIds) throws JsonProcessingException {
-        try (Jedis jedis = jedisPool.getResource()) {
-            String json = objectMapper.writeValueAsString(userIds);
+        String json = objectMapper.writeValueAsString(userIds);
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.REDIS, "SET user_ids");
+        long start = RequestProfiler.start();
+        try (Jedis jedis = resource()) {
             jedis.set(USER_IDS_KEY, json);
+        } finally {
+            RequestProfiler.stop(Stage.REDIS_SET, start);
+            event.finish(1, json);
+        }
+    }
+
+    // Builds the JSON array under a staging key with one APPEND per chunk,
+    // then renames it over user_ids, so neither side holds the whole list.
+    @Override
+    public UserIdsWriter userIdsWriter() {
+        String staging = USER_IDS_KEY + ":staging:" + UUID.randomUUID();
+        return new UserIdsWriter() {
+            private boolean started;
+            private boolean committed;
+
+            @Override
+            public void append(List<String> ids) throws JsonProcessingException {
+                if (ids.isEmpty()) {
+                    return;
+                }
+                String json = objectMapper.writeValueAsString(ids);
+                // Drop the brackets: the chunk is the next run of elements.
+                String elements = (started ? "," : "[") + json.substring(1, json.length() - 1);
+                BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.REDIS, "APPEND user_ids");
+                long start = RequestProfiler.start();
+                try (Jedis jedis = resource()) {
+                    jedis.append(staging, elements);
+                    started = true;
+                } finally {
+                    RequestProfiler.stop(Stage.REDIS_SET, start);
+                    event.finish(ids.size(), elements);
+                }
+            }
+
+            @Override
+            public void commit() throws JsonProcessingException {
+                if (!started) {
+                    setUserIDs(List.of());
+                    committed = true;
+                    return;
+                }
+                try (Jedis jedis = resource()) {
+                    jedis.append(staging, "]");
+                    jedis.rename(staging, USER_IDS_KEY);
+                }
+                committed = true;
+            }
+
+            @Override
+            public void close() {
+                if (started && !committed) {
+                    try (Jedis jedis = resource()) {
+                        jedis.del(staging);
+                    } catch (Exception e) {
+                        log.warn("Failed to delete staging key {}: {}", staging, e.getMessage());
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public List<User> getUsers(List<String> userIds) throws JsonProcessingException {
+        String[] keys = new String[userIds.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = userKey(userIds.get(i));
+        }
+        List<String> values = null;
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.REDIS, "MGET user");
+        long start = RequestProfiler.start();
+        try (Jedis jedis = resource()) {
+            values = jedis.mget(keys);
+        } finally {
+            RequestProfiler.stop(Stage.REDIS_GET_USER, start);
+            event.finish(keys.length, values == null || !event.isEnabled() ? 0 : totalLength(values));
+        }
+        List<User> users = new ArrayList<>(values.size());
+        start = RequestProfiler.start();
+        try {
+            for (String json : values) {
+                users.add(json == null || json.isEmpty() ? null : objectMapper.readValue(json, User.class));
+            }
+        } finally {
+            RequestProfiler.stop(Stage.JSON_DECODE, start);
+        }
+        return users;
+    }
+
+    @Override
+    public void setUsers(List<User> users) throws JsonProcessingException {
+        List<String> values = new ArrayList<>(users.size());
+        for (User user : users) {
+            values.add(objectMapper.writeValueAsString(user));
+        }
+        BackendCallEvent event = BackendCallEvent.start(BackendCallEvent.REDIS, "SET user (pipelined)");
+        long start = RequestProfiler.start();
+        try (Jedis jedis = resource()) {
+            Pipeline pipeline = jedis.pipelined();
+            for (int i = 0; i < users.size(); i++) {
+                pipeline.set(userKey(users.get(i).getId()), values.get(i));
+            }
+            pipeline.sync();
+        } finally {
+            RequestProfiler.stop(Stage.REDIS_SET, start);
+            event.finish(users.size(), event.isEnabled() ? totalLength(values) : 0);
+        }
+    }
+
+    private static long totalLength(List<String> values) {
+        long bytes = 0;
+        for (String value : values) {
+            bytes += BackendCallEvent.utf8Length(value);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void deleteUser(String userId) {
+        try (Jedis jedis = resource()) {
+            jedis.del(userKey(userId));
+        }
+    }
+
+    @Override
+    public Long getChangeCursor() {
+        try (Jedis jedis = resource()) {
+            String value = jedis.get(CHANGE_CURSOR_KEY);
+            return value == null ? null : Long.parseLong(value);
+        }
+    }
+
+    @Override
+    public void setChangeCursor(long seq) {
+        try (Jedis jedis = resource()) {
+            jedis.set(CHANGE_CURSOR_KEY, String.valueOf(seq));
+        }
+    }
+
+    @Override
+    public boolean tryLease(String key, String owner, long ttlMillis) {
+        try (Jedis jedis = resource()) {
+            return "OK".equals(jedis.set(key, owner, SetParams.setParams().nx().px(ttlMillis)));
+        }
+    }
+
+    @Override
+    public void releaseLease(String key, String owner) {
+        try (Jedis jedis = resource()) {
+            jedis.eval(RELEASE_LEASE_SCRIPT, List.of(key), List.of(owner));
         }
     }
 
@@ -76,6 +302,23 @@ public class RedisClient implements IRedisClient {
         }
     }
 
+    // FAULT.PROFILE <delay_us> <weight> ...; the proxy samples one delay per command.
+    @Override
+    public void startFaultProfile(long[] delaysMicros, long[] weights) {
+        byte[][] args = new byte[delaysMicros.length * 2][];
+        for (int i = 0; i < delaysMicros.length; i++) {
+            args[2 * i] = String.valueOf(delaysMicros[i]).getBytes();
+            args[2 * i + 1] = String.valueOf(weights[i]).getBytes();
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.sendCommand(() -> "FAULT.PROFILE".getBytes(), args);
+            log.debug("Sent FAULT.PROFILE command to Redis proxy with {} delays.", delaysMicros.length);
+        } catch (Exception e) {
+            log.error("Failed to send FAULT.PROFILE command to Redis proxy: {}", e.getMessage());
+            throw new RuntimeException("Failed to start Redis fault profile", e);
+        }
+    }
+
     @Override
     public void stopFault() {
         try (Jedis jedis = jedisPool.getResource()) {
@@ -0,0 +1,79 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.profile.RequestProfiler;
+import com.apo.sandbox.profile.Stage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses concurrent loads of the same key into one.
+ *
+ * The first caller for a key runs the loader; callers arriving while it is
+ * in flight wait for and share its result, or its exception. Nothing is
+ * cached: once the load completes the next caller starts a fresh one.
+ * Counters record callers and actual loads, so callers / loads is the
+ * collapse ratio.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder callers = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("sandbox.store.coalesce.callers", callers, LongAdder::sum).tag("load", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("sandbox.store.coalesce.loads", loads, LongAdder::sum).tag("load", name)
+                .register(meterRegistry);
+        Gauge.builder("sandbox.store.coalesce.ratio", this, SingleFlight::collapseRatio).tag("load", name)
+                .register(meterRegistry);
+    }
+
+    /** Runs {@code loader}, or joins the load already running for {@code key}. */
+    public V execute(K key, Callable<V> loader) throws Exception {
+        callers.increment();
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            return join(leader);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.call();
+            mine.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public double collapseRatio() {
+        long started = loads.sum();
+        return started == 0 ? 1.0 : (double) callers.sum() / started;
+    }
+
+    private static <V> V join(CompletableFuture<V> leader) throws Exception {
+        long start = RequestProfiler.start();
+        try {
+            return leader.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        } finally {
+            RequestProfiler.stop(Stage.COALESCED_WAIT, start);
+        }
+    }
+}
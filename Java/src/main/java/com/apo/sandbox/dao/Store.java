@@ -1,38 +1,114 @@
 package com.apo.sandbox.dao;
 
+import com.apo.sandbox.cache.OffHeapUserStore;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.guardrail.SloGuardrails;
+import com.apo.sandbox.jfr.CacheLookupEvent;
 import com.apo.sandbox.model.User;
+import com.apo.sandbox.profile.RequestProfiler;
+import com.apo.sandbox.profile.Stage;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Repository
 public class Store {
     private static final Logger log = LoggerFactory.getLogger(Store.class);
+    private static final String USERS_KEY = "users";
     private final IRedisClient redisClient;
     private final IDatabaseClient dbClient;
+    // Concurrent callers share one backend load. Fault hooks still run per
+    // caller, before joining, so request-scoped faults hit only their request.
+    private final SingleFlight<String, Loaded> mysqlLoads;
+    private final SingleFlight<String, Loaded> redisLoads;
+    private final UserBatchLoader userBatchLoader;
+    private final UserWriteBatcher userWriteBatcher;
+    private final OffHeapUserStore offHeapUserStore;
+    private final AppProperties appProperties;
+    private final SloGuardrails guardrails;
 
-    public Store(IRedisClient redisClient, IDatabaseClient dbClient) {
+    public Store(IRedisClient redisClient, IDatabaseClient dbClient, MeterRegistry meterRegistry,
+                 UserBatchLoader userBatchLoader, UserWriteBatcher userWriteBatcher,
+                 OffHeapUserStore offHeapUserStore, AppProperties appProperties, SloGuardrails guardrails) {
         this.redisClient = redisClient;
         this.dbClient = dbClient;
+        this.userBatchLoader = userBatchLoader;
+        this.userWriteBatcher = userWriteBatcher;
+        this.offHeapUserStore = offHeapUserStore;
+        this.appProperties = appProperties;
+        this.guardrails = guardrails;
+        this.mysqlLoads = new SingleFlight<>("mysql", meterRegistry);
+        this.redisLoads = new SingleFlight<>("redis", meterRegistry);
     }
 
     public List<User> queryUserFromMySQL() throws Exception {
+        long begin = System.nanoTime();
+        boolean failed = true;
+        try {
+            if (FaultSwitches.inProcessArmed()) {
+                long start = RequestProfiler.start();
+                try {
+                    InProcessHooks.beforeCall(InProcessHooks.Backend.MYSQL);
+                } finally {
+                    RequestProfiler.stop(Stage.FAULT_HOOK, start);
+                }
+            }
+            List<User> users = offHeapUsers();
+            if (users == null) {
+                users = publish(mysqlLoads.execute(USERS_KEY, this::loadUsersFromMySQL));
+            }
+            failed = false;
+            return users;
+        } finally {
+            guardrails.recordBackend(InProcessHooks.Backend.MYSQL, System.nanoTime() - begin, failed);
+        }
+    }
+
+    // With the off-heap store on, a current snapshot stands in for the
+    // backends; null if it is off or there is none.
+    private List<User> offHeapUsers() {
+        return offHeapUserStore.isEnabled() ? offHeapUserStore.users() : null;
+    }
+
+    // Mocked users are never cached anywhere.
+    private List<User> publish(Loaded loaded) {
+        return offHeapUserStore.isEnabled() && !loaded.mocked()
+                ? offHeapUserStore.publish(loaded.users(), loaded.generation())
+                : loaded.users();
+    }
+
+    // The off-heap generation is read before the backends, so a write that
+    // lands during the load keeps its result from being installed.
+    private Loaded loadUsersFromMySQL() {
+        long generation = offHeapUserStore.generation();
         // Check if database is connected
         if (!dbClient.isConnected()) {
             log.info("Database is not connected. Returning mocked users.");
-            return mockUsers("DB_Mock_", 10);
+            return new Loaded(generation, Collections.unmodifiableList(mockUsers("DB_Mock_", 10)), true);
         }
+        return new Loaded(generation, readUsersFromMySQL(), false);
+    }
+
+    private List<User> readUsersFromMySQL() {
 
         // Try to get users from database
         List<User> users = dbClient.getUsers();
         if (users != null && !users.isEmpty()) {
             log.info("Successfully fetched {} users from database.", users.size());
-            return users;
+            return Collections.unmodifiableList(users);
         }
 
         // If database has no data, mock users and save to database
@@ -47,7 +123,7 @@ public class Store {
             // Continue even if save fails
         }
 
-        return users;
+        return Collections.unmodifiableList(users);
     }
 
     // Helper method to mock users
@@ -62,7 +138,36 @@ public class Store {
         return users;
     }
 
+    // A cache miss also loads from MySQL, and that time counts here too.
     public List<User> queryUserFromRedis() throws Exception {
+        long begin = System.nanoTime();
+        boolean failed = true;
+        try {
+            if (FaultSwitches.inProcessArmed()) {
+                long start = RequestProfiler.start();
+                try {
+                    InProcessHooks.beforeCall(InProcessHooks.Backend.REDIS);
+                } finally {
+                    RequestProfiler.stop(Stage.FAULT_HOOK, start);
+                }
+            }
+            List<User> users = offHeapUsers();
+            if (users == null) {
+                users = publish(redisLoads.execute(USERS_KEY, this::loadUsersFromRedis));
+            }
+            failed = false;
+            return users;
+        } finally {
+            guardrails.recordBackend(InProcessHooks.Backend.REDIS, System.nanoTime() - begin, failed);
+        }
+    }
+
+    private Loaded loadUsersFromRedis() throws Exception {
+        long generation = offHeapUserStore.generation();
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        int missing = -1;
+
         // Try to get from Redis cache
         List<String> userIDs = redisClient.getUserIDs();
         if (userIDs != null && !userIDs.isEmpty()) {
@@ -77,21 +182,28 @@ public class Store {
             }
             if (users.size() == userIDs.size()) {
                 log.info("All users retrieved from Redis cache by individual IDs.");
-                return users;
+                event.finish(true, users.size(), 0);
+                return new Loaded(generation, Collections.unmodifiableList(users), false);
             }
+            missing = userIDs.size() - users.size();
             log.warn("Incomplete users retrieved from Redis cache. Re-fetching and caching.");
         }
 
-        // If not in Redis or incomplete, mock 10 users and cache them
-        log.info("Mocking 10 users and caching in Redis.");
-        List<User> users = new ArrayList<>();
+        // If not in Redis or incomplete, load the same users MySQL serves and
+        // cache them. The change feed keeps them in step from here on. The
+        // refill skips the MySQL hook: the request's own MySQL call runs it.
+        log.info("Loading users from MySQL and caching in Redis.");
+        Loaded loaded = mysqlLoads.execute(USERS_KEY, this::loadUsersFromMySQL);
+        List<User> users = loaded.users();
+        if (loaded.mocked()) {
+            // The change feed only merges into the cached list, so mocked
+            // users written now would outlive the outage.
+            log.info("MySQL is down; serving mocked users without caching them in Redis.");
+            event.finish(false, users.size(), missing < 0 ? users.size() : missing);
+            return loaded;
+        }
         List<String> newUserIDs = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            User user = new User(
-                    UUID.randomUUID().toString(),
-                    String.format("Mock User %d", i + 1),
-                    String.format("mock%d@apo.com", i + 1));
-            users.add(user);
+        for (User user : users) {
             newUserIDs.add(user.getId());
             try {
                 redisClient.setUser(user);
@@ -106,7 +218,72 @@ public class Store {
             log.warn("Failed to cache all user IDs in Redis: {}", e.getMessage());
         }
 
-        log.info("Mocked 10 users and cached in Redis (individual users and IDs).");
-        return users;
+        log.info("Cached {} users in Redis (individual users and IDs).", users.size());
+        event.finish(false, users.size(), missing < 0 ? users.size() : missing);
+        // A joined MySQL load may have started before this one.
+        return new Loaded(Math.min(generation, loaded.generation()), users, false);
+    }
+
+    // Point lookup through the batching loader; null if the user does not exist.
+    public User queryUserById(String id) throws Exception {
+        // A snapshot hit never reaches a backend, so backend faults do not apply to it.
+        if (offHeapUserStore.isEnabled()) {
+            User user = offHeapUserStore.get(id);
+            if (user != null) {
+                return user;
+            }
+        }
+        long begin = System.nanoTime();
+        boolean failed = true;
+        try {
+            if (FaultSwitches.inProcessArmed()) {
+                long start = RequestProfiler.start();
+                try {
+                    InProcessHooks.beforeCall(InProcessHooks.Backend.REDIS);
+                } finally {
+                    RequestProfiler.stop(Stage.FAULT_HOOK, start);
+                }
+            }
+            long start = RequestProfiler.start();
+            CompletableFuture<User> lookup = userBatchLoader.load(id);
+            try {
+                User user = lookup.get(appProperties.getUserLookupTimeoutMs(), TimeUnit.MILLISECONDS);
+                failed = false;
+                return user;
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } catch (TimeoutException | InterruptedException e) {
+                // Nobody is waiting any more: let the loader drop the lookup.
+                lookup.cancel(false);
+                throw e;
+            } finally {
+                RequestProfiler.stop(Stage.BATCH_WAIT, start);
+            }
+        } finally {
+            guardrails.recordBackend(InProcessHooks.Backend.REDIS, System.nanoTime() - begin, failed);
+        }
+    }
+
+    // Inserts or updates the user through the group-commit batcher and
+    // returns once its batch is durable in MySQL.
+    public User saveUser(User user) throws Exception {
+        long begin = System.nanoTime();
+        boolean failed = true;
+        long start = RequestProfiler.start();
+        try {
+            User saved = userWriteBatcher.save(user).get(appProperties.getUserWriteTimeoutMs(), TimeUnit.MILLISECONDS);
+            offHeapUserStore.invalidate();
+            failed = false;
+            return saved;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            RequestProfiler.stop(Stage.WRITE_WAIT, start);
+            guardrails.recordBackend(InProcessHooks.Backend.MYSQL, System.nanoTime() - begin, failed);
+        }
+    }
+
+    // mocked: made up while MySQL was unreachable.
+    private record Loaded(long generation, List<User> users, boolean mocked) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.util.List;
+
+/**
+ * The Redis client handed to the rest of the application. It forwards to
+ * the real {@link RedisClient} while Redis is healthy and to a
+ * {@link MockRedisClient} while it is not; BackendHealthMonitor flips
+ * between the two with a single volatile write, so a request sees one
+ * client or the other and never waits for the switch.
+ *
+ * Fault control commands are the exception: they always go to the real
+ * client. A proxy delay can fail health pings and swap in the mock, and the
+ * FAULT.STOP that ends the delay must still reach the proxy.
+ */
+public class SwitchableRedisClient implements IRedisClient {
+    private final MockRedisClient mock = new MockRedisClient();
+    private volatile RedisClient real;
+    private volatile IRedisClient active;
+
+    public SwitchableRedisClient(RedisClient real) {
+        this.real = real;
+        this.active = real != null ? real : mock;
+    }
+
+    /** The real client, or null if Redis has never been reachable. */
+    public RedisClient getReal() {
+        return real;
+    }
+
+    public void useReal(RedisClient client) {
+        this.real = client;
+        this.active = client;
+    }
+
+    public void useMock() {
+        this.active = mock;
+    }
+
+    @Override
+    public boolean isMock() {
+        return active.isMock();
+    }
+
+    @Override
+    public List<String> getUserIDs() throws JsonProcessingException {
+        return active.getUserIDs();
+    }
+
+    @Override
+    public User getUser(String userId) throws JsonProcessingException {
+        return active.getUser(userId);
+    }
+
+    @Override
+    public void setUser(User user) throws JsonProcessingException {
+        active.setUser(user);
+    }
+
+    @Override
+    public void setUserIDs(List<String> userIds) throws JsonProcessingException {
+        active.setUserIDs(userIds);
+    }
+
+    @Override
+    public UserIdsWriter userIdsWriter() {
+        return active.userIdsWriter();
+    }
+
+    @Override
+    public List<User> getUsers(List<String> userIds) throws JsonProcessingException {
+        return active.getUsers(userIds);
+    }
+
+    @Override
+    public void setUsers(List<User> users) throws JsonProcessingException {
+        active.setUsers(users);
+    }
+
+    @Override
+    public void deleteUser(String userId) {
+        active.deleteUser(userId);
+    }
+
+    @Override
+    public Long getChangeCursor() {
+        return active.getChangeCursor();
+    }
+
+    @Override
+    public void setChangeCursor(long seq) {
+        active.setChangeCursor(seq);
+    }
+
+    @Override
+    public boolean tryLease(String key, String owner, long ttlMillis) {
+        return active.tryLease(key, owner, ttlMillis);
+    }
+
+    @Override
+    public void releaseLease(String key, String owner) {
+        active.releaseLease(key, owner);
+    }
+
+    @Override
+    public void startFault(int delay) {
+        control().startFault(delay);
+    }
+
+    @Override
+    public void startFaultProfile(long[] delaysMicros, long[] weights) {
+        control().startFaultProfile(delaysMicros, weights);
+    }
+
+    @Override
+    public void stopFault() {
+        control().stopFault();
+    }
+
+    private IRedisClient control() {
+        RedisClient client = real;
+        return client != null ? client : mock;
+    }
+}
@@ -0,0 +1,232 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataLoader-style batching for single-user lookups.
+ *
+ * Lookups are queued and a collector thread closes a batch after
+ * USER_BATCH_WINDOW_MICROS or USER_BATCH_MAX_KEYS keys, whichever comes
+ * first. Each batch is de-duplicated, read from Redis with one MGET, and
+ * whatever Redis misses is read from MySQL with one IN query and written
+ * back with one pipeline. Each caller then gets its own key's result. The
+ * batch runs on a dispatch pool while the collector is already filling the
+ * next window.
+ *
+ * Both queues are bounded (USER_BATCH_QUEUE_SIZE lookups,
+ * USER_BATCH_DISPATCH_QUEUE_SIZE batches); past either bound lookups fail
+ * with a RejectedExecutionException instead of piling up. Lookups whose
+ * caller has already given up (timed out or cancelled) are dropped from
+ * their batch before any backend is asked for them.
+ */
+@Component
+public class UserBatchLoader {
+    private static final Logger log = LoggerFactory.getLogger(UserBatchLoader.class);
+
+    private final IRedisClient redisClient;
+    private final IDatabaseClient dbClient;
+    private final AppProperties appProperties;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService dispatcher;
+    private final Thread collector;
+    private final DistributionSummary batchLookups;
+    private final DistributionSummary batchKeys;
+    private final Counter redisHits;
+    private final Counter mysqlHits;
+    private final Counter notFound;
+    private final Counter rejected;
+    private final Counter dropped;
+    private volatile boolean running = true;
+
+    public UserBatchLoader(IRedisClient redisClient, IDatabaseClient dbClient, AppProperties appProperties,
+                           MeterRegistry meterRegistry) {
+        this.redisClient = redisClient;
+        this.dbClient = dbClient;
+        this.appProperties = appProperties;
+        this.batchLookups = DistributionSummary.builder("sandbox.users.batch.lookups").register(meterRegistry);
+        this.batchKeys = DistributionSummary.builder("sandbox.users.batch.keys").register(meterRegistry);
+        this.redisHits = Counter.builder("sandbox.users.batch.results").tag("source", "redis").register(meterRegistry);
+        this.mysqlHits = Counter.builder("sandbox.users.batch.results").tag("source", "mysql").register(meterRegistry);
+        this.notFound = Counter.builder("sandbox.users.batch.results").tag("source", "none").register(meterRegistry);
+        this.rejected = Counter.builder("sandbox.users.batch.rejected").register(meterRegistry);
+        this.dropped = Counter.builder("sandbox.users.batch.dropped").register(meterRegistry);
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, appProperties.getUserBatchQueueSize()));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, appProperties.getUserBatchDispatchThreads());
+        this.dispatcher = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, appProperties.getUserBatchDispatchQueueSize())), r -> {
+                    Thread thread = new Thread(r, "user-batch-dispatch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.collector = new Thread(this::collect, "user-batch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * Completes with the user, or null if no such user exists. Callers that
+     * stop waiting should cancel the future so the lookup is dropped.
+     */
+    public CompletableFuture<User> load(String id) {
+        Pending pending = new Pending(id);
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            pending.future.completeExceptionally(new RejectedExecutionException("user lookup queue is full"));
+        }
+        return pending.future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        collector.interrupt();
+        dispatcher.shutdown();
+    }
+
+    private void collect() {
+        long windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, appProperties.getUserBatchWindowMicros()));
+        int maxKeys = Math.max(1, appProperties.getUserBatchMaxKeys());
+        while (running) {
+            List<Pending> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxKeys) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        queue.drainTo(batch, maxKeys - batch.size());
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                dispatcher.execute(() -> dispatch(batch));
+            } catch (RejectedExecutionException e) {
+                rejected.increment(batch.size());
+                RejectedExecutionException full = new RejectedExecutionException("user lookup dispatch queue is full");
+                batch.forEach(pending -> pending.future.completeExceptionally(full));
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        Map<String, List<Pending>> byId = new LinkedHashMap<>();
+        int live = 0;
+        for (Pending pending : batch) {
+            if (pending.future.isDone()) {
+                continue;
+            }
+            byId.computeIfAbsent(pending.id, k -> new ArrayList<>(1)).add(pending);
+            live++;
+        }
+        dropped.increment(batch.size() - live);
+        if (byId.isEmpty()) {
+            return;
+        }
+        batchLookups.record(live);
+        batchKeys.record(byId.size());
+
+        List<String> ids = new ArrayList<>(byId.keySet());
+        Map<String, User> found = new HashMap<>();
+        try {
+            List<User> cached = redisClient.getUsers(ids);
+            for (int i = 0; i < ids.size(); i++) {
+                if (cached.get(i) != null) {
+                    found.put(ids.get(i), cached.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Batch lookup of {} users in Redis failed, falling back to MySQL: {}", ids.size(), e.getMessage());
+        }
+        redisHits.increment(found.size());
+
+        List<String> misses = new ArrayList<>();
+        for (String id : ids) {
+            if (!found.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            try {
+                loadMisses(misses, found);
+            } catch (Exception e) {
+                log.error("Batch lookup of {} users in MySQL failed: {}", misses.size(), e.getMessage());
+                for (String id : misses) {
+                    byId.remove(id).forEach(pending -> pending.future.completeExceptionally(e));
+                }
+            }
+        }
+
+        byId.forEach((id, waiters) -> {
+            User user = found.get(id);
+            if (user == null) {
+                notFound.increment();
+            }
+            waiters.forEach(pending -> pending.future.complete(user));
+        });
+    }
+
+    private void loadMisses(List<String> misses, Map<String, User> found) throws Exception {
+        // Request-scoped faults ran on the callers' threads; only global
+        // in-process faults apply to the shared batch query.
+        if (FaultSwitches.inProcessArmed()) {
+            InProcessHooks.beforeCall(InProcessHooks.Backend.MYSQL);
+        }
+        List<User> loaded = dbClient.getUsersByIds(misses);
+        if (loaded == null) {
+            throw new IllegalStateException("database unavailable");
+        }
+        for (User user : loaded) {
+            found.put(user.getId(), user);
+        }
+        mysqlHits.increment(loaded.size());
+        if (!loaded.isEmpty()) {
+            try {
+                redisClient.setUsers(loaded);
+            } catch (Exception e) {
+                log.warn("Failed to cache {} users in Redis: {}", loaded.size(), e.getMessage());
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final String id;
+        private final CompletableFuture<User> future = new CompletableFuture<>();
+
+        Pending(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.model.User;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Group commit for user writes.
+ *
+ * Writes are queued and a single committer thread closes a batch after
+ * USER_WRITE_BATCH_WINDOW_MICROS or USER_WRITE_BATCH_MAX_ROWS rows,
+ * whichever comes first. Each batch is one INSERT ... ON DUPLICATE KEY
+ * UPDATE keyed on the user ID, so replays are harmless; the rows that were
+ * actually written are then cached in Redis with one pipeline. A write
+ * whose email belongs to another user fails on its own with
+ * {@link EmailConflictException}, and if the statement fails as a whole the
+ * rows are retried one by one so only the bad writer sees the error. While a
+ * commit is in flight the next batch keeps filling, so slower commits give
+ * larger batches rather than a longer queue. One committer also keeps
+ * writes to the same user in submission order.
+ *
+ * The ID index is not touched here; the change feed picks up new users
+ * from the outbox.
+ */
+@Component
+public class UserWriteBatcher {
+    private static final Logger log = LoggerFactory.getLogger(UserWriteBatcher.class);
+
+    private final IRedisClient redisClient;
+    private final IDatabaseClient dbClient;
+    private final AppProperties appProperties;
+    private final BlockingQueue<Pending> queue;
+    private final Thread committer;
+    private final DistributionSummary batchRows;
+    private final Timer commitTimer;
+    private final Timer writeOk;
+    private final Timer writeFailed;
+    private volatile boolean running = true;
+
+    public UserWriteBatcher(IRedisClient redisClient, IDatabaseClient dbClient, AppProperties appProperties,
+                            MeterRegistry meterRegistry) {
+        this.redisClient = redisClient;
+        this.dbClient = dbClient;
+        this.appProperties = appProperties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, appProperties.getUserWriteQueueCapacity()));
+        this.batchRows = DistributionSummary.builder("sandbox.users.write.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("sandbox.users.write.commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.writeOk = writeTimer(meterRegistry, "ok");
+        this.writeFailed = writeTimer(meterRegistry, "error");
+
+        this.committer = new Thread(this::run, "user-write-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    private static Timer writeTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("sandbox.users.write.latency")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Completes with the user once its batch has committed. Fails straight
+     * away with RejectedExecutionException when the queue is full.
+     */
+    public CompletableFuture<User> save(User user) {
+        Pending pending = new Pending(user);
+        if (!queue.offer(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("user write queue is full"));
+        }
+        return pending.future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        committer.interrupt();
+    }
+
+    private void run() {
+        long windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, appProperties.getUserWriteBatchWindowMicros()));
+        int maxRows = Math.max(1, appProperties.getUserWriteBatchMaxRows());
+        while (running) {
+            List<Pending> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxRows) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        queue.drainTo(batch, maxRows - batch.size());
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            commit(batch);
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        // Later writes to the same user win, as they would row by row.
+        Map<String, User> rows = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            rows.put(pending.user.getId(), pending.user);
+        }
+        List<User> users = new ArrayList<>(rows.values());
+        batchRows.record(users.size());
+
+        Map<String, Exception> failures = new HashMap<>();
+        Set<String> written;
+        long start = System.nanoTime();
+        try {
+            // Only global in-process faults apply: the batch is shared by many requests.
+            if (FaultSwitches.inProcessArmed()) {
+                InProcessHooks.beforeCall(InProcessHooks.Backend.MYSQL);
+            }
+            written = upsert(users, failures);
+        } catch (Exception e) {
+            log.error("Group commit of {} users failed: {}", users.size(), e.getMessage());
+            complete(batch, id -> e);
+            return;
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        List<User> persisted = new ArrayList<>(written.size());
+        for (User user : users) {
+            if (written.contains(user.getId())) {
+                persisted.add(user);
+            } else {
+                failures.putIfAbsent(user.getId(), new EmailConflictException(user.getEmail()));
+            }
+        }
+        if (!persisted.isEmpty()) {
+            try {
+                redisClient.setUsers(persisted);
+            } catch (Exception e) {
+                log.warn("Failed to cache {} written users in Redis: {}", persisted.size(), e.getMessage());
+            }
+        }
+        complete(batch, failures::get);
+    }
+
+    // One statement for the batch. If it fails, each row is retried on its
+    // own so only the writer of a bad row gets the error.
+    private Set<String> upsert(List<User> users, Map<String, Exception> failures) {
+        try {
+            return dbClient.upsertUsers(users);
+        } catch (SQLException e) {
+            if (users.size() == 1) {
+                failures.put(users.get(0).getId(), rowFailure(users.get(0), e));
+                return Set.of();
+            }
+            log.warn("Group commit of {} users failed ({}); retrying row by row.", users.size(), e.getMessage());
+        }
+        Set<String> written = new HashSet<>();
+        for (User user : users) {
+            try {
+                written.addAll(dbClient.upsertUsers(List.of(user)));
+            } catch (SQLException e) {
+                failures.put(user.getId(), rowFailure(user, e));
+            }
+        }
+        return written;
+    }
+
+    // On a single-row upsert a duplicate-key error can only come from the
+    // email key: an existing user changing to an email another user holds.
+    private static Exception rowFailure(User user, SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException || e.getErrorCode() == 1062) {
+            return new EmailConflictException(user.getEmail());
+        }
+        return e;
+    }
+
+    private void complete(List<Pending> batch, Function<String, Exception> errors) {
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            Exception error = errors.apply(pending.user.getId());
+            (error == null ? writeOk : writeFailed).record(now - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                pending.future.complete(pending.user);
+            } else {
+                pending.future.completeExceptionally(error);
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final User user;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<User> future = new CompletableFuture<>();
+
+        Pending(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.apo.sandbox.fault;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fails a fraction of Store backend calls inside the JVM.
+ *
+ * Params: {@code backend} is {@code mysql}, {@code redis} or {@code all};
+ * {@code rate} is the failure probability per call (0.05 = 5%).
+ */
+@Component
+public class BackendErrorFault implements Fault {
+    private static final Logger log = LoggerFactory.getLogger(BackendErrorFault.class);
+    private final InProcessHooks.Hook hook = this::maybeFail;
+    private volatile boolean active = false;
+    private volatile String backend = "all";
+    private volatile double rate = 0;
+
+    @Override
+    public String getName() {
+        return "backend_error";
+    }
+
+    @Override
+    public synchronized void start(Map<String, Object> params) {
+        if (active) {
+            log.warn("Backend error fault is already active.");
+            return;
+        }
+        configure(params);
+        InProcessHooks.register(hook);
+        active = true;
+        log.info("Backend error fault started: {} at {}%.", backend, rate * 100);
+    }
+
+    @Override
+    public synchronized void update(Map<String, Object> params) {
+        if (!active) {
+            start(params);
+            return;
+        }
+        configure(params);
+        log.info("Backend error fault updated: {} at {}%.", backend, rate * 100);
+    }
+
+    private void configure(Map<String, Object> params) {
+        backend = FaultParams.getString(params, "backend", "mysql").toLowerCase();
+        rate = Math.max(0, Math.min(1, FaultParams.getDouble(params, "rate", 0.05)));
+    }
+
+    private void maybeFail(InProcessHooks.Backend target) {
+        if (!"all".equals(backend) && !target.name().equalsIgnoreCase(backend)) {
+            return;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < rate) {
+            throw new IllegalStateException("Injected " + target + " error");
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!active) {
+            return;
+        }
+        InProcessHooks.unregister(hook);
+        active = false;
+        log.info("Backend error fault stopped.");
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,99 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.latency.LatencyProfile;
+import com.apo.sandbox.latency.LatencyProfileLoader;
+import com.apo.sandbox.latency.ProfilePlayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delays Store backend calls inside the JVM.
+ *
+ * Params: {@code backend} is {@code mysql}, {@code redis} or {@code all};
+ * either {@code duration} (ms, every call) or a recorded {@code profile}
+ * (see {@link LatencyProfileLoader}), sampled independently per call.
+ */
+@Component
+public class BackendLatencyFault implements Fault {
+    private static final Logger log = LoggerFactory.getLogger(BackendLatencyFault.class);
+    private final InProcessHooks.Hook hook = this::delay;
+    private volatile boolean active = false;
+    private volatile String backend = "all";
+    private volatile ProfilePlayer player;
+
+    @Override
+    public String getName() {
+        return "backend_latency";
+    }
+
+    @Override
+    public synchronized void start(Map<String, Object> params) throws Exception {
+        if (active) {
+            log.warn("Backend latency fault is already active.");
+            return;
+        }
+        configure(params);
+        InProcessHooks.register(hook);
+        active = true;
+        log.info("Backend latency fault started on {}: {}.", backend, player.getProfile().getSource());
+    }
+
+    @Override
+    public synchronized void update(Map<String, Object> params) throws Exception {
+        if (!active) {
+            start(params);
+            return;
+        }
+        configure(params);
+        log.info("Backend latency fault updated on {}: {}.", backend, player.getProfile().getSource());
+    }
+
+    // The new player is running before the old one stops, so calls never see a gap.
+    private void configure(Map<String, Object> params) throws Exception {
+        LatencyProfile profile = LatencyProfileLoader.hasProfile(params)
+                ? LatencyProfileLoader.fromParams(params)
+                : LatencyProfile.fixed(FaultParams.getLong(params, "duration", 100) * 1000);
+        ProfilePlayer next = new ProfilePlayer(profile, null);
+        next.start();
+        ProfilePlayer previous = player;
+        player = next;
+        backend = FaultParams.getString(params, "backend", "all").toLowerCase();
+        if (previous != null) {
+            previous.stop();
+        }
+    }
+
+    private void delay(InProcessHooks.Backend target) throws InterruptedException {
+        if (!"all".equals(backend) && !target.name().equalsIgnoreCase(backend)) {
+            return;
+        }
+        ProfilePlayer current = player;
+        if (current != null) {
+            long micros = current.sampleMicros();
+            if (micros > 0) {
+                TimeUnit.MICROSECONDS.sleep(micros);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!active) {
+            return;
+        }
+        InProcessHooks.unregister(hook);
+        player.stop();
+        player = null;
+        active = false;
+        log.info("Backend latency fault stopped.");
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+}
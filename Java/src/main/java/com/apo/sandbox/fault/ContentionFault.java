@@ -0,0 +1,228 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.pool.PoolController;
+import com.apo.sandbox.pool.ResizablePool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saturation and lock contention.
+ *
+ * Params: {@code mode} is a comma-separated list of
+ * <ul>
+ * <li>{@code redis_pool} / {@code jdbc_pool} - hold {@code count}
+ * connections from the Redis or MySQL pool until stop</li>
+ * <li>{@code store_lock} - make every Store backend call made by a request
+ * pass through one monitor and hold it for {@code hold} ms (0 to 60000)</li>
+ * <li>{@code request_threads} - park the next {@code count} request threads
+ * that reach the Store until stop</li>
+ * </ul>
+ * {@code count} is 1 to 1000. The Store hooks only act on request threads
+ * (those Spring has bound a request to), never on the shared write-committer
+ * or batch-loader threads, which would stall every request behind them.
+ * Unknown modes and bad numbers are rejected before anything is queued, and
+ * a pool mode fails the start if its pool does not exist.
+ * Holder threads are named {@code fault-contention-<mode>-<n>} and parked
+ * request threads get a {@code [parked by contention fault]} suffix, so a
+ * thread dump shows who is holding what. Time spent waiting at each point is
+ * recorded in {@code sandbox.fault.contention.wait}. Pool autosizing will
+ * react to held connections; set POOL_AUTOSIZE_ENABLED=false to reproduce
+ * fixed-size starvation.
+ */
+@Component
+public class ContentionFault implements Fault {
+    private static final Logger log = LoggerFactory.getLogger(ContentionFault.class);
+    private static final String PARKED_SUFFIX = " [parked by contention fault]";
+    private static final Set<String> MODES = Set.of("redis_pool", "jdbc_pool", "store_lock", "request_threads");
+    private static final int MAX_COUNT = 1000;
+    private static final long MAX_HOLD_MS = 60_000;
+
+    private final PoolController poolController;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean active = new AtomicBoolean(false);
+    private final Object storeLock = new Object();
+    private final List<Thread> holders = new ArrayList<>();
+    private final List<InProcessHooks.Hook> hooks = new ArrayList<>();
+    private CountDownLatch release;
+
+    public ContentionFault(PoolController poolController, MeterRegistry meterRegistry) {
+        this.poolController = poolController;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return "contention";
+    }
+
+    @Override
+    public void validate(Map<String, Object> params) {
+        settings(params);
+    }
+
+    @Override
+    public synchronized void start(Map<String, Object> params) {
+        if (active.get()) {
+            log.warn("Contention fault is already active.");
+            return;
+        }
+        Settings settings = settings(params);
+        int count = settings.count;
+        long holdMs = settings.holdMs;
+        // Every pool is looked up before anything is held, so a missing one
+        // fails the start with nothing to undo.
+        Map<String, ResizablePool> pools = new LinkedHashMap<>();
+        for (String mode : settings.modes) {
+            if (mode.endsWith("_pool")) {
+                String poolName = "redis_pool".equals(mode) ? "redis" : "mysql";
+                ResizablePool pool = poolController.getPools().get(poolName);
+                if (pool == null) {
+                    throw new IllegalStateException("Pool '" + poolName + "' is not available");
+                }
+                pools.put(poolName, pool);
+            }
+        }
+        release = new CountDownLatch(1);
+
+        pools.forEach((poolName, pool) -> holdConnections(poolName, pool, count));
+        if (settings.modes.contains("store_lock")) {
+            addHook(backend -> lockHotspot(holdMs));
+        }
+        if (settings.modes.contains("request_threads")) {
+            Semaphore slots = new Semaphore(count);
+            CountDownLatch latch = release;
+            addHook(backend -> parkRequestThread(slots, latch));
+        }
+        active.set(true);
+        log.info("Contention fault started: mode {}, count {}, hold {}ms.", settings.modes, count, holdMs);
+    }
+
+    // Throws IllegalArgumentException for an unknown mode or a count or hold
+    // out of range.
+    private static Settings settings(Map<String, Object> params) {
+        Set<String> modes = new LinkedHashSet<>();
+        for (String mode : FaultParams.getString(params, "mode", "store_lock").split(",")) {
+            if (!MODES.contains(mode.trim())) {
+                throw new IllegalArgumentException("unknown mode '" + mode.trim() + "', expected one of " + MODES);
+            }
+            modes.add(mode.trim());
+        }
+        int count = FaultParams.getInt(params, "count", 5);
+        if (count < 1 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_COUNT);
+        }
+        long holdMs = FaultParams.getLong(params, "hold", 5);
+        if (holdMs < 0 || holdMs > MAX_HOLD_MS) {
+            throw new IllegalArgumentException("hold must be between 0 and " + MAX_HOLD_MS + " ms");
+        }
+        return new Settings(modes, count, holdMs);
+    }
+
+    // True on a thread serving an HTTP request; false on the shared batch
+    // threads, which run hooks for many requests at once.
+    static boolean onRequestThread() {
+        return RequestContextHolder.getRequestAttributes() != null;
+    }
+
+    private void holdConnections(String poolName, ResizablePool pool, int count) {
+        Timer waitTimer = waitTimer(poolName + "_pool");
+        CountDownLatch latch = release;
+        for (int i = 1; i <= count; i++) {
+            Thread holder = new Thread(() -> {
+                long start = System.nanoTime();
+                try (AutoCloseable ignored = pool.borrow()) {
+                    waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.warn("{} failed to borrow a connection: {}", Thread.currentThread().getName(), e.getMessage());
+                }
+            }, "fault-contention-" + poolName + "-holder-" + i);
+            holder.setDaemon(true);
+            holder.start();
+            holders.add(holder);
+        }
+    }
+
+    private void lockHotspot(long holdMs) throws InterruptedException {
+        if (!onRequestThread()) {
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (storeLock) {
+            waitTimer("store_lock").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Thread.sleep(holdMs);
+        }
+    }
+
+    private void parkRequestThread(Semaphore slots, CountDownLatch latch) throws InterruptedException {
+        if (!onRequestThread() || !slots.tryAcquire()) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        String name = thread.getName();
+        thread.setName(name + PARKED_SUFFIX);
+        long start = System.nanoTime();
+        try {
+            latch.await();
+        } finally {
+            waitTimer("request_threads").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            thread.setName(name);
+        }
+    }
+
+    private Timer waitTimer(String point) {
+        return Timer.builder("sandbox.fault.contention.wait")
+                .tag("point", point)
+                .register(meterRegistry);
+    }
+
+    private void addHook(InProcessHooks.Hook hook) {
+        hooks.add(hook);
+        InProcessHooks.register(hook);
+    }
+
+    @Override
+    public synchronized void stop() throws InterruptedException {
+        if (!active.get()) {
+            return;
+        }
+        hooks.forEach(InProcessHooks::unregister);
+        hooks.clear();
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join(1000);
+            if (holder.isAlive()) {
+                // Still blocked in borrow; interrupting makes it give up.
+                holder.interrupt();
+            }
+        }
+        holders.clear();
+        active.set(false);
+        log.info("Contention fault stopped; all held connections and threads released.");
+    }
+
+    @Override
+    public boolean isActive() {
+        return active.get();
+    }
+
+    private record Settings(Set<String> modes, int count, long holdMs) {
+    }
+}
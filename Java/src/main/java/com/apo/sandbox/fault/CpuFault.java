@@ -5,12 +5,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Component
 public class CpuFault implements Fault {
     private static final Logger log = LoggerFactory.getLogger(CpuFault.class);
+    private static final long PERIOD_NANOS = 100_000_000L;
     private final AppProperties appProperties;
+    private final List<Thread> burners = new ArrayList<>();
+    private volatile boolean active = false;
+    private volatile int percent = 100;
 
     public CpuFault(AppProperties appProperties) {
         this.appProperties = appProperties;
@@ -23,7 +29,14 @@ public class CpuFault implements Fault {
 
     @Override
     public void start(Map<String, Object> params) {
-        int durationMs = (int) params.getOrDefault("duration", appProperties.getCpuFaultDefaultDuration());
+        // With "cores" the fault keeps that many threads busy at "percent"
+        // utilisation until stopped; otherwise it burns the calling thread once.
+        if (params.containsKey("cores")) {
+            startBackground(params);
+            return;
+        }
+
+        int durationMs = FaultParams.getInt(params, "duration", appProperties.getCpuFaultDefaultDuration());
         long targetDurationNanos = durationMs * 1_000_000L;
 
         long startTime = System.nanoTime();
@@ -37,6 +50,46 @@ public class CpuFault implements Fault {
         log.info("CPU fault finished. Consumed {}ms of CPU time.", actualDurationMs);
     }
 
+    private synchronized void startBackground(Map<String, Object> params) {
+        if (active) {
+            log.warn("CPU fault is already active.");
+            return;
+        }
+        int cores = Math.max(1, FaultParams.getInt(params, "cores", 1));
+        percent = clampPercent(FaultParams.getInt(params, "percent", 100));
+        active = true;
+        for (int i = 1; i <= cores; i++) {
+            Thread burner = new Thread(this::burn, "fault-cpu-burner-" + i);
+            burner.setDaemon(true);
+            burner.start();
+            burners.add(burner);
+        }
+        log.info("Started CPU fault on {} cores at {}%.", cores, percent);
+    }
+
+    // Duty cycle: busy for percent of every 100ms period, asleep for the rest.
+    private void burn() {
+        while (active) {
+            long periodStart = System.nanoTime();
+            long busyNanos = PERIOD_NANOS * percent / 100;
+            while (System.nanoTime() - periodStart < busyNanos) {
+                fibonacci(18);
+            }
+            long idleNanos = PERIOD_NANOS - (System.nanoTime() - periodStart);
+            if (idleNanos > 0) {
+                try {
+                    Thread.sleep(idleNanos / 1_000_000L, (int) (idleNanos % 1_000_000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int clampPercent(int value) {
+        return Math.max(1, Math.min(100, value));
+    }
+
     private int fibonacci(int n) {
         if (n <= 1) {
             return n;
@@ -45,14 +98,34 @@ public class CpuFault implements Fault {
     }
 
     @Override
-    public void stop() {
-        // This is a one-shot fault, no stop action needed.
+    public synchronized void update(Map<String, Object> params) {
+        if (!active) {
+            start(params);
+            return;
+        }
+        percent = clampPercent(FaultParams.getInt(params, "percent", percent));
+        log.info("CPU fault updated to {}%.", percent);
+    }
+
+    @Override
+    public synchronized void stop() throws InterruptedException {
+        // The one-shot mode has nothing to stop; background burners are joined.
+        if (!active) {
+            return;
+        }
+        active = false;
+        for (Thread burner : burners) {
+            burner.interrupt();
+            burner.join();
+        }
+        burners.clear();
+        log.info("CPU fault stopped.");
     }
 
     @Override
     public boolean isActive() {
-        // As per the Go logic, this fault is instantaneous and doesn't have a
-        // persistent active state.
-        return false;
+        // As per the Go logic, the one-shot fault is instantaneous and doesn't
+        // have a persistent active state; only background mode reports active.
+        return active;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,254 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local disk contention, for noisy-neighbour experiments next to MySQL.
+ *
+ * Params:
+ * <ul>
+ * <li>{@code pattern} - {@code sequential} writes, {@code random} mixed
+ * reads and writes at random offsets, {@code fsync} small writes each
+ * followed by a force, or {@code mmap} random page touches on a mapped file
+ * to cause page-fault and writeback storms</li>
+ * <li>{@code rate} - throughput limit in MB/s shared by all workers, 0 for
+ * unlimited</li>
+ * <li>{@code threads} - worker count</li>
+ * <li>{@code block} - I/O size in KB</li>
+ * <li>{@code size} - scratch space in MB, capped by DISK_FAULT_SCRATCH_MB</li>
+ * </ul>
+ * Each run writes to its own temporary directory under DISK_FAULT_DIR; on
+ * stop its files are unmapped and deleted along with that directory.
+ */
+@Component
+public class DiskIoFault implements Fault {
+    private static final Logger log = LoggerFactory.getLogger(DiskIoFault.class);
+    private static final long MB = 1024L * 1024L;
+    private static final int PAGE = 4096;
+    private static final Set<String> PATTERNS = Set.of("sequential", "random", "fsync", "mmap");
+
+    private final AppProperties appProperties;
+    private final AtomicBoolean active = new AtomicBoolean(false);
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private final List<Path> scratchFiles = new ArrayList<>();
+    private Path scratchDir;
+    private RateLimiter rateLimiter;
+
+    public DiskIoFault(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        Gauge.builder("sandbox.fault.disk.written", bytesWritten, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("sandbox.fault.disk.read", bytesRead, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("sandbox.fault.disk.syncs", syncs, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "disk_io";
+    }
+
+    @Override
+    public void validate(Map<String, Object> params) {
+        settings(params);
+    }
+
+    @Override
+    public synchronized void start(Map<String, Object> params) throws IOException {
+        if (active.get()) {
+            log.warn("Disk I/O fault is already active.");
+            return;
+        }
+        Settings settings = settings(params);
+        // A private directory per run: stop() removes only what this run made,
+        // never whatever else lives under DISK_FAULT_DIR.
+        Path base = Files.createDirectories(Paths.get(appProperties.getDiskFaultDir()));
+        scratchDir = Files.createTempDirectory(base, "sandbox-io");
+        rateLimiter = new RateLimiter(settings.rateBytes);
+        active.set(true);
+        for (int i = 1; i <= settings.threads; i++) {
+            Path file = scratchDir.resolve("worker-" + i + ".dat");
+            scratchFiles.add(file);
+            Thread worker = new Thread(() -> run(settings.pattern, file, settings.perWorker, settings.block),
+                    "fault-disk-io-" + settings.pattern + "-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Disk I/O fault started: pattern {}, {} threads, {}KB blocks, {}MB scratch in {}, limit {}.",
+                settings.pattern, settings.threads, settings.block / 1024, settings.perWorker * settings.threads / MB,
+                scratchDir, settings.rateBytes > 0 ? settings.rateBytes / MB + "MB/s" : "none");
+    }
+
+    // Throws IllegalArgumentException for an unknown pattern or a layout the
+    // workers cannot run, e.g. an mmap file smaller than one page.
+    private Settings settings(Map<String, Object> params) {
+        String pattern = FaultParams.getString(params, "pattern", "sequential");
+        if (!PATTERNS.contains(pattern)) {
+            throw new IllegalArgumentException("unknown pattern '" + pattern + "', expected one of " + PATTERNS);
+        }
+        long rateBytes = FaultParams.getLong(params, "rate", appProperties.getDiskFaultDefaultRateMb()) * MB;
+        int threads = Math.max(1, FaultParams.getInt(params, "threads", 1));
+        int block = FaultParams.getInt(params, "block", "sequential".equals(pattern) ? 1024 : 4) * 1024;
+        if (block <= 0) {
+            throw new IllegalArgumentException("block must be at least 1KB");
+        }
+        long cap = appProperties.getDiskFaultScratchMb() * MB;
+        long size = Math.min(cap, FaultParams.getLong(params, "size", appProperties.getDiskFaultScratchMb()) * MB);
+        long perWorker = Math.max(block, size / threads / block * block);
+        if ("mmap".equals(pattern) && perWorker < PAGE) {
+            throw new IllegalArgumentException("mmap needs at least one " + PAGE + "-byte page per worker, got "
+                    + perWorker + " bytes");
+        }
+        return new Settings(pattern, rateBytes, threads, block, perWorker);
+    }
+
+    private void run(String pattern, Path file, long fileSize, int block) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if ("mmap".equals(pattern)) {
+                touchPages(channel, fileSize);
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(block);
+            try {
+                long position = 0;
+                while (active.get()) {
+                    rateLimiter.acquire(block);
+                    buffer.clear();
+                    switch (pattern) {
+                        case "random":
+                            position = ThreadLocalRandom.current().nextLong(fileSize / block) * block;
+                            if (ThreadLocalRandom.current().nextBoolean() && position < channel.size()) {
+                                bytesRead.addAndGet(channel.read(buffer, position));
+                            } else {
+                                bytesWritten.addAndGet(channel.write(buffer, position));
+                            }
+                            break;
+                        case "fsync":
+                            bytesWritten.addAndGet(channel.write(buffer, position));
+                            channel.force(false);
+                            syncs.incrementAndGet();
+                            position = (position + block) % fileSize;
+                            break;
+                        default:
+                            bytesWritten.addAndGet(channel.write(buffer, position));
+                            position = (position + block) % fileSize;
+                    }
+                }
+            } finally {
+                DirectBuffers.free(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (active.get()) {
+                log.error("{} failed: {}", Thread.currentThread().getName(), e.getMessage());
+            }
+        }
+    }
+
+    // Each touch dirties a random page of the mapping: a page fault on first
+    // access, then writeback pressure that force() turns into bursts.
+    private void touchPages(FileChannel channel, long fileSize) throws IOException, InterruptedException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(fileSize, Integer.MAX_VALUE));
+        try {
+            int pages = mapped.capacity() / PAGE;
+            long touches = 0;
+            while (active.get()) {
+                rateLimiter.acquire(PAGE);
+                int offset = ThreadLocalRandom.current().nextInt(pages) * PAGE;
+                mapped.put(offset, (byte) touches);
+                bytesWritten.addAndGet(PAGE);
+                if (++touches % 1024 == 0) {
+                    mapped.force();
+                    syncs.incrementAndGet();
+                }
+            }
+        } finally {
+            DirectBuffers.free(mapped);
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws InterruptedException, IOException {
+        if (!active.get()) {
+            return;
+        }
+        active.set(false);
+        for (Thread worker : workers) {
+            worker.interrupt();
+            worker.join();
+        }
+        workers.clear();
+        for (Path file : scratchFiles) {
+            Files.deleteIfExists(file);
+        }
+        scratchFiles.clear();
+        Files.deleteIfExists(scratchDir);
+        log.info("Disk I/O fault stopped: {}MB written, {}MB read, {} syncs; scratch space removed.",
+                bytesWritten.get() / MB, bytesRead.get() / MB, syncs.get());
+    }
+
+    @Override
+    public boolean isActive() {
+        return active.get();
+    }
+
+    private record Settings(String pattern, long rateBytes, int threads, int block, long perWorker) {
+    }
+
+    /**
+     * Paces callers to a byte rate by handing out consecutive time slots.
+     */
+    private static final class RateLimiter {
+        private final double nanosPerByte;
+        private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+        RateLimiter(long bytesPerSecond) {
+            this.nanosPerByte = bytesPerSecond > 0 ? 1_000_000_000.0 / bytesPerSecond : 0;
+        }
+
+        void acquire(int bytes) throws InterruptedException {
+            if (nanosPerByte == 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                return;
+            }
+            long cost = (long) (bytes * nanosPerByte);
+            long now = System.nanoTime();
+            // Don't let an idle period bank unlimited credit.
+            long slot = nextSlot.getAndAccumulate(cost, (prev, c) -> Math.max(prev, now) + c);
+            long wait = Math.max(slot, now) - now;
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+            }
+        }
+    }
+}
@@ -10,4 +10,16 @@ public interface Fault {
     void stop() throws Exception;
 
     boolean isActive();
-}
\ No newline at end of file
+
+    // Rejects parameters the fault cannot run with, before anything is queued.
+    // Throws IllegalArgumentException; the default accepts everything.
+    default void validate(Map<String, Object> params) {
+    }
+
+    // Changes the parameters of an active fault, e.g. one step of a ramp.
+    // Faults that can retune in place override this to avoid a stop/start gap.
+    default void update(Map<String, Object> params) throws Exception {
+        stop();
+        start(params);
+    }
+}
@@ -1,44 +1,253 @@
 package com.apo.sandbox.fault;
 
+import com.apo.sandbox.jfr.FaultOperationEvent;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Owns the registered faults and applies them off the caller's thread.
+ *
+ * Every fault has its own single-threaded executor, so operations on one
+ * fault run in submission order while slow applies (a tc fork, a Toxiproxy
+ * HTTP call) never block callers or other faults. Each operation records
+ * its queue and apply time. A start may carry a TTL after which the fault
+ * is stopped automatically; starting a fault that is already active leaves
+ * it, its params and its TTL as they are.
+ */
 @Service
 public class FaultManager {
     private static final Logger log = LoggerFactory.getLogger(FaultManager.class);
     private final Map<String, Fault> faults;
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+    private final Map<String, FaultState> states = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ttlScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "fault-ttl");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public FaultManager(List<Fault> faultList) {
         this.faults = faultList.stream().collect(
                 Collectors.toConcurrentMap(Fault::getName, Function.identity()));
     }
 
+    public Fault getFault(String faultType) {
+        return faults.get(faultType);
+    }
+
+    public Map<String, Fault> getFaults() {
+        return Collections.unmodifiableMap(faults);
+    }
+
+    public FaultOperation startFaultAsync(String faultType, Map<String, Object> params,
+                                                             Duration ttl) {
+        validate(faultType, params);
+        return submit(faultType, FaultOperation.Type.START, params, fault -> {
+            // Starting an active fault is a no-op, so it must not replace the
+            // params or cancel the TTL of the start that is still running.
+            if (fault.isActive()) {
+                log.info("Fault '{}' is already active; start ignored.", faultType);
+                return;
+            }
+            fault.start(params);
+            if (!fault.isActive()) {
+                return;
+            }
+            FaultState state = state(faultType);
+            state.params = params;
+            state.startedAt = Instant.now();
+            scheduleTtl(faultType, state, ttl);
+        });
+    }
+
+    public FaultOperation updateFaultAsync(String faultType, Map<String, Object> params) {
+        validate(faultType, params);
+        return submit(faultType, FaultOperation.Type.UPDATE, params, fault -> {
+            fault.update(params);
+            state(faultType).params = params;
+        });
+    }
+
+    public FaultOperation stopFaultAsync(String faultType) {
+        return submit(faultType, FaultOperation.Type.STOP, Map.of(), fault -> {
+            fault.stop();
+            FaultState state = state(faultType);
+            scheduleTtl(faultType, state, null);
+            state.params = null;
+            state.startedAt = null;
+        });
+    }
+
     public void startFault(String faultType, Map<String, Object> params) throws Exception {
+        await(faultType, () -> startFaultAsync(faultType, params, null));
+    }
+
+    public void updateFault(String faultType, Map<String, Object> params) throws Exception {
+        await(faultType, () -> updateFaultAsync(faultType, params));
+    }
+
+    public void stopFault(String faultType) throws Exception {
+        await(faultType, () -> stopFaultAsync(faultType));
+    }
+
+    // True while the latest operation on the fault is queued or being applied.
+    public boolean isApplying(String faultType) {
+        FaultOperation last = state(faultType).lastOperation;
+        return last != null && (last.getStatus() == FaultOperation.Status.PENDING
+                || last.getStatus() == FaultOperation.Status.RUNNING);
+    }
+
+    // True while the latest operation on the fault failed less than backoff
+    // ago, so callers that start it on demand fail fast instead of retrying
+    // (and forking tc) on every request.
+    public boolean failedWithin(String faultType, Duration backoff) {
+        FaultOperation last = state(faultType).lastOperation;
+        return last != null && last.getStatus() == FaultOperation.Status.FAILED
+                && System.nanoTime() - last.getFinishedNanos() < backoff.toNanos();
+    }
+
+    public FaultStatus getStatus(String faultType) {
+        Fault fault = faults.get(faultType);
+        if (fault == null) {
+            return null;
+        }
+        FaultState state = state(faultType);
+        Long remaining = null;
+        if (state.ttl != null && !state.ttl.isDone()) {
+            remaining = Math.max(0, state.ttl.getDelay(TimeUnit.MILLISECONDS));
+        }
+        return new FaultStatus(faultType, fault.isActive(), state.params, state.startedAt, remaining,
+                state.lastOperation);
+    }
+
+    // Runs the fault's own parameter checks on the caller's thread, so a bad
+    // request fails before it is queued. Throws IllegalArgumentException.
+    private void validate(String faultType, Map<String, Object> params) {
         Fault fault = faults.get(faultType);
         if (fault != null) {
-            fault.start(params);
-        } else {
+            fault.validate(params);
+        }
+    }
+
+    // Queues the operation behind earlier ones on the same fault and returns
+    // it straight away. Throws IllegalArgumentException for unknown faults.
+    private FaultOperation submit(String faultType, FaultOperation.Type type,
+                                  Map<String, Object> params, FaultAction action) {
+        Fault fault = faults.get(faultType);
+        if (fault == null) {
+            throw new IllegalArgumentException("Unknown fault type: " + faultType);
+        }
+        FaultOperation operation = new FaultOperation(faultType, type, params);
+        state(faultType).lastOperation = operation;
+        executor(faultType).execute(() -> {
+            long began = operation.begin();
+            FaultOperationEvent event = new FaultOperationEvent();
+            event.begin();
+            Exception failure = null;
+            try {
+                action.apply(fault);
+            } catch (Exception e) {
+                failure = e;
+                log.error("Failed to {} fault '{}': {}", type.name().toLowerCase(), faultType, e.getMessage());
+            }
+            operation.finish(began, failure);
+            event.end();
+            if (event.shouldCommit()) {
+                event.fault = faultType;
+                event.operation = type.name();
+                event.params = String.valueOf(params);
+                event.status = operation.getStatus().name();
+                event.queuedMs = Math.round(operation.getQueuedMs());
+                event.commit();
+            }
+            log.info("Fault '{}' {} {} in {}ms (queued {}ms).", faultType, type.name().toLowerCase(),
+                    operation.getStatus().name().toLowerCase(), operation.getApplyMs(), operation.getQueuedMs());
+        });
+        return operation;
+    }
+
+    private void await(String faultType, Supplier<FaultOperation> submit) throws Exception {
+        if (!faults.containsKey(faultType)) {
             log.error("Unknown fault type: {}", faultType);
+            return;
+        }
+        FaultOperation operation = submit.get().getCompletion().get();
+        if (operation.getStatus() == FaultOperation.Status.FAILED) {
+            throw new IllegalStateException(operation.getError());
         }
     }
 
+    private void scheduleTtl(String faultType, FaultState state, Duration ttl) {
+        if (state.ttl != null) {
+            state.ttl.cancel(false);
+            state.ttl = null;
+        }
+        if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+            state.ttl = ttlScheduler.schedule(() -> {
+                log.info("TTL of fault '{}' expired, stopping it.", faultType);
+                stopFaultAsync(faultType);
+            }, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private FaultState state(String faultType) {
+        return states.computeIfAbsent(faultType, k -> new FaultState());
+    }
+
+    private ExecutorService executor(String faultType) {
+        return executors.computeIfAbsent(faultType, name -> Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "fault-ops-" + name);
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
     public void stopAllFaults() {
         log.info("Stopping all active faults...");
         faults.values().forEach(fault -> {
             if (fault.isActive()) {
                 try {
-                    fault.stop();
+                    stopFault(fault.getName());
                 } catch (Exception e) {
                     log.error("Failed to stop fault '{}': {}", fault.getName(), e.getMessage());
                 }
             }
         });
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdown() {
+        stopAllFaults();
+        ttlScheduler.shutdownNow();
+        executors.values().forEach(ExecutorService::shutdown);
+    }
+
+    @FunctionalInterface
+    private interface FaultAction {
+        void apply(Fault fault) throws Exception;
+    }
+
+    private static class FaultState {
+        private volatile Map<String, Object> params;
+        private volatile Instant startedAt;
+        private volatile ScheduledFuture<?> ttl;
+        private volatile FaultOperation lastOperation;
+    }
+}
@@ -0,0 +1,112 @@
+package com.apo.sandbox.fault;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One asynchronous fault operation and how long it took: the time spent
+ * queued behind earlier operations on the same fault, and the time the
+ * apply or revert itself took.
+ */
+public class FaultOperation {
+    public enum Type {
+        START,
+        UPDATE,
+        STOP
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String fault;
+    private final Type type;
+    private final Map<String, Object> params;
+    private final Instant submittedAt = Instant.now();
+    private final long submittedNanos = System.nanoTime();
+    private volatile Status status = Status.PENDING;
+    private volatile double queuedMs;
+    private volatile double applyMs;
+    private volatile String error;
+    private volatile long finishedNanos;
+    private final CompletableFuture<FaultOperation> completion = new CompletableFuture<>();
+
+    public FaultOperation(String fault, Type type, Map<String, Object> params) {
+        this.fault = fault;
+        this.type = type;
+        this.params = params;
+    }
+
+    long begin() {
+        long now = System.nanoTime();
+        queuedMs = (now - submittedNanos) / 1_000_000.0;
+        status = Status.RUNNING;
+        return now;
+    }
+
+    void finish(long beganNanos, Exception failure) {
+        finishedNanos = System.nanoTime();
+        applyMs = (finishedNanos - beganNanos) / 1_000_000.0;
+        if (failure != null) {
+            error = failure.getMessage();
+            status = Status.FAILED;
+        } else {
+            status = Status.SUCCEEDED;
+        }
+        completion.complete(this);
+    }
+
+    long getFinishedNanos() {
+        return finishedNanos;
+    }
+
+    // Completes once the operation has been applied, whether or not it failed.
+    @JsonIgnore
+    public CompletableFuture<FaultOperation> getCompletion() {
+        return completion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFault() {
+        return fault;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public double getQueuedMs() {
+        return queuedMs;
+    }
+
+    public double getApplyMs() {
+        return applyMs;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
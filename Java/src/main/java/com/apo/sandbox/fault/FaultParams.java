@@ -0,0 +1,51 @@
+package com.apo.sandbox.fault;
+
+import java.util.Map;
+
+/**
+ * Lenient accessors for fault parameters, which arrive as Integers from
+ * code, as Longs or Doubles from JSON and as Strings from query strings.
+ */
+public final class FaultParams {
+
+    private FaultParams() {
+    }
+
+    public static int getInt(Map<String, Object> params, String key, int defaultValue) {
+        Object value = params.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            return Integer.parseInt((String) value);
+        }
+        return defaultValue;
+    }
+
+    public static long getLong(Map<String, Object> params, String key, long defaultValue) {
+        Object value = params.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            return Long.parseLong((String) value);
+        }
+        return defaultValue;
+    }
+
+    public static double getDouble(Map<String, Object> params, String key, double defaultValue) {
+        Object value = params.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            return Double.parseDouble((String) value);
+        }
+        return defaultValue;
+    }
+
+    public static String getString(Map<String, Object> params, String key, String defaultValue) {
+        Object value = params.get(key);
+        return value == null ? defaultValue : value.toString();
+    }
+}
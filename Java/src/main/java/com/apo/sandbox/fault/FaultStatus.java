@@ -0,0 +1,50 @@
+package com.apo.sandbox.fault;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Snapshot of a registered fault for the /api/faults endpoints.
+ */
+public class FaultStatus {
+    private final String name;
+    private final boolean active;
+    private final Map<String, Object> params;
+    private final Instant startedAt;
+    private final Long remainingTtlMs;
+    private final FaultOperation lastOperation;
+
+    public FaultStatus(String name, boolean active, Map<String, Object> params, Instant startedAt,
+                       Long remainingTtlMs, FaultOperation lastOperation) {
+        this.name = name;
+        this.active = active;
+        this.params = params;
+        this.startedAt = startedAt;
+        this.remainingTtlMs = remainingTtlMs;
+        this.lastOperation = lastOperation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Long getRemainingTtlMs() {
+        return remainingTtlMs;
+    }
+
+    public FaultOperation getLastOperation() {
+        return lastOperation;
+    }
+}
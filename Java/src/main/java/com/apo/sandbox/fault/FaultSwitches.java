@@ -0,0 +1,130 @@
+package com.apo.sandbox.fault;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Armed/disarmed switches for each fault plumbing path.
+ *
+ * Every switch is a {@link MutableCallSite} whose invoker lives in a static
+ * final field, so while a path is disarmed the JIT treats the guard as the
+ * constant {@code false} and folds the fault branch away. Arming or disarming
+ * swaps the target and deoptimizes dependent code, which is fine because
+ * toggling happens a handful of times per experiment, not per request.
+ */
+public final class FaultSwitches {
+    private static final Logger log = LoggerFactory.getLogger(FaultSwitches.class);
+
+    public enum Path {
+        /** Host-wide netem rule installed with tc. */
+        TC,
+        /** Toxics on the Toxiproxy proxies. */
+        TOXIPROXY,
+        /** FAULT.START sent to the Go Redis proxy. */
+        REDIS_PROXY,
+        /** Hooks executed inside the JVM on the Store path. */
+        IN_PROCESS
+    }
+
+    private static final MethodHandle ARMED = MethodHandles.constant(boolean.class, true);
+    private static final MethodHandle DISARMED = MethodHandles.constant(boolean.class, false);
+
+    private static final MutableCallSite TC_SITE = new MutableCallSite(DISARMED);
+    private static final MutableCallSite TOXIPROXY_SITE = new MutableCallSite(DISARMED);
+    private static final MutableCallSite REDIS_PROXY_SITE = new MutableCallSite(DISARMED);
+    private static final MutableCallSite IN_PROCESS_SITE = new MutableCallSite(DISARMED);
+
+    private static final MethodHandle TC = TC_SITE.dynamicInvoker();
+    private static final MethodHandle TOXIPROXY = TOXIPROXY_SITE.dynamicInvoker();
+    private static final MethodHandle REDIS_PROXY = REDIS_PROXY_SITE.dynamicInvoker();
+    private static final MethodHandle IN_PROCESS = IN_PROCESS_SITE.dynamicInvoker();
+
+    private static final Map<Path, Boolean> state = new EnumMap<>(Path.class);
+
+    static {
+        for (Path path : Path.values()) {
+            state.put(path, false);
+        }
+    }
+
+    private FaultSwitches() {
+    }
+
+    public static boolean tcArmed() {
+        try {
+            return (boolean) TC.invokeExact();
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    public static boolean toxiproxyArmed() {
+        try {
+            return (boolean) TOXIPROXY.invokeExact();
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    public static boolean redisProxyArmed() {
+        try {
+            return (boolean) REDIS_PROXY.invokeExact();
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    public static boolean inProcessArmed() {
+        try {
+            return (boolean) IN_PROCESS.invokeExact();
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    /**
+     * Slow-path lookup for status reporting. Hot paths should use the
+     * per-path methods above.
+     */
+    public static synchronized boolean isArmed(Path path) {
+        return state.get(path);
+    }
+
+    public static void arm(Path path) {
+        set(path, true);
+    }
+
+    public static void disarm(Path path) {
+        set(path, false);
+    }
+
+    private static synchronized void set(Path path, boolean armed) {
+        if (state.get(path) == armed) {
+            return;
+        }
+        MutableCallSite site = site(path);
+        site.setTarget(armed ? ARMED : DISARMED);
+        MutableCallSite.syncAll(new MutableCallSite[] { site });
+        state.put(path, armed);
+        log.info("Fault path {} {}.", path, armed ? "armed" : "disarmed");
+    }
+
+    private static MutableCallSite site(Path path) {
+        switch (path) {
+            case TC:
+                return TC_SITE;
+            case TOXIPROXY:
+                return TOXIPROXY_SITE;
+            case REDIS_PROXY:
+                return REDIS_PROXY_SITE;
+            default:
+                return IN_PROCESS_SITE;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.apo.sandbox.fault;
+
+import java.util.Arrays;
+
+/**
+ * Registry of hooks that run inside the JVM before each Store backend call.
+ *
+ * The registry arms {@link FaultSwitches.Path#IN_PROCESS} while at least one
+ * hook is registered, so callers guard {@link #beforeCall(Backend)} with
+ * {@link FaultSwitches#inProcessArmed()} and pay nothing when it is empty.
+ */
+public final class InProcessHooks {
+
+    public enum Backend {
+        REDIS,
+        MYSQL
+    }
+
+    @FunctionalInterface
+    public interface Hook {
+        void beforeCall(Backend backend) throws Exception;
+    }
+
+    private static volatile Hook[] hooks = new Hook[0];
+
+    private InProcessHooks() {
+    }
+
+    public static synchronized void register(Hook hook) {
+        Hook[] current = hooks;
+        for (Hook h : current) {
+            if (h == hook) {
+                return;
+            }
+        }
+        Hook[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = hook;
+        hooks = next;
+        FaultSwitches.arm(FaultSwitches.Path.IN_PROCESS);
+    }
+
+    public static synchronized void unregister(Hook hook) {
+        Hook[] current = hooks;
+        Hook[] next = Arrays.stream(current).filter(h -> h != hook).toArray(Hook[]::new);
+        if (next.length == current.length) {
+            return;
+        }
+        hooks = next;
+        if (next.length == 0) {
+            FaultSwitches.disarm(FaultSwitches.Path.IN_PROCESS);
+        }
+    }
+
+    public static void beforeCall(Backend backend) throws Exception {
+        for (Hook hook : hooks) {
+            hook.beforeCall(backend);
+        }
+    }
+}
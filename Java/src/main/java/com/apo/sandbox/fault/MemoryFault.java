@@ -0,0 +1,254 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap and off-heap memory pressure.
+ *
+ * Params:
+ * <ul>
+ * <li>{@code rate} - allocation rate in MB/s</li>
+ * <li>{@code retain} - heap footprint in MB kept reachable until stop</li>
+ * <li>{@code direct} - off-heap footprint in MB allocated with
+ * {@link ByteBuffer#allocateDirect(int)}</li>
+ * <li>{@code pattern} - {@code steady} fills the retained set once and then
+ * allocates short-lived garbage, {@code sawtooth} repeatedly fills and drops
+ * the retained set so it is promoted and collected in the old generation,
+ * {@code humongous} allocates in chunks larger than a G1 region</li>
+ * <li>{@code chunk} - allocation chunk size in KB, 1 to 65536</li>
+ * </ul>
+ * Every byte allocated, retained and released is counted, and stop() drops
+ * all references and frees the direct buffers immediately.
+ */
+@Component
+public class MemoryFault implements Fault {
+    private static final Logger log = LoggerFactory.getLogger(MemoryFault.class);
+    private static final long MB = 1024L * 1024L;
+    private static final int TICK_MS = 10;
+    private static final int HUMONGOUS_CHUNK = 8 * 1024 * 1024;
+    private static final int MAX_CHUNK_KB = 64 * 1024;
+    // 1 TB; keeps the byte budget (bytes x 1000) well inside a long.
+    private static final long MAX_MB = 1024L * 1024L;
+    private static final Set<String> PATTERNS = Set.of("steady", "sawtooth", "humongous");
+
+    private final AppProperties appProperties;
+    private final AtomicBoolean active = new AtomicBoolean(false);
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong heapRetainedBytes = new AtomicLong();
+    private final AtomicLong directRetainedBytes = new AtomicLong();
+    private final List<byte[]> heapRetained = new ArrayList<>();
+    private final List<ByteBuffer> directRetained = new ArrayList<>();
+    private Thread allocator;
+    // Keeps short-lived chunks observable so escape analysis cannot remove them.
+    private volatile byte[] sink;
+
+    public MemoryFault(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        Gauge.builder("sandbox.fault.memory.allocated", allocatedBytes, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("sandbox.fault.memory.heap.retained", heapRetainedBytes, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("sandbox.fault.memory.direct.retained", directRetainedBytes, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public void validate(Map<String, Object> params) {
+        settings(params);
+    }
+
+    @Override
+    public synchronized void start(Map<String, Object> params) {
+        if (active.get()) {
+            log.warn("Memory fault is already active.");
+            return;
+        }
+        Settings settings = settings(params);
+        long rateBytes = settings.rateBytes;
+        long retainBytes = settings.retainBytes;
+        String pattern = settings.pattern;
+        int chunk = settings.chunk;
+
+        // Never retain enough to take the service down with an OutOfMemoryError.
+        long heapCap = (long) (Runtime.getRuntime().maxMemory() * 0.8);
+        if (retainBytes > heapCap) {
+            log.warn("Requested {}MB retained heap exceeds 80% of max heap; capping at {}MB.",
+                    retainBytes / MB, heapCap / MB);
+            retainBytes = heapCap;
+        }
+
+        allocateDirect(settings.directBytes);
+        active.set(true);
+
+        long retainTarget = retainBytes;
+        allocator = new Thread(() -> allocate(rateBytes, retainTarget, chunk, pattern), "fault-memory-allocator");
+        allocator.setDaemon(true);
+        allocator.start();
+        log.info("Memory fault started: {}MB/s, {}MB heap retained, {}MB direct, pattern {}.",
+                rateBytes / MB, retainBytes / MB, directRetainedBytes.get() / MB, pattern);
+    }
+
+    // Throws IllegalArgumentException for an unknown pattern, a chunk the
+    // allocator cannot use or a negative size.
+    private Settings settings(Map<String, Object> params) {
+        String pattern = FaultParams.getString(params, "pattern", "steady");
+        if (!PATTERNS.contains(pattern)) {
+            throw new IllegalArgumentException("unknown pattern '" + pattern + "', expected one of " + PATTERNS);
+        }
+        int chunkKb = FaultParams.getInt(params, "chunk", 64);
+        if (chunkKb < 1 || chunkKb > MAX_CHUNK_KB) {
+            throw new IllegalArgumentException("chunk must be between 1 and " + MAX_CHUNK_KB + " KB");
+        }
+        return new Settings(pattern,
+                megabytes(params, "rate", appProperties.getMemoryFaultDefaultRateMb()),
+                megabytes(params, "retain", appProperties.getMemoryFaultDefaultRetainMb()),
+                megabytes(params, "direct", 0),
+                "humongous".equals(pattern) ? HUMONGOUS_CHUNK : chunkKb * 1024);
+    }
+
+    private static long megabytes(Map<String, Object> params, String key, long defaultMb) {
+        long mb = FaultParams.getLong(params, key, defaultMb);
+        if (mb < 0 || mb > MAX_MB) {
+            throw new IllegalArgumentException(key + " must be between 0 and " + MAX_MB + " MB");
+        }
+        return mb * MB;
+    }
+
+    private void allocateDirect(long directBytes) {
+        int chunk = (int) MB;
+        try {
+            while (directRetainedBytes.get() + chunk <= directBytes) {
+                directRetained.add(ByteBuffer.allocateDirect(chunk));
+                directRetainedBytes.addAndGet(chunk);
+                allocatedBytes.addAndGet(chunk);
+            }
+        } catch (OutOfMemoryError e) {
+            log.warn("Direct memory limit reached at {}MB: {}", directRetainedBytes.get() / MB, e.getMessage());
+        }
+    }
+
+    private void allocate(long rateBytes, long retainBytes, int chunk, String pattern) {
+        AllocationBudget budget = new AllocationBudget(rateBytes, chunk);
+        long next = System.nanoTime();
+        while (active.get()) {
+            budget.tick();
+            while (active.get() && budget.take(chunk)) {
+                byte[] block = new byte[chunk];
+                // Touch every page so the memory is really committed.
+                for (int i = 0; i < chunk; i += 4096) {
+                    block[i] = 1;
+                }
+                allocatedBytes.addAndGet(chunk);
+                if (heapRetainedBytes.get() + chunk <= retainBytes) {
+                    synchronized (heapRetained) {
+                        heapRetained.add(block);
+                    }
+                    heapRetainedBytes.addAndGet(chunk);
+                } else if ("sawtooth".equals(pattern)) {
+                    releaseHeap();
+                } else {
+                    sink = block;
+                }
+            }
+            next += TICK_MS * 1_000_000L;
+            long sleepNanos = next - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Bytes the allocator may use, topped up every tick at the configured
+     * rate. A chunk is only allocated once the budget covers it, so chunks
+     * larger than one tick's share (humongous ones in particular) are spread
+     * over several ticks and the rate holds for any chunk size. The budget
+     * is capped at one second's worth, or one chunk, so a stalled allocator
+     * does not catch up in a burst.
+     */
+    static final class AllocationBudget {
+        // Kept in bytes x 1000, so sub-byte shares of a tick are not lost.
+        private final long perTick;
+        private final long cap;
+        private long available;
+
+        AllocationBudget(long rateBytes, int chunk) {
+            this.perTick = rateBytes * TICK_MS;
+            this.cap = Math.max(chunk, rateBytes) * 1000;
+        }
+
+        void tick() {
+            available = Math.min(cap, available + perTick);
+        }
+
+        boolean take(int chunk) {
+            if (available < chunk * 1000L) {
+                return false;
+            }
+            available -= chunk * 1000L;
+            return true;
+        }
+    }
+
+    private void releaseHeap() {
+        synchronized (heapRetained) {
+            heapRetained.clear();
+        }
+        heapRetainedBytes.set(0);
+    }
+
+    private void releaseDirect() {
+        directRetained.forEach(DirectBuffers::free);
+        directRetained.clear();
+        directRetainedBytes.set(0);
+    }
+
+    @Override
+    public synchronized void stop() throws InterruptedException {
+        if (!active.get()) {
+            return;
+        }
+        active.set(false);
+        allocator.interrupt();
+        allocator.join();
+        allocator = null;
+        long heap = heapRetainedBytes.get();
+        long direct = directRetainedBytes.get();
+        releaseHeap();
+        releaseDirect();
+        sink = null;
+        log.info("Memory fault stopped: released {}MB heap and {}MB direct, {}MB allocated in total.",
+                heap / MB, direct / MB, allocatedBytes.get() / MB);
+    }
+
+    @Override
+    public boolean isActive() {
+        return active.get();
+    }
+
+    private record Settings(String pattern, long rateBytes, long retainBytes, long directBytes, int chunk) {
+    }
+}
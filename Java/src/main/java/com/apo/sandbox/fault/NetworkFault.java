@@ -1,22 +1,48 @@
 package com.apo.sandbox.fault;
 
 import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.latency.LatencyDistribution;
+import com.apo.sandbox.latency.LatencyProfileLoader;
+import com.apo.sandbox.latency.NetemTable;
+import com.apo.sandbox.latency.ProfilePlayer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Delays egress on NETWORK_FAULT_INTERFACE with tc netem. Params:
+ * {@code duration} (ms, every packet) or a recorded {@code profile} (see
+ * {@link LatencyProfileLoader}). A profile's phases are turned into netem
+ * distribution tables, so the kernel draws each packet's delay from the
+ * recorded shape; each new phase is one {@code tc qdisc change}, forked
+ * on this fault's own profile thread so it never delays other players.
+ */
 @Component
 public class NetworkFault implements Fault {
     private static final Logger log = LoggerFactory.getLogger(NetworkFault.class);
+    private static final String TABLE_NAME = "sandbox_profile";
     private final AtomicBoolean active = new AtomicBoolean(false);
     private final String networkInterface;
     private final AppProperties appProperties;
+    private final ScheduledExecutorService phaseScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "latency-profile-tc");
+        thread.setDaemon(true);
+        return thread;
+    });
     private int currentDelay = 0;
+    private ProfilePlayer player;
+    private Path tableDir;
+    private boolean qdiscInstalled;
 
     public NetworkFault(AppProperties appProperties) {
         this.appProperties = appProperties;
@@ -34,7 +60,14 @@ public class NetworkFault implements Fault {
             log.warn("Network fault is already active.");
             return;
         }
-        int delayMs = (int) params.getOrDefault("duration", appProperties.getLatencyFaultDefaultDelay());
+        if (LatencyProfileLoader.hasProfile(params)) {
+            clearTc();
+            startProfile(params);
+            active.set(true);
+            FaultSwitches.arm(FaultSwitches.Path.TC);
+            return;
+        }
+        int delayMs = FaultParams.getInt(params, "duration", appProperties.getLatencyFaultDefaultDelay());
         if (delayMs < 1) {
             delayMs = 100;
         }
@@ -48,9 +81,33 @@ public class NetworkFault implements Fault {
 
         this.currentDelay = delayMs;
         active.set(true);
+        FaultSwitches.arm(FaultSwitches.Path.TC);
         log.info("Successfully added {}ms delay on interface {}.", delayMs, networkInterface);
     }
 
+    // 'tc qdisc change' retunes the existing netem rule without dropping it.
+    @Override
+    public synchronized void update(Map<String, Object> params) throws Exception {
+        if (!active.get()) {
+            start(params);
+            return;
+        }
+        if (LatencyProfileLoader.hasProfile(params)) {
+            startProfile(params);
+            return;
+        }
+        stopProfile();
+        int delayMs = FaultParams.getInt(params, "duration", appProperties.getLatencyFaultDefaultDelay());
+        if (delayMs < 1) {
+            delayMs = 100;
+        }
+        String command = String.format("tc qdisc change dev %s root netem delay %dms", networkInterface, delayMs);
+        log.info("Executing command: {}", command);
+        executeCommand(command.split(" "));
+        this.currentDelay = delayMs;
+        log.info("Updated delay to {}ms on interface {}.", delayMs, networkInterface);
+    }
+
     // ... (rest of the file is unchanged, including stop(), clearTc(),
     // executeCommand(), isActive())
     @Override
@@ -58,11 +115,67 @@ public class NetworkFault implements Fault {
         if (!active.get()) {
             return;
         }
+        stopProfile();
         clearTc();
         active.set(false);
+        FaultSwitches.disarm(FaultSwitches.Path.TC);
         log.info("Successfully cleared network delay on interface {}.", networkInterface);
     }
 
+    // Replaces any running profile; the first phase is installed before returning.
+    private void startProfile(Map<String, Object> params) throws Exception {
+        stopProfile();
+        if (tableDir == null) {
+            tableDir = Files.createTempDirectory("sandbox-netem");
+        }
+        // A fixed-delay rule from start() or update() is already in place.
+        qdiscInstalled = active.get();
+        ProfilePlayer next = new ProfilePlayer(LatencyProfileLoader.fromParams(params), this::applyPhase,
+                phaseScheduler);
+        player = next;
+        try {
+            next.start();
+        } catch (RuntimeException e) {
+            player = null;
+            throw e;
+        }
+        log.info("Network fault replaying {} ({} phases) on interface {}.", next.getProfile().getSource(),
+                next.getProfile().getPhases().size(), networkInterface);
+    }
+
+    private void stopProfile() {
+        if (player != null) {
+            player.stop();
+            player = null;
+        }
+    }
+
+    // Runs on phaseScheduler for later phases; phases from a replaced or stopped player are dropped.
+    private synchronized void applyPhase(ProfilePlayer source, LatencyDistribution distribution) {
+        if (source != player) {
+            return;
+        }
+        NetemTable table = NetemTable.from(distribution);
+        String verb = qdiscInstalled ? "change" : "add";
+        try {
+            String command;
+            if (table.getSigmaMicros() == 0) {
+                command = String.format("tc qdisc %s dev %s root netem delay %dus", verb, networkInterface,
+                        table.getMuMicros());
+            } else {
+                table.write(tableDir.resolve(TABLE_NAME + ".dist"));
+                command = String.format("tc qdisc %s dev %s root netem delay %dus %dus distribution %s", verb,
+                        networkInterface, table.getMuMicros(), table.getSigmaMicros(), TABLE_NAME);
+            }
+            log.debug("Executing command: {}", command);
+            executeCommand(Map.of("TC_LIB_DIR", tableDir.toString()), command.split(" "));
+            qdiscInstalled = true;
+            this.currentDelay = (int) (table.getMuMicros() / 1000);
+        } catch (Exception e) {
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
     private void clearTc() throws Exception {
         log.info("Attempting to clear tc rules on interface {}.", networkInterface);
         String command = String.format("tc qdisc del dev %s root", networkInterface);
@@ -80,7 +193,12 @@ public class NetworkFault implements Fault {
     }
 
     private void executeCommand(String... command) throws Exception {
+        executeCommand(Map.of(), command);
+    }
+
+    private void executeCommand(Map<String, String> environment, String... command) throws Exception {
         ProcessBuilder pb = new ProcessBuilder(command);
+        pb.environment().putAll(environment);
         Process process = pb.start();
         int exitCode = process.waitFor();
 
@@ -99,4 +217,9 @@ public class NetworkFault implements Fault {
     public boolean isActive() {
         return active.get();
     }
+
+    @PreDestroy
+    public void shutdown() {
+        phaseScheduler.shutdownNow();
+    }
 }
\ No newline at end of file
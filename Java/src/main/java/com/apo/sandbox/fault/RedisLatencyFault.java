@@ -2,6 +2,9 @@ package com.apo.sandbox.fault;
 
 import com.apo.sandbox.config.AppProperties;
 import com.apo.sandbox.dao.IRedisClient;
+import com.apo.sandbox.latency.LatencyDistribution;
+import com.apo.sandbox.latency.LatencyProfileLoader;
+import com.apo.sandbox.latency.ProfilePlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -9,12 +12,19 @@ import org.springframework.stereotype.Component;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Delays commands in the Redis proxy. Params: {@code duration} (ms, every
+ * command) or a recorded {@code profile} (see {@link LatencyProfileLoader}),
+ * in which case the proxy draws each command's delay from the current
+ * phase's distribution and phases are pushed to it as they come up.
+ */
 @Component
 public class RedisLatencyFault implements Fault {
     private static final Logger log = LoggerFactory.getLogger(RedisLatencyFault.class);
     private final IRedisClient redisClient;
     private final AppProperties appProperties;
     private final AtomicBoolean active = new AtomicBoolean(false);
+    private ProfilePlayer player;
 
     public RedisLatencyFault(IRedisClient redisClient, AppProperties appProperties) {
         this.redisClient = redisClient;
@@ -30,19 +40,41 @@ public class RedisLatencyFault implements Fault {
     }
 
     @Override
-    public synchronized void start(Map<String, Object> params) {
+    public synchronized void start(Map<String, Object> params) throws Exception {
         if (active.get()) {
             log.info("Redis fault is already active.");
             return;
         }
-        int delay = (int) params.getOrDefault("duration", appProperties.getRedisFaultDefaultDelay());
-        try {
-            redisClient.startFault(delay);
+        if (LatencyProfileLoader.hasProfile(params)) {
+            startProfile(params);
             active.set(true);
-            log.info("Redis latency fault started with delay: {}ms", delay);
-        } catch (Exception e) {
-            log.error("Failed to start Redis latency fault: {}", e.getMessage());
+            FaultSwitches.arm(FaultSwitches.Path.REDIS_PROXY);
+            return;
+        }
+        int delay = FaultParams.getInt(params, "duration", appProperties.getRedisFaultDefaultDelay());
+        // A proxy that could not be reached fails the operation.
+        redisClient.startFault(delay);
+        active.set(true);
+        FaultSwitches.arm(FaultSwitches.Path.REDIS_PROXY);
+        log.info("Redis latency fault started with delay: {}ms", delay);
+    }
+
+    // The proxy simply replaces its delay on a second FAULT.START.
+    @Override
+    public synchronized void update(Map<String, Object> params) throws Exception {
+        if (!active.get()) {
+            start(params);
+            return;
+        }
+        if (LatencyProfileLoader.hasProfile(params)) {
+            startProfile(params);
+            return;
         }
+        stopProfile();
+        int delay = FaultParams.getInt(params, "duration", appProperties.getRedisFaultDefaultDelay());
+        // As in start(), an unreachable proxy fails the operation.
+        redisClient.startFault(delay);
+        log.info("Redis latency fault updated to delay: {}ms", delay);
     }
 
     // ... (rest of the file is unchanged, including stop() and isActive())
@@ -51,15 +83,46 @@ public class RedisLatencyFault implements Fault {
         if (!active.get()) {
             return;
         }
+        stopProfile();
         try {
             redisClient.stopFault();
             active.set(false);
+            FaultSwitches.disarm(FaultSwitches.Path.REDIS_PROXY);
             log.info("Redis latency fault stopped.");
         } catch (Exception e) {
             log.error("Failed to stop Redis latency fault: {}", e.getMessage());
         }
     }
 
+    // Replaces any running profile; the first phase is sent before returning.
+    private void startProfile(Map<String, Object> params) throws Exception {
+        stopProfile();
+        ProfilePlayer next = new ProfilePlayer(LatencyProfileLoader.fromParams(params), this::pushPhase);
+        player = next;
+        try {
+            next.start();
+        } catch (RuntimeException e) {
+            player = null;
+            throw e;
+        }
+        log.info("Redis latency fault replaying {} ({} phases).", next.getProfile().getSource(),
+                next.getProfile().getPhases().size());
+    }
+
+    private void stopProfile() {
+        if (player != null) {
+            player.stop();
+            player = null;
+        }
+    }
+
+    // Runs on the profile thread for later phases; phases from a replaced or stopped player are dropped.
+    private synchronized void pushPhase(ProfilePlayer source, LatencyDistribution distribution) {
+        if (source == player) {
+            redisClient.startFaultProfile(distribution.getValues(), distribution.getCounts());
+        }
+    }
+
     @Override
     public boolean isActive() {
         return active.get();
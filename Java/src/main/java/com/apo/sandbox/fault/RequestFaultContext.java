@@ -0,0 +1,24 @@
+package com.apo.sandbox.fault;
+
+/**
+ * Carries the current request's fault spec from the servlet filter down to
+ * the Store calls made on the same thread.
+ */
+public final class RequestFaultContext {
+    private static final ThreadLocal<RequestFaultSpec> CURRENT = new ThreadLocal<>();
+
+    private RequestFaultContext() {
+    }
+
+    public static RequestFaultSpec get() {
+        return CURRENT.get();
+    }
+
+    static void set(RequestFaultSpec spec) {
+        CURRENT.set(spec);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
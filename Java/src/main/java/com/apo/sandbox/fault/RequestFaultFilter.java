@@ -0,0 +1,103 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies faults to a single request instead of the whole host.
+ *
+ * A spec in the {@code X-Fault} header or {@code fault} query parameter (see
+ * {@link RequestFaultSpec}) is bound to the request thread, and an
+ * in-process hook applies it to that request's Store calls only. The hook
+ * is reference-counted by the faulted requests in flight: the first one
+ * registers it and the last one to finish removes it, so a long delay never
+ * loses the hook partway through and clean traffic is back on the folded
+ * fast path as soon as no faulted request is running.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class RequestFaultFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(RequestFaultFilter.class);
+    public static final String HEADER = "X-Fault";
+    public static final String PARAM = "fault";
+
+    private final AppProperties appProperties;
+    private final InProcessHooks.Hook hook = RequestFaultFilter::applyCurrent;
+    // Faulted requests in flight; guarded by this.
+    private int inFlight;
+
+    public RequestFaultFilter(AppProperties appProperties) {
+        this.appProperties = appProperties;
+    }
+
+    public static boolean carriesFault(HttpServletRequest request) {
+        return request.getHeader(HEADER) != null || request.getParameter(PARAM) != null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !appProperties.getRequestFaultsEnabled() || !carriesFault(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String raw = request.getHeader(HEADER);
+        if (raw == null) {
+            raw = request.getParameter(PARAM);
+        }
+        RequestFaultSpec spec;
+        try {
+            spec = RequestFaultSpec.parse(raw, appProperties.getRequestFaultMaxDelayMs());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid fault spec: " + e.getMessage());
+            return;
+        }
+
+        acquireHook();
+        RequestFaultContext.set(spec);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestFaultContext.clear();
+            releaseHook();
+        }
+    }
+
+    private static void applyCurrent(InProcessHooks.Backend backend) throws InterruptedException {
+        RequestFaultSpec spec = RequestFaultContext.get();
+        if (spec != null) {
+            spec.apply(backend);
+        }
+    }
+
+    synchronized void acquireHook() {
+        if (inFlight++ == 0) {
+            InProcessHooks.register(hook);
+            log.debug("Request-scoped fault hook registered.");
+        }
+    }
+
+    synchronized void releaseHook() {
+        if (--inFlight == 0) {
+            InProcessHooks.unregister(hook);
+            log.debug("Request-scoped fault hook unregistered.");
+        }
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,95 @@
+package com.apo.sandbox.fault;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fault spec carried by a single request, e.g.
+ * {@code X-Fault: redis.delay=50; mysql.error=0.1}.
+ *
+ * Each entry is {@code [backend.]kind=value}: backend is {@code redis} or
+ * {@code mysql} (omitted means both), kind is {@code delay} in ms or
+ * {@code error} as a failure probability (1 = always, clamped to [0, 1]).
+ */
+public final class RequestFaultSpec {
+    private final long[] delayMs = new long[InProcessHooks.Backend.values().length];
+    private final double[] errorRate = new double[InProcessHooks.Backend.values().length];
+
+    private RequestFaultSpec() {
+    }
+
+    public static RequestFaultSpec parse(String spec) {
+        return parse(spec, Long.MAX_VALUE);
+    }
+
+    // Rejects delays above maxDelayMs, so one request cannot pin a servlet
+    // thread for as long as it likes.
+    public static RequestFaultSpec parse(String spec, long maxDelayMs) {
+        RequestFaultSpec result = new RequestFaultSpec();
+        for (String entry : spec.split("[;,]")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected [backend.]kind=value but got '" + entry + "'");
+            }
+            String key = entry.substring(0, eq).trim().toLowerCase();
+            String value = entry.substring(eq + 1).trim();
+            int dot = key.indexOf('.');
+            String kind = dot < 0 ? key : key.substring(dot + 1);
+            InProcessHooks.Backend[] targets = dot < 0
+                    ? InProcessHooks.Backend.values()
+                    : new InProcessHooks.Backend[] { backend(key.substring(0, dot)) };
+            for (InProcessHooks.Backend target : targets) {
+                switch (kind) {
+                    case "delay":
+                        result.delayMs[target.ordinal()] = delay(value, maxDelayMs);
+                        break;
+                    case "error":
+                        result.errorRate[target.ordinal()] = errorRate(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown fault kind '" + kind + "'");
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long delay(String value, long maxDelayMs) {
+        long delay = Long.parseLong(value.replace("ms", ""));
+        if (delay < 0 || delay > maxDelayMs) {
+            throw new IllegalArgumentException("delay must be between 0 and " + maxDelayMs + "ms");
+        }
+        return delay;
+    }
+
+    // A probability, so values outside [0, 1] are clamped.
+    private static double errorRate(String value) {
+        double rate = Double.parseDouble(value);
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("error must be a number");
+        }
+        return Math.max(0.0, Math.min(1.0, rate));
+    }
+
+    private static InProcessHooks.Backend backend(String name) {
+        try {
+            return InProcessHooks.Backend.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown backend '" + name + "'");
+        }
+    }
+
+    public void apply(InProcessHooks.Backend backend) throws InterruptedException {
+        long delay = delayMs[backend.ordinal()];
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+        double rate = errorRate[backend.ordinal()];
+        if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            throw new IllegalStateException("Injected request-scoped " + backend + " error");
+        }
+    }
+}
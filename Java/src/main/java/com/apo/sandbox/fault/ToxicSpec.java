@@ -0,0 +1,110 @@
+package com.apo.sandbox.fault;
+
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One Toxiproxy toxic as described by fault params.
+ *
+ * Params: {@code type} is {@code latency}, {@code bandwidth}, {@code slow_close},
+ * {@code timeout} or {@code slicer}; {@code direction} is {@code upstream} or
+ * {@code downstream}; {@code toxicity} is the fraction of connections affected.
+ * Type-specific values are {@code latency}/{@code jitter} (ms), {@code rate} (KB/s),
+ * {@code delay} (ms), {@code timeout} (ms) and {@code average_size}/{@code size_variation}
+ * (bytes). Without an explicit {@code name} the toxic is named after its type and
+ * direction, so applying the same spec twice updates one toxic.
+ */
+public class ToxicSpec {
+    public enum Type {
+        LATENCY,
+        BANDWIDTH,
+        SLOW_CLOSE,
+        TIMEOUT,
+        SLICER
+    }
+
+    private final String name;
+    private final Type type;
+    private final ToxicDirection direction;
+    private final float toxicity;
+    private final long latency;
+    private final long jitter;
+    private final long rate;
+    private final long delay;
+    private final long timeout;
+    private final long averageSize;
+    private final long sizeVariation;
+
+    private ToxicSpec(Map<String, Object> params) {
+        this.type = Type.valueOf(FaultParams.getString(params, "type", "latency").toUpperCase(Locale.ROOT));
+        this.direction = ToxicDirection.valueOf(
+                FaultParams.getString(params, "direction", "downstream").toUpperCase(Locale.ROOT));
+        this.name = FaultParams.getString(params, "name",
+                type.name().toLowerCase(Locale.ROOT) + "_" + direction.name().toLowerCase(Locale.ROOT));
+        this.toxicity = (float) Math.max(0, Math.min(1, FaultParams.getDouble(params, "toxicity", 1.0)));
+        this.latency = FaultParams.getLong(params, "latency", FaultParams.getLong(params, "duration", 100));
+        this.jitter = FaultParams.getLong(params, "jitter", 0);
+        this.rate = FaultParams.getLong(params, "rate", 64);
+        this.delay = FaultParams.getLong(params, "delay", 0);
+        this.timeout = FaultParams.getLong(params, "timeout", 0);
+        this.averageSize = FaultParams.getLong(params, "average_size", 64);
+        this.sizeVariation = FaultParams.getLong(params, "size_variation", 0);
+    }
+
+    // Throws IllegalArgumentException for an unknown type or direction.
+    public static ToxicSpec fromParams(Map<String, Object> params) {
+        return new ToxicSpec(params);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ToxicDirection getDirection() {
+        return direction;
+    }
+
+    public float getToxicity() {
+        return toxicity;
+    }
+
+    public long getLatency() {
+        return latency;
+    }
+
+    public long getJitter() {
+        return jitter;
+    }
+
+    public long getRate() {
+        return rate;
+    }
+
+    public long getDelay() {
+        return delay;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public long getAverageSize() {
+        return averageSize;
+    }
+
+    public long getSizeVariation() {
+        return sizeVariation;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + type.name().toLowerCase(Locale.ROOT) + ", " + direction.name().toLowerCase(Locale.ROOT)
+                + ", toxicity " + toxicity + ")";
+    }
+}
@@ -0,0 +1,161 @@
+package com.apo.sandbox.fault;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.model.Toxic;
+import eu.rekawek.toxiproxy.model.ToxicList;
+import eu.rekawek.toxiproxy.model.toxic.Bandwidth;
+import eu.rekawek.toxiproxy.model.toxic.Latency;
+import eu.rekawek.toxiproxy.model.toxic.Slicer;
+import eu.rekawek.toxiproxy.model.toxic.SlowClose;
+import eu.rekawek.toxiproxy.model.toxic.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds and removes toxics on the Toxiproxy proxies in front of Redis and MySQL.
+ *
+ * Both operations are idempotent: applying a spec whose toxic already exists
+ * updates it in place (or replaces it if the type changed), and removing a
+ * missing toxic is a no-op. While any toxic sits on the Redis proxy the
+ * {@link FaultSwitches.Path#TOXIPROXY} switch is armed, which is what routes
+ * Redis traffic through the proxy. MySQL always goes through its proxy.
+ */
+public class ToxicsManager {
+    private static final Logger log = LoggerFactory.getLogger(ToxicsManager.class);
+    private final Map<InProcessHooks.Backend, Proxy> proxies;
+
+    public ToxicsManager(Map<InProcessHooks.Backend, Proxy> proxies) {
+        this.proxies = proxies.isEmpty() ? Map.of() : new EnumMap<>(proxies);
+    }
+
+    public boolean isEnabled() {
+        return !proxies.isEmpty();
+    }
+
+    public Proxy getProxy(InProcessHooks.Backend backend) {
+        return proxies.get(backend);
+    }
+
+    public synchronized void apply(InProcessHooks.Backend backend, ToxicSpec spec) throws IOException {
+        ToxicList toxics = proxy(backend).toxics();
+        Toxic existing = find(toxics, spec.getName());
+        if (existing != null && (existing.getStream() != spec.getDirection() || !sameType(existing, spec))) {
+            existing.remove();
+            existing = null;
+        }
+        Toxic toxic = existing == null ? create(toxics, spec) : retune(existing, spec);
+        if (toxic.getToxicity() != spec.getToxicity()) {
+            toxic.setToxicity(spec.getToxicity());
+        }
+        syncSwitch();
+        log.info("Applied toxic {} on {} proxy.", spec, backend.name().toLowerCase());
+    }
+
+    public synchronized boolean remove(InProcessHooks.Backend backend, String name) throws IOException {
+        Proxy proxy = proxies.get(backend);
+        if (proxy == null) {
+            return false;
+        }
+        Toxic toxic = find(proxy.toxics(), name);
+        if (toxic == null) {
+            return false;
+        }
+        toxic.remove();
+        syncSwitch();
+        log.info("Removed toxic {} from {} proxy.", name, backend.name().toLowerCase());
+        return true;
+    }
+
+    // Clears every toxic on every proxy and disarms the switch to match.
+    public synchronized void removeAll() throws IOException {
+        for (Map.Entry<InProcessHooks.Backend, Proxy> entry : proxies.entrySet()) {
+            for (Toxic toxic : entry.getValue().toxics().getAll()) {
+                toxic.remove();
+                log.info("Removed leftover toxic {} from {} proxy.", toxic.getName(),
+                        entry.getKey().name().toLowerCase());
+            }
+        }
+        syncSwitch();
+    }
+
+    public synchronized List<String> getToxicNames(InProcessHooks.Backend backend) throws IOException {
+        List<String> names = new ArrayList<>();
+        Proxy proxy = proxies.get(backend);
+        if (proxy != null) {
+            for (Toxic toxic : proxy.toxics().getAll()) {
+                names.add(toxic.getName());
+            }
+        }
+        return names;
+    }
+
+    private Proxy proxy(InProcessHooks.Backend backend) {
+        Proxy proxy = proxies.get(backend);
+        if (proxy == null) {
+            throw new IllegalStateException("Toxiproxy is not deployed for " + backend.name().toLowerCase());
+        }
+        return proxy;
+    }
+
+    private static Toxic find(ToxicList toxics, String name) throws IOException {
+        for (Toxic toxic : toxics.getAll()) {
+            if (toxic.getName().equals(name)) {
+                return toxic;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameType(Toxic toxic, ToxicSpec spec) {
+        return switch (spec.getType()) {
+            case LATENCY -> toxic instanceof Latency;
+            case BANDWIDTH -> toxic instanceof Bandwidth;
+            case SLOW_CLOSE -> toxic instanceof SlowClose;
+            case TIMEOUT -> toxic instanceof Timeout;
+            case SLICER -> toxic instanceof Slicer;
+        };
+    }
+
+    private static Toxic create(ToxicList toxics, ToxicSpec spec) throws IOException {
+        return switch (spec.getType()) {
+            case LATENCY -> toxics.latency(spec.getName(), spec.getDirection(), spec.getLatency())
+                    .setJitter(spec.getJitter());
+            case BANDWIDTH -> toxics.bandwidth(spec.getName(), spec.getDirection(), spec.getRate());
+            case SLOW_CLOSE -> toxics.slowClose(spec.getName(), spec.getDirection(), spec.getDelay());
+            case TIMEOUT -> toxics.timeout(spec.getName(), spec.getDirection(), spec.getTimeout());
+            case SLICER -> toxics.slicer(spec.getName(), spec.getDirection(), spec.getAverageSize(),
+                    spec.getSizeVariation()).setDelay(spec.getDelay());
+        };
+    }
+
+    private static Toxic retune(Toxic toxic, ToxicSpec spec) throws IOException {
+        if (toxic instanceof Latency latency) {
+            return latency.setLatency(spec.getLatency()).setJitter(spec.getJitter());
+        } else if (toxic instanceof Bandwidth bandwidth) {
+            return bandwidth.setRate(spec.getRate());
+        } else if (toxic instanceof SlowClose slowClose) {
+            return slowClose.setDelay(spec.getDelay());
+        } else if (toxic instanceof Timeout timeout) {
+            return timeout.setTimeout(spec.getTimeout());
+        } else if (toxic instanceof Slicer slicer) {
+            return slicer.setAverageSize(spec.getAverageSize()).setSizeVariation(spec.getSizeVariation())
+                    .setDelay(spec.getDelay());
+        }
+        return toxic;
+    }
+
+    private void syncSwitch() throws IOException {
+        Proxy redis = proxies.get(InProcessHooks.Backend.REDIS);
+        if (redis != null && !redis.toxics().getAll().isEmpty()) {
+            FaultSwitches.arm(FaultSwitches.Path.TOXIPROXY);
+        } else {
+            FaultSwitches.disarm(FaultSwitches.Path.TOXIPROXY);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.apo.sandbox.fault;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Puts one Toxiproxy toxic on the Redis proxy, the MySQL proxy or both.
+ *
+ * Params: {@code backend} is {@code redis}, {@code mysql} or {@code all};
+ * the rest describe the toxic, see {@link ToxicSpec}. Update retunes the
+ * toxic in place; stop removes every toxic this fault added.
+ */
+@Component
+public class ToxiproxyFault implements Fault {
+    private static final Logger log = LoggerFactory.getLogger(ToxiproxyFault.class);
+    private final ToxicsManager toxicsManager;
+    private final List<Applied> applied = new ArrayList<>();
+
+    public ToxiproxyFault(ToxicsManager toxicsManager) {
+        this.toxicsManager = toxicsManager;
+    }
+
+    @Override
+    public String getName() {
+        return "toxiproxy";
+    }
+
+    @Override
+    public void validate(Map<String, Object> params) {
+        ToxicSpec.fromParams(params);
+        backends(params);
+    }
+
+    @Override
+    public synchronized void start(Map<String, Object> params) throws Exception {
+        if (!applied.isEmpty()) {
+            log.warn("Toxiproxy fault is already active.");
+            return;
+        }
+        apply(params);
+    }
+
+    @Override
+    public synchronized void update(Map<String, Object> params) throws Exception {
+        List<Applied> previous = new ArrayList<>(applied);
+        applied.clear();
+        apply(params);
+        for (Applied toxic : previous) {
+            if (!applied.contains(toxic)) {
+                toxicsManager.remove(toxic.backend(), toxic.name());
+            }
+        }
+    }
+
+    private void apply(Map<String, Object> params) throws IOException {
+        ToxicSpec spec = ToxicSpec.fromParams(params);
+        for (InProcessHooks.Backend backend : backends(params)) {
+            toxicsManager.apply(backend, spec);
+            applied.add(new Applied(backend, spec.getName()));
+        }
+    }
+
+    // Throws IllegalArgumentException for an unknown backend.
+    private static List<InProcessHooks.Backend> backends(Map<String, Object> params) {
+        String backend = FaultParams.getString(params, "backend", "redis").toLowerCase(Locale.ROOT);
+        if ("all".equals(backend)) {
+            return List.of(InProcessHooks.Backend.values());
+        }
+        return List.of(InProcessHooks.Backend.valueOf(backend.toUpperCase(Locale.ROOT)));
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        for (Applied toxic : applied) {
+            toxicsManager.remove(toxic.backend(), toxic.name());
+        }
+        applied.clear();
+    }
+
+    @Override
+    public synchronized boolean isActive() {
+        return !applied.isEmpty();
+    }
+
+    private record Applied(InProcessHooks.Backend backend, String name) {
+    }
+}
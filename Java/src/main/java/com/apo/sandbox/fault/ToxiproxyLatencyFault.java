@@ -0,0 +1,66 @@
+package com.apo.sandbox.fault;
+
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adds a latency toxic to the Toxiproxy proxy in front of Redis. This is
+ * the fault behind /api/users/3?mode=1.
+ */
+@Component
+public class ToxiproxyLatencyFault implements Fault {
+    private static final Logger log = LoggerFactory.getLogger(ToxiproxyLatencyFault.class);
+    private static final String TOXIC_NAME = "redis_latency";
+    private final AtomicBoolean active = new AtomicBoolean(false);
+    private final ToxicsManager toxicsManager;
+
+    public ToxiproxyLatencyFault(ToxicsManager toxicsManager) {
+        this.toxicsManager = toxicsManager;
+    }
+
+    @Override
+    public String getName() {
+        return "toxiproxy_latency";
+    }
+
+    @Override
+    public synchronized void start(Map<String, Object> params) throws Exception {
+        if (active.get()) {
+            log.warn("Toxiproxy latency fault is already active.");
+            return;
+        }
+        update(params);
+    }
+
+    @Override
+    public synchronized void update(Map<String, Object> params) throws Exception {
+        int delayMs = FaultParams.getInt(params, "duration", 100);
+        toxicsManager.apply(InProcessHooks.Backend.REDIS, ToxicSpec.fromParams(Map.of(
+                "name", TOXIC_NAME,
+                "type", "latency",
+                "direction", ToxicDirection.DOWNSTREAM.name(),
+                "latency", delayMs)));
+        active.set(true);
+        log.info("Toxiproxy latency on Redis set to {}ms.", delayMs);
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        if (!active.get()) {
+            return;
+        }
+        toxicsManager.remove(InProcessHooks.Backend.REDIS, TOXIC_NAME);
+        active.set(false);
+        log.info("Removed Toxiproxy latency from Redis.");
+    }
+
+    @Override
+    public boolean isActive() {
+        return active.get();
+    }
+}
@@ -0,0 +1,43 @@
+package com.apo.sandbox.guardrail;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Faults a guardrail stopped, why, and the window that tripped it.
+ */
+public class GuardrailAbort {
+    private final Instant at;
+    private final String signal;
+    private final String reason;
+    private final List<String> faults;
+    private final WindowStats window;
+
+    GuardrailAbort(Instant at, String signal, String reason, List<String> faults, WindowStats window) {
+        this.at = at;
+        this.signal = signal;
+        this.reason = reason;
+        this.faults = faults;
+        this.window = window;
+    }
+
+    public Instant getAt() {
+        return at;
+    }
+
+    public String getSignal() {
+        return signal;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public List<String> getFaults() {
+        return faults;
+    }
+
+    public WindowStats getWindow() {
+        return window;
+    }
+}
@@ -0,0 +1,52 @@
+package com.apo.sandbox.guardrail;
+
+import com.apo.sandbox.admission.AdmissionControlFilter;
+import com.apo.sandbox.fault.RequestFaultFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Feeds /api/users latency and failures (5xx responses, or a backend error
+ * served as an empty list) to the {@link SloGuardrails}.
+ * Only the routes the guardrails track are timed; other URIs pass straight
+ * through. Runs outside admission control, so shed requests count as the failures
+ * callers see. Requests carrying their own fault spec are left out, as
+ * they are slow on purpose.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class GuardrailFilter extends OncePerRequestFilter {
+    private final SloGuardrails guardrails;
+
+    public GuardrailFilter(SloGuardrails guardrails) {
+        this.guardrails = guardrails;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !guardrails.isEnabled() || RequestFaultFilter.carriesFault(request)
+                || !guardrails.tracks(AdmissionControlFilter.endpointKey(request.getRequestURI()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = AdmissionControlFilter.failed(request, response);
+        } finally {
+            guardrails.recordEndpoint(AdmissionControlFilter.endpointKey(request.getRequestURI()),
+                    System.nanoTime() - start, failed);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.apo.sandbox.guardrail;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error counts over the last few ticks for one signal.
+ *
+ * Callers record into an HdrHistogram {@link Recorder} and a
+ * {@link LongAdder}, neither of which locks or allocates. Once per tick the
+ * evaluator thread swaps the recorder's interval histogram into a ring of
+ * slots, reusing the histogram that falls out of the window, and merges
+ * the ring. Only that thread touches the ring, so the window needs no
+ * locking either.
+ */
+final class SlidingWindow {
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final Histogram[] slots;
+    private final long[] slotErrors;
+    private final Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+    private int next;
+
+    SlidingWindow(int slotCount) {
+        this.slots = new Histogram[Math.max(1, slotCount)];
+        this.slotErrors = new long[slots.length];
+    }
+
+    void record(long nanos, boolean failed) {
+        recorder.recordValue(Math.max(1, nanos / 1000));
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    // Evaluator thread only: closes the current tick and returns the window.
+    WindowStats roll() {
+        slots[next] = recorder.getIntervalHistogram(slots[next]);
+        slotErrors[next] = errors.sumThenReset();
+        next = (next + 1) % slots.length;
+
+        merged.reset();
+        long failed = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                merged.add(slots[i]);
+                failed += slotErrors[i];
+            }
+        }
+        return new WindowStats(merged, failed);
+    }
+}
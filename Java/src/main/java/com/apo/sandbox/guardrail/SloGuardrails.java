@@ -0,0 +1,237 @@
+package com.apo.sandbox.guardrail;
+
+import com.apo.sandbox.admission.AdmissionControlFilter;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.Fault;
+import com.apo.sandbox.fault.FaultManager;
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.fault.RequestFaultContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops faults that push the service past its SLOs.
+ *
+ * Every /api/users route and the Redis and MySQL calls made by the
+ * Store feed a {@link SlidingWindow} of GUARDRAIL_WINDOW_SECONDS; requests
+ * carrying an X-Fault spec, and their backend calls, are left out. Once per
+ * tick the windows are evaluated against GUARDRAIL_ENDPOINT_P99_MS or
+ * GUARDRAIL_BACKEND_P99_MS and GUARDRAIL_ERROR_RATE, skipping windows with
+ * fewer than GUARDRAIL_MIN_REQUESTS samples. A signal that stays in breach
+ * for GUARDRAIL_SUSTAIN_SECONDS gets every active fault stopped, with the
+ * reason and the window logged and kept for /api/guardrails. Breaches
+ * with no fault active are reported but change nothing.
+ *
+ * Signals are fixed at startup: one per route in
+ * {@link AdmissionControlFilter#ROUTES} plus the two backends. Requests to
+ * any other URI are not tracked, so clients cannot grow the signal map.
+ */
+@Component
+public class SloGuardrails {
+    private static final Logger log = LoggerFactory.getLogger(SloGuardrails.class);
+    private static final int MAX_ABORTS = 50;
+    static final String ENDPOINT_PREFIX = "endpoint:";
+    static final String BACKEND_PREFIX = "backend:";
+
+    private final AppProperties appProperties;
+    private final FaultManager faultManager;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long tickMs;
+    private final int slots;
+    private final Map<String, Signal> signals = new ConcurrentHashMap<>();
+    // Keyed by route template, without the prefix.
+    private final Map<String, Signal> endpoints;
+    private final Signal redis;
+    private final Signal mysql;
+    private final Deque<GuardrailAbort> aborts = new ArrayDeque<>();
+    private final ScheduledExecutorService evaluator = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "slo-guardrails");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SloGuardrails(AppProperties appProperties, FaultManager faultManager, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        this.faultManager = faultManager;
+        this.meterRegistry = meterRegistry;
+        this.enabled = appProperties.getGuardrailEnabled();
+        this.tickMs = Math.max(100, appProperties.getGuardrailTickMs());
+        this.slots = (int) Math.max(1, appProperties.getGuardrailWindowSeconds() * 1000 / tickMs);
+        this.redis = signal(BACKEND_PREFIX + "redis");
+        this.mysql = signal(BACKEND_PREFIX + "mysql");
+        Map<String, Signal> endpoints = new HashMap<>();
+        for (String route : AdmissionControlFilter.ROUTES) {
+            endpoints.put(route, signal(ENDPOINT_PREFIX + route));
+        }
+        this.endpoints = Map.copyOf(endpoints);
+        if (enabled) {
+            evaluator.scheduleAtFixedRate(this::evaluate, tickMs, tickMs, TimeUnit.MILLISECONDS);
+            log.info("SLO guardrails on: endpoint p99 {} ms, backend p99 {} ms, error rate {} over {} s, sustained {} s.",
+                    appProperties.getGuardrailEndpointP99Ms(), appProperties.getGuardrailBackendP99Ms(),
+                    appProperties.getGuardrailErrorRate(), appProperties.getGuardrailWindowSeconds(),
+                    appProperties.getGuardrailSustainSeconds());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Ignores anything but the routes tracked since startup.
+    public void recordEndpoint(String endpoint, long nanos, boolean failed) {
+        Signal signal = endpoints.get(endpoint);
+        if (!enabled || signal == null) {
+            return;
+        }
+        signal.window.record(nanos, failed);
+    }
+
+    public boolean tracks(String endpoint) {
+        return endpoints.containsKey(endpoint);
+    }
+
+    // Calls made for an X-Fault request are slow or failing on purpose and
+    // are left out, as GuardrailFilter leaves out the requests themselves.
+    public void recordBackend(InProcessHooks.Backend backend, long nanos, boolean failed) {
+        if (!enabled || RequestFaultContext.get() != null) {
+            return;
+        }
+        (backend == InProcessHooks.Backend.REDIS ? redis : mysql).window.record(nanos, failed);
+    }
+
+    private Signal signal(String name) {
+        return signals.computeIfAbsent(name, n -> new Signal(n, new SlidingWindow(slots)));
+    }
+
+    // Runs on the evaluator thread only.
+    void evaluate() {
+        long now = System.currentTimeMillis();
+        for (Signal signal : signals.values()) {
+            try {
+                WindowStats stats = signal.window.roll();
+                signal.stats = stats;
+                String reason = breach(signal, stats);
+                signal.reason = reason;
+                if (reason == null) {
+                    signal.breachSince = 0;
+                    continue;
+                }
+                if (signal.breachSince == 0) {
+                    signal.breachSince = now;
+                }
+                if (now - signal.breachSince >= appProperties.getGuardrailSustainSeconds() * 1000 && abort(signal, stats)) {
+                    signal.breachSince = 0;
+                }
+            } catch (Exception e) {
+                log.warn("Guardrail evaluation of {} failed: {}", signal.name, e.getMessage());
+            }
+        }
+    }
+
+    private String breach(Signal signal, WindowStats stats) {
+        if (stats.getCount() < Math.max(1, appProperties.getGuardrailMinRequests())) {
+            return null;
+        }
+        double p99Limit = signal.name.startsWith(BACKEND_PREFIX)
+                ? appProperties.getGuardrailBackendP99Ms() : appProperties.getGuardrailEndpointP99Ms();
+        if (p99Limit > 0 && stats.getP99Ms() > p99Limit) {
+            return String.format("p99 %.1f ms > %.0f ms", stats.getP99Ms(), p99Limit);
+        }
+        double errorLimit = appProperties.getGuardrailErrorRate();
+        if (errorLimit > 0 && stats.getErrorRate() > errorLimit) {
+            return String.format("error rate %.3f > %.3f", stats.getErrorRate(), errorLimit);
+        }
+        return null;
+    }
+
+    // Stops every active fault; false if there was none to stop.
+    private boolean abort(Signal signal, WindowStats stats) {
+        List<String> stopped = new ArrayList<>();
+        for (Fault fault : faultManager.getFaults().values()) {
+            if (fault.isActive() && !faultManager.isApplying(fault.getName())) {
+                faultManager.stopFaultAsync(fault.getName());
+                stopped.add(fault.getName());
+            }
+        }
+        if (stopped.isEmpty()) {
+            return false;
+        }
+        long sustained = (System.currentTimeMillis() - signal.breachSince) / 1000;
+        String reason = signal.reason + " for " + sustained + " s";
+        log.warn("Guardrail on {} aborted {}: {} [{}]", signal.name, stopped, reason, stats);
+        for (String fault : stopped) {
+            Counter.builder("sandbox.guardrail.aborts")
+                    .tag("signal", signal.name)
+                    .tag("fault", fault)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        synchronized (aborts) {
+            aborts.addFirst(new GuardrailAbort(Instant.now(), signal.name, reason, stopped, stats));
+            while (aborts.size() > MAX_ABORTS) {
+                aborts.removeLast();
+            }
+        }
+        return true;
+    }
+
+    // Most recent first.
+    public List<GuardrailAbort> getAborts() {
+        synchronized (aborts) {
+            return new ArrayList<>(aborts);
+        }
+    }
+
+    // Latest evaluated window per signal, as of the last tick.
+    public Map<String, Map<String, Object>> getSignals() {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        new TreeMap<>(signals).forEach((name, signal) -> {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("window", signal.stats);
+            status.put("breach", signal.reason);
+            long since = signal.breachSince;
+            status.put("breachSeconds", since == 0 ? null : (now - since) / 1000);
+            result.put(name, status);
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluator.shutdownNow();
+    }
+
+    private static final class Signal {
+        final String name;
+        final SlidingWindow window;
+        // Written by the evaluator thread, read by the status endpoint.
+        volatile WindowStats stats;
+        volatile String reason;
+        volatile long breachSince;
+
+        Signal(String name, SlidingWindow window) {
+            this.name = name;
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.apo.sandbox.guardrail;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary of one signal's sliding window. Latencies are in milliseconds.
+ */
+public class WindowStats {
+    private final long count;
+    private final long errors;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maxMs;
+
+    WindowStats(Histogram micros, long errors) {
+        this.count = micros.getTotalCount();
+        this.errors = errors;
+        this.p50Ms = micros.getValueAtPercentile(50) / 1000.0;
+        this.p99Ms = micros.getValueAtPercentile(99) / 1000.0;
+        this.maxMs = micros.getMaxValue() / 1000.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRate() {
+        return count == 0 ? 0 : (double) errors / count;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d errors=%d errorRate=%.3f p50=%.1fms p99=%.1fms max=%.1fms",
+                count, errors, getErrorRate(), p50Ms, p99Ms, maxMs);
+    }
+}
@@ -0,0 +1,209 @@
+package com.apo.sandbox.health;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.config.DatabaseConfig;
+import com.apo.sandbox.config.RedisConfig;
+import com.apo.sandbox.dao.IDatabaseClient;
+import com.apo.sandbox.dao.RedisClient;
+import com.apo.sandbox.dao.SwitchableRedisClient;
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.pool.PoolController;
+import com.apo.sandbox.pool.ResizablePool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches Redis and MySQL from a thread of its own, so request threads only
+ * ever read the outcome.
+ *
+ * Redis is served by a {@link SwitchableRedisClient}: after
+ * HEALTH_FAILURE_THRESHOLD failed pings it is switched to the mock client,
+ * and switched back to the real one as soon as a ping succeeds again (or,
+ * if Redis was down at boot, once a first connection can be made). MySQL is
+ * probed through {@link IDatabaseClient#probe()}, which updates what
+ * isConnected() reports and reconnects when the pool is gone. While a
+ * backend is down, attempts are spaced with jittered exponential backoff
+ * between HEALTH_BACKOFF_INITIAL_MS and HEALTH_BACKOFF_MAX_MS. Redis pings
+ * go to REDIS_DIRECT_ADDR when it is set; otherwise they are paused while a
+ * Go proxy fault is armed.
+ *
+ * With BACKEND_LAZY_INIT the clients are created unconnected and the first
+ * check runs straight away, so both backends are reached here, in parallel
+ * with the rest of startup, instead of on the main thread.
+ */
+@Component
+public class BackendHealthMonitor {
+    private static final Logger log = LoggerFactory.getLogger(BackendHealthMonitor.class);
+
+    private final AppProperties appProperties;
+    private final SwitchableRedisClient redisClient;
+    private final RedisConfig redisConfig;
+    private final IDatabaseClient dbClient;
+    private final DatabaseConfig databaseConfig;
+    private final PoolController poolController;
+    private final MeterRegistry meterRegistry;
+    private final Backoff redisBackoff = new Backoff();
+    private final Backoff dbBackoff = new Backoff();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "backend-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CountDownLatch firstCheck = new CountDownLatch(1);
+    private int redisFailures;
+    private volatile boolean dbUp;
+
+    public BackendHealthMonitor(AppProperties appProperties, SwitchableRedisClient redisClient, RedisConfig redisConfig,
+                                IDatabaseClient dbClient, DatabaseConfig databaseConfig,
+                                PoolController poolController, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        this.redisClient = redisClient;
+        this.redisConfig = redisConfig;
+        this.dbClient = dbClient;
+        this.databaseConfig = databaseConfig;
+        this.poolController = poolController;
+        this.meterRegistry = meterRegistry;
+        this.dbUp = dbClient.isConnected();
+    }
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("sandbox.backend.up", redisClient, c -> c.isMock() ? 0 : 1).tag("backend", "redis")
+                .register(meterRegistry);
+        Gauge.builder("sandbox.backend.up", this, m -> m.dbUp ? 1 : 0).tag("backend", "mysql")
+                .register(meterRegistry);
+        long interval = Math.max(100, appProperties.getHealthCheckIntervalMs());
+        long initialDelay = appProperties.getBackendLazyInit() ? 0 : interval;
+        scheduler.scheduleWithFixedDelay(this::check, initialDelay, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Waits until both backends have been checked once; false on timeout. */
+    public boolean awaitFirstCheck(long timeoutMs) throws InterruptedException {
+        return firstCheck.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void check() {
+        try {
+            checkRedis();
+        } catch (Exception e) {
+            log.error("Redis health check failed unexpectedly: {}", e.getMessage());
+        }
+        try {
+            checkDatabase();
+        } catch (Exception e) {
+            log.error("Database health check failed unexpectedly: {}", e.getMessage());
+        }
+        firstCheck.countDown();
+    }
+
+    private void checkRedis() {
+        boolean mocked = redisClient.isMock();
+        if (mocked && !redisBackoff.due()) {
+            return;
+        }
+        RedisClient real = redisClient.getReal();
+        if (real == null) {
+            try {
+                real = redisConfig.connect();
+            } catch (Exception e) {
+                redisBackoff.failed();
+                return;
+            }
+        }
+        // Through the Go proxy an armed delay fails pings by design; without a
+        // direct address, don't read that as an outage.
+        if (!mocked && !real.pingsDirect() && FaultSwitches.redisProxyArmed()) {
+            return;
+        }
+        if (real.ping()) {
+            redisFailures = 0;
+            redisBackoff.reset();
+            if (mocked) {
+                redisClient.useReal(real);
+                swapped("redis", "real");
+                log.info("Redis is reachable again; switched to the real client.");
+            }
+            return;
+        }
+        if (mocked) {
+            redisBackoff.failed();
+        } else if (++redisFailures >= appProperties.getHealthFailureThreshold()) {
+            redisClient.useMock();
+            redisBackoff.failed();
+            swapped("redis", "mock");
+            log.warn("Redis failed {} health checks; switched to the mock client.", redisFailures);
+        }
+    }
+
+    private void checkDatabase() {
+        boolean wasUp = dbUp;
+        if (!wasUp && !dbBackoff.due()) {
+            return;
+        }
+        dbUp = dbClient.probe();
+        if (dbUp) {
+            dbBackoff.reset();
+            if (!wasUp) {
+                registerDatabasePool();
+                log.info("Database is reachable again.");
+            }
+        } else {
+            dbBackoff.failed();
+            if (wasUp) {
+                log.warn("Database is unreachable; serving mocked users until it recovers.");
+            }
+        }
+    }
+
+    // A database first reached after boot has a pool nobody has registered yet.
+    private void registerDatabasePool() {
+        ResizablePool pool = dbClient.getPool();
+        if (pool != null && !poolController.getPools().containsKey(pool.getName())) {
+            databaseConfig.registerPool(pool);
+        }
+    }
+
+    private void swapped(String backend, String to) {
+        Counter.builder("sandbox.backend.swaps").tag("backend", backend).tag("to", to)
+                .register(meterRegistry).increment();
+    }
+
+    private final class Backoff {
+        private long delayMs;
+        private long nextAttemptNanos = System.nanoTime();
+
+        boolean due() {
+            return System.nanoTime() - nextAttemptNanos >= 0;
+        }
+
+        void failed() {
+            long initial = Math.max(1, appProperties.getHealthBackoffInitialMs());
+            delayMs = delayMs == 0 ? initial : Math.min(appProperties.getHealthBackoffMaxMs(), delayMs * 2);
+            // Up to 20% jitter so several instances do not reconnect in lockstep.
+            long jittered = delayMs - ThreadLocalRandom.current().nextLong(delayMs / 5 + 1);
+            nextAttemptNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(jittered);
+        }
+
+        void reset() {
+            delayMs = 0;
+            nextAttemptNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.apo.sandbox.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One Redis command or SQL statement. Backend and operation are constant
+ * strings set at start; key count and bytes are only computed when the
+ * event will be committed, so with the event disabled a call costs the
+ * begin/end timestamps at most. Bytes is the payload's UTF-8 length, which
+ * is what Jedis and the MySQL driver (utf8mb4) put on the wire.
+ */
+@Name("com.apo.sandbox.BackendCall")
+@Label("Backend Call")
+@Category({"Sandbox", "Backend"})
+@Description("A Redis or MySQL call made by the sandbox")
+public class BackendCallEvent extends Event {
+    public static final String REDIS = "redis";
+    public static final String MYSQL = "mysql";
+
+    @Label("Backend")
+    public String backend;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Key Count")
+    public int keyCount;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    public static BackendCallEvent start(String backend, String operation) {
+        BackendCallEvent event = new BackendCallEvent();
+        event.backend = backend;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void finish(int keyCount, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.keyCount = keyCount;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+
+    public void finish(int keyCount, String payload) {
+        end();
+        if (shouldCommit()) {
+            this.keyCount = keyCount;
+            this.bytes = utf8Length(payload);
+            commit();
+        }
+    }
+
+    // Encoded length without encoding: 1-3 bytes per char, 4 per surrogate
+    // pair. An unpaired surrogate counts as the '?' String.getBytes writes.
+    public static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 4;
+                    i++;
+                } else {
+                    bytes++;
+                }
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,36 @@
+package com.apo.sandbox.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Outcome of a Store read from the Redis cache. The duration covers the
+ * whole lookup, including the MySQL reload on a miss.
+ */
+@Name("com.apo.sandbox.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Sandbox", "Cache"})
+@Description("A Store lookup in the Redis user cache")
+public class CacheLookupEvent extends Event {
+    @Label("Hit")
+    public boolean hit;
+
+    @Label("Users")
+    public int users;
+
+    @Label("Missing Users")
+    public int missing;
+
+    public void finish(boolean hit, int users, int missing) {
+        end();
+        if (shouldCommit()) {
+            this.hit = hit;
+            this.users = users;
+            this.missing = missing;
+            commit();
+        }
+    }
+}
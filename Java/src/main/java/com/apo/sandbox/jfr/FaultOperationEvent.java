@@ -0,0 +1,34 @@
+package com.apo.sandbox.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * One fault start, update or stop. The event duration is the time the
+ * apply or revert itself took, so it lines up with the stall it causes.
+ */
+@Name("com.apo.sandbox.FaultOperation")
+@Label("Fault Operation")
+@Category({"Sandbox", "Fault"})
+@Description("A fault being applied or reverted")
+public class FaultOperationEvent extends Event {
+    @Label("Fault")
+    public String fault;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Parameters")
+    public String params;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Queued")
+    @Timespan(Timespan.MILLISECONDS)
+    public long queuedMs;
+}
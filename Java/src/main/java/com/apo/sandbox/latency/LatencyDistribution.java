@@ -0,0 +1,185 @@
+package com.apo.sandbox.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A recorded latency distribution that can be sampled in constant time.
+ *
+ * Values are microseconds in ascending order with their recorded counts.
+ * Sampling uses Vose's alias method: one uniform column pick and one biased
+ * coin flip, whatever the number of distinct values. The cumulative counts
+ * are kept too, for quantile lookups when a whole table is exported (netem
+ * distributions, the Redis proxy).
+ */
+public final class LatencyDistribution {
+    private final long[] values;
+    private final long[] counts;
+    private final long[] cumulative;
+    private final long total;
+    private final double[] probability;
+    private final int[] alias;
+
+    private LatencyDistribution(long[] values, long[] counts) {
+        this.values = values;
+        this.counts = counts;
+        this.cumulative = new long[counts.length];
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += counts[i];
+            cumulative[i] = sum;
+        }
+        this.total = sum;
+        this.probability = new double[values.length];
+        this.alias = new int[values.length];
+        buildAliasTable();
+    }
+
+    /** Values in microseconds with their counts; zero counts are dropped. */
+    public static LatencyDistribution of(long[] valuesMicros, long[] counts) {
+        if (valuesMicros.length != counts.length) {
+            throw new IllegalArgumentException("values and counts differ in length");
+        }
+        Integer[] order = new Integer[valuesMicros.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(valuesMicros[a], valuesMicros[b]));
+        long[] values = new long[order.length];
+        long[] weights = new long[order.length];
+        int n = 0;
+        for (int index : order) {
+            if (counts[index] < 0 || valuesMicros[index] < 0) {
+                throw new IllegalArgumentException("latencies and counts must not be negative");
+            }
+            if (counts[index] == 0) {
+                continue;
+            }
+            if (n > 0 && values[n - 1] == valuesMicros[index]) {
+                weights[n - 1] += counts[index];
+            } else {
+                values[n] = valuesMicros[index];
+                weights[n] = counts[index];
+                n++;
+            }
+        }
+        if (n == 0) {
+            throw new IllegalArgumentException("distribution has no samples");
+        }
+        return new LatencyDistribution(Arrays.copyOf(values, n), Arrays.copyOf(weights, n));
+    }
+
+    /**
+     * One entry per histogram bucket, at the bucket's median equivalent
+     * value. toMicros converts the histogram's unit.
+     */
+    public static LatencyDistribution fromHistogram(Histogram histogram, double toMicros) {
+        int buckets = 0;
+        for (HistogramIterationValue ignored : histogram.recordedValues()) {
+            buckets++;
+        }
+        long[] values = new long[buckets];
+        long[] counts = new long[buckets];
+        int i = 0;
+        for (HistogramIterationValue value : histogram.recordedValues()) {
+            values[i] = Math.round(histogram.medianEquivalentValue(value.getValueIteratedTo()) * toMicros);
+            counts[i] = value.getCountAtValueIteratedTo();
+            i++;
+        }
+        return of(values, counts);
+    }
+
+    public static LatencyDistribution fixed(long micros) {
+        return of(new long[]{micros}, new long[]{1});
+    }
+
+    private void buildAliasTable() {
+        int n = values.length;
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) counts[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1 up to rounding error.
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    public long sample(Random random) {
+        int column = random.nextInt(values.length);
+        return random.nextDouble() < probability[column] ? values[column] : values[alias[column]];
+    }
+
+    /** Smallest recorded value with at least quantile q of the samples at or below it. */
+    public long valueAtQuantile(double q) {
+        long rank = (long) Math.ceil(Math.max(0, Math.min(1, q)) * total);
+        int index = Arrays.binarySearch(cumulative, Math.max(1, rank));
+        return values[index >= 0 ? index : -index - 1];
+    }
+
+    public LatencyDistribution scaled(double factor) {
+        if (factor == 1.0) {
+            return this;
+        }
+        long[] scaled = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            scaled[i] = Math.round(values[i] * factor);
+        }
+        return of(scaled, counts);
+    }
+
+    public double getMeanMicros() {
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += (double) values[i] * counts[i];
+        }
+        return sum / total;
+    }
+
+    public long getMaxMicros() {
+        return values[values.length - 1];
+    }
+
+    public long getTotalCount() {
+        return total;
+    }
+
+    public long[] getValues() {
+        return values.clone();
+    }
+
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    public int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,100 @@
+package com.apo.sandbox.latency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A latency timeline: consecutive phases, each with its own distribution,
+ * replayed in order and looped. A single-phase profile is a stationary
+ * distribution. Bursts in the recording show up as phases with heavier
+ * tails.
+ */
+public final class LatencyProfile {
+
+    public static final class Phase {
+        private final long durationMs;
+        private final LatencyDistribution distribution;
+
+        public Phase(long durationMs, LatencyDistribution distribution) {
+            this.durationMs = Math.max(1, durationMs);
+            this.distribution = distribution;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public LatencyDistribution getDistribution() {
+            return distribution;
+        }
+    }
+
+    private final String source;
+    private final List<Phase> phases;
+    private final long totalMs;
+
+    public LatencyProfile(String source, List<Phase> phases) {
+        if (phases.isEmpty()) {
+            throw new IllegalArgumentException(source + " contains no latencies");
+        }
+        this.source = source;
+        this.phases = Collections.unmodifiableList(new ArrayList<>(phases));
+        this.totalMs = phases.stream().mapToLong(Phase::getDurationMs).sum();
+    }
+
+    // Constant latency, for faults given a plain duration instead of a profile.
+    public static LatencyProfile fixed(long micros) {
+        return new LatencyProfile("fixed " + micros + "us",
+                List.of(new Phase(1, LatencyDistribution.fixed(micros))));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public long getTotalMs() {
+        return totalMs;
+    }
+
+    public LatencyProfile scaled(double factor) {
+        if (factor == 1.0) {
+            return this;
+        }
+        List<Phase> scaled = new ArrayList<>(phases.size());
+        for (Phase phase : phases) {
+            scaled.add(new Phase(phase.durationMs, phase.distribution.scaled(factor)));
+        }
+        return new LatencyProfile(source, scaled);
+    }
+
+    // Phases, length and the spread of the phase p99s, for fault status.
+    public Map<String, Object> summary() {
+        long p50 = Long.MAX_VALUE;
+        long p99Min = Long.MAX_VALUE;
+        long p99Max = 0;
+        long max = 0;
+        for (Phase phase : phases) {
+            LatencyDistribution distribution = phase.distribution;
+            p50 = Math.min(p50, distribution.valueAtQuantile(0.5));
+            long p99 = distribution.valueAtQuantile(0.99);
+            p99Min = Math.min(p99Min, p99);
+            p99Max = Math.max(p99Max, p99);
+            max = Math.max(max, distribution.getMaxMicros());
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("source", source);
+        summary.put("phases", phases.size());
+        summary.put("lengthMs", totalMs);
+        summary.put("minP50Ms", p50 / 1000.0);
+        summary.put("p99RangeMs", List.of(p99Min / 1000.0, p99Max / 1000.0));
+        summary.put("maxMs", max / 1000.0);
+        return summary;
+    }
+}
@@ -0,0 +1,173 @@
+package com.apo.sandbox.latency;
+
+import com.apo.sandbox.fault.FaultParams;
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads latency profiles from recordings.
+ *
+ * Formats:
+ * <ul>
+ * <li>{@code hlog} - an HdrHistogram interval log (HistogramLogWriter, as
+ * written by jHiccup, wrk2 or HdrHistogram's own tools); each interval
+ * becomes a phase of the interval's length</li>
+ * <li>{@code csv} with a header containing {@code count} - one
+ * {@code latency,count} row per bucket; a single phase</li>
+ * <li>{@code csv} otherwise - a trace of {@code timestamp_ms,latency} rows
+ * (or bare {@code latency} rows), cut into phases of {@code phase} ms by
+ * timestamp</li>
+ * </ul>
+ * Latencies are in {@code unit} (ns, us, ms or s; ms by default).
+ *
+ * Fault params: {@code profile} (file path), {@code format} (hlog or csv,
+ * taken from the extension when absent), {@code unit}, {@code phase} and
+ * {@code scale} (multiplier for every latency).
+ */
+public final class LatencyProfileLoader {
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private LatencyProfileLoader() {
+    }
+
+    public static boolean hasProfile(Map<String, Object> params) {
+        Object profile = params.get("profile");
+        return profile != null && !profile.toString().isBlank();
+    }
+
+    public static LatencyProfile fromParams(Map<String, Object> params) throws IOException {
+        Path path = Path.of(FaultParams.getString(params, "profile", ""));
+        String format = FaultParams.getString(params, "format", "");
+        if (format.isBlank()) {
+            format = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? "csv" : "hlog";
+        }
+        double toMicros = toMicros(FaultParams.getString(params, "unit", "ms"));
+        long phaseMs = FaultParams.getLong(params, "phase", 1000);
+        double scale = FaultParams.getDouble(params, "scale", 1.0);
+        if (phaseMs < 1 || scale <= 0) {
+            throw new IllegalArgumentException("phase and scale must be positive");
+        }
+        LatencyProfile profile = switch (format.toLowerCase(Locale.ROOT)) {
+            case "hlog" -> readHistogramLog(path, toMicros, phaseMs);
+            case "csv" -> readCsv(path, toMicros, phaseMs);
+            default -> throw new IllegalArgumentException("unknown profile format: " + format);
+        };
+        return profile.scaled(scale);
+    }
+
+    static double toMicros(String unit) {
+        return switch (unit.toLowerCase(Locale.ROOT)) {
+            case "ns" -> 0.001;
+            case "us" -> 1;
+            case "ms" -> 1_000;
+            case "s" -> 1_000_000;
+            default -> throw new IllegalArgumentException("unknown latency unit: " + unit);
+        };
+    }
+
+    public static LatencyProfile readHistogramLog(Path path, double toMicros, long defaultPhaseMs) throws IOException {
+        List<LatencyProfile.Phase> phases = new ArrayList<>();
+        HistogramLogReader reader = new HistogramLogReader(path.toFile());
+        try {
+            EncodableHistogram interval;
+            while ((interval = reader.nextIntervalHistogram()) != null) {
+                if (!(interval instanceof Histogram histogram)) {
+                    throw new IllegalArgumentException(path + " holds DoubleHistograms; only integer histograms are supported");
+                }
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                long length = histogram.getEndTimeStamp() - histogram.getStartTimeStamp();
+                phases.add(new LatencyProfile.Phase(length > 0 ? length : defaultPhaseMs,
+                        LatencyDistribution.fromHistogram(histogram, toMicros)));
+            }
+        } finally {
+            reader.close();
+        }
+        return new LatencyProfile(path.toString(), phases);
+    }
+
+    public static LatencyProfile readCsv(Path path, double toMicros, long phaseMs) throws IOException {
+        List<LatencyProfile.Phase> phases = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            boolean bucketed = false;
+            boolean first = true;
+            Histogram current = new Histogram(SIGNIFICANT_DIGITS);
+            long phaseStart = Long.MIN_VALUE;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s*[,;\\t]\\s*");
+                if (first) {
+                    first = false;
+                    if (!isNumber(fields[0])) {
+                        bucketed = line.toLowerCase(Locale.ROOT).contains("count");
+                        continue;
+                    }
+                }
+                try {
+                    if (bucketed) {
+                        current.recordValueWithCount(micros(fields[0], toMicros), Long.parseLong(fields[1]));
+                        continue;
+                    }
+                    if (fields.length == 1) {
+                        current.recordValue(micros(fields[0], toMicros));
+                        continue;
+                    }
+                    long timestamp = (long) Double.parseDouble(fields[0]);
+                    if (phaseStart == Long.MIN_VALUE) {
+                        phaseStart = timestamp;
+                    }
+                    // Close every phase the trace has moved past; gaps repeat the last shape.
+                    while (timestamp >= phaseStart + phaseMs) {
+                        closePhase(phases, current, phaseMs);
+                        current.reset();
+                        phaseStart += phaseMs;
+                    }
+                    current.recordValue(micros(fields[1], toMicros));
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException(path + ":" + lineNumber + ": cannot parse '" + line + "'", e);
+                }
+            }
+            closePhase(phases, current, phaseMs);
+        }
+        return new LatencyProfile(path.toString(), phases);
+    }
+
+    private static void closePhase(List<LatencyProfile.Phase> phases, Histogram histogram, long phaseMs) {
+        if (histogram.getTotalCount() > 0) {
+            phases.add(new LatencyProfile.Phase(phaseMs, LatencyDistribution.fromHistogram(histogram, 1)));
+        } else if (!phases.isEmpty()) {
+            phases.add(new LatencyProfile.Phase(phaseMs, phases.get(phases.size() - 1).getDistribution()));
+        }
+    }
+
+    private static long micros(String value, double toMicros) {
+        return Math.max(0, Math.round(Double.parseDouble(value) * toMicros));
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
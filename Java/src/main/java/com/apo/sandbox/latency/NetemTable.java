@@ -0,0 +1,71 @@
+package com.apo.sandbox.latency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A {@link LatencyDistribution} as a netem distribution table.
+ *
+ * netem draws a delay as mu + sigma * t / 8192, with t taken uniformly
+ * from a table of 16-bit integers that tc reads from
+ * {@code $TC_LIB_DIR/<name>.dist}. The table here holds the distribution's
+ * quantiles at {@link #SIZE} evenly spaced points; mu is the middle of
+ * their range and sigma is the smallest that keeps every entry within 16
+ * bits, so the kernel's per-packet draw is the same inverse-CDF lookup the
+ * recording describes.
+ */
+public final class NetemTable {
+    public static final int SIZE = 4096;
+    private static final int SCALE = 8192;
+    private static final int MAX_ENTRY = Short.MAX_VALUE;
+
+    private final long muMicros;
+    private final long sigmaMicros;
+    private final int[] entries;
+
+    private NetemTable(long muMicros, long sigmaMicros, int[] entries) {
+        this.muMicros = muMicros;
+        this.sigmaMicros = sigmaMicros;
+        this.entries = entries;
+    }
+
+    public static NetemTable from(LatencyDistribution distribution) {
+        long[] quantiles = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            quantiles[i] = distribution.valueAtQuantile((i + 0.5) / SIZE);
+        }
+        long min = quantiles[0];
+        long max = quantiles[SIZE - 1];
+        long mu = (min + max) / 2;
+        long deviation = Math.max(mu - min, max - mu);
+        long sigma = deviation == 0 ? 0 : (deviation * SCALE + MAX_ENTRY - 1) / MAX_ENTRY;
+        int[] entries = new int[SIZE];
+        if (sigma > 0) {
+            for (int i = 0; i < SIZE; i++) {
+                long entry = Math.round((double) (quantiles[i] - mu) * SCALE / sigma);
+                entries[i] = (int) Math.max(-MAX_ENTRY, Math.min(MAX_ENTRY, entry));
+            }
+        }
+        return new NetemTable(mu, sigma, entries);
+    }
+
+    public long getMuMicros() {
+        return muMicros;
+    }
+
+    // Zero for a single-valued distribution, which needs no table.
+    public long getSigmaMicros() {
+        return sigmaMicros;
+    }
+
+    public void write(Path file) throws IOException {
+        StringBuilder out = new StringBuilder(SIZE * 7);
+        out.append("# netem table generated by the sandbox from a latency profile\n");
+        for (int i = 0; i < SIZE; i++) {
+            out.append(entries[i]).append((i % 8 == 7) ? '\n' : ' ');
+        }
+        Files.writeString(file, out, StandardCharsets.US_ASCII);
+    }
+}
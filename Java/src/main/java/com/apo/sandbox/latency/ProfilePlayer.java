@@ -0,0 +1,115 @@
+package com.apo.sandbox.latency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steps through a profile's phases in real time, looping at the end.
+ *
+ * The current distribution sits in one volatile field, so a per-call
+ * sample is a volatile read plus an alias-table draw. Faults that push
+ * whole distributions somewhere else (the Redis proxy, netem) get each
+ * phase through the onPhase callback, which runs on the player's scheduler
+ * thread; a single-phase profile calls it once at start. Players share one
+ * scheduler unless given their own, which a slow callback such as a tc
+ * fork should have so it cannot hold up other players. The player passes
+ * itself along, so a fault can ignore phases from a player it has already
+ * replaced or stopped.
+ */
+public final class ProfilePlayer {
+    private static final Logger log = LoggerFactory.getLogger(ProfilePlayer.class);
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "latency-profile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FunctionalInterface
+    public interface PhaseListener {
+        void onPhase(ProfilePlayer player, LatencyDistribution distribution);
+    }
+
+    private final LatencyProfile profile;
+    private final PhaseListener onPhase;
+    private final ScheduledExecutorService scheduler;
+    private volatile LatencyDistribution current;
+    private volatile int phaseIndex;
+    private volatile ScheduledFuture<?> next;
+    private volatile boolean running;
+
+    public ProfilePlayer(LatencyProfile profile, PhaseListener onPhase) {
+        this(profile, onPhase, SCHEDULER);
+    }
+
+    public ProfilePlayer(LatencyProfile profile, PhaseListener onPhase, ScheduledExecutorService scheduler) {
+        this.profile = profile;
+        this.onPhase = onPhase;
+        this.scheduler = scheduler;
+        this.current = profile.getPhases().get(0).getDistribution();
+    }
+
+    /** Applies the first phase on the calling thread, so start errors reach the caller. */
+    public void start() {
+        running = true;
+        try {
+            enter(0, System.nanoTime(), true);
+        } catch (RuntimeException e) {
+            stop();
+            throw e;
+        }
+    }
+
+    public void stop() {
+        running = false;
+        ScheduledFuture<?> scheduled = next;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    public long sampleMicros() {
+        return current.sample(ThreadLocalRandom.current());
+    }
+
+    public LatencyProfile getProfile() {
+        return profile;
+    }
+
+    public int getPhaseIndex() {
+        return phaseIndex;
+    }
+
+    private void enter(int index, long startedNanos, boolean first) {
+        LatencyProfile.Phase phase = profile.getPhases().get(index);
+        current = phase.getDistribution();
+        phaseIndex = index;
+        if (profile.getPhases().size() > 1) {
+            // Timed from the phase's planned start, so callback time does not accumulate as drift.
+            long endNanos = startedNanos + TimeUnit.MILLISECONDS.toNanos(phase.getDurationMs());
+            int following = (index + 1) % profile.getPhases().size();
+            next = scheduler.schedule(() -> {
+                if (running) {
+                    enter(following, endNanos, false);
+                }
+            }, endNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        if (onPhase == null) {
+            return;
+        }
+        if (first) {
+            onPhase.onPhase(this, phase.getDistribution());
+            return;
+        }
+        try {
+            onPhase.onPhase(this, phase.getDistribution());
+        } catch (RuntimeException e) {
+            log.warn("Applying phase {} of {} failed: {}", index, profile.getSource(), e.getMessage());
+        }
+    }
+}
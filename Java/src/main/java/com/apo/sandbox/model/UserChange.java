@@ -0,0 +1,48 @@
+package com.apo.sandbox.model;
+
+/**
+ * One row of the users_outbox change feed.
+ */
+public class UserChange {
+    public enum Op {
+        INSERT,
+        UPDATE,
+        DELETE;
+
+        public static Op fromCode(String code) {
+            switch (code) {
+                case "I":
+                    return INSERT;
+                case "U":
+                    return UPDATE;
+                case "D":
+                    return DELETE;
+                default:
+                    throw new IllegalArgumentException("Unknown change op: " + code);
+            }
+        }
+    }
+
+    private final long seq;
+    private final Op op;
+    private final User user;
+
+    public UserChange(long seq, Op op, User user) {
+        this.seq = seq;
+        this.op = op;
+        this.user = user;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    // For deletes only the id is populated.
+    public User getUser() {
+        return user;
+    }
+}
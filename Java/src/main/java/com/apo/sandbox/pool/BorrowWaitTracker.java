@@ -0,0 +1,27 @@
+package com.apo.sandbox.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates borrow wait times for pools that do not track them
+ * themselves. Each {@link #sampleMeanMillis()} call returns the mean over
+ * the borrows since the previous call.
+ */
+public class BorrowWaitTracker {
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder borrows = new LongAdder();
+
+    public void record(long nanos) {
+        waitNanos.add(nanos);
+        borrows.increment();
+    }
+
+    public double sampleMeanMillis() {
+        long count = borrows.sumThenReset();
+        long nanos = waitNanos.sumThenReset();
+        if (count == 0) {
+            return 0;
+        }
+        return nanos / (double) count / 1_000_000.0;
+    }
+}
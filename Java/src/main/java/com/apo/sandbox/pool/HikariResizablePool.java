@@ -0,0 +1,85 @@
+package com.apo.sandbox.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HikariResizablePool implements ResizablePool {
+    private final String name;
+    private final HikariDataSource dataSource;
+    private final BorrowWaitTracker waitTracker;
+
+    public HikariResizablePool(String name, HikariDataSource dataSource, BorrowWaitTracker waitTracker) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.waitTracker = waitTracker;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return dataSource.getHikariConfigMXBean().getMaximumPoolSize();
+    }
+
+    @Override
+    public void setMaxSize(int maxSize) {
+        dataSource.getHikariConfigMXBean().setMaximumPoolSize(maxSize);
+    }
+
+    @Override
+    public int getActive() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    @Override
+    public int getIdle() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getIdleConnections();
+    }
+
+    @Override
+    public int getWaiters() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+    }
+
+    @Override
+    public double getMeanBorrowWaitMillis() {
+        return waitTracker.sampleMeanMillis();
+    }
+
+    @Override
+    public AutoCloseable borrow() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    // Hikari adds idle connections in the background; holding size of them
+    // at once makes it open them now. minimumIdle stays raised afterwards,
+    // as ResizablePool.prefill promises: back at the configured value, the
+    // housekeeper would retire the warmed connections after idleTimeout and
+    // the first burst of traffic would pay for the connects again.
+    @Override
+    public void prefill(int size) throws SQLException {
+        int target = Math.min(size, getMaxSize());
+        dataSource.getHikariConfigMXBean().setMinimumIdle(target);
+        List<Connection> held = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                held.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+}
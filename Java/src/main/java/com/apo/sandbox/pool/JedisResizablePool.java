@@ -0,0 +1,60 @@
+package com.apo.sandbox.pool;
+
+public class JedisResizablePool implements ResizablePool {
+    private final String name;
+    private final TimedJedisPool pool;
+
+    public JedisResizablePool(String name, TimedJedisPool pool) {
+        this.name = name;
+        this.pool = pool;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return pool.getMaxTotal();
+    }
+
+    @Override
+    public void setMaxSize(int maxSize) {
+        // Keep idle connections up to the new bound, otherwise a grown pool
+        // keeps closing and reopening the connections it just added.
+        pool.setMaxIdle(maxSize);
+        pool.setMaxTotal(maxSize);
+    }
+
+    @Override
+    public int getActive() {
+        return pool.getNumActive();
+    }
+
+    @Override
+    public int getIdle() {
+        return pool.getNumIdle();
+    }
+
+    @Override
+    public int getWaiters() {
+        return pool.getNumWaiters();
+    }
+
+    @Override
+    public double getMeanBorrowWaitMillis() {
+        return pool.getWaitTracker().sampleMeanMillis();
+    }
+
+    @Override
+    public AutoCloseable borrow() {
+        return pool.getResource();
+    }
+
+    @Override
+    public void prefill(int size) throws Exception {
+        pool.setMinIdle(Math.min(size, pool.getMaxIdle()));
+        pool.preparePool();
+    }
+}
@@ -0,0 +1,150 @@
+package com.apo.sandbox.pool;
+
+import com.apo.sandbox.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Grows and shrinks registered connection pools within their bounds.
+ *
+ * By Little's law the number of connections a pool needs is its borrow rate
+ * times the hold time, which is exactly the in-flight count plus the
+ * waiters we observe. When injected latency stretches hold times, callers
+ * start queueing and the pool is grown towards that demand; once demand
+ * stays well below the pool size for a while it is shrunk back one step at
+ * a time.
+ */
+@Component
+public class PoolController {
+    private static final Logger log = LoggerFactory.getLogger(PoolController.class);
+    private static final double HEADROOM = 1.25;
+    private static final int SHRINK_AFTER_INTERVALS = 10;
+
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ManagedPool> pools = new ConcurrentHashMap<>();
+
+    public PoolController(AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.appProperties = appProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void register(ResizablePool pool, int minSize, int maxSize) {
+        ManagedPool managed = new ManagedPool(pool, minSize, maxSize);
+        int initial = Math.max(minSize, Math.min(maxSize, pool.getMaxSize()));
+        if (initial != pool.getMaxSize()) {
+            pool.setMaxSize(initial);
+        }
+        pools.put(pool.getName(), managed);
+
+        // Gauges look the pool up by name, so a pool re-registered after a
+        // reconnect keeps reporting under the same meters.
+        String name = pool.getName();
+        Gauge.builder("sandbox.pool.size.max", this, c -> c.sample(name, ResizablePool::getMaxSize))
+                .tag("pool", name).register(meterRegistry);
+        Gauge.builder("sandbox.pool.active", this, c -> c.sample(name, ResizablePool::getActive))
+                .tag("pool", name).register(meterRegistry);
+        Gauge.builder("sandbox.pool.idle", this, c -> c.sample(name, ResizablePool::getIdle))
+                .tag("pool", name).register(meterRegistry);
+        Gauge.builder("sandbox.pool.waiters", this, c -> c.sample(name, ResizablePool::getWaiters))
+                .tag("pool", name).register(meterRegistry);
+        Gauge.builder("sandbox.pool.borrow.wait.ms", this, c -> c.pools.get(name).lastWaitMillis)
+                .tag("pool", name).register(meterRegistry);
+        log.info("Pool '{}' registered for autosizing: size {} within [{}, {}].", name, initial, minSize, maxSize);
+    }
+
+    private double sample(String name, ToIntFunction<ResizablePool> metric) {
+        ManagedPool managed = pools.get(name);
+        return managed == null ? Double.NaN : metric.applyAsInt(managed.pool);
+    }
+
+    public Map<String, ResizablePool> getPools() {
+        Map<String, ResizablePool> result = new ConcurrentHashMap<>();
+        pools.forEach((name, managed) -> result.put(name, managed.pool));
+        return result;
+    }
+
+    // Opens every pool's minimum number of connections up front.
+    public void prefillPools() {
+        pools.values().forEach(managed -> {
+            try {
+                managed.pool.prefill(managed.minSize);
+                log.info("Pool '{}' prefilled: {} idle.", managed.pool.getName(), managed.pool.getIdle());
+            } catch (Exception e) {
+                log.warn("Failed to prefill pool '{}': {}", managed.pool.getName(), e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${POOL_AUTOSIZE_INTERVAL_MS:1000}")
+    public void adjustPools() {
+        if (!appProperties.getPoolAutosizeEnabled()) {
+            return;
+        }
+        pools.values().forEach(this::adjust);
+    }
+
+    private void adjust(ManagedPool managed) {
+        ResizablePool pool = managed.pool;
+        int current = pool.getMaxSize();
+        int waiters = pool.getWaiters();
+        int demand = pool.getActive() + waiters;
+        double waitMillis = pool.getMeanBorrowWaitMillis();
+        managed.lastWaitMillis = waitMillis;
+
+        boolean queueing = waiters > 0 || waitMillis > appProperties.getPoolTargetBorrowWaitMs();
+        if (queueing && current < managed.maxSize) {
+            int target = Math.min(managed.maxSize, Math.max(current + 1, (int) Math.ceil(demand * HEADROOM)));
+            resize(managed, current, target, "grow", String.format(
+                    "%d waiters, %.1fms mean borrow wait, %d in flight", waiters, waitMillis, demand));
+            managed.calmIntervals = 0;
+            return;
+        }
+
+        if (!queueing && demand * HEADROOM < current / 2.0 && current > managed.minSize) {
+            if (++managed.calmIntervals >= SHRINK_AFTER_INTERVALS) {
+                resize(managed, current, Math.max(managed.minSize, current - 1), "shrink", String.format(
+                        "%d in flight for %d intervals", demand, managed.calmIntervals));
+                managed.calmIntervals = 0;
+            }
+            return;
+        }
+        managed.calmIntervals = 0;
+    }
+
+    private void resize(ManagedPool managed, int from, int to, String direction, String reason) {
+        if (from == to) {
+            return;
+        }
+        managed.pool.setMaxSize(to);
+        Counter.builder("sandbox.pool.resizes")
+                .tag("pool", managed.pool.getName())
+                .tag("direction", direction)
+                .register(meterRegistry)
+                .increment();
+        log.info("Pool '{}' {}: {} -> {} ({}).", managed.pool.getName(), direction, from, to, reason);
+    }
+
+    private static class ManagedPool {
+        private final ResizablePool pool;
+        private final int minSize;
+        private final int maxSize;
+        private int calmIntervals;
+        private volatile double lastWaitMillis;
+
+        ManagedPool(ResizablePool pool, int minSize, int maxSize) {
+            this.pool = pool;
+            this.minSize = minSize;
+            this.maxSize = Math.max(minSize, maxSize);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.apo.sandbox.pool;
+
+/**
+ * A connection pool whose upper bound can be changed at runtime.
+ * {@link PoolController} samples these values every interval and decides
+ * whether to grow or shrink the pool.
+ */
+public interface ResizablePool {
+    String getName();
+
+    int getMaxSize();
+
+    void setMaxSize(int maxSize);
+
+    /** Connections currently lent out. */
+    int getActive();
+
+    int getIdle();
+
+    /** Threads blocked waiting for a connection. */
+    int getWaiters();
+
+    /** Mean time callers spent waiting to borrow, in milliseconds. */
+    double getMeanBorrowWaitMillis();
+
+    /** Borrows one connection; closing the handle returns it to the pool. */
+    AutoCloseable borrow() throws Exception;
+
+    /** Opens connections until at least {@code size} are idle, and keeps that many idle from then on. */
+    void prefill(int size) throws Exception;
+}
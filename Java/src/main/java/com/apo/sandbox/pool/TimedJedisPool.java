@@ -0,0 +1,34 @@
+package com.apo.sandbox.pool;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+/**
+ * JedisPool that records how long each borrow waited. commons-pool only
+ * reports a mean over its last borrows, which never changes while nothing
+ * is borrowed, so a pool grown during a spike would look busy forever.
+ */
+public class TimedJedisPool extends JedisPool {
+    private final BorrowWaitTracker waitTracker = new BorrowWaitTracker();
+
+    // A null or empty password connects without AUTH.
+    public TimedJedisPool(GenericObjectPoolConfig<Jedis> poolConfig, String host, int port, int timeout,
+                          String password) {
+        super(poolConfig, host, port, timeout, password == null || password.isEmpty() ? null : password);
+    }
+
+    @Override
+    public Jedis getResource() {
+        long start = System.nanoTime();
+        try {
+            return super.getResource();
+        } finally {
+            waitTracker.record(System.nanoTime() - start);
+        }
+    }
+
+    public BorrowWaitTracker getWaitTracker() {
+        return waitTracker;
+    }
+}
@@ -0,0 +1,139 @@
+package com.apo.sandbox.profile;
+
+import com.apo.sandbox.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends slow request profiles to an OpenTelemetry collector as OTLP/HTTP
+ * JSON traces: one server span per request and one child span per stage
+ * call. Enabled by PROFILER_OTLP_ENDPOINT (e.g. http://collector:4318);
+ * anything that accepts POST /v1/traces will do. Requests only enqueue;
+ * a scheduled task sends batches, and a full queue drops profiles. The
+ * send is asynchronous so a slow collector never holds Spring's shared
+ * scheduler thread, and only one batch is in flight at a time.
+ */
+@Component
+public class OtlpSpanExporter {
+    private static final Logger log = LoggerFactory.getLogger(OtlpSpanExporter.class);
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_SERVER = 2;
+
+    private final String endpoint;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<ProfileSnapshot> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder dropped = new LongAdder();
+    private final HttpClient httpClient;
+    private volatile CompletableFuture<?> inFlight = CompletableFuture.completedFuture(null);
+
+    public OtlpSpanExporter(AppProperties appProperties, ObjectMapper objectMapper) {
+        String configured = appProperties.getProfilerOtlpEndpoint();
+        this.endpoint = configured == null || configured.isBlank() ? null
+                : configured.replaceAll("/+$", "") + "/v1/traces";
+        this.objectMapper = objectMapper;
+        this.httpClient = endpoint == null ? null
+                : HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
+    public boolean isEnabled() {
+        return endpoint != null;
+    }
+
+    void offer(ProfileSnapshot snapshot) {
+        if (!queue.offer(snapshot)) {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${PROFILER_EXPORT_INTERVAL_MS:5000}")
+    public void flush() {
+        // A batch still in flight keeps the rest queued until the next tick.
+        if (!isEnabled() || queue.isEmpty() || !inFlight.isDone()) {
+            return;
+        }
+        List<ProfileSnapshot> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(toOtlp(batch));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            inFlight = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        if (e != null) {
+                            log.warn("Failed to export {} profiles to {}: {}", batch.size(), endpoint, e.getMessage());
+                        } else if (response.statusCode() >= 300) {
+                            log.warn("OTLP collector rejected {} profiles with status {}.", batch.size(),
+                                    response.statusCode());
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("Failed to export {} profiles to {}: {}", batch.size(), endpoint, e.getMessage());
+        }
+        long lost = dropped.sumThenReset();
+        if (lost > 0) {
+            log.warn("Dropped {} profiles because the export queue was full.", lost);
+        }
+    }
+
+    static Map<String, Object> toOtlp(List<ProfileSnapshot> batch) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (ProfileSnapshot snapshot : batch) {
+            long startUnixNanos = snapshot.getStartedAt().toEpochMilli() * 1_000_000L;
+            String rootId = spanId();
+            spans.add(span(snapshot.getTraceId(), rootId, null, snapshot.getMethod() + " " + snapshot.getEndpoint(), SPAN_KIND_SERVER,
+                    startUnixNanos, startUnixNanos + snapshot.getTotalNanos()));
+            for (ProfileSnapshot.Span stage : snapshot.getSpans()) {
+                long start = startUnixNanos + stage.getOffsetNanos();
+                spans.add(span(snapshot.getTraceId(), spanId(), rootId, stage.getStage().name().toLowerCase(),
+                        SPAN_KIND_INTERNAL, start, start + stage.getDurationNanos()));
+            }
+        }
+        return Map.of("resourceSpans", List.of(Map.of(
+                "resource", Map.of("attributes", List.of(Map.of(
+                        "key", "service.name", "value", Map.of("stringValue", "sandbox")))),
+                "scopeSpans", List.of(Map.of(
+                        "scope", Map.of("name", "com.apo.sandbox.profile"),
+                        "spans", spans)))));
+    }
+
+    private static Map<String, Object> span(String traceId, String spanId, String parentId, String name, int kind,
+                                            long startUnixNanos, long endUnixNanos) {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("traceId", traceId);
+        span.put("spanId", spanId);
+        if (parentId != null) {
+            span.put("parentSpanId", parentId);
+        }
+        span.put("name", name);
+        span.put("kind", kind);
+        span.put("startTimeUnixNano", String.valueOf(startUnixNanos));
+        span.put("endTimeUnixNano", String.valueOf(endUnixNanos));
+        return span;
+    }
+
+    private static String spanId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,122 @@
+package com.apo.sandbox.profile;
+
+import com.apo.sandbox.config.AppProperties;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Aggregates finished request profiles.
+ *
+ * Every request feeds one HdrHistogram {@link Recorder} per stage plus one
+ * for the whole request; recording into a Recorder does not allocate or
+ * lock. Requests slower than the current slowest-N floor are copied into a
+ * {@link ProfileSnapshot} and kept; the floor check is a single volatile
+ * read, so fast requests never reach the lock.
+ */
+@Component
+public class ProfileRecorder {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final AppProperties appProperties;
+    private final OtlpSpanExporter exporter;
+    private final Recorder totalRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder[] stageRecorders = new Recorder[Stage.VALUES.length];
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram[] stages = new Histogram[Stage.VALUES.length];
+    private final PriorityQueue<ProfileSnapshot> slowest =
+            new PriorityQueue<>(Comparator.comparingLong(ProfileSnapshot::getTotalNanos));
+    private volatile long slowestFloorNanos = 0;
+
+    public ProfileRecorder(AppProperties appProperties, OtlpSpanExporter exporter) {
+        this.appProperties = appProperties;
+        this.exporter = exporter;
+        for (int i = 0; i < stageRecorders.length; i++) {
+            stageRecorders[i] = new Recorder(SIGNIFICANT_DIGITS);
+            stages[i] = new Histogram(SIGNIFICANT_DIGITS);
+        }
+    }
+
+    void complete(RequestProfile profile) {
+        long totalNanos = profile.totalNanos;
+        totalRecorder.recordValue(totalNanos);
+        for (int i = 0; i < stageRecorders.length; i++) {
+            if (profile.stageCalls[i] > 0) {
+                stageRecorders[i].recordValue(profile.stageNanos[i]);
+            }
+        }
+
+        ProfileSnapshot snapshot = null;
+        if (totalNanos > slowestFloorNanos) {
+            snapshot = new ProfileSnapshot(profile);
+            offerSlowest(snapshot);
+        }
+        if (exporter.isEnabled() && totalNanos >= appProperties.getProfilerExportThresholdMs() * 1_000_000L) {
+            exporter.offer(snapshot != null ? snapshot : new ProfileSnapshot(profile));
+        }
+    }
+
+    private synchronized void offerSlowest(ProfileSnapshot snapshot) {
+        int limit = Math.max(1, appProperties.getProfilerSlowestN());
+        slowest.add(snapshot);
+        while (slowest.size() > limit) {
+            slowest.poll();
+        }
+        slowestFloorNanos = slowest.size() < limit ? 0 : slowest.peek().getTotalNanos();
+    }
+
+    public synchronized List<ProfileSnapshot> getSlowest() {
+        List<ProfileSnapshot> result = new ArrayList<>(slowest);
+        result.sort(Comparator.comparingLong(ProfileSnapshot::getTotalNanos).reversed());
+        return result;
+    }
+
+    // Percentiles per stage since startup or the last reset. A stage's value
+    // is its summed time within one request.
+    public synchronized Map<String, Map<String, Object>> getStageSummaries() {
+        Map<String, Map<String, Object>> summaries = new LinkedHashMap<>();
+        summaries.put("TOTAL", summarize(drain(totalRecorder, total)));
+        for (Stage stage : Stage.VALUES) {
+            Histogram histogram = drain(stageRecorders[stage.ordinal()], stages[stage.ordinal()]);
+            if (histogram.getTotalCount() > 0) {
+                summaries.put(stage.name(), summarize(histogram));
+            }
+        }
+        return summaries;
+    }
+
+    public synchronized void reset() {
+        totalRecorder.reset();
+        total.reset();
+        for (int i = 0; i < stages.length; i++) {
+            stageRecorders[i].reset();
+            stages[i].reset();
+        }
+        slowest.clear();
+        slowestFloorNanos = 0;
+    }
+
+    private static Histogram drain(Recorder recorder, Histogram accumulated) {
+        accumulated.add(recorder.getIntervalHistogram());
+        return accumulated;
+    }
+
+    private static Map<String, Object> summarize(Histogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("meanMs", histogram.getMean() / 1_000_000.0);
+        summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1_000_000.0);
+        summary.put("p90Ms", histogram.getValueAtPercentile(90) / 1_000_000.0);
+        summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1_000_000.0);
+        summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1_000_000.0);
+        summary.put("maxMs", histogram.getMaxValue() / 1_000_000.0);
+        return summary;
+    }
+}
@@ -0,0 +1,138 @@
+package com.apo.sandbox.profile;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable copy of one finished request's breakdown. Only slow requests
+ * are copied, so the hot path never builds one of these.
+ */
+public class ProfileSnapshot {
+    private final String traceId;
+    private final String method;
+    private final String endpoint;
+    private final Instant startedAt;
+    private final long totalNanos;
+    private final Map<Stage, StageTime> stages = new LinkedHashMap<>();
+    private final List<Span> spans;
+    private final int droppedSpans;
+
+    ProfileSnapshot(RequestProfile profile) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.traceId = String.format("%016x%016x", random.nextLong(), random.nextLong());
+        this.method = profile.method;
+        this.endpoint = profile.endpoint;
+        this.startedAt = Instant.ofEpochMilli(profile.startEpochMillis);
+        this.totalNanos = profile.totalNanos;
+        for (Stage stage : Stage.VALUES) {
+            int calls = profile.stageCalls[stage.ordinal()];
+            if (calls > 0) {
+                stages.put(stage, new StageTime(profile.stageNanos[stage.ordinal()] / 1_000_000.0, calls));
+            }
+        }
+        this.spans = new ArrayList<>(profile.spanCount);
+        for (int i = 0; i < profile.spanCount; i++) {
+            spans.add(new Span(Stage.VALUES[profile.spanStage[i]], profile.spanStart[i], profile.spanNanos[i]));
+        }
+        this.droppedSpans = profile.droppedSpans;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public double getTotalMs() {
+        return totalNanos / 1_000_000.0;
+    }
+
+    long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public Map<Stage, StageTime> getStages() {
+        return stages;
+    }
+
+    // Time not covered by any stage: filters, controller and servlet work.
+    public double getUnaccountedMs() {
+        double accounted = 0;
+        for (StageTime time : stages.values()) {
+            accounted += time.getMs();
+        }
+        return Math.max(0, getTotalMs() - accounted);
+    }
+
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public static class StageTime {
+        private final double ms;
+        private final int calls;
+
+        StageTime(double ms, int calls) {
+            this.ms = ms;
+            this.calls = calls;
+        }
+
+        public double getMs() {
+            return ms;
+        }
+
+        public int getCalls() {
+            return calls;
+        }
+    }
+
+    public static class Span {
+        private final Stage stage;
+        private final long offsetNanos;
+        private final long durationNanos;
+
+        Span(Stage stage, long offsetNanos, long durationNanos) {
+            this.stage = stage;
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        public double getOffsetMs() {
+            return offsetNanos / 1_000_000.0;
+        }
+
+        public double getDurationMs() {
+            return durationNanos / 1_000_000.0;
+        }
+
+        long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.apo.sandbox.profile;
+
+/**
+ * Mutable span buffer for the request running on one thread.
+ *
+ * One instance per thread is reused for every request, so recording a span
+ * only writes into preallocated arrays. Spans past {@link #MAX_SPANS} are
+ * still added to the per-stage totals but not kept individually.
+ */
+final class RequestProfile {
+    static final int MAX_SPANS = 256;
+
+    final byte[] spanStage = new byte[MAX_SPANS];
+    final long[] spanStart = new long[MAX_SPANS];
+    final long[] spanNanos = new long[MAX_SPANS];
+    final long[] stageNanos = new long[Stage.VALUES.length];
+    final int[] stageCalls = new int[Stage.VALUES.length];
+    int spanCount;
+    int droppedSpans;
+    String method;
+    String endpoint;
+    long startNanos;
+    long startEpochMillis;
+    long totalNanos;
+    boolean active;
+
+    void begin(String method, String endpoint) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.startNanos = System.nanoTime();
+        this.startEpochMillis = System.currentTimeMillis();
+        this.totalNanos = 0;
+        this.spanCount = 0;
+        this.droppedSpans = 0;
+        for (int i = 0; i < stageNanos.length; i++) {
+            stageNanos[i] = 0;
+            stageCalls[i] = 0;
+        }
+        this.active = true;
+    }
+
+    void record(Stage stage, long start, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+        stageCalls[stage.ordinal()]++;
+        if (spanCount < MAX_SPANS) {
+            spanStage[spanCount] = (byte) stage.ordinal();
+            spanStart[spanCount] = start - startNanos;
+            spanNanos[spanCount] = nanos;
+            spanCount++;
+        } else {
+            droppedSpans++;
+        }
+    }
+
+    void end() {
+        totalNanos = System.nanoTime() - startNanos;
+        active = false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.apo.sandbox.profile;
+
+/**
+ * Static entry points for timing request stages.
+ *
+ * Call sites bracket a stage with {@link #start()} and
+ * {@link #stop(Stage, long)}. Outside a profiled request {@code start()}
+ * returns 0 and {@code stop} returns at once, so background work such as
+ * the change feed is not recorded and costs one thread-local read.
+ */
+public final class RequestProfiler {
+    private static final ThreadLocal<RequestProfile> CURRENT = ThreadLocal.withInitial(RequestProfile::new);
+
+    private RequestProfiler() {
+    }
+
+    public static long start() {
+        return CURRENT.get().active ? System.nanoTime() : 0;
+    }
+
+    public static void stop(Stage stage, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        RequestProfile profile = CURRENT.get();
+        if (profile.active) {
+            profile.record(stage, startNanos, System.nanoTime() - startNanos);
+        }
+    }
+
+    static RequestProfile begin(String method, String endpoint) {
+        RequestProfile profile = CURRENT.get();
+        profile.begin(method, endpoint);
+        return profile;
+    }
+}
@@ -0,0 +1,47 @@
+package com.apo.sandbox.profile;
+
+import com.apo.sandbox.config.AppProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Profiles /api/users requests. Runs inside admission control and the
+ * request fault filter, so rejected requests are not profiled and injected
+ * per-request delays show up under {@link Stage#FAULT_HOOK}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class RequestProfilingFilter extends OncePerRequestFilter {
+    private final AppProperties appProperties;
+    private final ProfileRecorder profileRecorder;
+
+    public RequestProfilingFilter(AppProperties appProperties, ProfileRecorder profileRecorder) {
+        this.appProperties = appProperties;
+        this.profileRecorder = profileRecorder;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !appProperties.getProfilerEnabled() || !request.getRequestURI().startsWith("/api/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestProfile profile = RequestProfiler.begin(request.getMethod(), request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            profile.end();
+            profileRecorder.complete(profile);
+        }
+    }
+}
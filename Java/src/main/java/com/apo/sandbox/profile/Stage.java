@@ -0,0 +1,21 @@
+package com.apo.sandbox.profile;
+
+/**
+ * Parts of a user request that the profiler times separately.
+ */
+public enum Stage {
+    FAULT_HOOK,
+    COALESCED_WAIT,
+    BATCH_WAIT,
+    WRITE_WAIT,
+    REDIS_GET_IDS,
+    REDIS_GET_USER,
+    REDIS_SET,
+    JSON_DECODE,
+    MYSQL_GET_USERS,
+    MYSQL_SAVE_USERS,
+    SERIALIZE,
+    RESPONSE_WRITE;
+
+    static final Stage[] VALUES = values();
+}
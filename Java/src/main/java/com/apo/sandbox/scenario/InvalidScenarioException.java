@@ -0,0 +1,16 @@
+package com.apo.sandbox.scenario;
+
+import java.util.List;
+
+public class InvalidScenarioException extends RuntimeException {
+    private final List<String> errors;
+
+    public InvalidScenarioException(List<String> errors) {
+        super("Invalid scenario: " + String.join("; ", errors));
+        this.errors = errors;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,42 @@
+package com.apo.sandbox.scenario;
+
+import java.util.Map;
+
+/**
+ * A single timed fault operation produced by compiling a plan.
+ */
+public class ScenarioAction {
+    public enum Kind {
+        START,
+        UPDATE,
+        STOP
+    }
+
+    private final long offsetNanos;
+    private final String fault;
+    private final Kind kind;
+    private final Map<String, Object> params;
+
+    public ScenarioAction(long offsetNanos, String fault, Kind kind, Map<String, Object> params) {
+        this.offsetNanos = offsetNanos;
+        this.fault = fault;
+        this.kind = kind;
+        this.params = params;
+    }
+
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public String getFault() {
+        return fault;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+}
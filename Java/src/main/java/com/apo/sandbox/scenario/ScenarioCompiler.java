@@ -0,0 +1,152 @@
+package com.apo.sandbox.scenario;
+
+import com.apo.sandbox.fault.FaultManager;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates a plan and flattens it into a time-ordered list of actions.
+ * All problems are collected and reported together.
+ */
+@Component
+public class ScenarioCompiler {
+    private final FaultManager faultManager;
+
+    public ScenarioCompiler(FaultManager faultManager) {
+        this.faultManager = faultManager;
+    }
+
+    public List<ScenarioAction> compile(ScenarioPlan plan) {
+        List<String> errors = new ArrayList<>();
+        List<ScenarioAction> actions = new ArrayList<>();
+        if (plan == null || plan.getSteps() == null || plan.getSteps().isEmpty()) {
+            throw new InvalidScenarioException(List.of("plan has no steps"));
+        }
+
+        Map<String, List<long[]>> windows = new HashMap<>();
+        for (int i = 0; i < plan.getSteps().size(); i++) {
+            ScenarioStep step = plan.getSteps().get(i);
+            String where = "steps[" + i + "]";
+            if (step.getFault() == null || faultManager.getFault(step.getFault()) == null) {
+                errors.add(where + ": unknown fault '" + step.getFault() + "', expected one of "
+                        + faultManager.getFaults().keySet());
+                continue;
+            }
+            Map<String, Object> params = step.getParams() == null ? new HashMap<>() : step.getParams();
+            if ("cpu".equals(step.getFault()) && !params.containsKey("cores")) {
+                errors.add(where + ": cpu steps need 'cores' so the burn runs in the background");
+            }
+            Long at = parse(step.getAt(), where + ".at", errors, false);
+            Long duration = parse(step.getDuration(), where + ".duration", errors, true);
+            if (at == null || duration == null) {
+                continue;
+            }
+
+            long end = at + duration;
+            for (long[] window : windows.computeIfAbsent(step.getFault(), k -> new ArrayList<>())) {
+                if (at < window[1] && window[0] < end) {
+                    errors.add(where + ": overlaps another '" + step.getFault() + "' step");
+                }
+            }
+            windows.get(step.getFault()).add(new long[] { at, end });
+
+            ScenarioRamp ramp = step.getRamp();
+            int first = actions.size();
+            if (ramp == null) {
+                actions.add(new ScenarioAction(at, step.getFault(), ScenarioAction.Kind.START, params));
+            } else if (!compileRamp(step, ramp, at, duration, params, where, errors, actions)) {
+                continue;
+            }
+            validateParams(actions.subList(first, actions.size()), where, errors);
+            actions.add(new ScenarioAction(end, step.getFault(), ScenarioAction.Kind.STOP, Map.of()));
+        }
+
+        if (!errors.isEmpty()) {
+            throw new InvalidScenarioException(errors);
+        }
+        // At the same instant a ramp's last update sorts before its window's stop
+        // (a ramp may end exactly when the step does), and stops sort before
+        // starts so back-to-back windows hand over cleanly.
+        actions.sort(Comparator.comparingLong(ScenarioAction::getOffsetNanos)
+                .thenComparing(ScenarioCompiler::order));
+        return actions;
+    }
+
+    private static int order(ScenarioAction action) {
+        return switch (action.getKind()) {
+            case UPDATE -> 0;
+            case STOP -> 1;
+            case START -> 2;
+        };
+    }
+
+    // Checks every start and ramp update the way FaultManager would when it
+    // is queued, so a bad value fails the plan instead of a step mid-run.
+    private void validateParams(List<ScenarioAction> stepActions, String where, List<String> errors) {
+        for (ScenarioAction action : stepActions) {
+            try {
+                faultManager.getFault(action.getFault()).validate(action.getParams());
+            } catch (IllegalArgumentException e) {
+                errors.add(where + ".params: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // Returns false if the ramp is invalid; the errors say why.
+    private boolean compileRamp(ScenarioStep step, ScenarioRamp ramp, long at, long duration,
+                                Map<String, Object> params, String where, List<String> errors,
+                                List<ScenarioAction> actions) {
+        if (ramp.getParam() == null || ramp.getParam().isEmpty()) {
+            errors.add(where + ".ramp.param: required");
+            return false;
+        }
+        Long over = parse(ramp.getOver(), where + ".ramp.over", errors, true);
+        if (over == null) {
+            return false;
+        }
+        if (over > duration) {
+            errors.add(where + ".ramp.over: longer than the step duration");
+            return false;
+        }
+        int steps = ramp.getSteps() != null ? ramp.getSteps() : (int) Math.max(1, Duration.ofNanos(over).toSeconds());
+        if (steps < 1) {
+            errors.add(where + ".ramp.steps: must be at least 1");
+            return false;
+        }
+        boolean integral = ramp.getFrom() == Math.rint(ramp.getFrom()) && ramp.getTo() == Math.rint(ramp.getTo());
+        for (int k = 0; k <= steps; k++) {
+            double value = ramp.getFrom() + (ramp.getTo() - ramp.getFrom()) * k / steps;
+            Map<String, Object> stepParams = new HashMap<>(params);
+            stepParams.put(ramp.getParam(), integral ? (Object) Math.round(value) : (Object) value);
+            actions.add(new ScenarioAction(at + over * k / steps, step.getFault(),
+                    k == 0 ? ScenarioAction.Kind.START : ScenarioAction.Kind.UPDATE, stepParams));
+        }
+        return true;
+    }
+
+    private static Long parse(String value, String field, List<String> errors, boolean positive) {
+        if (value == null || value.isEmpty()) {
+            errors.add(field + ": required");
+            return null;
+        }
+        try {
+            long nanos = DurationStyle.detectAndParse(value).toNanos();
+            if (nanos < 0 || (positive && nanos == 0)) {
+                errors.add(field + ": must be " + (positive ? "positive" : "non-negative"));
+                return null;
+            }
+            return nanos;
+        } catch (IllegalArgumentException e) {
+            errors.add(field + ": cannot parse '" + value + "'");
+            return null;
+        }
+    }
+}
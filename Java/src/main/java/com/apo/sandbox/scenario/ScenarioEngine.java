@@ -0,0 +1,203 @@
+package com.apo.sandbox.scenario;
+
+import com.apo.sandbox.fault.FaultManager;
+import com.apo.sandbox.fault.FaultOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs compiled plans on one shared scheduler.
+ *
+ * Every action is scheduled against the run's fixed start instant rather
+ * than relative to the previous action, so delays in one fault operation do
+ * not push the rest of the timeline back. Actions only queue asynchronous
+ * fault operations, so a slow apply never holds up the scheduler. Actions
+ * on the same fault are serialized per run, and an update only runs while
+ * the fault's window is open, so the scheduler never re-arms a fault the
+ * plan has stopped.
+ */
+@Service
+public class ScenarioEngine {
+    private static final Logger log = LoggerFactory.getLogger(ScenarioEngine.class);
+    // Small lead so all actions of a run are queued before the first one fires.
+    private static final long START_LEAD_NANOS = 50_000_000L;
+    private static final int MAX_RUNS = 100;
+
+    private final FaultManager faultManager;
+    private final ScenarioCompiler compiler;
+    // YAML is a superset of JSON, so one mapper reads both plan formats.
+    private final ObjectMapper planMapper = new ObjectMapper(new YAMLFactory());
+    private final ScheduledExecutorService scheduler;
+    // Oldest finished runs are dropped beyond MAX_RUNS; running ones are kept
+    // so they can still be aborted.
+    private final Map<String, ScenarioRun> runs = new LinkedHashMap<>();
+    private final Map<String, List<ScheduledFuture<?>>> pending = new ConcurrentHashMap<>();
+
+    public ScenarioEngine(FaultManager faultManager, ScenarioCompiler compiler) {
+        this.faultManager = faultManager;
+        this.compiler = compiler;
+        AtomicInteger threads = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "scenario-scheduler-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ScenarioPlan parse(String source) throws IOException {
+        return planMapper.readValue(source, ScenarioPlan.class);
+    }
+
+    public List<ScenarioAction> validate(ScenarioPlan plan) {
+        return compiler.compile(plan);
+    }
+
+    public ScenarioRun start(ScenarioPlan plan) {
+        List<ScenarioAction> actions = compiler.compile(plan);
+        long startNanos = System.nanoTime() + START_LEAD_NANOS;
+        ScenarioRun run = new ScenarioRun(UUID.randomUUID().toString(), plan, actions.size(), startNanos,
+                Instant.now().plusNanos(START_LEAD_NANOS));
+        remember(run);
+
+        List<ScheduledFuture<?>> futures = new ArrayList<>(actions.size());
+        for (ScenarioAction action : actions) {
+            long delay = startNanos + action.getOffsetNanos() - System.nanoTime();
+            futures.add(scheduler.schedule(() -> execute(run, action), delay, TimeUnit.NANOSECONDS));
+        }
+        pending.put(run.getId(), futures);
+        log.info("Scenario '{}' started as run {} with {} actions.", plan.getName(), run.getId(), actions.size());
+        return run;
+    }
+
+    private void remember(ScenarioRun run) {
+        synchronized (runs) {
+            runs.put(run.getId(), run);
+            Iterator<ScenarioRun> oldest = runs.values().iterator();
+            while (runs.size() > MAX_RUNS && oldest.hasNext()) {
+                if (oldest.next().getStatus() != ScenarioRun.Status.RUNNING) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    // Only checks the run's state and queues the operation, so the shared
+    // scheduler never waits on a fault being applied. The event is recorded
+    // when the operation completes; FaultManager applies the operations on a
+    // fault in the order they were queued.
+    void execute(ScenarioRun run, ScenarioAction action) {
+        long actual = System.nanoTime() - run.getStartNanos();
+        String fault = action.getFault();
+        FaultOperation operation;
+        synchronized (run.faultLock(fault)) {
+            try {
+                switch (action.getKind()) {
+                    case START:
+                        if (run.getStatus() == ScenarioRun.Status.ABORTED) {
+                            record(run, action, actual, "skipped: run aborted");
+                            return;
+                        }
+                        run.open(fault);
+                        operation = faultManager.startFaultAsync(fault, action.getParams(), null);
+                        break;
+                    case UPDATE:
+                        // A late update must not re-arm a fault the plan already stopped:
+                        // on an inactive fault update() falls back to start().
+                        if (!run.isOpen(fault)) {
+                            record(run, action, actual, "skipped: fault already stopped by the plan");
+                            return;
+                        }
+                        operation = faultManager.updateFaultAsync(fault, action.getParams());
+                        break;
+                    default:
+                        run.close(fault);
+                        operation = faultManager.stopFaultAsync(fault);
+                }
+            } catch (Exception e) {
+                record(run, action, actual, e.getMessage());
+                return;
+            }
+        }
+        operation.getCompletion().thenAccept(done -> record(run, action, actual, done.getError()));
+    }
+
+    private void record(ScenarioRun run, ScenarioAction action, long actual, String error) {
+        if (error != null) {
+            log.error("Scenario run {}: {} {} failed: {}", run.getId(), action.getKind(), action.getFault(), error);
+        }
+        run.record(action, actual, error);
+        if (run.getStatus() != ScenarioRun.Status.RUNNING) {
+            pending.remove(run.getId());
+            log.info("Scenario run {} finished.", run.getId());
+        }
+    }
+
+    public ScenarioRun replay(String runId) {
+        ScenarioRun previous = getRun(runId);
+        return previous == null ? null : start(previous.getPlan());
+    }
+
+    public ScenarioRun abort(String runId) {
+        ScenarioRun run = getRun(runId);
+        if (run == null || run.getStatus() != ScenarioRun.Status.RUNNING) {
+            return run;
+        }
+        List<ScheduledFuture<?>> futures = pending.remove(runId);
+        if (futures != null) {
+            futures.forEach(f -> f.cancel(false));
+        }
+        run.abort();
+        run.getPlan().getSteps().stream().map(ScenarioStep::getFault).distinct().forEach(fault -> {
+            FaultOperation stop;
+            synchronized (run.faultLock(fault)) {
+                run.close(fault);
+                stop = faultManager.stopFaultAsync(fault);
+            }
+            stop.getCompletion().thenAccept(done -> {
+                if (done.getError() != null) {
+                    log.error("Failed to stop fault '{}' while aborting run {}: {}", fault, runId, done.getError());
+                }
+            });
+        });
+        log.info("Scenario run {} aborted.", runId);
+        return run;
+    }
+
+    public ScenarioRun getRun(String runId) {
+        synchronized (runs) {
+            return runs.get(runId);
+        }
+    }
+
+    public Collection<ScenarioRun> getRuns() {
+        synchronized (runs) {
+            return new ArrayList<>(runs.values());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        getRuns().forEach(run -> abort(run.getId()));
+        scheduler.shutdownNow();
+    }
+}
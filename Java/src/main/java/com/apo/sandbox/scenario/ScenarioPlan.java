@@ -0,0 +1,41 @@
+package com.apo.sandbox.scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A declarative chaos plan, loaded from YAML or JSON:
+ *
+ * <pre>
+ * name: redis-ramp-then-cpu
+ * steps:
+ *   - fault: redis_latency
+ *     at: 0s
+ *     duration: 60s
+ *     ramp: { param: duration, from: 10, to: 200, over: 60s }
+ *   - fault: cpu
+ *     at: 60s
+ *     duration: 30s
+ *     params: { cores: 2, percent: 50 }
+ * </pre>
+ */
+public class ScenarioPlan {
+    private String name;
+    private List<ScenarioStep> steps = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<ScenarioStep> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<ScenarioStep> steps) {
+        this.steps = steps;
+    }
+}
@@ -0,0 +1,53 @@
+package com.apo.sandbox.scenario;
+
+/**
+ * Linear ramp of a single numeric fault parameter. Without {@code steps}
+ * the value is updated once per second.
+ */
+public class ScenarioRamp {
+    private String param;
+    private double from;
+    private double to;
+    private String over;
+    private Integer steps;
+
+    public String getParam() {
+        return param;
+    }
+
+    public void setParam(String param) {
+        this.param = param;
+    }
+
+    public double getFrom() {
+        return from;
+    }
+
+    public void setFrom(double from) {
+        this.from = from;
+    }
+
+    public double getTo() {
+        return to;
+    }
+
+    public void setTo(double to) {
+        this.to = to;
+    }
+
+    public String getOver() {
+        return over;
+    }
+
+    public void setOver(String over) {
+        this.over = over;
+    }
+
+    public Integer getSteps() {
+        return steps;
+    }
+
+    public void setSteps(Integer steps) {
+        this.steps = steps;
+    }
+}
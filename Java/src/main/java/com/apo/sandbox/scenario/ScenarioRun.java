@@ -0,0 +1,153 @@
+package com.apo.sandbox.scenario;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Execution record of a plan. Every action is logged with its planned and
+ * actual offset from the run start, so timing precision can be checked and
+ * the same plan replayed later.
+ */
+public class ScenarioRun {
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        ABORTED
+    }
+
+    public static class Event {
+        private final String fault;
+        private final ScenarioAction.Kind kind;
+        private final Map<String, Object> params;
+        private final double plannedMs;
+        private final double actualMs;
+        private final String error;
+
+        Event(ScenarioAction action, long actualNanos, String error) {
+            this.fault = action.getFault();
+            this.kind = action.getKind();
+            this.params = action.getParams();
+            this.plannedMs = action.getOffsetNanos() / 1_000_000.0;
+            this.actualMs = actualNanos / 1_000_000.0;
+            this.error = error;
+        }
+
+        public String getFault() {
+            return fault;
+        }
+
+        public ScenarioAction.Kind getKind() {
+            return kind;
+        }
+
+        public Map<String, Object> getParams() {
+            return params;
+        }
+
+        public double getPlannedMs() {
+            return plannedMs;
+        }
+
+        public double getActualMs() {
+            return actualMs;
+        }
+
+        public double getLateMs() {
+            return actualMs - plannedMs;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final String id;
+    private final ScenarioPlan plan;
+    private final int totalActions;
+    private final long startNanos;
+    private final Instant startedAt;
+    private final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+    private volatile Status status = Status.RUNNING;
+    // Faults whose plan window is open: started and not yet stopped by the run.
+    private final Set<String> openFaults = ConcurrentHashMap.newKeySet();
+    private final Map<String, Object> faultLocks = new ConcurrentHashMap<>();
+
+    public ScenarioRun(String id, ScenarioPlan plan, int totalActions, long startNanos, Instant startedAt) {
+        this.id = id;
+        this.plan = plan;
+        this.totalActions = totalActions;
+        this.startNanos = startNanos;
+        this.startedAt = startedAt;
+    }
+
+    void record(ScenarioAction action, long actualNanos, String error) {
+        events.add(new Event(action, actualNanos, error));
+        if (events.size() == totalActions && status == Status.RUNNING) {
+            status = Status.COMPLETED;
+        }
+    }
+
+    // Actions on one fault take this lock, so an update can never slip in
+    // behind the stop that closed its window.
+    Object faultLock(String fault) {
+        return faultLocks.computeIfAbsent(fault, k -> new Object());
+    }
+
+    void open(String fault) {
+        openFaults.add(fault);
+    }
+
+    void close(String fault) {
+        openFaults.remove(fault);
+    }
+
+    boolean isOpen(String fault) {
+        return openFaults.contains(fault);
+    }
+
+    void abort() {
+        status = Status.ABORTED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return plan.getName();
+    }
+
+    public ScenarioPlan getPlan() {
+        return plan;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    @JsonIgnore
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public int getTotalActions() {
+        return totalActions;
+    }
+
+    public List<Event> getEvents() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.apo.sandbox.scenario;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One fault window in a plan. {@code at} and {@code duration} use Spring's
+ * duration syntax ("500ms", "30s", "2m"); an optional ramp moves one
+ * parameter from {@code from} to {@code to} over the start of the window.
+ */
+public class ScenarioStep {
+    private String fault;
+    private String at = "0s";
+    private String duration;
+    private Map<String, Object> params = new HashMap<>();
+    private ScenarioRamp ramp;
+
+    public String getFault() {
+        return fault;
+    }
+
+    public void setFault(String fault) {
+        this.fault = fault;
+    }
+
+    public String getAt() {
+        return at;
+    }
+
+    public void setAt(String at) {
+        this.at = at;
+    }
+
+    public String getDuration() {
+        return duration;
+    }
+
+    public void setDuration(String duration) {
+        this.duration = duration;
+    }
+
+    public Map<String, Object> getParams() {
+        return params;
+    }
+
+    public void setParams(Map<String, Object> params) {
+        this.params = params;
+    }
+
+    public ScenarioRamp getRamp() {
+        return ramp;
+    }
+
+    public void setRamp(ScenarioRamp ramp) {
+        this.ramp = ramp;
+    }
+}
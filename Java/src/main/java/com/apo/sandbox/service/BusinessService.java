@@ -1,66 +1,68 @@
 package com.apo.sandbox.service;
 
+import com.apo.sandbox.admission.AdmissionControlFilter;
+import com.apo.sandbox.cache.OffHeapUserList;
+import com.apo.sandbox.config.AppProperties;
 import com.apo.sandbox.dao.Store;
 import com.apo.sandbox.fault.FaultManager;
+import com.apo.sandbox.fault.FaultSwitches;
 import com.apo.sandbox.model.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import eu.rekawek.toxiproxy.Proxy;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.UUID;
 
 @Service
 public class BusinessService {
     private static final Logger log = LoggerFactory.getLogger(BusinessService.class);
+    private final FaultManager faultManager;
     private final Store store;
-    private final AtomicBoolean latencyActive = new AtomicBoolean(false);
-    private final AtomicBoolean redisLatencyActive = new AtomicBoolean(false);
+    private final AppProperties appProperties;
 
-    @Autowired(required = false)
-    private Proxy toxiProxy;
-
-    public BusinessService(FaultManager faultManager, Store store) {
+    public BusinessService(FaultManager faultManager, Store store, AppProperties appProperties) {
+        this.faultManager = faultManager;
         this.store = store;
+        this.appProperties = appProperties;
+    }
+
+    // The steady-state request carries no mode, so this must short-circuit
+    // before touching anything else.
+    private static boolean faultRequested(Optional<String> mode) {
+        return mode.isPresent() && "1".equals(mode.get());
+    }
+
+    // A start is neither in flight nor failed recently, so a broken tc or
+    // Toxiproxy costs one attempt per backoff instead of one per request.
+    private boolean mayStart(String fault) {
+        return !faultManager.isApplying(fault)
+                && !faultManager.failedWithin(fault, Duration.ofMillis(appProperties.getFaultRetryBackoffMs()));
     }
 
     public List<User> getUsersWithLatency(Optional<String> mode, int duration) {
-        if ("1".equals(mode.orElse(""))) {
-            if (!latencyActive.get()) {
-                try {
-                    // Clear any existing traffic control rules to ensure a clean state
-                    clearTc();
-
-                    // Inject network latency using Linux tc (traffic control) to simulate network
-                    // delays
-                    // This adds a delay to all packets on the eth0 interface
-                    String command = String.format("tc qdisc add dev %s root netem delay %dms", "eth0", duration);
-                    executeCommand(command.split(" "));
-                } catch (Exception e) {
-                    log.error("type 1 failed");
-                }
-
-                latencyActive.set(true);
-            }
+        if (faultRequested(mode) && !FaultSwitches.tcArmed() && mayStart("latency")) {
+            // Inject network latency using Linux tc (traffic control). The rule is
+            // applied off the request thread by the FaultManager.
+            faultManager.startFaultAsync("latency", Map.of("duration", duration), null);
         }
 
         try {
-            store.queryUserFromRedis();
+            // Only the MySQL result is served; an off-heap list from the Redis
+            // read is given back straight away rather than left to the GC.
+            OffHeapUserList.release(store.queryUserFromRedis());
             return store.queryUserFromMySQL();
         } catch (Exception e) {
-            log.error("Failed to get users: {}", e.getMessage());
-            return Collections.emptyList();
+            return failed(e);
         }
     }
 
     public List<User> getUsersWithCPUBurn(Optional<String> mode, int duration) {
-        if ("1".equals(mode.orElse(""))) {
+        if (faultRequested(mode)) {
             // Calculate target duration in nanoseconds for precise CPU burning
             long targetDurationNanos = duration * 1_000_000L;
             long startTime = System.nanoTime();
@@ -74,69 +76,47 @@ public class BusinessService {
         }
 
         try {
-            store.queryUserFromRedis();
+            OffHeapUserList.release(store.queryUserFromRedis());
             return store.queryUserFromMySQL();
         } catch (Exception e) {
-            log.error("Failed to get users: {}", e.getMessage());
-            return Collections.emptyList();
+            return failed(e);
         }
     }
 
     public List<User> getUsersWithRedisLatency(Optional<String> mode, int duration) {
-        if ("1".equals(mode.orElse(""))) {
-            if (!redisLatencyActive.get()) {
-                try {
-                    // Use Toxiproxy to simulate Redis latency
-                    // This simulates slow Redis responses without affecting actual Redis server
-                    toxiProxy.toxics().latency("redis_latency", null, duration);
-                } catch (Exception e) {
-                    log.error("type 3 failed");
-                }
-
-                redisLatencyActive.set(true);
-            }
+        if (faultRequested(mode) && !FaultSwitches.toxiproxyArmed() && mayStart("toxiproxy_latency")) {
+            // Use Toxiproxy to simulate Redis latency
+            // This simulates slow Redis responses without affecting actual Redis server
+            faultManager.startFaultAsync("toxiproxy_latency", Map.of("duration", duration), null);
         }
 
         try {
-            store.queryUserFromRedis();
+            OffHeapUserList.release(store.queryUserFromRedis());
             return store.queryUserFromMySQL();
         } catch (Exception e) {
-            log.error("Failed to get users: {}", e.getMessage());
-            return Collections.emptyList();
+            return failed(e);
         }
     }
 
-    private void clearTc() throws Exception {
-        log.info("Attempting to clear tc rules on interface {}.", "eth0");
-        String command = String.format("tc qdisc del dev %s root", "eth0");
-        try {
-            executeCommand(command.split(" "));
-        } catch (Exception e) {
-            if (e.getMessage().contains("No such file or directory") ||
-                    e.getMessage().contains("No qdisc") ||
-                    e.getMessage().contains("Cannot delete qdisc with handle of zero")) {
-                log.info("No existing tc rule to clear, which is fine.");
-            } else {
-                throw e;
-            }
-        }
+    // Null if there is no such user; backend failures are thrown.
+    public User getUserById(String id) throws Exception {
+        return store.queryUserById(id);
     }
 
-    private void executeCommand(String... command) throws Exception {
-        ProcessBuilder pb = new ProcessBuilder(command);
-        Process process = pb.start();
-        int exitCode = process.waitFor();
-
-        if (exitCode != 0) {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-            StringBuilder output = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-            throw new RuntimeException(
-                    String.format("Command failed with exit code %d: %s", exitCode, output.toString()));
+    // Callers may leave the ID out to create a new user.
+    public User saveUser(User user) throws Exception {
+        if (user.getId() == null || user.getId().isBlank()) {
+            user.setId(UUID.randomUUID().toString());
         }
+        return store.saveUser(user);
+    }
+
+    // The list endpoints answer a backend failure with an empty list, so the
+    // failure is reported to admission control and the guardrails directly.
+    private static List<User> failed(Exception e) {
+        log.error("Failed to get users: {}", e.getMessage());
+        AdmissionControlFilter.markBackendFailed();
+        return Collections.emptyList();
     }
 
     private int fibonacci(int n) {
@@ -0,0 +1,56 @@
+package com.apo.sandbox.snapshot;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.health.BackendHealthMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * Restores the user snapshot on startup, before warm-up runs, so the
+ * warm-up loads find the restored users rather than seeding mock ones.
+ * Only empty backends are primed; a failed restore is logged and startup
+ * carries on with the normal load path.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SnapshotRestoreRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotRestoreRunner.class);
+    // Upper bound on waiting for lazily created clients before priming.
+    private static final long RESTORE_WAIT_MS = 30_000;
+
+    private final UserSnapshotService snapshotService;
+    private final BackendHealthMonitor healthMonitor;
+    private final AppProperties appProperties;
+
+    public SnapshotRestoreRunner(UserSnapshotService snapshotService, BackendHealthMonitor healthMonitor,
+                                 AppProperties appProperties) {
+        this.snapshotService = snapshotService;
+        this.healthMonitor = healthMonitor;
+        this.appProperties = appProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!snapshotService.isConfigured() || !Files.exists(snapshotService.getPath())) {
+            return;
+        }
+        try {
+            if (appProperties.getBackendLazyInit()) {
+                healthMonitor.awaitFirstCheck(RESTORE_WAIT_MS);
+            }
+            Map<String, Object> result = snapshotService.restore(
+                    UserSnapshotService.parseTargets(appProperties.getUserSnapshotRestoreTargets()), true);
+            log.info("Restored user snapshot {}: {}", snapshotService.getPath(), result);
+        } catch (Exception e) {
+            log.error("Failed to restore user snapshot {}: {}", snapshotService.getPath(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.apo.sandbox.snapshot;
+
+import com.apo.sandbox.cache.OffHeapUserStore;
+import com.apo.sandbox.cache.OffHeapUsers;
+import com.apo.sandbox.cache.UserResponseCache;
+import com.apo.sandbox.cache.UserSnapshotFile;
+import com.apo.sandbox.cache.UserSnapshotInfo;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.IDatabaseClient;
+import com.apo.sandbox.dao.IRedisClient;
+import com.apo.sandbox.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Saves the user set to a {@link UserSnapshotFile} and restores from it.
+ *
+ * A restore maps the file and installs it in the {@link OffHeapUserStore},
+ * so lookups can be served from the mapping at once, then optionally
+ * re-primes MySQL with multi-row upserts and Redis with pipelined writes.
+ * Rows MySQL refuses because their email belongs to another user are left
+ * out of Redis too. When both are primed from the same file, and the change
+ * feed had caught up before the MySQL load, its cursor is moved past the
+ * outbox rows the load generated, so those changes are not replayed into
+ * Redis a second time. Writes from elsewhere during such a restore would be
+ * skipped with them, so it is meant for a quiet or empty system.
+ */
+@Service
+public class UserSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(UserSnapshotService.class);
+
+    public enum Target {
+        REDIS,
+        MYSQL
+    }
+
+    private final IRedisClient redisClient;
+    private final IDatabaseClient dbClient;
+    private final OffHeapUserStore offHeapUserStore;
+    private final AppProperties appProperties;
+
+    public UserSnapshotService(IRedisClient redisClient, IDatabaseClient dbClient,
+                               OffHeapUserStore offHeapUserStore, AppProperties appProperties) {
+        this.redisClient = redisClient;
+        this.dbClient = dbClient;
+        this.offHeapUserStore = offHeapUserStore;
+        this.appProperties = appProperties;
+    }
+
+    public boolean isConfigured() {
+        return !appProperties.getUserSnapshotPath().isBlank();
+    }
+
+    public Path getPath() {
+        return Path.of(appProperties.getUserSnapshotPath());
+    }
+
+    /** Header of the snapshot file, or null if there is none. */
+    public UserSnapshotInfo inspect() throws IOException {
+        if (!isConfigured() || !Files.exists(getPath())) {
+            return null;
+        }
+        return UserSnapshotFile.inspect(getPath());
+    }
+
+    /**
+     * Writes the current off-heap set, or failing that the MySQL users
+     * table, to the snapshot file.
+     */
+    public synchronized UserSnapshotInfo save() throws IOException {
+        requireConfigured();
+        OffHeapUsers users = offHeapUserStore.acquire();
+        if (users == null) {
+            List<User> list = dbClient.getUsers();
+            if (list == null || list.isEmpty()) {
+                throw new IllegalStateException("no users to snapshot: database unavailable or empty");
+            }
+            users = OffHeapUsers.build(list, UserResponseCache.fingerprint(list), OffHeapUsers.MAX_CHUNK_BYTES);
+        }
+        try {
+            long start = System.nanoTime();
+            UserSnapshotInfo info = UserSnapshotFile.write(users, getPath());
+            log.info("Wrote {} users ({} bytes) to {} in {} ms", info.getUsers(), info.getFileBytes(),
+                    info.getPath(), (System.nanoTime() - start) / 1_000_000);
+            return info;
+        } finally {
+            users.release();
+        }
+    }
+
+    /**
+     * Maps the snapshot and primes the given backends. With onlyIfEmpty, a
+     * backend that already holds users is left alone.
+     */
+    public synchronized Map<String, Object> restore(Set<Target> targets, boolean onlyIfEmpty) throws Exception {
+        requireConfigured();
+        long start = System.nanoTime();
+        OffHeapUsers users = UserSnapshotFile.map(getPath(), appProperties.getUserSnapshotVerify());
+        // Priming MySQL invalidates the store's copy through the change feed;
+        // this reference keeps the mapping until priming is done.
+        try {
+            offHeapUserStore.install(users);
+            long mappedMs = (System.nanoTime() - start) / 1_000_000;
+            log.info("Mapped {} users from {} in {} ms", users.size(), getPath(), mappedMs);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("users", users.size());
+            result.put("mapMs", mappedMs);
+
+            long before = -1;
+            long head = -1;
+            Set<String> refused = Set.of();
+            if (targets.contains(Target.MYSQL)) {
+                long count = dbClient.countUsers();
+                if (count < 0) {
+                    result.put("mysql", "unavailable");
+                } else if (onlyIfEmpty && count > 0) {
+                    result.put("mysql", "skipped: " + count + " users present");
+                } else {
+                    before = dbClient.getLatestChangeSeq();
+                    refused = primeMySQL(users);
+                    head = dbClient.getLatestChangeSeq();
+                    result.put("mysql", users.size() - refused.size());
+                }
+            }
+            if (targets.contains(Target.REDIS)) {
+                if (redisClient.isMock()) {
+                    result.put("redis", "unavailable");
+                } else if (onlyIfEmpty && !isEmpty(redisClient.getUserIDs())) {
+                    result.put("redis", "skipped: users present");
+                } else {
+                    result.put("redis", primeRedis(users, refused));
+                    if (before >= 0 && head >= 0) {
+                        result.put("changeFeed", skipReplay(before, head));
+                    }
+                }
+            }
+            result.put("totalMs", (System.nanoTime() - start) / 1_000_000);
+            return result;
+        } finally {
+            users.release();
+        }
+    }
+
+    public static Set<Target> parseTargets(String targets) {
+        Set<Target> parsed = EnumSet.noneOf(Target.class);
+        for (String target : targets.split(",")) {
+            if (!target.isBlank()) {
+                parsed.add(Target.valueOf(target.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return parsed;
+    }
+
+    // Returns the IDs MySQL refused because the email belongs to another user.
+    private Set<String> primeMySQL(OffHeapUsers users) throws Exception {
+        long start = System.nanoTime();
+        int batchSize = Math.max(1, appProperties.getUserSnapshotBatchSize());
+        List<User> batch = new ArrayList<>(batchSize);
+        Set<String> refused = new HashSet<>();
+        users.forEach(user -> {
+            batch.add(user);
+            if (batch.size() == batchSize) {
+                upsert(batch, refused);
+            }
+        });
+        if (!batch.isEmpty()) {
+            upsert(batch, refused);
+        }
+        // Rows whose email belongs to a different live user are skipped, not merged into it.
+        log.info("Primed MySQL with {} of {} users in {} ms", users.size() - refused.size(), users.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return refused;
+    }
+
+    private void upsert(List<User> batch, Set<String> refused) throws Exception {
+        Set<String> written = dbClient.upsertUsers(batch);
+        for (User user : batch) {
+            if (!written.contains(user.getId())) {
+                refused.add(user.getId());
+            }
+        }
+        batch.clear();
+    }
+
+    // The ID list goes over in the same chunks as the users, so neither the
+    // heap nor a single command ever holds all of it.
+    private long primeRedis(OffHeapUsers users, Set<String> refused) throws Exception {
+        long start = System.nanoTime();
+        int batchSize = Math.max(1, appProperties.getUserSnapshotBatchSize());
+        List<User> batch = new ArrayList<>(batchSize);
+        long[] primed = {0};
+        try (IRedisClient.UserIdsWriter ids = redisClient.userIdsWriter()) {
+            users.forEach(user -> {
+                if (!refused.contains(user.getId())) {
+                    batch.add(user);
+                }
+                if (batch.size() == batchSize) {
+                    primed[0] += write(batch, ids);
+                }
+            });
+            if (!batch.isEmpty()) {
+                primed[0] += write(batch, ids);
+            }
+            ids.commit();
+        }
+        log.info("Primed Redis with {} users in {} ms", primed[0], (System.nanoTime() - start) / 1_000_000);
+        return primed[0];
+    }
+
+    private int write(List<User> batch, IRedisClient.UserIdsWriter ids) throws Exception {
+        List<String> chunk = new ArrayList<>(batch.size());
+        for (User user : batch) {
+            chunk.add(user.getId());
+        }
+        redisClient.setUsers(batch);
+        ids.append(chunk);
+        batch.clear();
+        return chunk.size();
+    }
+
+    // The outbox rows (before, head] are the MySQL load, which Redis now
+    // holds. Skipping them is only safe if the feed had applied everything
+    // up to before; otherwise it replays them, which is slow but correct.
+    private String skipReplay(long before, long head) {
+        Long cursor = redisClient.getChangeCursor();
+        if (cursor == null || cursor < before) {
+            log.info("Change feed was at {} before the restore, behind seq {}; leaving it to replay the load.",
+                    cursor, before);
+            return cursor == null ? "full sync pending" : "replays from " + cursor;
+        }
+        redisClient.setChangeCursor(head);
+        dbClient.purgeUserChanges(head);
+        return "resumes after seq " + head;
+    }
+
+    private void requireConfigured() {
+        if (!isConfigured()) {
+            throw new IllegalStateException("USER_SNAPSHOT_PATH is not set");
+        }
+    }
+
+    private static boolean isEmpty(List<String> ids) {
+        return ids == null || ids.isEmpty();
+    }
+}
@@ -0,0 +1,148 @@
+package com.apo.sandbox.warmup;
+
+import com.apo.sandbox.cache.OffHeapUserList;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.Store;
+import com.apo.sandbox.health.BackendHealthMonitor;
+import com.apo.sandbox.model.User;
+import com.apo.sandbox.pool.PoolController;
+import com.apo.sandbox.profile.ProfileRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the service up before it reports ready.
+ *
+ * Spring Boot only moves readiness to ACCEPTING_TRAFFIC after all runners
+ * have returned, so everything here happens before the first real request
+ * is routed to us: the pools are filled to their minimum size, the user set
+ * is loaded into Redis (seeding MySQL if it is empty), and synthetic
+ * requests run through the user endpoints until the hot paths are compiled
+ * and the response cache holds every endpoint. Profiler statistics are
+ * reset afterwards so they only describe real traffic.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final String[] ENDPOINTS = {"/api/users/1", "/api/users/2", "/api/users/3"};
+
+    private final AppProperties appProperties;
+    private final PoolController poolController;
+    private final Store store;
+    private final ProfileRecorder profileRecorder;
+    private final BackendHealthMonitor healthMonitor;
+    private final Environment environment;
+
+    public WarmupRunner(AppProperties appProperties, PoolController poolController, Store store,
+                        ProfileRecorder profileRecorder, BackendHealthMonitor healthMonitor, Environment environment) {
+        this.appProperties = appProperties;
+        this.poolController = poolController;
+        this.store = store;
+        this.profileRecorder = profileRecorder;
+        this.healthMonitor = healthMonitor;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!appProperties.getWarmupEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        // Lazily created clients connect on the health monitor's first check.
+        if (appProperties.getBackendLazyInit()) {
+            try {
+                if (!healthMonitor.awaitFirstCheck(TimeUnit.SECONDS.toMillis(appProperties.getWarmupMaxSeconds()))) {
+                    log.warn("Backends were not checked within the warm-up limit; warming up against what is there.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        poolController.prefillPools();
+
+        try {
+            List<User> users = store.queryUserFromRedis();
+            try {
+                log.info("Warm-up preloaded {} users into Redis.", users.size());
+            } finally {
+                OffHeapUserList.release(users);
+            }
+        } catch (Exception e) {
+            log.warn("Warm-up failed to preload users: {}", e.getMessage());
+        }
+
+        String port = environment.getProperty("local.server.port");
+        if (port != null) {
+            sendSyntheticTraffic("http://localhost:" + port);
+        }
+        profileRecorder.reset();
+
+        log.info("Warm-up finished in {}ms.", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void sendSyntheticTraffic(String baseUrl) {
+        int total = Math.max(0, appProperties.getWarmupRequests());
+        int concurrency = Math.max(1, appProperties.getWarmupConcurrency());
+        long deadline = System.nanoTime() + Duration.ofSeconds(appProperties.getWarmupMaxSeconds()).toNanos();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        AtomicInteger issued = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "warmup-traffic");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    int n;
+                    while ((n = issued.getAndIncrement()) < total && System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ENDPOINTS[n % ENDPOINTS.length]))
+                                .timeout(Duration.ofSeconds(5))
+                                .header("Accept-Encoding", n % 2 == 0 ? "gzip" : "identity")
+                                .build();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                failed.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (Exception e) {
+            log.warn("Warm-up traffic interrupted: {}", e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Warm-up sent {} synthetic requests ({} failed).", Math.min(issued.get(), total), failed.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.apo.sandbox.admission;
+
+import com.apo.sandbox.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlFilterTest {
+
+    @Test
+    void mapsUrisToRouteTemplates() {
+        assertEquals("/api/users", AdmissionControlFilter.endpointKey("/api/users"));
+        assertEquals("/api/users/1", AdmissionControlFilter.endpointKey("/api/users/1"));
+        assertEquals("/api/users/3", AdmissionControlFilter.endpointKey("/api/users/3"));
+        assertEquals(AdmissionControlFilter.BY_ID_ROUTE, AdmissionControlFilter.endpointKey("/api/users/by-id/42"));
+        assertEquals(AdmissionControlFilter.OTHER, AdmissionControlFilter.endpointKey("/api/users/by-id/"));
+        assertEquals(AdmissionControlFilter.OTHER, AdmissionControlFilter.endpointKey("/api/users/by-id/42/x"));
+        assertEquals(AdmissionControlFilter.OTHER, AdmissionControlFilter.endpointKey("/api/users/4"));
+        assertEquals(AdmissionControlFilter.OTHER, AdmissionControlFilter.endpointKey("/api/users/anything/else"));
+    }
+
+    @Test
+    void arbitraryUrisShareOneLimiter() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties(), registry, 200);
+        int metersBefore = registry.getMeters().size();
+
+        for (int i = 0; i < 1000; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/random-" + i);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            request = new MockHttpServletRequest("GET", "/api/users/by-id/" + i);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertEquals(2, filter.limiterCount());
+        assertTrue(registry.getMeters().size() - metersBefore <= 4,
+                "meters grew to " + registry.getMeters().size());
+    }
+
+    @Test
+    void emptyListAfterABackendFailureBacksTheLimitOff() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties(), registry, 200);
+        // A handler that swallows a backend error and answers 200, as the list endpoints do.
+        HttpServlet degraded = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+                try {
+                    AdmissionControlFilter.markBackendFailed();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain(degraded));
+            assertEquals(200, response.getStatus());
+            assertTrue(AdmissionControlFilter.failed(request, response));
+        }
+
+        double limit = registry.get("sandbox.admission.limit").tag("endpoint", "/api/users/1").gauge().value();
+        assertTrue(limit < 20, "limit stayed at " + limit);
+    }
+
+    @Test
+    void markingOutsideARequestDoesNothing() {
+        AdmissionControlFilter.markBackendFailed();
+        assertFalse(AdmissionControlFilter.failed(new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+
+    private static AppProperties properties() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "admissionEnabled", true);
+        ReflectionTestUtils.setField(props, "admissionInitialLimit", 20);
+        ReflectionTestUtils.setField(props, "admissionMinLimit", 2);
+        ReflectionTestUtils.setField(props, "admissionMaxLimit", 150);
+        ReflectionTestUtils.setField(props, "admissionLatencyTargetMs", 1000);
+        ReflectionTestUtils.setField(props, "admissionReservedThreads", 10);
+        ReflectionTestUtils.setField(props, "admissionRetryAfterSeconds", 1);
+        return props;
+    }
+}
@@ -0,0 +1,44 @@
+package com.apo.sandbox.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdLimiterTest {
+    private static final long TARGET = 100_000_000L;
+
+    @Test
+    void rejectsOverTheLimit() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, TARGET);
+        assertEquals(1, limiter.tryAcquire());
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(-1, limiter.tryAcquire());
+        limiter.releaseWithoutFeedback();
+        assertTrue(limiter.tryAcquire() > 0);
+    }
+
+    @Test
+    void growsWhenBusyAndFastAndBacksOffWhenSlow() {
+        AimdLimiter limiter = new AimdLimiter(4, 1, 10, 0.5, TARGET);
+        int inFlight = limiter.tryAcquire();
+        limiter.release(4, 1_000_000, false);
+        assertEquals(5, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(inFlight, TARGET + 1, false);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(1, 1_000_000, true);
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void idleLimiterDoesNotGrow() {
+        AimdLimiter limiter = new AimdLimiter(10, 1, 20, 0.5, TARGET);
+        limiter.tryAcquire();
+        limiter.release(1, 1_000_000, false);
+        assertEquals(10, limiter.getLimit());
+    }
+}
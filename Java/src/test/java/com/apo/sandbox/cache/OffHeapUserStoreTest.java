@@ -0,0 +1,138 @@
+package com.apo.sandbox.cache;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapUserStoreTest {
+    private final List<User> before = List.of(new User("a", "A", "a@apo.com"), new User("b", "B", "b@apo.com"));
+    private final List<User> after = List.of(new User("a", "A2", "a@apo.com"), new User("b", "B", "b@apo.com"));
+    private OffHeapUserStore store;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "userStoreOffHeapEnabled", true);
+        ReflectionTestUtils.setField(props, "userStoreOffHeapChunkMb", 1);
+        store = new OffHeapUserStore(props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void publishInstallsTheSnapshotForLaterRequests() {
+        try (OffHeapUserList published = store.publish(before, store.generation())) {
+            assertEquals(fields(before), fields(published));
+        }
+        try (OffHeapUserList served = store.users()) {
+            assertEquals(fields(before), fields(served));
+        }
+        assertEquals("B", store.get("b").getName());
+    }
+
+    @Test
+    void replacedSnapshotIsFreedOnceItsLastReaderIsDone() {
+        OffHeapUserList streaming = store.publish(before, store.generation());
+        OffHeapUsers old = streaming.snapshot();
+
+        store.publish(after, store.generation()).close();
+        assertFalse(old.isFreed());
+        assertEquals("A", streaming.get(0).getName());
+
+        streaming.close();
+        assertTrue(old.isFreed());
+        assertEquals("A2", store.get("a").getName());
+    }
+
+    @Test
+    void invalidateFreesAnUnreadSnapshot() {
+        store.publish(before, store.generation()).close();
+        OffHeapUsers snapshot = store.acquire();
+        snapshot.release();
+
+        store.invalidate();
+
+        assertTrue(snapshot.isFreed());
+        assertNull(store.users());
+        assertNull(store.get("a"));
+    }
+
+    @Test
+    void loadThatRacedAnInvalidationIsServedButNotInstalled() {
+        long generation = store.generation();
+        // A write commits and invalidates while the load is still running.
+        store.invalidate();
+
+        OffHeapUserList stale = store.publish(before, generation);
+        assertEquals(fields(before), fields(stale));
+        assertNull(store.users());
+
+        OffHeapUsers snapshot = stale.snapshot();
+        stale.close();
+        assertTrue(snapshot.isFreed());
+    }
+
+    @Test
+    void installTakesItsOwnReference() {
+        OffHeapUsers mapped = OffHeapUsers.build(before, 7, 1024);
+        store.install(mapped);
+        mapped.release();
+        assertFalse(mapped.isFreed());
+
+        store.invalidate();
+        assertTrue(mapped.isFreed());
+        assertThrows(IllegalArgumentException.class, () -> store.install(mapped));
+    }
+
+    @Test
+    void listReadsInOrderAndRestartsWhenGoingBack() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            users.add(new User("id-" + i, "User \"" + i + "\"", i % 3 == 0 ? null : "u" + i + "@apo.com"));
+        }
+        // Small chunks, so the walk crosses chunk boundaries.
+        OffHeapUsers snapshot = OffHeapUsers.build(users, 1, 1024);
+        store.install(snapshot);
+        snapshot.release();
+        try (OffHeapUserList list = store.users()) {
+            assertTrue(list.snapshot().offHeapBytes() > 2000 * 40);
+            assertEquals(fields(users), fields(list));
+            assertEquals(users.get(1500).getName(), list.get(1500).getName());
+            assertEquals(users.get(3).getEmail(), list.get(3).getEmail());
+            assertThrows(IndexOutOfBoundsException.class, () -> list.get(2000));
+        }
+    }
+
+    @Test
+    void closedListCannotBeRead() {
+        OffHeapUserList list = store.publish(before, store.generation());
+        list.close();
+        list.close();
+
+        assertThrows(IllegalStateException.class, () -> list.get(0));
+        try (OffHeapUserList served = store.users()) {
+            assertSame(served.snapshot(), served.snapshot());
+            assertFalse(served.snapshot().isFreed());
+        }
+    }
+
+    private static List<List<String>> fields(List<User> users) {
+        List<List<String>> fields = new ArrayList<>();
+        for (User user : users) {
+            fields.add(Arrays.asList(user.getId(), user.getName(), user.getEmail()));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,128 @@
+package com.apo.sandbox.cache;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class UserResponseCacheTest {
+
+    @Test
+    void fingerprintSeparatesStringHashCodeCollisions() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(UserResponseCache.fingerprint(List.of(new User("1", "Aa", "x@apo.com"))),
+                UserResponseCache.fingerprint(List.of(new User("1", "BB", "x@apo.com"))));
+    }
+
+    @Test
+    void fingerprintRespectsFieldBoundariesAndNulls() {
+        assertNotEquals(UserResponseCache.fingerprint(List.of(new User("ab", "c", "e"))),
+                UserResponseCache.fingerprint(List.of(new User("a", "bc", "e"))));
+        assertNotEquals(UserResponseCache.fingerprint(List.of(new User("a", null, "e"))),
+                UserResponseCache.fingerprint(List.of(new User("a", "", "e"))));
+        assertEquals(UserResponseCache.fingerprint(List.of(new User("a", "b", "c"))),
+                UserResponseCache.fingerprint(List.of(new User("a", "b", "c"))));
+    }
+
+    @Test
+    void changedListGetsANewBodyAndETag() throws Exception {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "responseCacheEnabled", true);
+        ReflectionTestUtils.setField(props, "responseCacheGzip", false);
+        ObjectMapper mapper = new ObjectMapper();
+        UserResponseCache cache = new UserResponseCache(mapper, props);
+
+        List<User> before = List.of(new User("1", "Aa", "x@apo.com"));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        cache.write("/users/1", before, new MockHttpServletRequest(), first);
+
+        List<User> after = List.of(new User("1", "BB", "x@apo.com"));
+        MockHttpServletRequest revalidate = new MockHttpServletRequest();
+        revalidate.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        cache.write("/users/1", after, revalidate, second);
+
+        assertEquals(200, second.getStatus());
+        assertNotEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        assertArrayEquals(mapper.writeValueAsBytes(after), second.getContentAsByteArray());
+
+        MockHttpServletRequest unchanged = new MockHttpServletRequest();
+        unchanged.addHeader("If-None-Match", second.getHeader("ETag"));
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        cache.write("/users/1", after, unchanged, third);
+        assertEquals(304, third.getStatus());
+    }
+
+    @Test
+    void encodingsGetTheirOwnETagAndAlwaysVary() throws Exception {
+        UserResponseCache cache = gzipCache();
+        List<User> users = List.of(new User("1", "a", "x@apo.com"));
+
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        cache.write("/users/1", users, new MockHttpServletRequest(), plain);
+        MockHttpServletResponse gzip = new MockHttpServletResponse();
+        cache.write("/users/1", users, gzipRequest(), gzip);
+
+        assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+        assertNotEquals(plain.getHeader("ETag"), gzip.getHeader("ETag"));
+        assertEquals("Accept-Encoding", plain.getHeader("Vary"));
+        assertEquals("Accept-Encoding", gzip.getHeader("Vary"));
+
+        // The identity tag does not revalidate the gzip body, and vice versa.
+        MockHttpServletRequest crossed = gzipRequest();
+        crossed.addHeader("If-None-Match", plain.getHeader("ETag"));
+        MockHttpServletResponse full = new MockHttpServletResponse();
+        cache.write("/users/1", users, crossed, full);
+        assertEquals(200, full.getStatus());
+
+        MockHttpServletRequest revalidate = gzipRequest();
+        revalidate.addHeader("If-None-Match", gzip.getHeader("ETag"));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        cache.write("/users/1", users, revalidate, notModified);
+        assertEquals(304, notModified.getStatus());
+        assertEquals("Accept-Encoding", notModified.getHeader("Vary"));
+    }
+
+    @Test
+    void ifNoneMatchIsAListOrAStar() throws Exception {
+        UserResponseCache cache = gzipCache();
+        List<User> users = List.of(new User("1", "a", "x@apo.com"));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        cache.write("/users/1", users, new MockHttpServletRequest(), first);
+        String etag = first.getHeader("ETag");
+
+        assertEquals(304, status(cache, users, "\"other\", W/" + etag));
+        assertEquals(304, status(cache, users, "*"));
+        assertEquals(200, status(cache, users, "\"other\", \"" + etag.substring(2)));
+    }
+
+    private static int status(UserResponseCache cache, List<User> users, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", ifNoneMatch);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.write("/users/1", users, request, response);
+        return response.getStatus();
+    }
+
+    private static UserResponseCache gzipCache() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "responseCacheEnabled", true);
+        ReflectionTestUtils.setField(props, "responseCacheGzip", true);
+        return new UserResponseCache(new ObjectMapper(), props);
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        return request;
+    }
+}
@@ -0,0 +1,211 @@
+package com.apo.sandbox.cdc;
+
+import com.apo.sandbox.cache.OffHeapUserStore;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.IDatabaseClient;
+import com.apo.sandbox.dao.InMemoryRedisClient;
+import com.apo.sandbox.model.User;
+import com.apo.sandbox.model.UserChange;
+import com.apo.sandbox.pool.ResizablePool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserChangeFeedTest {
+    private final InMemoryRedisClient redis = new InMemoryRedisClient();
+    private final Outbox db = new Outbox();
+    private AppProperties props;
+    private UserChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        props = new AppProperties();
+        ReflectionTestUtils.setField(props, "cdcEnabled", true);
+        ReflectionTestUtils.setField(props, "cdcBatchSize", 2);
+        ReflectionTestUtils.setField(props, "cdcGapTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(props, "cdcLeaseMs", 30_000L);
+        ReflectionTestUtils.setField(props, "userStoreOffHeapEnabled", false);
+        feed = new UserChangeFeed(redis, db, props, new OffHeapUserStore(props, new SimpleMeterRegistry()));
+        redis.changeCursor = 0L;
+    }
+
+    @Test
+    void appliesChangesInBatchesAndPurgesUpToTheCursor() {
+        db.commit(1, UserChange.Op.INSERT, "a", "A");
+        db.commit(2, UserChange.Op.INSERT, "b", "B");
+        db.commit(3, UserChange.Op.UPDATE, "a", "A2");
+        db.commit(4, UserChange.Op.DELETE, "b", null);
+        db.commit(5, UserChange.Op.INSERT, "c", "C");
+
+        feed.poll();
+
+        assertEquals(5L, redis.changeCursor);
+        assertEquals("A2", redis.users.get("a").getName());
+        assertNull(redis.users.get("b"));
+        assertEquals(List.of("a", "c"), redis.userIds);
+        assertTrue(db.rows.isEmpty());
+    }
+
+    @Test
+    void pollsOnAThreadOfItsOwn() throws Exception {
+        List<String> pollers = new CopyOnWriteArrayList<>();
+        Outbox outbox = new Outbox() {
+            @Override
+            public List<UserChange> getUserChanges(long afterSeq, int limit) {
+                pollers.add(Thread.currentThread().getName());
+                return super.getUserChanges(afterSeq, limit);
+            }
+        };
+        outbox.commit(1, UserChange.Op.INSERT, "a", "A");
+        ReflectionTestUtils.setField(props, "cdcPollIntervalMs", 20L);
+        UserChangeFeed scheduled = new UserChangeFeed(redis, outbox, props,
+                new OffHeapUserStore(props, new SimpleMeterRegistry()));
+
+        scheduled.start();
+        try {
+            long deadline = System.nanoTime() + 2_000_000_000L;
+            while (redis.changeCursor != 1L && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            scheduled.stop();
+        }
+
+        assertEquals(1L, redis.changeCursor);
+        assertEquals("user-change-feed", pollers.get(0));
+    }
+
+    @Test
+    void lateCommitBelowTheCursorIsNotLost() {
+        db.commit(1, UserChange.Op.INSERT, "a", "A");
+        // seq 2 is allocated but its transaction has not committed yet.
+        db.commit(3, UserChange.Op.INSERT, "c", "C");
+
+        feed.poll();
+        assertEquals(1L, redis.changeCursor);
+        assertTrue(redis.users.containsKey("c"), "rows above the hole are applied");
+        assertTrue(db.rows.containsKey(3L), "rows above the hole are kept");
+
+        db.commit(2, UserChange.Op.INSERT, "b", "B");
+        feed.poll();
+
+        assertEquals(3L, redis.changeCursor);
+        assertEquals("B", redis.users.get("b").getName());
+        assertEquals(List.of("a", "c", "b"), redis.userIds);
+        assertTrue(db.rows.isEmpty());
+    }
+
+    @Test
+    void holeIsSkippedOnceItOutlivesTheTimeout() {
+        ReflectionTestUtils.setField(props, "cdcGapTimeoutMs", 0L);
+        db.commit(1, UserChange.Op.INSERT, "a", "A");
+        db.commit(3, UserChange.Op.INSERT, "c", "C");
+
+        feed.poll();
+        assertEquals(1L, redis.changeCursor, "a hole is never skipped on the poll that finds it");
+        feed.poll();
+        assertEquals(3L, redis.changeCursor);
+    }
+
+    @Test
+    void onlyTheLeaseHolderPolls() {
+        redis.leases.put("user_ids:cdc_lease", "another-instance");
+        db.commit(1, UserChange.Op.INSERT, "a", "A");
+
+        feed.poll();
+
+        assertEquals(0L, redis.changeCursor);
+        assertFalse(redis.users.containsKey("a"));
+        assertTrue(db.rows.containsKey(1L));
+    }
+
+    @Test
+    void missingCursorCopiesTheTableWithoutPurging() {
+        redis.changeCursor = null;
+        db.table.add(new User("a", "A", "a@apo.com"));
+        db.commit(7, UserChange.Op.INSERT, "a", "A");
+
+        feed.poll();
+
+        assertEquals(7L, redis.changeCursor);
+        assertEquals(List.of("a"), redis.userIds);
+        assertTrue(db.rows.containsKey(7L));
+    }
+
+    /** users_outbox as committed rows keyed by seq. */
+    private static class Outbox implements IDatabaseClient {
+        final TreeMap<Long, UserChange> rows = new TreeMap<>();
+        final List<User> table = new ArrayList<>();
+
+        void commit(long seq, UserChange.Op op, String id, String name) {
+            rows.put(seq, new UserChange(seq, op, new User(id, name, name == null ? null : id + "@apo.com")));
+        }
+
+        @Override
+        public List<UserChange> getUserChanges(long afterSeq, int limit) {
+            return rows.tailMap(afterSeq, false).values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public long getLatestChangeSeq() {
+            return rows.isEmpty() ? 0 : rows.lastKey();
+        }
+
+        @Override
+        public void purgeUserChanges(long upToSeq) {
+            rows.headMap(upToSeq, true).clear();
+        }
+
+        @Override
+        public List<User> getUsers() {
+            return table;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean probe() {
+            return true;
+        }
+
+        @Override
+        public ResizablePool getPool() {
+            return null;
+        }
+
+        @Override
+        public long countUsers() {
+            return table.size();
+        }
+
+        @Override
+        public void saveUsers(List<User> users) {
+        }
+
+        @Override
+        public Set<String> upsertUsers(List<User> users) {
+            return Set.of();
+        }
+
+        @Override
+        public List<User> getUsersByIds(Collection<String> ids) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.apo.sandbox.cluster;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.Fault;
+import com.apo.sandbox.fault.FaultManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Two coordinators on one in-memory channel behave like a two-instance cluster.
+class FaultCoordinatorTest {
+    private final InMemoryClusterChannel channel = new InMemoryClusterChannel();
+    private final FaultManager faultManager = mock(FaultManager.class);
+    private FaultCoordinator first;
+    private FaultCoordinator second;
+
+    @BeforeEach
+    void setUp() {
+        when(faultManager.getFault("latency")).thenReturn(mock(Fault.class));
+        when(faultManager.startFaultAsync(eq("latency"), any(), any()))
+                .thenThrow(new IllegalArgumentException("duration must be positive"));
+        first = coordinator("first");
+        second = coordinator("second");
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.shutdown();
+        second.shutdown();
+        channel.close();
+    }
+
+    private FaultCoordinator coordinator(String instanceId) {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "clusterInstanceId", instanceId);
+        ReflectionTestUtils.setField(props, "clusterHeartbeatMs", 100L);
+        ReflectionTestUtils.setField(props, "clusterStartLeadMs", 50L);
+        return new FaultCoordinator(channel, faultManager, new ObjectMapper().findAndRegisterModules(), props,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void everyInstanceAcksABroadcast() throws Exception {
+        assertTrue(waitFor(() -> first.getLiveInstances().size() == 2));
+
+        ClusterOperation operation = first.broadcast(ClusterCommand.Type.START, "latency",
+                Map.of("duration", -1), null, Duration.ZERO);
+
+        assertEquals(Set.of("first", "second"), operation.getExpected());
+        assertTrue(waitFor(operation::isComplete));
+        operation.getAcks().forEach(ack -> {
+            assertEquals(ClusterAck.Status.REJECTED, ack.getStatus());
+            assertEquals("duration must be positive", ack.getError());
+        });
+        assertFalse(first.isShared());
+    }
+
+    @Test
+    void unknownFaultIsRejectedBeforePublishing() {
+        assertThrows(IllegalArgumentException.class, () -> first.broadcast(ClusterCommand.Type.START, "nope",
+                Map.of(), null, null));
+        assertTrue(first.getOperations().isEmpty());
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
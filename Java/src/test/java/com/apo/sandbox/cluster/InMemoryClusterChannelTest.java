@@ -0,0 +1,53 @@
+package com.apo.sandbox.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InMemoryClusterChannelTest {
+    private final InMemoryClusterChannel channel = new InMemoryClusterChannel();
+
+    @AfterEach
+    void tearDown() {
+        channel.close();
+    }
+
+    @Test
+    void everySubscriberOfTheTopicGetsTheMessage() throws Exception {
+        BlockingQueue<String> first = new LinkedBlockingQueue<>();
+        BlockingQueue<String> second = new LinkedBlockingQueue<>();
+        BlockingQueue<String> other = new LinkedBlockingQueue<>();
+        channel.subscribe("faults", first::add);
+        channel.subscribe("faults", second::add);
+        channel.subscribe("acks", other::add);
+
+        channel.publish("faults", "start");
+
+        assertEquals("start", first.poll(2, TimeUnit.SECONDS));
+        assertEquals("start", second.poll(2, TimeUnit.SECONDS));
+        assertNull(other.poll(100, TimeUnit.MILLISECONDS));
+        assertFalse(channel.isShared());
+    }
+
+    @Test
+    void failingHandlerDoesNotStopTheOthers() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        channel.subscribe("faults", message -> {
+            throw new IllegalStateException("boom");
+        });
+        channel.subscribe("faults", received::add);
+
+        channel.publish("faults", "one");
+        channel.publish("faults", "two");
+
+        assertEquals("one", received.poll(2, TimeUnit.SECONDS));
+        assertEquals("two", received.poll(2, TimeUnit.SECONDS));
+    }
+}
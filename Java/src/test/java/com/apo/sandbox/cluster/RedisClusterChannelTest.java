@@ -0,0 +1,130 @@
+package com.apo.sandbox.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisClusterChannelTest {
+    private final JedisPool pool = mock(JedisPool.class);
+    private final Jedis jedis = mock(Jedis.class);
+    private final CountDownLatch disconnect = new CountDownLatch(1);
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private volatile JedisPubSub subscriber;
+    private RedisClusterChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        when(pool.getResource()).thenReturn(jedis);
+        // Confirms each channel and then holds the connection, as SUBSCRIBE does.
+        doAnswer(inv -> {
+            subscriber = inv.getArgument(0);
+            Object[] args = inv.getArguments();
+            for (int i = 1; i < args.length; i++) {
+                subscriber.onSubscribe((String) args[i], i);
+            }
+            disconnect.await();
+            return null;
+        }).when(jedis).subscribe(any(JedisPubSub.class), any(String[].class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        disconnect.countDown();
+        channel.close();
+    }
+
+    // Redis itself: every published message is pushed to the subscriber.
+    private void relayPublishes() {
+        when(jedis.publish(anyString(), anyString())).thenAnswer(inv -> {
+            subscriber.onMessage(inv.getArgument(0), inv.getArgument(1));
+            return 1L;
+        });
+    }
+
+    private void start() {
+        channel = new RedisClusterChannel(pool);
+        channel.subscribe("topic", received::add);
+    }
+
+    @Test
+    void sharedOnceItsOwnProbeComesBack() throws Exception {
+        relayPublishes();
+        start();
+
+        assertTrue(waitFor(channel::isShared));
+        channel.publish("topic", "hello");
+
+        assertEquals("hello", received.poll(2, TimeUnit.SECONDS));
+        verify(jedis).publish("topic", "hello");
+    }
+
+    @Test
+    void pathThatDropsPushedMessagesStaysLocal() throws Exception {
+        // The Go proxy: commands succeed, but nothing is ever pushed back.
+        when(jedis.publish(anyString(), anyString())).thenReturn(1L);
+        start();
+
+        verify(jedis, timeout(2000)).publish(eq(RedisClusterChannel.PROBE), anyString());
+        assertFalse(channel.isShared());
+        channel.publish("topic", "hello");
+
+        assertEquals("hello", received.poll(2, TimeUnit.SECONDS));
+        verify(jedis, never()).publish(eq("topic"), anyString());
+    }
+
+    @Test
+    void anotherInstancesProbeDoesNotConfirm() throws Exception {
+        when(jedis.publish(anyString(), anyString())).thenAnswer(inv -> {
+            subscriber.onMessage(RedisClusterChannel.PROBE, "someone-else");
+            return 1L;
+        });
+        start();
+
+        verify(jedis, timeout(2000)).publish(eq(RedisClusterChannel.PROBE), anyString());
+        assertFalse(channel.isShared());
+    }
+
+    @Test
+    void losingTheSubscriptionEndsSharing() throws Exception {
+        relayPublishes();
+        start();
+        assertTrue(waitFor(channel::isShared));
+
+        disconnect.countDown();
+
+        assertTrue(waitFor(() -> !channel.isShared()));
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
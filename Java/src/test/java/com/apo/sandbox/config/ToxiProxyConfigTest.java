@@ -0,0 +1,58 @@
+package com.apo.sandbox.config;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.ToxiproxyClient;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ToxiProxyConfigTest {
+    private final ToxiproxyClient client = mock(ToxiproxyClient.class);
+
+    private Proxy existing(String listen, String upstream, boolean enabled) {
+        Proxy proxy = mock(Proxy.class);
+        when(proxy.getListen()).thenReturn(listen);
+        when(proxy.getUpstream()).thenReturn(upstream);
+        when(proxy.isEnabled()).thenReturn(enabled);
+        when(client.getProxyOrNull("redis")).thenReturn(proxy);
+        return proxy;
+    }
+
+    @Test
+    void matchingProxyIsReusedAndReenabled() throws Exception {
+        Proxy proxy = existing("0.0.0.0:6380", "redis:6379", false);
+
+        assertSame(proxy, ToxiProxyConfig.proxy(client, "redis", "0.0.0.0:6380", "redis:6379"));
+
+        verify(proxy).enable();
+        verify(proxy, never()).delete();
+        verify(client, never()).createProxy(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void proxyWithAnotherUpstreamIsRecreated() throws Exception {
+        Proxy stale = existing("0.0.0.0:6380", "old-redis:6379", true);
+        Proxy created = mock(Proxy.class);
+        when(client.createProxy("redis", "0.0.0.0:6380", "redis:6379")).thenReturn(created);
+
+        assertSame(created, ToxiProxyConfig.proxy(client, "redis", "0.0.0.0:6380", "redis:6379"));
+
+        verify(stale).delete();
+    }
+
+    @Test
+    void proxyWithAnotherListenAddressIsRecreated() throws Exception {
+        Proxy stale = existing("0.0.0.0:7000", "redis:6379", true);
+        Proxy created = mock(Proxy.class);
+        when(client.createProxy("redis", "0.0.0.0:6380", "redis:6379")).thenReturn(created);
+
+        assertSame(created, ToxiProxyConfig.proxy(client, "redis", "0.0.0.0:6380", "redis:6379"));
+
+        verify(stale).delete();
+    }
+}
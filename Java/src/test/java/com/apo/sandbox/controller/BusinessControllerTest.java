@@ -0,0 +1,38 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.cache.UserResponseCache;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.EmailConflictException;
+import com.apo.sandbox.model.User;
+import com.apo.sandbox.service.BusinessService;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BusinessControllerTest {
+    private final BusinessService service = mock(BusinessService.class);
+    private final BusinessController controller = new BusinessController(service, new AppProperties(),
+            mock(UserResponseCache.class));
+
+    @Test
+    void saveMapsOutcomesToStatuses() throws Exception {
+        User user = new User(null, "Ann", "a@apo.com");
+
+        when(service.saveUser(any())).thenReturn(new User("a", "Ann", "a@apo.com"));
+        assertEquals(201, controller.saveUser(user).getStatusCode().value());
+
+        when(service.saveUser(any())).thenThrow(new EmailConflictException("a@apo.com"));
+        assertEquals(409, controller.saveUser(user).getStatusCode().value());
+    }
+
+    @Test
+    void backendFailureIsUnavailable() throws Exception {
+        when(service.saveUser(any())).thenThrow(new SQLException("gone"));
+        assertEquals(503, controller.saveUser(new User(null, "Ann", "a@apo.com")).getStatusCode().value());
+    }
+}
@@ -0,0 +1,48 @@
+package com.apo.sandbox.controller;
+
+import com.apo.sandbox.fault.Fault;
+import com.apo.sandbox.fault.FaultManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FaultControllerTest {
+    private final Fault fault = mock(Fault.class);
+    private final FaultManager faultManager;
+    private final FaultController controller;
+
+    FaultControllerTest() {
+        when(fault.getName()).thenReturn("latency");
+        faultManager = new FaultManager(List.of(fault));
+        controller = new FaultController(faultManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        faultManager.shutdown();
+    }
+
+    @Test
+    void unparseableTtlIsABadRequest() {
+        assertEquals(400, controller.start("latency", Map.of(), "soon").getStatusCode().value());
+        assertNull(faultManager.getStatus("latency").getLastOperation());
+    }
+
+    @Test
+    void negativeTtlIsABadRequest() {
+        assertEquals(400, controller.start("latency", Map.of(), "-5s").getStatusCode().value());
+    }
+
+    @Test
+    void validTtlIsAccepted() {
+        assertEquals(202, controller.start("latency", Map.of(), "30s").getStatusCode().value());
+        assertEquals(404, controller.start("nope", Map.of(), "30s").getStatusCode().value());
+    }
+}
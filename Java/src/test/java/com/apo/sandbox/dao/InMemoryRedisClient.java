@@ -0,0 +1,89 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.model.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** IRedisClient over plain maps, for tests that need Redis state. */
+public class InMemoryRedisClient implements IRedisClient {
+    public final Map<String, User> users = new HashMap<>();
+    public final Map<String, String> leases = new HashMap<>();
+    public List<String> userIds;
+    public Long changeCursor;
+    public int setUserIdsCalls;
+
+    @Override
+    public synchronized List<String> getUserIDs() {
+        return userIds == null ? null : new ArrayList<>(userIds);
+    }
+
+    @Override
+    public synchronized User getUser(String userId) {
+        return users.get(userId);
+    }
+
+    @Override
+    public synchronized void setUser(User user) {
+        users.put(user.getId(), new User(user.getId(), user.getName(), user.getEmail()));
+    }
+
+    @Override
+    public synchronized void setUserIDs(List<String> ids) {
+        userIds = new ArrayList<>(ids);
+        setUserIdsCalls++;
+    }
+
+    @Override
+    public synchronized List<User> getUsers(List<String> ids) {
+        List<User> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            result.add(users.get(id));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void setUsers(List<User> list) {
+        list.forEach(this::setUser);
+    }
+
+    @Override
+    public synchronized void deleteUser(String userId) {
+        users.remove(userId);
+    }
+
+    @Override
+    public synchronized Long getChangeCursor() {
+        return changeCursor;
+    }
+
+    @Override
+    public synchronized void setChangeCursor(long seq) {
+        changeCursor = seq;
+    }
+
+    @Override
+    public synchronized boolean tryLease(String key, String owner, long ttlMillis) {
+        return leases.putIfAbsent(key, owner) == null || owner.equals(leases.get(key));
+    }
+
+    @Override
+    public synchronized void releaseLease(String key, String owner) {
+        leases.remove(key, owner);
+    }
+
+    @Override
+    public void startFault(int delay) {
+    }
+
+    @Override
+    public void startFaultProfile(long[] delaysMicros, long[] weights) {
+    }
+
+    @Override
+    public void stopFault() {
+    }
+}
@@ -0,0 +1,132 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.model.User;
+import com.apo.sandbox.model.UserChange;
+import com.apo.sandbox.pool.ResizablePool;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test double for the users table with its primary key on id and unique key
+ * on email, following the guarded upsert in DatabaseClient: a row whose
+ * email belongs to another user is a no-op, and an existing user moving
+ * onto another user's email fails the whole statement. Names over 100
+ * characters fail the statement too, like MySQL in strict mode. Each
+ * written row takes the next outbox seq, as the table's triggers would.
+ */
+public class InMemoryUsersTable implements IDatabaseClient {
+    public final Map<String, User> rows = new LinkedHashMap<>();
+    public final List<Integer> statementSizes = new ArrayList<>();
+    public long changeSeq;
+    public long purgedThrough;
+
+    @Override
+    public synchronized Set<String> upsertUsers(List<User> users) throws SQLException {
+        statementSizes.add(users.size());
+        Map<String, User> next = new LinkedHashMap<>(rows);
+        for (User user : users) {
+            if (user.getName().length() > 100) {
+                throw new SQLException("Data too long for column 'name'", "22001", 1406);
+            }
+            User owner = byEmail(next, user.getEmail());
+            User existing = next.get(user.getId());
+            if (existing == null) {
+                if (owner == null) {
+                    next.put(user.getId(), user);
+                }
+            } else if (owner != null && !owner.getId().equals(user.getId())) {
+                throw new SQLIntegrityConstraintViolationException("Duplicate entry for key 'email'", "23000", 1062);
+            } else {
+                next.put(user.getId(), user);
+            }
+        }
+        rows.clear();
+        rows.putAll(next);
+        Set<String> written = new HashSet<>();
+        for (User user : users) {
+            User row = rows.get(user.getId());
+            if (row != null && row.getEmail().equals(user.getEmail())) {
+                written.add(user.getId());
+                changeSeq++;
+            }
+        }
+        return written;
+    }
+
+    private static User byEmail(Map<String, User> table, String email) {
+        for (User row : table.values()) {
+            if (row.getEmail().equals(email)) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return true;
+    }
+
+    @Override
+    public boolean probe() {
+        return true;
+    }
+
+    @Override
+    public ResizablePool getPool() {
+        return null;
+    }
+
+    @Override
+    public synchronized List<User> getUsers() {
+        return new ArrayList<>(rows.values());
+    }
+
+    @Override
+    public synchronized long countUsers() {
+        return rows.size();
+    }
+
+    @Override
+    public void saveUsers(List<User> users) {
+        try {
+            upsertUsers(users);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public synchronized List<User> getUsersByIds(Collection<String> ids) {
+        List<User> found = new ArrayList<>();
+        for (String id : ids) {
+            if (rows.containsKey(id)) {
+                found.add(rows.get(id));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<UserChange> getUserChanges(long afterSeq, int limit) {
+        return List.of();
+    }
+
+    @Override
+    public synchronized long getLatestChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public synchronized void purgeUserChanges(long upToSeq) {
+        purgedThrough = Math.max(purgedThrough, upToSeq);
+    }
+}
@@ -0,0 +1,173 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.cache.OffHeapUserList;
+import com.apo.sandbox.cache.OffHeapUserStore;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.fault.RequestFaultContext;
+import com.apo.sandbox.fault.RequestFaultSpec;
+import com.apo.sandbox.fault.RequestFaults;
+import com.apo.sandbox.guardrail.SloGuardrails;
+import com.apo.sandbox.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoreTest {
+    private final InMemoryRedisClient redis = new InMemoryRedisClient();
+    private final IDatabaseClient db = mock(IDatabaseClient.class);
+    private final AtomicInteger mysqlHooks = new AtomicInteger();
+    private final InProcessHooks.Hook hook = backend -> {
+        if (backend == InProcessHooks.Backend.MYSQL) {
+            mysqlHooks.incrementAndGet();
+        }
+    };
+    // What RequestFaultFilter registers: applies the calling request's own spec.
+    private final InProcessHooks.Hook requestHook = backend -> {
+        RequestFaultSpec spec = RequestFaultContext.get();
+        if (spec != null) {
+            spec.apply(backend);
+        }
+    };
+    private final List<User> users = List.of(new User("a", "A", "a@apo.com"), new User("b", "B", "b@apo.com"));
+    private final ExecutorService requests = Executors.newCachedThreadPool();
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        when(db.isConnected()).thenReturn(true);
+        when(db.getUsers()).thenReturn(users);
+        store = new Store(redis, db, new SimpleMeterRegistry(), mock(UserBatchLoader.class),
+                mock(UserWriteBatcher.class), mock(OffHeapUserStore.class), new AppProperties(),
+                mock(SloGuardrails.class));
+        InProcessHooks.register(hook);
+        InProcessHooks.register(requestHook);
+    }
+
+    @AfterEach
+    void tearDown() {
+        InProcessHooks.unregister(hook);
+        InProcessHooks.unregister(requestHook);
+        requests.shutdownNow();
+    }
+
+    // Runs the call on its own thread as a request carrying the given X-Fault spec.
+    private <T> Future<T> request(String spec, Callable<T> call) {
+        return requests.submit(() -> RequestFaults.withSpec(spec, call));
+    }
+
+    @Test
+    void cacheMissRunsTheMySqlHookOncePerRequest() throws Exception {
+        // What BusinessService does for every list request.
+        store.queryUserFromRedis();
+        store.queryUserFromMySQL();
+
+        assertEquals(1, mysqlHooks.get());
+        assertEquals(List.of("a", "b"), redis.userIds);
+    }
+
+    @Test
+    void usersMockedDuringAnOutageAreNeverCached() throws Exception {
+        when(db.isConnected()).thenReturn(false);
+
+        List<User> mocked = store.queryUserFromRedis();
+
+        assertEquals(10, mocked.size());
+        assertTrue(mocked.get(0).getName().startsWith("DB_Mock_"));
+        assertTrue(redis.users.isEmpty());
+        assertNull(redis.userIds);
+
+        // MySQL is back: the next miss caches the real rows.
+        when(db.isConnected()).thenReturn(true);
+
+        assertEquals(List.of("a", "b"), store.queryUserFromRedis().stream().map(User::getId).toList());
+        assertEquals(List.of("a", "b"), redis.userIds);
+        assertEquals(2, redis.users.size());
+    }
+
+    @Test
+    void followerOfACleanLoadOnlyPaysItsOwnFault() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(db.getUsers()).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return users;
+        });
+
+        Future<List<User>> leader = request(null, store::queryUserFromMySQL);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<List<User>> faulted = request("mysql.error=1", store::queryUserFromMySQL);
+        Future<List<User>> follower = request(null, store::queryUserFromMySQL);
+
+        Exception failure = assertThrows(Exception.class, () -> faulted.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause().getMessage().contains("request-scoped"));
+        release.countDown();
+        assertEquals(users, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(users, follower.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void leadersRequestDelayIsNotSharedWithLaterCallers() throws Exception {
+        Future<List<User>> delayed = request("mysql.delay=600", store::queryUserFromMySQL);
+        Thread.sleep(50);
+
+        long start = System.nanoTime();
+        assertEquals(users, request(null, store::queryUserFromMySQL).get(5, TimeUnit.SECONDS));
+        long cleanMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(cleanMs < 400, "clean request waited " + cleanMs + "ms");
+        assertEquals(users, delayed.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void redisRefillDoesNotRunTheLeadersMySqlFault() throws Exception {
+        // A miss refills from MySQL inside the shared Redis load; the request's
+        // MySQL fault belongs to its own queryUserFromMySQL call, not the refill.
+        assertEquals(users, request("mysql.error=1", store::queryUserFromRedis).get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b"), redis.userIds);
+    }
+
+    @Test
+    void currentOffHeapSnapshotStandsInForTheBackends() throws Exception {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "userStoreOffHeapEnabled", true);
+        ReflectionTestUtils.setField(props, "userStoreOffHeapChunkMb", 1);
+        OffHeapUserStore offHeap = new OffHeapUserStore(props, new SimpleMeterRegistry());
+        store = new Store(redis, db, new SimpleMeterRegistry(), mock(UserBatchLoader.class),
+                mock(UserWriteBatcher.class), offHeap, props, mock(SloGuardrails.class));
+
+        OffHeapUserList.release(store.queryUserFromRedis());
+        try (OffHeapUserList served = assertInstanceOf(OffHeapUserList.class, store.queryUserFromMySQL())) {
+            assertEquals("b", served.get(1).getId());
+        }
+        // The Redis load built the snapshot; the MySQL call only ran its hook.
+        verify(db, times(1)).getUsers();
+        assertEquals(1, mysqlHooks.get());
+
+        offHeap.invalidate();
+        OffHeapUserList.release(store.queryUserFromMySQL());
+        verify(db, times(2)).getUsers();
+    }
+}
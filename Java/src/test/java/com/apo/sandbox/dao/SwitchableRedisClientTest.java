@@ -0,0 +1,44 @@
+package com.apo.sandbox.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SwitchableRedisClientTest {
+
+    @Test
+    void faultControlReachesTheRealClientWhileMocked() {
+        RedisClient real = mock(RedisClient.class);
+        SwitchableRedisClient client = new SwitchableRedisClient(real);
+        client.useMock();
+        assertTrue(client.isMock());
+
+        client.startFault(2500);
+        client.startFaultProfile(new long[] { 1000 }, new long[] { 1 });
+        client.stopFault();
+
+        verify(real).startFault(2500);
+        verify(real).startFaultProfile(new long[] { 1000 }, new long[] { 1 });
+        verify(real).stopFault();
+    }
+
+    @Test
+    void dataCommandsFollowTheSwitch() throws Exception {
+        RedisClient real = mock(RedisClient.class);
+        SwitchableRedisClient client = new SwitchableRedisClient(real);
+        client.useMock();
+
+        client.getUserIDs();
+        verify(real, never()).getUserIDs();
+    }
+
+    @Test
+    void faultControlWithoutARealClientIsANoOp() {
+        SwitchableRedisClient client = new SwitchableRedisClient(null);
+        client.startFault(100);
+        client.stopFault();
+    }
+}
@@ -0,0 +1,125 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserBatchLoaderTest {
+    private final InMemoryRedisClient redis = new InMemoryRedisClient();
+    private final IDatabaseClient db = mock(IDatabaseClient.class);
+    private final List<List<String>> mysqlQueries = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch mysqlStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseMysql = new CountDownLatch(1);
+    private UserBatchLoader loader;
+
+    private UserBatchLoader loader(int dispatchThreads, int dispatchQueue, int maxKeys) {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "userBatchWindowMicros", 1000L);
+        ReflectionTestUtils.setField(props, "userBatchMaxKeys", maxKeys);
+        ReflectionTestUtils.setField(props, "userBatchDispatchThreads", dispatchThreads);
+        ReflectionTestUtils.setField(props, "userBatchQueueSize", 100);
+        ReflectionTestUtils.setField(props, "userBatchDispatchQueueSize", dispatchQueue);
+        loader = new UserBatchLoader(redis, db, props, new SimpleMeterRegistry());
+        return loader;
+    }
+
+    // MySQL serves every id it is asked for, after the test lets the first query go.
+    private void blockingMysql() {
+        when(db.getUsersByIds(anyList())).thenAnswer(inv -> {
+            List<String> ids = inv.getArgument(0);
+            mysqlQueries.add(List.copyOf(ids));
+            mysqlStarted.countDown();
+            releaseMysql.await(5, TimeUnit.SECONDS);
+            List<User> users = new ArrayList<>();
+            for (String id : ids) {
+                users.add(new User(id, "N" + id, id + "@apo.com"));
+            }
+            return users;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseMysql.countDown();
+        if (loader != null) {
+            loader.shutdown();
+        }
+    }
+
+    @Test
+    void duplicateLookupsInOneWindowShareOneQuery() throws Exception {
+        redis.users.put("a", new User("a", "A", "a@apo.com"));
+        when(db.getUsersByIds(anyList())).thenAnswer(inv -> {
+            mysqlQueries.add(List.copyOf(inv.<List<String>>getArgument(0)));
+            return List.of();
+        });
+        UserBatchLoader loader = loader(1, 4, 100);
+
+        CompletableFuture<User> first = loader.load("a");
+        CompletableFuture<User> second = loader.load("a");
+        CompletableFuture<User> missing = loader.load("zz");
+
+        assertEquals("A", first.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("A", second.get(5, TimeUnit.SECONDS).getName());
+        assertNull(missing.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("zz")), mysqlQueries);
+    }
+
+    @Test
+    void fullDispatchQueueRejectsInsteadOfGrowing() throws Exception {
+        blockingMysql();
+        UserBatchLoader loader = loader(1, 1, 1);
+
+        CompletableFuture<User> running = loader.load("1");
+        assertTrue(mysqlStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<User> queued = loader.load("2");
+        Thread.sleep(50);
+        CompletableFuture<User> overflow = loader.load("3");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> overflow.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        releaseMysql.countDown();
+        assertEquals("1", running.get(5, TimeUnit.SECONDS).getId());
+        assertEquals("2", queued.get(5, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    void lookupsWhoseCallerGaveUpAreDropped() throws Exception {
+        blockingMysql();
+        UserBatchLoader loader = loader(1, 4, 1);
+
+        CompletableFuture<User> running = loader.load("1");
+        assertTrue(mysqlStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<User> abandoned = loader.load("2");
+        CompletableFuture<User> wanted = loader.load("3");
+        Thread.sleep(50);
+        abandoned.cancel(false);
+        releaseMysql.countDown();
+
+        assertEquals("1", running.get(5, TimeUnit.SECONDS).getId());
+        assertEquals("3", wanted.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(List.of(List.of("1"), List.of("3")), mysqlQueries);
+        assertNull(redis.users.get("2"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.apo.sandbox.dao;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserWriteBatcherTest {
+    private final InMemoryRedisClient redis = new InMemoryRedisClient();
+    private final InMemoryUsersTable table = new InMemoryUsersTable();
+    private final UserWriteBatcher batcher;
+
+    UserWriteBatcherTest() {
+        AppProperties props = new AppProperties();
+        // A wide window so every save in a test lands in one batch.
+        ReflectionTestUtils.setField(props, "userWriteBatchWindowMicros", 200_000L);
+        ReflectionTestUtils.setField(props, "userWriteBatchMaxRows", 100);
+        ReflectionTestUtils.setField(props, "userWriteQueueCapacity", 100);
+        batcher = new UserWriteBatcher(redis, table, props, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    private static Throwable failure(CompletableFuture<User> future) {
+        return assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS)).getCause();
+    }
+
+    @Test
+    void newIdWithATakenEmailConflictsInsteadOfOverwriting() throws Exception {
+        table.rows.put("x", new User("x", "Xavier", "x@apo.com"));
+
+        CompletableFuture<User> phantom = batcher.save(new User("y", "Mallory", "x@apo.com"));
+        CompletableFuture<User> fresh = batcher.save(new User("z", "Zoe", "z@apo.com"));
+
+        assertInstanceOf(EmailConflictException.class, failure(phantom));
+        assertEquals("z", fresh.get(5, TimeUnit.SECONDS).getId());
+        assertEquals("Xavier", table.rows.get("x").getName());
+        assertFalse(table.rows.containsKey("y"));
+        assertFalse(redis.users.containsKey("y"));
+        assertTrue(redis.users.containsKey("z"));
+        assertEquals(List.of(2), table.statementSizes);
+    }
+
+    @Test
+    void badRowFailsOnlyItsOwnWriter() throws Exception {
+        CompletableFuture<User> good = batcher.save(new User("a", "Ann", "a@apo.com"));
+        CompletableFuture<User> bad = batcher.save(new User("b", "B".repeat(101), "b@apo.com"));
+
+        assertEquals("a", good.get(5, TimeUnit.SECONDS).getId());
+        assertInstanceOf(SQLException.class, failure(bad));
+        assertEquals(List.of(2, 1, 1), table.statementSizes);
+        assertTrue(redis.users.containsKey("a"));
+        assertFalse(redis.users.containsKey("b"));
+    }
+
+    @Test
+    void existingUserMovingOntoATakenEmailConflicts() throws Exception {
+        table.rows.put("x", new User("x", "Xavier", "x@apo.com"));
+        table.rows.put("w", new User("w", "Wendy", "w@apo.com"));
+
+        CompletableFuture<User> move = batcher.save(new User("w", "Wendy", "x@apo.com"));
+        CompletableFuture<User> rename = batcher.save(new User("x", "Xena", "x@apo.com"));
+
+        assertInstanceOf(EmailConflictException.class, failure(move));
+        assertEquals("Xena", rename.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("w@apo.com", table.rows.get("w").getEmail());
+    }
+}
@@ -0,0 +1,167 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.pool.PoolController;
+import com.apo.sandbox.pool.ResizablePool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentionFaultTest {
+    private final PoolController poolController = new PoolController(new AppProperties(), new SimpleMeterRegistry());
+    private final ContentionFault fault = new ContentionFault(poolController, new SimpleMeterRegistry());
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        fault.stop();
+        threads.shutdownNow();
+    }
+
+    // Runs the Store hooks on a thread of its own, bound to a request or not.
+    private Future<Long> storeCall(boolean request) {
+        Callable<Long> call = () -> {
+            if (request) {
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            }
+            try {
+                long start = System.nanoTime();
+                if (FaultSwitches.inProcessArmed()) {
+                    InProcessHooks.beforeCall(InProcessHooks.Backend.MYSQL);
+                }
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+        return threads.submit(call);
+    }
+
+    @Test
+    void rejectsBadParams() {
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("mode", "store_lock,disk")));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("hold", -1)));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("hold", 3_600_000)));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("count", 0)));
+        assertThrows(IllegalArgumentException.class, () -> fault.start(Map.of("mode", "nothing")));
+        assertFalse(fault.isActive());
+
+        fault.validate(Map.of("mode", "redis_pool, request_threads", "count", 3, "hold", 0));
+    }
+
+    @Test
+    void missingPoolFailsTheStart() {
+        assertThrows(IllegalStateException.class, () -> fault.start(Map.of("mode", "store_lock,jdbc_pool")));
+
+        assertFalse(fault.isActive());
+        assertFalse(FaultSwitches.inProcessArmed(), "no hook may be left behind");
+    }
+
+    @Test
+    void storeLockOnlyHoldsRequestThreads() throws Exception {
+        fault.start(Map.of("mode", "store_lock", "hold", 300));
+
+        assertTrue(storeCall(false).get(5, TimeUnit.SECONDS) < 100, "batch thread was held");
+        assertTrue(storeCall(true).get(5, TimeUnit.SECONDS) >= 250, "request thread was not held");
+    }
+
+    @Test
+    void requestThreadsAreParkedUntilStopButBatchThreadsAreNot() throws Exception {
+        fault.start(Map.of("mode", "request_threads", "count", 1));
+
+        assertTrue(storeCall(false).get(5, TimeUnit.SECONDS) < 100, "batch thread was parked");
+        Future<Long> parked = storeCall(true);
+        assertThrows(TimeoutException.class, () -> parked.get(200, TimeUnit.MILLISECONDS));
+        // Only count threads are parked.
+        assertTrue(storeCall(true).get(5, TimeUnit.SECONDS) < 100);
+
+        assertFalse(parked.isDone());
+
+        fault.stop();
+
+        parked.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void heldConnectionsAreReturnedOnStop() throws Exception {
+        CountingPool pool = new CountingPool();
+        poolController.register(pool, 1, 10);
+
+        fault.start(Map.of("mode", "jdbc_pool", "count", 3));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (pool.active.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, pool.active.get());
+
+        fault.stop();
+
+        assertEquals(0, pool.active.get());
+        assertFalse(fault.isActive());
+    }
+
+    private static class CountingPool implements ResizablePool {
+        final AtomicInteger active = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "mysql";
+        }
+
+        @Override
+        public int getMaxSize() {
+            return 10;
+        }
+
+        @Override
+        public void setMaxSize(int maxSize) {
+        }
+
+        @Override
+        public int getActive() {
+            return active.get();
+        }
+
+        @Override
+        public int getIdle() {
+            return 0;
+        }
+
+        @Override
+        public int getWaiters() {
+            return 0;
+        }
+
+        @Override
+        public double getMeanBorrowWaitMillis() {
+            return 0;
+        }
+
+        @Override
+        public AutoCloseable borrow() {
+            active.incrementAndGet();
+            return active::decrementAndGet;
+        }
+
+        @Override
+        public void prefill(int size) {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskIoFaultTest {
+
+    @TempDir
+    Path dir;
+
+    private DiskIoFault fault() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "diskFaultDir", dir.toString());
+        ReflectionTestUtils.setField(props, "diskFaultScratchMb", 1);
+        ReflectionTestUtils.setField(props, "diskFaultDefaultRateMb", 1);
+        return new DiskIoFault(props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void stopDeletesOnlyItsOwnScratchFiles() throws Exception {
+        Path unrelated = Files.writeString(dir.resolve("keep.dat"), "not ours");
+        DiskIoFault fault = fault();
+
+        fault.start(Map.of("pattern", "sequential", "threads", 2, "block", 4, "size", 1));
+        List<Path> runDirs;
+        try (Stream<Path> entries = Files.list(dir)) {
+            runDirs = entries.filter(Files::isDirectory).toList();
+        }
+        assertEquals(1, runDirs.size());
+        assertTrue(runDirs.get(0).getFileName().toString().startsWith("sandbox-io"));
+        fault.stop();
+
+        assertFalse(fault.isActive());
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.isDirectory(dir));
+        assertFalse(Files.exists(runDirs.get(0)));
+    }
+
+    @Test
+    void unknownPatternIsRejected() {
+        DiskIoFault fault = fault();
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("pattern", "sequentail")));
+        assertThrows(IllegalArgumentException.class, () -> fault.start(Map.of("pattern", "sequentail")));
+        assertFalse(fault.isActive());
+    }
+
+    @Test
+    void mmapBelowOnePageIsRejected() {
+        DiskIoFault fault = fault();
+        // size 0 leaves each worker one 1KB block, a quarter of a page.
+        assertThrows(IllegalArgumentException.class,
+                () -> fault.validate(Map.of("pattern", "mmap", "block", 1, "size", 0)));
+        fault.validate(Map.of("pattern", "mmap", "block", 4, "size", 0));
+    }
+
+    @Test
+    void managerRejectsBadParamsBeforeQueueing() {
+        FaultManager manager = new FaultManager(List.of(fault()));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.startFaultAsync("disk_io", Map.of("pattern", "bogus"), null));
+        assertEquals(null, manager.getStatus("disk_io").getLastOperation());
+    }
+}
@@ -0,0 +1,98 @@
+package com.apo.sandbox.fault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FaultManagerTest {
+
+    static class SwitchFault implements Fault {
+        volatile boolean active;
+        volatile int starts;
+
+        @Override
+        public String getName() {
+            return "switch";
+        }
+
+        @Override
+        public void start(Map<String, Object> params) {
+            if (!active) {
+                starts++;
+                active = true;
+            }
+        }
+
+        @Override
+        public void stop() {
+            active = false;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+
+    private final SwitchFault fault = new SwitchFault();
+    private final FaultManager faultManager = new FaultManager(List.of(fault));
+
+    @AfterEach
+    void tearDown() {
+        faultManager.shutdown();
+    }
+
+    private static FaultOperation settle(FaultOperation operation) throws Exception {
+        return operation.getCompletion().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void secondStartKeepsTheFirstStartsParamsAndTtl() throws Exception {
+        settle(faultManager.startFaultAsync("switch", Map.of("level", 1), Duration.ofSeconds(30)));
+
+        // What a scenario step or a cluster START without a TTL submits.
+        settle(faultManager.startFaultAsync("switch", Map.of("level", 2), null));
+
+        FaultStatus status = faultManager.getStatus("switch");
+        assertEquals(1, fault.starts);
+        assertEquals(Map.of("level", 1), status.getParams());
+        assertNotNull(status.getRemainingTtlMs());
+        assertTrue(status.getRemainingTtlMs() > 25_000);
+    }
+
+    @Test
+    void ttlStillStopsAFaultStartedTwice() throws Exception {
+        settle(faultManager.startFaultAsync("switch", Map.of(), Duration.ofMillis(100)));
+        settle(faultManager.startFaultAsync("switch", Map.of(), null));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (fault.isActive() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(fault.isActive());
+    }
+
+    @Test
+    void startAfterStopTakesTheNewParams() throws Exception {
+        settle(faultManager.startFaultAsync("switch", Map.of("level", 1), Duration.ofSeconds(30)));
+        settle(faultManager.stopFaultAsync("switch"));
+        assertNull(faultManager.getStatus("switch").getRemainingTtlMs());
+
+        settle(faultManager.startFaultAsync("switch", Map.of("level", 2), null));
+
+        FaultStatus status = faultManager.getStatus("switch");
+        assertEquals(2, fault.starts);
+        assertEquals(Map.of("level", 2), status.getParams());
+        assertNull(status.getRemainingTtlMs());
+    }
+}
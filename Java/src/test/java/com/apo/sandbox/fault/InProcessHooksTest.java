@@ -0,0 +1,59 @@
+package com.apo.sandbox.fault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InProcessHooksTest {
+    private final List<InProcessHooks.Backend> calls = new ArrayList<>();
+    private final InProcessHooks.Hook first = calls::add;
+    private final InProcessHooks.Hook second = calls::add;
+
+    @AfterEach
+    void tearDown() {
+        InProcessHooks.unregister(first);
+        InProcessHooks.unregister(second);
+    }
+
+    @Test
+    void armsWhileAnyHookIsRegistered() {
+        assertFalse(FaultSwitches.inProcessArmed());
+        InProcessHooks.register(first);
+        InProcessHooks.register(second);
+        assertTrue(FaultSwitches.inProcessArmed());
+        assertTrue(FaultSwitches.isArmed(FaultSwitches.Path.IN_PROCESS));
+
+        InProcessHooks.unregister(first);
+        assertTrue(FaultSwitches.inProcessArmed());
+        InProcessHooks.unregister(second);
+        assertFalse(FaultSwitches.inProcessArmed());
+        assertFalse(FaultSwitches.isArmed(FaultSwitches.Path.IN_PROCESS));
+    }
+
+    @Test
+    void runsEachHookOnceEvenIfRegisteredTwice() throws Exception {
+        InProcessHooks.register(first);
+        InProcessHooks.register(first);
+        InProcessHooks.beforeCall(InProcessHooks.Backend.MYSQL);
+        assertEquals(List.of(InProcessHooks.Backend.MYSQL), calls);
+    }
+
+    @Test
+    void switchesFlipIndependently() {
+        FaultSwitches.arm(FaultSwitches.Path.TC);
+        try {
+            assertTrue(FaultSwitches.tcArmed());
+            assertFalse(FaultSwitches.toxiproxyArmed());
+            assertFalse(FaultSwitches.redisProxyArmed());
+        } finally {
+            FaultSwitches.disarm(FaultSwitches.Path.TC);
+        }
+        assertFalse(FaultSwitches.tcArmed());
+    }
+}
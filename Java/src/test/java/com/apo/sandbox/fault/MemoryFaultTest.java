@@ -0,0 +1,99 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryFaultTest {
+    private static final long MB = 1024L * 1024L;
+    private static final int HUMONGOUS = 8 * 1024 * 1024;
+
+    // Bytes allocated over one simulated second of 10 ms ticks.
+    private static long allocatedInOneSecond(long rateBytes, int chunk) {
+        MemoryFault.AllocationBudget budget = new MemoryFault.AllocationBudget(rateBytes, chunk);
+        long allocated = 0;
+        for (int tick = 0; tick < 100; tick++) {
+            budget.tick();
+            while (budget.take(chunk)) {
+                allocated += chunk;
+            }
+        }
+        return allocated;
+    }
+
+    @Test
+    void humongousChunksFollowTheRate() {
+        // 16 MB/s is two 8 MB chunks a second, not one per 10 ms tick (800 MB/s).
+        assertEquals(16 * MB, allocatedInOneSecond(16 * MB, HUMONGOUS));
+        assertEquals(0, allocatedInOneSecond(4 * MB, HUMONGOUS) % HUMONGOUS);
+        assertTrue(allocatedInOneSecond(4 * MB, HUMONGOUS) <= 8 * MB);
+    }
+
+    @Test
+    void smallChunksFollowTheRate() {
+        long allocated = allocatedInOneSecond(50 * MB, 64 * 1024);
+        assertTrue(Math.abs(allocated - 50 * MB) <= 64 * 1024, "allocated " + allocated);
+    }
+
+    @Test
+    void budgetDoesNotBurstAfterAStall() {
+        MemoryFault.AllocationBudget budget = new MemoryFault.AllocationBudget(MB, 1024);
+        for (int tick = 0; tick < 10_000; tick++) {
+            budget.tick();
+        }
+        long burst = 0;
+        while (budget.take(1024)) {
+            burst += 1024;
+        }
+        assertEquals(MB, burst);
+    }
+
+    @Test
+    void stopReleasesEverything() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MemoryFault fault = new MemoryFault(new AppProperties(), registry);
+        fault.start(Map.of("rate", 100, "retain", 4, "direct", 2));
+        assertTrue(fault.isActive());
+        assertEquals(2 * MB, gauge(registry, "sandbox.fault.memory.direct.retained"));
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (gauge(registry, "sandbox.fault.memory.heap.retained") < 4 * MB && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(4 * MB, gauge(registry, "sandbox.fault.memory.heap.retained"));
+
+        fault.stop();
+
+        assertFalse(fault.isActive());
+        assertEquals(0, gauge(registry, "sandbox.fault.memory.heap.retained"));
+        assertEquals(0, gauge(registry, "sandbox.fault.memory.direct.retained"));
+    }
+
+    @Test
+    void rejectsParamsTheAllocatorCannotRunWith() {
+        MemoryFault fault = new MemoryFault(new AppProperties(), new SimpleMeterRegistry());
+
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("chunk", 0)));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("chunk", -4)));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("chunk", 3_000_000)));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("pattern", "spiky")));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("rate", -1)));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("retain", -1)));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("direct", -1)));
+        assertThrows(IllegalArgumentException.class, () -> fault.start(Map.of("chunk", 0)));
+        assertFalse(fault.isActive());
+
+        fault.validate(Map.of("pattern", "sawtooth", "chunk", 1, "rate", 0));
+        fault.validate(Map.of("pattern", "humongous"));
+    }
+
+    private static long gauge(SimpleMeterRegistry registry, String name) {
+        return (long) registry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,55 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.IRedisClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class RedisLatencyFaultTest {
+    private final IRedisClient redis = mock(IRedisClient.class);
+    private final RedisLatencyFault fault = new RedisLatencyFault(redis, new AppProperties());
+    private final FaultManager faultManager = new FaultManager(List.of(fault));
+
+    @AfterEach
+    void tearDown() {
+        faultManager.shutdown();
+        FaultSwitches.disarm(FaultSwitches.Path.REDIS_PROXY);
+    }
+
+    @Test
+    void unreachableProxyFailsTheStart() throws Exception {
+        doThrow(new RuntimeException("Failed to start Redis fault")).when(redis).startFault(anyInt());
+
+        FaultOperation operation = faultManager.startFaultAsync("redis_latency", Map.of("duration", 50), null)
+                .getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(FaultOperation.Status.FAILED, operation.getStatus());
+        assertFalse(fault.isActive());
+        assertTrue(faultManager.failedWithin("redis_latency", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void unreachableProxyFailsTheUpdate() throws Exception {
+        doNothing().when(redis).startFault(50);
+        doThrow(new RuntimeException("Failed to start Redis fault")).when(redis).startFault(80);
+        fault.start(Map.of("duration", 50));
+
+        FaultOperation operation = faultManager.updateFaultAsync("redis_latency", Map.of("duration", 80))
+                .getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(FaultOperation.Status.FAILED, operation.getStatus());
+    }
+}
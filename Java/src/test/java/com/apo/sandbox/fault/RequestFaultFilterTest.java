@@ -0,0 +1,124 @@
+package com.apo.sandbox.fault;
+
+import com.apo.sandbox.config.AppProperties;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestFaultFilterTest {
+
+    private RequestFaultFilter filter() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "requestFaultsEnabled", true);
+        ReflectionTestUtils.setField(props, "requestFaultMaxDelayMs", 1000L);
+        return new RequestFaultFilter(props);
+    }
+
+    private static MockHttpServletRequest faulted() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(RequestFaultFilter.HEADER, "delay=0");
+        return request;
+    }
+
+    @Test
+    void hookLivesExactlyAsLongAsTheFaultedRequest() throws Exception {
+        RequestFaultFilter filter = filter();
+        boolean[] armedInside = new boolean[1];
+        FilterChain chain = (req, res) -> armedInside[0] = FaultSwitches.inProcessArmed();
+
+        filter.doFilter(faulted(), new MockHttpServletResponse(), chain);
+
+        assertTrue(armedInside[0]);
+        assertFalse(FaultSwitches.inProcessArmed());
+        assertEquals(0, filter.inFlight());
+    }
+
+    @Test
+    void overlappingRequestsKeepTheHookUntilTheLastOneFinishes() throws Exception {
+        RequestFaultFilter filter = filter();
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slow = executor.submit(() -> {
+                filter.doFilter(faulted(), new MockHttpServletResponse(), (req, res) -> {
+                    inside.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            filter.doFilter(faulted(), new MockHttpServletResponse(), (req, res) -> { });
+            assertTrue(FaultSwitches.inProcessArmed(), "a short request must not drop the slow one's hook");
+            assertEquals(1, filter.inFlight());
+
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+            assertFalse(FaultSwitches.inProcessArmed());
+            assertEquals(0, filter.inFlight());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void hookIsReleasedWhenTheChainThrows() {
+        RequestFaultFilter filter = filter();
+        try {
+            filter.doFilter(faulted(), new MockHttpServletResponse(), (req, res) -> {
+                throw new IllegalStateException("boom");
+            });
+        } catch (Exception expected) {
+            // The filter rethrows; only the bookkeeping matters here.
+        }
+        assertEquals(0, filter.inFlight());
+        assertFalse(FaultSwitches.inProcessArmed());
+    }
+
+    @Test
+    void delayAboveTheCapIsABadRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(RequestFaultFilter.HEADER, "redis.delay=5000");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] reached = new boolean[1];
+
+        filter().doFilter(request, response, (req, res) -> reached[0] = true);
+
+        assertEquals(400, response.getStatus());
+        assertFalse(reached[0]);
+        assertThrows(IllegalArgumentException.class, () -> RequestFaultSpec.parse("delay=-1", 1000));
+        RequestFaultSpec.parse("delay=1000ms", 1000);
+    }
+
+    @Test
+    void errorRateIsClampedToAProbability() throws Exception {
+        RequestFaultSpec always = RequestFaultSpec.parse("redis.error=5");
+        for (int i = 0; i < 20; i++) {
+            assertThrows(IllegalStateException.class, () -> always.apply(InProcessHooks.Backend.REDIS));
+        }
+        RequestFaultSpec never = RequestFaultSpec.parse("redis.error=-3");
+        for (int i = 0; i < 20; i++) {
+            never.apply(InProcessHooks.Backend.REDIS);
+        }
+        assertThrows(IllegalArgumentException.class, () -> RequestFaultSpec.parse("error=NaN"));
+    }
+}
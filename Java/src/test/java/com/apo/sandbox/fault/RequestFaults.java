@@ -0,0 +1,25 @@
+package com.apo.sandbox.fault;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Test helper: runs a call the way RequestFaultFilter runs a request that
+ * carries an X-Fault spec, with the spec bound to the calling thread.
+ */
+public final class RequestFaults {
+
+    private RequestFaults() {
+    }
+
+    public static <T> T withSpec(String spec, Callable<T> call) throws Exception {
+        if (spec == null) {
+            return call.call();
+        }
+        RequestFaultContext.set(RequestFaultSpec.parse(spec));
+        try {
+            return call.call();
+        } finally {
+            RequestFaultContext.clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.apo.sandbox.fault;
+
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ToxicSpecTest {
+
+    @Test
+    void defaultsToADownstreamLatencyNamedAfterTypeAndDirection() {
+        ToxicSpec spec = ToxicSpec.fromParams(Map.of());
+        assertEquals(ToxicSpec.Type.LATENCY, spec.getType());
+        assertEquals(ToxicDirection.DOWNSTREAM, spec.getDirection());
+        assertEquals("latency_downstream", spec.getName());
+        assertEquals(1.0f, spec.getToxicity());
+        assertEquals(100, spec.getLatency());
+    }
+
+    @Test
+    void readsTypeSpecificValuesFromStringsAndNumbers() {
+        ToxicSpec spec = ToxicSpec.fromParams(Map.of("type", "Bandwidth", "direction", "upstream",
+                "rate", "32", "toxicity", 0.25));
+        assertEquals(ToxicSpec.Type.BANDWIDTH, spec.getType());
+        assertEquals("bandwidth_upstream", spec.getName());
+        assertEquals(32, spec.getRate());
+        assertEquals(0.25f, spec.getToxicity());
+
+        ToxicSpec slicer = ToxicSpec.fromParams(Map.of("type", "slicer", "name", "chop",
+                "average_size", 8, "size_variation", 2, "delay", 5));
+        assertEquals("chop", slicer.getName());
+        assertEquals(8, slicer.getAverageSize());
+        assertEquals(2, slicer.getSizeVariation());
+        assertEquals(5, slicer.getDelay());
+    }
+
+    @Test
+    void durationIsAnAliasForLatency() {
+        assertEquals(250, ToxicSpec.fromParams(Map.of("duration", 250)).getLatency());
+        assertEquals(50, ToxicSpec.fromParams(Map.of("duration", 250, "latency", 50)).getLatency());
+    }
+
+    @Test
+    void toxicityIsClampedToAFraction() {
+        assertEquals(1.0f, ToxicSpec.fromParams(Map.of("toxicity", 3)).getToxicity());
+        assertEquals(0.0f, ToxicSpec.fromParams(Map.of("toxicity", -1)).getToxicity());
+    }
+
+    @Test
+    void unknownTypeOrDirectionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ToxicSpec.fromParams(Map.of("type", "reset")));
+        assertThrows(IllegalArgumentException.class, () -> ToxicSpec.fromParams(Map.of("direction", "sideways")));
+    }
+}
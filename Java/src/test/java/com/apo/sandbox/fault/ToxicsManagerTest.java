@@ -0,0 +1,135 @@
+package com.apo.sandbox.fault;
+
+import eu.rekawek.toxiproxy.Proxy;
+import eu.rekawek.toxiproxy.model.Toxic;
+import eu.rekawek.toxiproxy.model.ToxicDirection;
+import eu.rekawek.toxiproxy.model.ToxicList;
+import eu.rekawek.toxiproxy.model.toxic.Bandwidth;
+import eu.rekawek.toxiproxy.model.toxic.Latency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ToxicsManagerTest {
+    // What the Redis proxy currently holds, as Toxiproxy would report it.
+    private final List<Toxic> redisToxics = new ArrayList<>();
+    private final ToxicList toxics = mock(ToxicList.class);
+    private final Proxy redis = mock(Proxy.class);
+    private final ToxicsManager manager;
+
+    ToxicsManagerTest() throws Exception {
+        when(redis.toxics()).thenReturn(toxics);
+        doAnswer(inv -> new ArrayList<>(redisToxics)).when(toxics).getAll();
+        manager = new ToxicsManager(Map.of(InProcessHooks.Backend.REDIS, redis));
+    }
+
+    @AfterEach
+    void tearDown() {
+        FaultSwitches.disarm(FaultSwitches.Path.TOXIPROXY);
+    }
+
+    private <T extends Toxic> T toxic(Class<T> type, String name, ToxicDirection direction) throws Exception {
+        T toxic = mock(type, RETURNS_SELF);
+        when(toxic.getName()).thenReturn(name);
+        when(toxic.getStream()).thenReturn(direction);
+        when(toxic.getToxicity()).thenReturn(1.0f);
+        doAnswer(inv -> redisToxics.remove(toxic)).when(toxic).remove();
+        return toxic;
+    }
+
+    @Test
+    void createsAMissingToxicAndArmsTheRedisSwitch() throws Exception {
+        Latency created = toxic(Latency.class, "latency_downstream", ToxicDirection.DOWNSTREAM);
+        when(toxics.latency("latency_downstream", ToxicDirection.DOWNSTREAM, 120)).thenAnswer(inv -> {
+            redisToxics.add(created);
+            return created;
+        });
+
+        manager.apply(InProcessHooks.Backend.REDIS, ToxicSpec.fromParams(Map.of("latency", 120, "jitter", 5)));
+
+        verify(created).setJitter(5);
+        verify(created, never()).setToxicity(1.0f);
+        assertTrue(FaultSwitches.toxiproxyArmed());
+        assertEquals(List.of("latency_downstream"), manager.getToxicNames(InProcessHooks.Backend.REDIS));
+    }
+
+    @Test
+    void retunesAnExistingToxicOfTheSameTypeInPlace() throws Exception {
+        Latency existing = toxic(Latency.class, "latency_downstream", ToxicDirection.DOWNSTREAM);
+        redisToxics.add(existing);
+
+        manager.apply(InProcessHooks.Backend.REDIS, ToxicSpec.fromParams(Map.of("latency", 300, "toxicity", 0.5)));
+
+        verify(existing).setLatency(300);
+        verify(existing).setToxicity(0.5f);
+        verify(existing, never()).remove();
+        verify(toxics, never()).latency(anyString(), eq(ToxicDirection.DOWNSTREAM), anyLong());
+    }
+
+    @Test
+    void replacesAToxicWhoseTypeChanged() throws Exception {
+        Latency existing = toxic(Latency.class, "shaped", ToxicDirection.DOWNSTREAM);
+        redisToxics.add(existing);
+        Bandwidth created = toxic(Bandwidth.class, "shaped", ToxicDirection.DOWNSTREAM);
+        when(toxics.bandwidth("shaped", ToxicDirection.DOWNSTREAM, 16)).thenReturn(created);
+
+        manager.apply(InProcessHooks.Backend.REDIS,
+                ToxicSpec.fromParams(Map.of("type", "bandwidth", "name", "shaped", "rate", 16)));
+
+        verify(existing).remove();
+        verify(toxics).bandwidth("shaped", ToxicDirection.DOWNSTREAM, 16);
+    }
+
+    @Test
+    void removeIsIdempotentAndDisarmsOnTheLastToxic() throws Exception {
+        Latency existing = toxic(Latency.class, "latency_downstream", ToxicDirection.DOWNSTREAM);
+        redisToxics.add(existing);
+        FaultSwitches.arm(FaultSwitches.Path.TOXIPROXY);
+
+        assertTrue(manager.remove(InProcessHooks.Backend.REDIS, "latency_downstream"));
+        assertFalse(FaultSwitches.toxiproxyArmed());
+        assertFalse(manager.remove(InProcessHooks.Backend.REDIS, "latency_downstream"));
+        assertFalse(manager.remove(InProcessHooks.Backend.MYSQL, "latency_downstream"));
+    }
+
+    @Test
+    void applyingToAnUndeployedProxyFails() {
+        assertThrows(IllegalStateException.class,
+                () -> manager.apply(InProcessHooks.Backend.MYSQL, ToxicSpec.fromParams(Map.of())));
+        assertTrue(manager.isEnabled());
+        assertFalse(new ToxicsManager(Map.of()).isEnabled());
+    }
+
+    @Test
+    void removeAllClearsLeftoverToxicsAndDisarmsTheSwitch() throws Exception {
+        Latency leftover = toxic(Latency.class, "latency_downstream", ToxicDirection.DOWNSTREAM);
+        Bandwidth other = toxic(Bandwidth.class, "bandwidth_upstream", ToxicDirection.UPSTREAM);
+        redisToxics.add(leftover);
+        redisToxics.add(other);
+        FaultSwitches.arm(FaultSwitches.Path.TOXIPROXY);
+
+        manager.removeAll();
+
+        verify(leftover).remove();
+        verify(other).remove();
+        assertTrue(manager.getToxicNames(InProcessHooks.Backend.REDIS).isEmpty());
+        assertFalse(FaultSwitches.toxiproxyArmed());
+    }
+}
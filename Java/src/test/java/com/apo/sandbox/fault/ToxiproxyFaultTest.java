@@ -0,0 +1,57 @@
+package com.apo.sandbox.fault;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ToxiproxyFaultTest {
+    private final ToxicsManager toxicsManager = mock(ToxicsManager.class);
+    private final ToxiproxyFault fault = new ToxiproxyFault(toxicsManager);
+
+    @Test
+    void allBackendsGetTheToxicAndStopRemovesEach() throws Exception {
+        fault.start(Map.of("backend", "all", "latency", 50));
+        assertTrue(fault.isActive());
+        verify(toxicsManager).apply(argThat(b -> b == InProcessHooks.Backend.REDIS), any());
+        verify(toxicsManager).apply(argThat(b -> b == InProcessHooks.Backend.MYSQL), any());
+
+        fault.stop();
+        assertFalse(fault.isActive());
+        verify(toxicsManager).remove(InProcessHooks.Backend.REDIS, "latency_downstream");
+        verify(toxicsManager).remove(InProcessHooks.Backend.MYSQL, "latency_downstream");
+    }
+
+    @Test
+    void secondStartIsIgnored() throws Exception {
+        fault.start(Map.of("latency", 50));
+        fault.start(Map.of("latency", 80));
+        verify(toxicsManager, times(1)).apply(any(), any());
+    }
+
+    @Test
+    void updateRetunesAndDropsToxicsTheNewSpecNoLongerNames() throws Exception {
+        fault.start(Map.of("backend", "all", "latency", 50));
+        fault.update(Map.of("backend", "redis", "latency", 80));
+
+        verify(toxicsManager, never()).remove(InProcessHooks.Backend.REDIS, "latency_downstream");
+        verify(toxicsManager).remove(InProcessHooks.Backend.MYSQL, "latency_downstream");
+        assertTrue(fault.isActive());
+    }
+
+    @Test
+    void validateRejectsUnknownBackendsAndTypes() {
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("backend", "kafka")));
+        assertThrows(IllegalArgumentException.class, () -> fault.validate(Map.of("type", "reset")));
+        fault.validate(Map.of("backend", "mysql", "type", "timeout"));
+    }
+}
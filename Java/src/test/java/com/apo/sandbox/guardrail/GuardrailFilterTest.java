@@ -0,0 +1,128 @@
+package com.apo.sandbox.guardrail;
+
+import com.apo.sandbox.admission.AdmissionControlFilter;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.fault.FaultManager;
+import com.apo.sandbox.fault.InProcessHooks;
+import com.apo.sandbox.fault.RequestFaults;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class GuardrailFilterTest {
+    private SloGuardrails guardrails;
+    private GuardrailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "guardrailEnabled", true);
+        ReflectionTestUtils.setField(props, "guardrailTickMs", 60_000L);
+        ReflectionTestUtils.setField(props, "guardrailWindowSeconds", 60L);
+        ReflectionTestUtils.setField(props, "guardrailMinRequests", 1L);
+        guardrails = new SloGuardrails(props, mock(FaultManager.class), new SimpleMeterRegistry());
+        filter = new GuardrailFilter(guardrails);
+    }
+
+    @AfterEach
+    void tearDown() {
+        guardrails.shutdown();
+    }
+
+    @Test
+    void signalsAreFixedAtStartup() throws Exception {
+        Set<String> before = new HashSet<>(guardrails.getSignals().keySet());
+
+        for (int i = 0; i < 1000; i++) {
+            get("/api/users/random-" + i);
+            get("/api/users/by-id/" + i);
+        }
+        guardrails.evaluate();
+
+        assertEquals(before, guardrails.getSignals().keySet());
+        assertEquals(AdmissionControlFilter.ROUTES.size() + 2, before.size());
+    }
+
+    @Test
+    void onlyConfiguredRoutesAreRecorded() throws Exception {
+        get("/api/users/by-id/7");
+        get("/api/users/4");
+        guardrails.evaluate();
+
+        assertEquals(1, count(AdmissionControlFilter.BY_ID_ROUTE));
+        assertFalse(guardrails.getSignals().containsKey(SloGuardrails.ENDPOINT_PREFIX + AdmissionControlFilter.OTHER));
+    }
+
+    @Test
+    void untrackedUrisAreNotFiltered() {
+        assertTrue(guardrails.tracks("/api/users/1"));
+        assertFalse(guardrails.tracks(AdmissionControlFilter.OTHER));
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/api/users/4")));
+        assertTrue(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/health")));
+        assertFalse(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/api/users/by-id/7")));
+    }
+
+    @Test
+    void backendCallsOfFaultedRequestsAreNotRecorded() throws Exception {
+        RequestFaults.withSpec("mysql.delay=1", () -> {
+            guardrails.recordBackend(InProcessHooks.Backend.MYSQL, 5_000_000_000L, true);
+            return null;
+        });
+        guardrails.recordBackend(InProcessHooks.Backend.MYSQL, 1_000_000L, false);
+        guardrails.evaluate();
+
+        WindowStats stats = (WindowStats) guardrails.getSignals().get(SloGuardrails.BACKEND_PREFIX + "mysql").get("window");
+        assertEquals(1, stats.getCount());
+        assertEquals(0.0, stats.getErrorRate());
+    }
+
+    @Test
+    void backendFailureServedAsEmptyListCountsAsAnError() throws Exception {
+        HttpServlet degraded = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+                try {
+                    AdmissionControlFilter.markBackendFailed();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            }
+        };
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/by-id/7"), new MockHttpServletResponse(),
+                new MockFilterChain(degraded));
+        guardrails.evaluate();
+
+        WindowStats stats = (WindowStats) guardrails.getSignals()
+                .get(SloGuardrails.ENDPOINT_PREFIX + AdmissionControlFilter.BY_ID_ROUTE).get("window");
+        assertEquals(1, stats.getCount());
+        assertEquals(1.0, stats.getErrorRate());
+    }
+
+    private void get(String uri) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", uri), new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    private long count(String route) {
+        WindowStats stats = (WindowStats) guardrails.getSignals().get(SloGuardrails.ENDPOINT_PREFIX + route).get("window");
+        return stats.getCount();
+    }
+}
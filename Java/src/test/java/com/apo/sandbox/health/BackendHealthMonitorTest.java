@@ -0,0 +1,83 @@
+package com.apo.sandbox.health;
+
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.config.DatabaseConfig;
+import com.apo.sandbox.config.RedisConfig;
+import com.apo.sandbox.dao.IDatabaseClient;
+import com.apo.sandbox.dao.RedisClient;
+import com.apo.sandbox.dao.SwitchableRedisClient;
+import com.apo.sandbox.fault.FaultSwitches;
+import com.apo.sandbox.pool.PoolController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BackendHealthMonitorTest {
+    private final RedisClient real = mock(RedisClient.class);
+    private final SwitchableRedisClient redisClient = new SwitchableRedisClient(real);
+    private final BackendHealthMonitor monitor;
+
+    BackendHealthMonitorTest() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "healthFailureThreshold", 3);
+        ReflectionTestUtils.setField(props, "healthBackoffInitialMs", 1000L);
+        ReflectionTestUtils.setField(props, "healthBackoffMaxMs", 1000L);
+        IDatabaseClient db = mock(IDatabaseClient.class);
+        when(db.isConnected()).thenReturn(true);
+        when(db.probe()).thenReturn(true);
+        monitor = new BackendHealthMonitor(props, redisClient, mock(RedisConfig.class), db,
+                mock(DatabaseConfig.class), mock(PoolController.class), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        FaultSwitches.disarm(FaultSwitches.Path.REDIS_PROXY);
+    }
+
+    @Test
+    void armedProxyDelayDoesNotSwapToTheMock() {
+        when(real.ping()).thenReturn(false);
+        when(real.pingsDirect()).thenReturn(false);
+        FaultSwitches.arm(FaultSwitches.Path.REDIS_PROXY);
+
+        for (int i = 0; i < 10; i++) {
+            monitor.check();
+        }
+
+        assertFalse(redisClient.isMock());
+        verify(real, never()).ping();
+    }
+
+    @Test
+    void directPingsStillDetectAnOutageDuringAProxyFault() {
+        when(real.ping()).thenReturn(false);
+        when(real.pingsDirect()).thenReturn(true);
+        FaultSwitches.arm(FaultSwitches.Path.REDIS_PROXY);
+
+        for (int i = 0; i < 3; i++) {
+            monitor.check();
+        }
+
+        assertTrue(redisClient.isMock());
+        // The proxy must still get its FAULT.STOP.
+        redisClient.stopFault();
+        verify(real).stopFault();
+    }
+
+    @Test
+    void failedPingsWithoutAFaultSwapToTheMock() {
+        when(real.ping()).thenReturn(false);
+        for (int i = 0; i < 3; i++) {
+            monitor.check();
+        }
+        assertTrue(redisClient.isMock());
+    }
+}
@@ -0,0 +1,52 @@
+package com.apo.sandbox.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendCallEventTest {
+
+    @Test
+    void utf8LengthMatchesTheEncoder() {
+        for (String value : List.of("", "plain ascii", "héllo", "€uro", "emoji 😀 pair",
+                "lone \uD83D high", "lone \uDE00 low", "trailing \uD83D")) {
+            assertEquals(value.getBytes(StandardCharsets.UTF_8).length, BackendCallEvent.utf8Length(value), value);
+        }
+        assertEquals(0, BackendCallEvent.utf8Length(null));
+    }
+
+    @Test
+    void committedEventCarriesEncodedBytes() throws Exception {
+        String payload = "{\"name\":\"Zoë\",\"city\":\"東京\"}";
+        List<RecordedEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch received = new CountDownLatch(1);
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable("com.apo.sandbox.BackendCall");
+            stream.onEvent("com.apo.sandbox.BackendCall", event -> {
+                events.add(event);
+                received.countDown();
+            });
+            stream.startAsync();
+
+            BackendCallEvent.start(BackendCallEvent.REDIS, "SET user").finish(1, payload);
+
+            assertTrue(received.await(10, TimeUnit.SECONDS), "event was not recorded");
+        }
+
+        RecordedEvent event = events.get(0);
+        assertEquals("redis", event.getString("backend"));
+        assertEquals("SET user", event.getString("operation"));
+        assertEquals(1, event.getInt("keyCount"));
+        assertEquals(payload.getBytes(StandardCharsets.UTF_8).length, event.getLong("bytes"));
+        assertTrue(event.getLong("bytes") > payload.length());
+    }
+}
@@ -0,0 +1,99 @@
+package com.apo.sandbox.latency;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LatencyDistributionTest {
+
+    @Test
+    void valuesAreSortedMergedAndZeroCountsDropped() {
+        LatencyDistribution distribution = LatencyDistribution.of(
+                new long[]{300, 100, 200, 100, 400}, new long[]{3, 1, 0, 2, 4});
+
+        assertArrayEquals(new long[]{100, 300, 400}, distribution.getValues());
+        assertArrayEquals(new long[]{3, 3, 4}, distribution.getCounts());
+        assertEquals(10, distribution.getTotalCount());
+        assertEquals(400, distribution.getMaxMicros());
+        assertEquals((100 * 3 + 300 * 3 + 400 * 4) / 10.0, distribution.getMeanMicros(), 1e-9);
+    }
+
+    @Test
+    void rejectsEmptyAndNegativeInput() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(new long[]{1}, new long[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(new long[]{-1}, new long[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(new long[]{1}, new long[]{-1}));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(new long[]{1, 2}, new long[]{1}));
+    }
+
+    @Test
+    void aliasSamplingFollowsTheCounts() {
+        long[] values = {100, 200, 300, 400, 5000};
+        long[] counts = {50, 1, 30, 0, 19};
+        LatencyDistribution distribution = LatencyDistribution.of(values, counts);
+        Random random = new Random(42);
+
+        int draws = 200_000;
+        Map<Long, Integer> seen = new HashMap<>();
+        for (int i = 0; i < draws; i++) {
+            seen.merge(distribution.sample(random), 1, Integer::sum);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            double share = seen.getOrDefault(values[i], 0) / (double) draws;
+            assertEquals(counts[i] / 100.0, share, 0.01, "share of " + values[i]);
+        }
+    }
+
+    @Test
+    void singleValueIsAlwaysDrawn() {
+        LatencyDistribution distribution = LatencyDistribution.fixed(750);
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(750, distribution.sample(random));
+        }
+    }
+
+    @Test
+    void quantilesUseTheCumulativeCounts() {
+        LatencyDistribution distribution = LatencyDistribution.of(new long[]{10, 20, 30}, new long[]{50, 40, 10});
+
+        assertEquals(10, distribution.valueAtQuantile(0));
+        assertEquals(10, distribution.valueAtQuantile(0.5));
+        assertEquals(20, distribution.valueAtQuantile(0.51));
+        assertEquals(20, distribution.valueAtQuantile(0.9));
+        assertEquals(30, distribution.valueAtQuantile(0.99));
+        assertEquals(30, distribution.valueAtQuantile(1));
+    }
+
+    @Test
+    void scalingKeepsTheCounts() {
+        LatencyDistribution distribution = LatencyDistribution.of(new long[]{10, 20}, new long[]{3, 1});
+
+        assertSame(distribution, distribution.scaled(1.0));
+        LatencyDistribution doubled = distribution.scaled(2.5);
+        assertArrayEquals(new long[]{25, 50}, doubled.getValues());
+        assertArrayEquals(new long[]{3, 1}, doubled.getCounts());
+    }
+
+    @Test
+    void histogramBucketsBecomeEntries() {
+        Histogram histogram = new Histogram(2);
+        histogram.recordValueWithCount(5, 4);
+        histogram.recordValueWithCount(80, 1);
+
+        // Recorded in milliseconds.
+        LatencyDistribution distribution = LatencyDistribution.fromHistogram(histogram, 1000);
+
+        assertArrayEquals(new long[]{5000, 80000}, distribution.getValues());
+        assertArrayEquals(new long[]{4, 1}, distribution.getCounts());
+    }
+}
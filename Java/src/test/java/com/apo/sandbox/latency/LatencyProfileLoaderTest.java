@@ -0,0 +1,125 @@
+package com.apo.sandbox.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyProfileLoaderTest {
+    @TempDir
+    Path dir;
+
+    private Path csv(String name, String... lines) throws Exception {
+        Path file = dir.resolve(name);
+        Files.write(file, List.of(lines));
+        return file;
+    }
+
+    @Test
+    void bucketedCsvIsOnePhase() throws Exception {
+        Path file = csv("buckets.csv", "latency_us,count", "2,5", "# a comment", "", "10,1");
+
+        LatencyProfile profile = LatencyProfileLoader.fromParams(Map.of("profile", file.toString(), "unit", "us"));
+
+        assertEquals(1, profile.getPhases().size());
+        LatencyDistribution distribution = profile.getPhases().get(0).getDistribution();
+        assertArrayEquals(new long[]{2, 10}, distribution.getValues());
+        assertArrayEquals(new long[]{5, 1}, distribution.getCounts());
+    }
+
+    @Test
+    void traceIsCutIntoPhasesAndGapsRepeatTheLastShape() throws Exception {
+        Path file = csv("trace.csv", "timestamp_ms,latency_us",
+                "0,100", "400,100", "1000,200", "3100,50");
+
+        LatencyProfile profile = LatencyProfileLoader.fromParams(Map.of(
+                "profile", file.toString(), "unit", "us", "phase", 1000));
+
+        List<LatencyProfile.Phase> phases = profile.getPhases();
+        assertEquals(4, phases.size());
+        assertEquals(2, phases.get(0).getDistribution().getTotalCount());
+        assertEquals(200, phases.get(1).getDistribution().getMaxMicros());
+        assertSame(phases.get(1).getDistribution(), phases.get(2).getDistribution());
+        assertEquals(50, phases.get(3).getDistribution().getMaxMicros());
+        assertEquals(4000, profile.getTotalMs());
+    }
+
+    @Test
+    void bareLatenciesAreScaled() throws Exception {
+        Path file = csv("bare.csv", "1", "1", "3");
+
+        LatencyProfile profile = LatencyProfileLoader.fromParams(Map.of(
+                "profile", file.toString(), "unit", "us", "scale", 2));
+
+        LatencyDistribution distribution = profile.getPhases().get(0).getDistribution();
+        assertArrayEquals(new long[]{2, 6}, distribution.getValues());
+        assertArrayEquals(new long[]{2, 1}, distribution.getCounts());
+    }
+
+    @Test
+    void histogramLogIntervalsBecomePhases() throws Exception {
+        Path file = dir.resolve("latency.hlog");
+        try (PrintStream out = new PrintStream(file.toFile())) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            writer.outputIntervalHistogram(interval(0, 500, 3));
+            writer.outputIntervalHistogram(interval(500, 1500, 0));
+            writer.outputIntervalHistogram(interval(1500, 2000, 7));
+        }
+
+        LatencyProfile profile = LatencyProfileLoader.fromParams(Map.of("profile", file.toString()));
+
+        // The empty interval is skipped.
+        assertEquals(2, profile.getPhases().size());
+        assertEquals(500, profile.getPhases().get(0).getDurationMs());
+        assertEquals(3000, profile.getPhases().get(0).getDistribution().getMaxMicros());
+        assertEquals(7000, profile.getPhases().get(1).getDistribution().getMaxMicros());
+    }
+
+    private static Histogram interval(long startMs, long endMs, long latencyMs) {
+        Histogram histogram = new Histogram(2);
+        histogram.setStartTimeStamp(startMs);
+        histogram.setEndTimeStamp(endMs);
+        if (latencyMs > 0) {
+            histogram.recordValueWithCount(latencyMs, 10);
+        }
+        return histogram;
+    }
+
+    @Test
+    void badInputIsReportedWithItsLine() throws Exception {
+        Path file = csv("broken.csv", "timestamp_ms,latency_ms", "0,5", "10,slow");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> LatencyProfileLoader.fromParams(Map.of("profile", file.toString())));
+        assertTrue(e.getMessage().contains("broken.csv:3"), e.getMessage());
+    }
+
+    @Test
+    void paramsAreValidated() throws Exception {
+        Path file = csv("ok.csv", "5");
+
+        assertFalse(LatencyProfileLoader.hasProfile(Map.of("profile", " ")));
+        assertTrue(LatencyProfileLoader.hasProfile(Map.of("profile", file.toString())));
+        assertThrows(IllegalArgumentException.class,
+                () -> LatencyProfileLoader.fromParams(Map.of("profile", file.toString(), "unit", "minutes")));
+        assertThrows(IllegalArgumentException.class,
+                () -> LatencyProfileLoader.fromParams(Map.of("profile", file.toString(), "format", "json")));
+        assertThrows(IllegalArgumentException.class,
+                () -> LatencyProfileLoader.fromParams(Map.of("profile", file.toString(), "scale", 0)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.apo.sandbox.latency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProfilePlayerTest {
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "test-profile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private static LatencyProfile twoPhases() {
+        return new LatencyProfile("test", List.of(
+                new LatencyProfile.Phase(30, LatencyDistribution.fixed(100)),
+                new LatencyProfile.Phase(30, LatencyDistribution.fixed(200))));
+    }
+
+    @Test
+    void laterPhasesRunOnTheGivenScheduler() throws Exception {
+        BlockingQueue<String> calls = new LinkedBlockingQueue<>();
+        ProfilePlayer player = new ProfilePlayer(twoPhases(), (source, distribution) ->
+                calls.add(Thread.currentThread().getName() + ":" + distribution.getMaxMicros()), scheduler);
+
+        player.start();
+        try {
+            assertEquals(Thread.currentThread().getName() + ":100", calls.poll());
+            assertEquals("test-profile:200", calls.poll(2, TimeUnit.SECONDS));
+            // Loops back to the first phase.
+            assertEquals("test-profile:100", calls.poll(2, TimeUnit.SECONDS));
+        } finally {
+            player.stop();
+        }
+    }
+
+    @Test
+    void stoppedPlayerSchedulesNothingMore() throws Exception {
+        BlockingQueue<Long> calls = new LinkedBlockingQueue<>();
+        ProfilePlayer player = new ProfilePlayer(twoPhases(), (source, distribution) ->
+                calls.add(distribution.getMaxMicros()), scheduler);
+
+        player.start();
+        player.stop();
+
+        assertEquals(100L, calls.poll());
+        assertNull(calls.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(100, player.sampleMicros());
+    }
+
+    @Test
+    void firstPhaseFailureReachesTheCaller() {
+        ProfilePlayer player = new ProfilePlayer(twoPhases(), (source, distribution) -> {
+            throw new IllegalStateException("tc failed");
+        }, scheduler);
+
+        assertThrows(IllegalStateException.class, player::start);
+        assertEquals(0, player.getPhaseIndex());
+    }
+}
@@ -0,0 +1,22 @@
+package com.apo.sandbox.pool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BorrowWaitTrackerTest {
+
+    @Test
+    void meanCoversOnlyTheLastInterval() {
+        BorrowWaitTracker tracker = new BorrowWaitTracker();
+        tracker.record(10_000_000);
+        tracker.record(30_000_000);
+        assertEquals(20.0, tracker.sampleMeanMillis(), 1e-9);
+
+        // No borrows since the spike: the wait must not linger.
+        assertEquals(0.0, tracker.sampleMeanMillis(), 1e-9);
+
+        tracker.record(1_000_000);
+        assertEquals(1.0, tracker.sampleMeanMillis(), 1e-9);
+    }
+}
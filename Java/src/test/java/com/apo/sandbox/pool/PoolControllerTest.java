@@ -0,0 +1,100 @@
+package com.apo.sandbox.pool;
+
+import com.apo.sandbox.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoolControllerTest {
+    private final FakePool pool = new FakePool();
+    private PoolController controller;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "poolAutosizeEnabled", true);
+        ReflectionTestUtils.setField(props, "poolTargetBorrowWaitMs", 5);
+        controller = new PoolController(props, new SimpleMeterRegistry());
+        controller.register(pool, 4, 32);
+    }
+
+    @Test
+    void growsOnABorrowWaitSpikeAndShrinksOnceItPasses() {
+        pool.active = 10;
+        pool.tracker.record(50_000_000);
+        controller.adjustPools();
+        int grown = pool.maxSize;
+        assertTrue(grown > 4, "pool should grow during the spike, was " + grown);
+
+        // The spike is over: nothing in flight and no new borrows.
+        pool.active = 0;
+        for (int i = 0; i < 200; i++) {
+            controller.adjustPools();
+        }
+        assertEquals(4, pool.maxSize);
+    }
+
+    @Test
+    void growsWhileThreadsAreWaiting() {
+        pool.active = 4;
+        pool.waiters = 6;
+        controller.adjustPools();
+        assertEquals(13, pool.maxSize);
+    }
+
+    private static class FakePool implements ResizablePool {
+        final BorrowWaitTracker tracker = new BorrowWaitTracker();
+        int maxSize = 4;
+        int active;
+        int waiters;
+
+        @Override
+        public String getName() {
+            return "fake";
+        }
+
+        @Override
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        @Override
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int getActive() {
+            return active;
+        }
+
+        @Override
+        public int getIdle() {
+            return 0;
+        }
+
+        @Override
+        public int getWaiters() {
+            return waiters;
+        }
+
+        @Override
+        public double getMeanBorrowWaitMillis() {
+            return tracker.sampleMeanMillis();
+        }
+
+        @Override
+        public AutoCloseable borrow() {
+            return () -> {
+            };
+        }
+
+        @Override
+        public void prefill(int size) {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.apo.sandbox.profile;
+
+import com.apo.sandbox.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OtlpSpanExporterTest {
+
+    private static ProfileSnapshot snapshot(String method) {
+        RequestProfile profile = new RequestProfile();
+        profile.begin(method, "/api/users");
+        profile.record(Stage.MYSQL_SAVE_USERS, profile.startNanos, 1_000_000L);
+        profile.end();
+        return new ProfileSnapshot(profile);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rootSpanIsNamedAfterTheRequestMethod() {
+        Map<String, Object> otlp = OtlpSpanExporter.toOtlp(List.of(snapshot("POST")));
+
+        Map<String, Object> resource = ((List<Map<String, Object>>) otlp.get("resourceSpans")).get(0);
+        Map<String, Object> scope = ((List<Map<String, Object>>) resource.get("scopeSpans")).get(0);
+        List<Map<String, Object>> spans = (List<Map<String, Object>>) scope.get("spans");
+        assertEquals("POST /api/users", spans.get(0).get("name"));
+        assertEquals("mysql_save_users", spans.get(1).get("name"));
+    }
+
+    @Test
+    void flushDoesNotWaitForASlowCollector() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger posts = new AtomicInteger();
+        HttpServer collector = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        collector.createContext("/v1/traces", exchange -> {
+            posts.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        collector.start();
+        try {
+            AppProperties props = new AppProperties();
+            ReflectionTestUtils.setField(props, "profilerOtlpEndpoint",
+                    "http://127.0.0.1:" + collector.getAddress().getPort());
+            OtlpSpanExporter exporter = new OtlpSpanExporter(props, new ObjectMapper());
+
+            exporter.offer(snapshot("GET"));
+            long start = System.nanoTime();
+            exporter.flush();
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "flush blocked on the send");
+
+            // The second batch waits for the first to finish.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (posts.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            exporter.offer(snapshot("GET"));
+            exporter.flush();
+            Thread.sleep(100);
+            assertEquals(1, posts.get());
+        } finally {
+            release.countDown();
+            collector.stop(0);
+        }
+    }
+}
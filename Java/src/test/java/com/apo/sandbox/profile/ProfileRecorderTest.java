@@ -0,0 +1,94 @@
+package com.apo.sandbox.profile;
+
+import com.apo.sandbox.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfileRecorderTest {
+    private static final long MS = 1_000_000L;
+
+    private final AppProperties props = new AppProperties();
+    private final ProfileRecorder recorder;
+
+    ProfileRecorderTest() {
+        ReflectionTestUtils.setField(props, "profilerSlowestN", 2);
+        recorder = new ProfileRecorder(props, new OtlpSpanExporter(props, new ObjectMapper()));
+    }
+
+    // A finished profile of totalMs with one span per stage time given.
+    private static RequestProfile profile(long totalMs, Object... stageMs) {
+        RequestProfile profile = new RequestProfile();
+        profile.begin("GET", "/api/users/1");
+        for (int i = 0; i < stageMs.length; i += 2) {
+            profile.record((Stage) stageMs[i], profile.startNanos, (Long) stageMs[i + 1] * MS);
+        }
+        profile.end();
+        profile.totalNanos = totalMs * MS;
+        return profile;
+    }
+
+    @Test
+    void keepsOnlyTheSlowestNSlowestFirst() {
+        for (long ms : new long[] { 5, 1, 9, 3, 7 }) {
+            recorder.complete(profile(ms));
+        }
+
+        List<ProfileSnapshot> slowest = recorder.getSlowest();
+        assertEquals(List.of(9.0, 7.0), slowest.stream().map(ProfileSnapshot::getTotalMs).toList());
+    }
+
+    @Test
+    void requestsUnderTheFloorAreNotKept() {
+        recorder.complete(profile(10));
+        recorder.complete(profile(20));
+        List<ProfileSnapshot> before = recorder.getSlowest();
+
+        recorder.complete(profile(10));
+        recorder.complete(profile(4));
+
+        assertEquals(before.stream().map(ProfileSnapshot::getTraceId).toList(),
+                recorder.getSlowest().stream().map(ProfileSnapshot::getTraceId).toList());
+    }
+
+    @Test
+    void stageHistogramsSumTimePerRequestAndSkipUnusedStages() {
+        recorder.complete(profile(10, Stage.REDIS_GET_USER, 2L, Stage.REDIS_GET_USER, 3L, Stage.JSON_DECODE, 1L));
+        recorder.complete(profile(20, Stage.REDIS_GET_USER, 5L));
+
+        Map<String, Map<String, Object>> summaries = recorder.getStageSummaries();
+
+        assertEquals(2L, summaries.get("TOTAL").get("count"));
+        Map<String, Object> redis = summaries.get(Stage.REDIS_GET_USER.name());
+        assertEquals(2L, redis.get("count"));
+        assertEquals(5.0, (double) redis.get("maxMs"), 0.01);
+        assertEquals(1L, summaries.get(Stage.JSON_DECODE.name()).get("count"));
+        assertFalse(summaries.containsKey(Stage.MYSQL_GET_USERS.name()));
+
+        recorder.reset();
+        assertEquals(0L, recorder.getStageSummaries().get("TOTAL").get("count"));
+        assertTrue(recorder.getSlowest().isEmpty());
+    }
+
+    @Test
+    void spansPastTheLimitStillCountTowardsTheStage() {
+        RequestProfile profile = new RequestProfile();
+        profile.begin("GET", "/api/users/1");
+        for (int i = 0; i < RequestProfile.MAX_SPANS + 10; i++) {
+            profile.record(Stage.REDIS_GET_USER, profile.startNanos, MS);
+        }
+        profile.end();
+
+        ProfileSnapshot snapshot = new ProfileSnapshot(profile);
+        assertEquals(RequestProfile.MAX_SPANS, snapshot.getSpans().size());
+        assertEquals(10, snapshot.getDroppedSpans());
+        assertEquals(RequestProfile.MAX_SPANS + 10, snapshot.getStages().get(Stage.REDIS_GET_USER).getCalls());
+    }
+}
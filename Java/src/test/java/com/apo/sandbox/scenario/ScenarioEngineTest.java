@@ -0,0 +1,188 @@
+package com.apo.sandbox.scenario;
+
+import com.apo.sandbox.fault.Fault;
+import com.apo.sandbox.fault.FaultManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScenarioEngineTest {
+
+    // Keeps the interface's default update(), which starts an inactive fault.
+    static class RecordingFault implements Fault {
+        final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean active;
+        volatile CountDownLatch startGate;
+
+        @Override
+        public String getName() {
+            return "redis_latency";
+        }
+
+        @Override
+        public void start(Map<String, Object> params) throws InterruptedException {
+            if (startGate != null) {
+                startGate.await();
+            }
+            calls.add("start " + params.get("duration"));
+            active = true;
+        }
+
+        @Override
+        public void validate(Map<String, Object> params) {
+            Object duration = params.get("duration");
+            if (duration instanceof Number n && n.longValue() > 1000) {
+                throw new IllegalArgumentException("duration must be at most 1000");
+            }
+        }
+
+        @Override
+        public void stop() {
+            calls.add("stop");
+            active = false;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+
+    private final RecordingFault fault = new RecordingFault();
+    private final FaultManager faultManager = new FaultManager(List.of(fault));
+    private final ScenarioEngine engine = new ScenarioEngine(faultManager, new ScenarioCompiler(faultManager));
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+        faultManager.shutdown();
+    }
+
+    private static ScenarioPlan rampPlan(String duration, String over, int steps) {
+        return rampPlan(duration, over, steps, 200);
+    }
+
+    private static ScenarioPlan rampPlan(String duration, String over, int steps, double to) {
+        ScenarioRamp ramp = new ScenarioRamp();
+        ramp.setParam("duration");
+        ramp.setFrom(10);
+        ramp.setTo(to);
+        ramp.setOver(over);
+        ramp.setSteps(steps);
+        ScenarioStep step = new ScenarioStep();
+        step.setFault("redis_latency");
+        step.setAt("0s");
+        step.setDuration(duration);
+        step.setRamp(ramp);
+        ScenarioPlan plan = new ScenarioPlan();
+        plan.setName("ramp");
+        plan.setSteps(List.of(step));
+        return plan;
+    }
+
+    @Test
+    void rampEndingWithTheStepUpdatesBeforeItStops() {
+        List<ScenarioAction> actions = engine.validate(rampPlan("60s", "60s", 60));
+
+        ScenarioAction last = actions.get(actions.size() - 1);
+        ScenarioAction beforeLast = actions.get(actions.size() - 2);
+        assertEquals(ScenarioAction.Kind.STOP, last.getKind());
+        assertEquals(ScenarioAction.Kind.UPDATE, beforeLast.getKind());
+        assertEquals(last.getOffsetNanos(), beforeLast.getOffsetNanos());
+    }
+
+    @Test
+    void updateAfterTheStopDoesNotRestartTheFault() throws Exception {
+        ScenarioPlan plan = rampPlan("1s", "1s", 1);
+        ScenarioRun run = new ScenarioRun("r", plan, 3, System.nanoTime(), Instant.now());
+
+        engine.execute(run, new ScenarioAction(0, "redis_latency", ScenarioAction.Kind.START, Map.of("duration", 10)));
+        engine.execute(run, new ScenarioAction(1, "redis_latency", ScenarioAction.Kind.STOP, Map.of()));
+        engine.execute(run, new ScenarioAction(1, "redis_latency", ScenarioAction.Kind.UPDATE,
+                Map.of("duration", 200)));
+        awaitFinished(run);
+
+        assertFalse(fault.isActive());
+        assertEquals(List.of("start 10", "stop"), fault.calls);
+        ScenarioRun.Event update = run.getEvents().stream()
+                .filter(e -> e.getKind() == ScenarioAction.Kind.UPDATE).findFirst().orElseThrow();
+        assertNotNull(update.getError());
+    }
+
+    @Test
+    void slowApplyDoesNotBlockTheScheduler() throws Exception {
+        fault.startGate = new CountDownLatch(1);
+        ScenarioRun run = new ScenarioRun("r", rampPlan("1s", "1s", 1), 1, System.nanoTime(), Instant.now());
+
+        long start = System.nanoTime();
+        engine.execute(run, new ScenarioAction(0, "redis_latency", ScenarioAction.Kind.START, Map.of("duration", 10)));
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertTrue(run.getEvents().isEmpty());
+
+        fault.startGate.countDown();
+        awaitFinished(run);
+        assertNull(run.getEvents().get(0).getError());
+        assertTrue(fault.isActive());
+    }
+
+    @Test
+    void paramsAreValidatedWhenThePlanCompiles() {
+        InvalidScenarioException e = assertThrows(InvalidScenarioException.class,
+                () -> engine.validate(rampPlan("60s", "30s", 3, 5000)));
+        assertTrue(e.getMessage().contains("steps[0].params"), e.getMessage());
+        assertTrue(fault.calls.isEmpty());
+    }
+
+    @Test
+    void finishedRunsAreCapped() throws Exception {
+        List<ScenarioRun> started = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            started.add(engine.start(rampPlan("500ms", "500ms", 1)));
+        }
+        // Still running, so none of them may be dropped yet.
+        assertEquals(120, engine.getRuns().size());
+        for (ScenarioRun run : started) {
+            awaitFinished(run);
+        }
+
+        ScenarioRun last = engine.start(rampPlan("1ms", "1ms", 1));
+        assertEquals(100, engine.getRuns().size());
+        assertNull(engine.getRun(started.get(0).getId()));
+        assertNotNull(engine.getRun(last.getId()));
+    }
+
+    @Test
+    void rampRunEndsWithTheFaultStopped() throws Exception {
+        ScenarioRun run = engine.start(rampPlan("300ms", "300ms", 3));
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (run.getStatus() == ScenarioRun.Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(ScenarioRun.Status.COMPLETED, run.getStatus());
+        assertFalse(fault.isActive());
+        assertEquals("stop", fault.calls.get(fault.calls.size() - 1));
+        assertTrue(fault.calls.contains("start 10"));
+    }
+
+    private static void awaitFinished(ScenarioRun run) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (run.getEvents().size() < run.getTotalActions() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(run.getTotalActions(), run.getEvents().size());
+    }
+}
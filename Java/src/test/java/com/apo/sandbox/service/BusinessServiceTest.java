@@ -0,0 +1,105 @@
+package com.apo.sandbox.service;
+
+import com.apo.sandbox.admission.AdmissionControlFilter;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.Store;
+import com.apo.sandbox.fault.Fault;
+import com.apo.sandbox.fault.FaultManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BusinessServiceTest {
+
+    // Stands in for tc failing, e.g. without NET_ADMIN.
+    static class BrokenLatencyFault implements Fault {
+        final AtomicInteger starts = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "latency";
+        }
+
+        @Override
+        public void start(Map<String, Object> params) throws Exception {
+            starts.incrementAndGet();
+            throw new IllegalStateException("tc exited with 2");
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isActive() {
+            return false;
+        }
+    }
+
+    private final BrokenLatencyFault fault = new BrokenLatencyFault();
+    private final FaultManager faultManager = new FaultManager(List.of(fault));
+
+    @AfterEach
+    void tearDown() {
+        faultManager.shutdown();
+    }
+
+    private BusinessService service(long backoffMs) {
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "faultRetryBackoffMs", backoffMs);
+        return new BusinessService(faultManager, mock(Store.class), props);
+    }
+
+    private void requestAndSettle(BusinessService service) throws Exception {
+        service.getUsersWithLatency(Optional.of("1"), 100);
+        faultManager.getStatus("latency").getLastOperation().getCompletion().get();
+    }
+
+    @Test
+    void failedStartIsNotRetriedOnEveryRequest() throws Exception {
+        BusinessService service = service(60_000);
+        requestAndSettle(service);
+        for (int i = 0; i < 20; i++) {
+            service.getUsersWithLatency(Optional.of("1"), 100);
+        }
+        assertEquals(1, fault.starts.get());
+    }
+
+    @Test
+    void backendFailureIsReportedForTheRequest() throws Exception {
+        Store store = mock(Store.class);
+        when(store.queryUserFromRedis()).thenThrow(new IllegalStateException("redis down"));
+        BusinessService service = new BusinessService(faultManager, store, new AppProperties());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/2");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            assertTrue(service.getUsersWithCPUBurn(Optional.empty(), 0).isEmpty());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertTrue(AdmissionControlFilter.failed(request, new MockHttpServletResponse()));
+    }
+
+    @Test
+    void failedStartIsRetriedAfterTheBackoff() throws Exception {
+        BusinessService service = service(0);
+        requestAndSettle(service);
+        requestAndSettle(service);
+        assertEquals(2, fault.starts.get());
+    }
+}
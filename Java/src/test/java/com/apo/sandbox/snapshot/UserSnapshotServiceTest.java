@@ -0,0 +1,119 @@
+package com.apo.sandbox.snapshot;
+
+import com.apo.sandbox.cache.OffHeapUserStore;
+import com.apo.sandbox.cache.OffHeapUsers;
+import com.apo.sandbox.cache.UserSnapshotFile;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.InMemoryRedisClient;
+import com.apo.sandbox.dao.InMemoryUsersTable;
+import com.apo.sandbox.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserSnapshotServiceTest {
+    private final List<User> snapshot = new ArrayList<>();
+    private final InMemoryUsersTable db = new InMemoryUsersTable();
+    // Records the chunks the ID list arrives in.
+    private final List<Integer> idChunks = new ArrayList<>();
+    private final InMemoryRedisClient redis = new InMemoryRedisClient() {
+        @Override
+        public UserIdsWriter userIdsWriter() {
+            UserIdsWriter writer = super.userIdsWriter();
+            return new UserIdsWriter() {
+                @Override
+                public void append(List<String> ids) throws JsonProcessingException {
+                    idChunks.add(ids.size());
+                    writer.append(ids);
+                }
+
+                @Override
+                public void commit() throws JsonProcessingException {
+                    writer.commit();
+                }
+            };
+        }
+    };
+    private UserSnapshotService service;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            snapshot.add(new User("u" + i, "User " + i, "u" + i + "@apo.com"));
+        }
+        Path file = dir.resolve("users.snap");
+        OffHeapUsers users = OffHeapUsers.build(snapshot, 1, 1024);
+        UserSnapshotFile.write(users, file);
+        users.release();
+
+        AppProperties props = new AppProperties();
+        ReflectionTestUtils.setField(props, "userSnapshotPath", file.toString());
+        ReflectionTestUtils.setField(props, "userSnapshotVerify", true);
+        ReflectionTestUtils.setField(props, "userSnapshotBatchSize", 2);
+        ReflectionTestUtils.setField(props, "userStoreOffHeapEnabled", true);
+        service = new UserSnapshotService(redis, db, new OffHeapUserStore(props, new SimpleMeterRegistry()), props);
+    }
+
+    @Test
+    void idListIsSentInBatchSizedChunks() throws Exception {
+        service.restore(EnumSet.of(UserSnapshotService.Target.REDIS), false);
+
+        assertEquals(List.of(2, 2, 1), idChunks);
+        assertEquals(List.of("u0", "u1", "u2", "u3", "u4"), redis.userIds);
+        assertEquals(5, redis.users.size());
+    }
+
+    @Test
+    void rowsMySqlRefusesAreLeftOutOfRedis() throws Exception {
+        db.rows.put("other", new User("other", "Other", "u1@apo.com"));
+
+        Map<String, Object> result = service.restore(EnumSet.allOf(UserSnapshotService.Target.class), false);
+
+        assertEquals(4L, ((Number) result.get("mysql")).longValue());
+        assertEquals("Other", db.rows.get("other").getName());
+        assertFalse(db.rows.containsKey("u1"));
+        assertEquals(List.of("u0", "u2", "u3", "u4"), redis.userIds);
+        assertNull(redis.users.get("u1"));
+    }
+
+    @Test
+    void cursorSkipsTheLoadWhenTheFeedHadCaughtUp() throws Exception {
+        db.changeSeq = 7;
+        redis.changeCursor = 7L;
+
+        Map<String, Object> result = service.restore(EnumSet.allOf(UserSnapshotService.Target.class), false);
+
+        assertEquals(12L, redis.changeCursor);
+        assertEquals(12L, db.purgedThrough);
+        assertEquals("resumes after seq 12", result.get("changeFeed"));
+    }
+
+    @Test
+    void cursorIsLeftAloneWhenTheFeedWasBehind() throws Exception {
+        db.changeSeq = 7;
+        redis.changeCursor = 5L;
+
+        Map<String, Object> result = service.restore(EnumSet.allOf(UserSnapshotService.Target.class), false);
+
+        // Seqs 6 and 7 were never applied, so nothing may be skipped or purged.
+        assertEquals(5L, redis.changeCursor);
+        assertEquals(0L, db.purgedThrough);
+        assertEquals("replays from 5", result.get("changeFeed"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.apo.sandbox.warmup;
+
+import com.apo.sandbox.cache.OffHeapUserList;
+import com.apo.sandbox.config.AppProperties;
+import com.apo.sandbox.dao.Store;
+import com.apo.sandbox.health.BackendHealthMonitor;
+import com.apo.sandbox.pool.PoolController;
+import com.apo.sandbox.profile.ProfileRecorder;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WarmupRunnerTest {
+    private final AppProperties props = new AppProperties();
+    private final PoolController poolController = mock(PoolController.class);
+    private final Store store = mock(Store.class);
+    private final ProfileRecorder profileRecorder = mock(ProfileRecorder.class);
+    private final BackendHealthMonitor healthMonitor = mock(BackendHealthMonitor.class);
+    private final MockEnvironment environment = new MockEnvironment();
+
+    WarmupRunnerTest() {
+        ReflectionTestUtils.setField(props, "warmupEnabled", true);
+        ReflectionTestUtils.setField(props, "backendLazyInit", false);
+        ReflectionTestUtils.setField(props, "warmupRequests", 20);
+        ReflectionTestUtils.setField(props, "warmupConcurrency", 2);
+        ReflectionTestUtils.setField(props, "warmupMaxSeconds", 5);
+    }
+
+    private WarmupRunner runner() {
+        return new WarmupRunner(props, poolController, store, profileRecorder, healthMonitor, environment);
+    }
+
+    @Test
+    void disabledWarmupTouchesNothing() {
+        ReflectionTestUtils.setField(props, "warmupEnabled", false);
+
+        runner().run(null);
+
+        verifyNoInteractions(poolController, store, profileRecorder, healthMonitor);
+    }
+
+    @Test
+    void preloadReleasesTheOffHeapListAndResetsTheProfiler() throws Exception {
+        OffHeapUserList users = mock(OffHeapUserList.class);
+        when(users.size()).thenReturn(3);
+        when(store.queryUserFromRedis()).thenReturn(users);
+
+        runner().run(null);
+
+        InOrder order = inOrder(poolController, store, users, profileRecorder);
+        order.verify(poolController).prefillPools();
+        order.verify(store).queryUserFromRedis();
+        order.verify(users).close();
+        order.verify(profileRecorder).reset();
+        verify(healthMonitor, never()).awaitFirstCheck(anyLong());
+    }
+
+    @Test
+    void failedPreloadDoesNotStopTheWarmup() throws Exception {
+        when(store.queryUserFromRedis()).thenThrow(new IllegalStateException("redis down"));
+
+        runner().run(null);
+
+        verify(profileRecorder).reset();
+    }
+
+    @Test
+    void lazyBackendsAreCheckedBeforeThePoolsFill() throws Exception {
+        ReflectionTestUtils.setField(props, "backendLazyInit", true);
+        when(healthMonitor.awaitFirstCheck(5_000L)).thenReturn(true);
+
+        runner().run(null);
+
+        InOrder order = inOrder(healthMonitor, poolController);
+        order.verify(healthMonitor).awaitFirstCheck(5_000L);
+        order.verify(poolController).prefillPools();
+    }
+
+    @Test
+    void syntheticTrafficCoversEveryEndpointBothEncodings() throws Exception {
+        Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/users", exchange -> {
+            String key = exchange.getRequestURI().getPath() + " " + exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            hits.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+
+            runner().run(null);
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(20, hits.values().stream().mapToInt(AtomicInteger::get).sum());
+        assertEquals(6, hits.size(), hits.toString());
+    }
+}
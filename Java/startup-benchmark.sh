@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# JVM-start-to-ready time and first-request latency for the default fat jar
+# and for the AOT + AppCDS build of the startup profile, each with eager and
+# with lazy backend init (BACKEND_LAZY_INIT), so the two optimizations are
+# reported separately. Every variant runs with the same environment apart
+# from BACKEND_LAZY_INIT. Ready is the first 200 from the readiness probe,
+# measured from process launch.
+#
+#   mvn -Pstartup clean package -DskipTests
+#   ./startup-benchmark.sh [runs]
+#
+# Warm-up is off unless WARMUP_ENABLED is set, so the first request is cold.
+# With warm-up off, a lazy variant reports ready before its backends are
+# connected and pays for the connects on the first request; run with
+# WARMUP_ENABLED=true to compare readiness with connected backends.
+set -euo pipefail
+cd "$(dirname "$0")"
+
+RUNS=${1:-5}
+PORT=${PORT:-3599}
+URL=${FIRST_REQUEST_PATH:-/api/users/1}
+LOG=$(mktemp)
+export WARMUP_ENABLED=${WARMUP_ENABLED:-false}
+
+FAT_JAR=$(ls target/sandbox-*.jar | grep -v -e '-cds' | head -n 1)
+CDS_DIR=target/cds
+if [[ ! -f "$CDS_DIR/sandbox.jsa" ]]; then
+    echo "No CDS archive; build with: mvn -Pstartup clean package -DskipTests" >&2
+    exit 1
+fi
+
+# Prints "<ready ms> <first request ms>" for one launch of the given command.
+measure() {
+    local start pid ready first
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" >"$LOG" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/actuator/health/readiness"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Process exited before becoming ready; log follows." >&2
+            cat "$LOG" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    ready=$(( ($(date +%s%N) - start) / 1000000 ))
+    first=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT$URL")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    awk -v r="$ready" -v f="$first" 'BEGIN { printf "%d %.1f\n", r, f * 1000 }'
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# run_variant <name> <lazy init> <command...>
+run_variant() {
+    local name=$1 lazy=$2
+    shift 2
+    local results=()
+    for ((i = 1; i <= RUNS; i++)); do
+        results+=("$(measure env BACKEND_LAZY_INIT="$lazy" "$@")")
+    done
+    local ready first
+    ready=$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)
+    first=$(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | median)
+    printf '%-16s %16s %22s\n' "$name" "$ready" "$first"
+}
+
+OPTIMIZED=(java -XX:SharedArchiveFile="$CDS_DIR/sandbox.jsa" -Dspring.aot.enabled=true -jar "$CDS_DIR/sandbox-cds.jar")
+
+printf '%-16s %16s %22s\n' "variant" "ready ms (p50)" "first request ms (p50)"
+run_variant default false java -jar "$FAT_JAR"
+run_variant default+lazy true java -jar "$FAT_JAR"
+run_variant aot-cds false "${OPTIMIZED[@]}"
+run_variant aot-cds+lazy true "${OPTIMIZED[@]}"
+rm -f "$LOG"
@@ -23,4 +23,22 @@ INSERT INTO `users` (`id`, `name`, `email`) VALUES
 ('d990dd72-c662-42d6-96d5-e44d55dec8e8','DB_Saved_User 6','db_saved_user6@apo.com'),
 ('daadd4cd-dc62-497f-8912-18d586b158b9','DB_Saved_User 4','db_saved_user4@apo.com'),
 ('effa3f90-fcae-45c4-a167-30f330a2c41c','DB_Saved_User 1','db_saved_user1@apo.com'),
-('fba6b264-2d4b-4c6a-b426-1dad543d31c6','DB_Saved_User 9','db_saved_user9@apo.com');
\ No newline at end of file
+('fba6b264-2d4b-4c6a-b426-1dad543d31c6','DB_Saved_User 9','db_saved_user9@apo.com');
+-- 变更日志表，由触发器写入，供缓存增量同步使用
+CREATE TABLE IF NOT EXISTS `users_outbox` (
+  `seq` BIGINT NOT NULL AUTO_INCREMENT,
+  `op` CHAR(1) NOT NULL,
+  `user_id` VARCHAR(36) NOT NULL,
+  `name` VARCHAR(100),
+  `email` VARCHAR(100),
+  PRIMARY KEY (`seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TRIGGER `users_outbox_insert` AFTER INSERT ON `users` FOR EACH ROW
+  INSERT INTO `users_outbox` (`op`, `user_id`, `name`, `email`) VALUES ('I', NEW.id, NEW.name, NEW.email);
+
+CREATE TRIGGER `users_outbox_update` AFTER UPDATE ON `users` FOR EACH ROW
+  INSERT INTO `users_outbox` (`op`, `user_id`, `name`, `email`) VALUES ('U', NEW.id, NEW.name, NEW.email);
+
+CREATE TRIGGER `users_outbox_delete` AFTER DELETE ON `users` FOR EACH ROW
+  INSERT INTO `users_outbox` (`op`, `user_id`) VALUES ('D', OLD.id);
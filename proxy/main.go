@@ -3,16 +3,142 @@ package main
 import (
 	"fmt"
 	"io"
+	"math/rand/v2"
 	"net"
 	"os"
+	"strconv"
 	"strings"
+	"sync/atomic"
 	"time"
 
 	"github.com/tidwall/redcon"
 )
 
-var injectedDelay time.Duration
-var delayActive bool
+// Every connection has its own goroutine, so the fault state is only read
+// and written through atomics.
+
+// injectedDelay is the fixed delay set by FAULT.START, in nanoseconds; zero
+// when no delay is being injected.
+var injectedDelay atomic.Int64
+
+// activeProfile is set by FAULT.PROFILE and replaces the fixed delay until
+// the next FAULT.START or FAULT.STOP.
+var activeProfile atomic.Pointer[delayProfile]
+
+// delayProfile is a latency distribution sampled once per command with
+// Vose's alias method, so a draw costs the same for any number of values.
+type delayProfile struct {
+	delays      []time.Duration
+	probability []float64
+	alias       []int
+}
+
+// maxProfileDelayMicros caps a FAULT.PROFILE delay at one minute, far above
+// any client timeout; larger values would also overflow time.Duration.
+const maxProfileDelayMicros = int64(time.Minute / time.Microsecond)
+
+// newDelayProfile parses FAULT.PROFILE arguments: pairs of a delay in
+// microseconds and its weight.
+func newDelayProfile(args [][]byte) (*delayProfile, error) {
+	if len(args) == 0 || len(args)%2 != 0 {
+		return nil, fmt.Errorf("expected delay and weight pairs")
+	}
+	n := len(args) / 2
+	p := &delayProfile{
+		delays:      make([]time.Duration, n),
+		probability: make([]float64, n),
+		alias:       make([]int, n),
+	}
+	weights := make([]float64, n)
+	total := 0.0
+	for i := 0; i < n; i++ {
+		us, err := strconv.ParseInt(string(args[2*i]), 10, 64)
+		if err != nil || us < 0 {
+			return nil, fmt.Errorf("invalid delay %q", args[2*i])
+		}
+		if us > maxProfileDelayMicros {
+			return nil, fmt.Errorf("delay %q is above the %dus limit", args[2*i], maxProfileDelayMicros)
+		}
+		w, err := strconv.ParseFloat(string(args[2*i+1]), 64)
+		if err != nil || w < 0 {
+			return nil, fmt.Errorf("invalid weight %q", args[2*i+1])
+		}
+		p.delays[i] = time.Duration(us) * time.Microsecond
+		weights[i] = w
+		total += w
+	}
+	if total <= 0 {
+		return nil, fmt.Errorf("weights sum to zero")
+	}
+
+	scaled := make([]float64, n)
+	var small, large []int
+	for i, w := range weights {
+		scaled[i] = w * float64(n) / total
+		if scaled[i] < 1 {
+			small = append(small, i)
+		} else {
+			large = append(large, i)
+		}
+	}
+	for len(small) > 0 && len(large) > 0 {
+		less := small[len(small)-1]
+		small = small[:len(small)-1]
+		more := large[len(large)-1]
+		large = large[:len(large)-1]
+		p.probability[less] = scaled[less]
+		p.alias[less] = more
+		scaled[more] += scaled[less] - 1
+		if scaled[more] < 1 {
+			small = append(small, more)
+		} else {
+			large = append(large, more)
+		}
+	}
+	// Whatever is left is 1 up to rounding error.
+	for _, i := range append(small, large...) {
+		p.probability[i] = 1
+	}
+	return p, nil
+}
+
+func (p *delayProfile) sample() time.Duration {
+	i := rand.IntN(len(p.delays))
+	if rand.Float64() < p.probability[i] {
+		return p.delays[i]
+	}
+	return p.delays[p.alias[i]]
+}
+
+// faultCommand handles the FAULT.* commands and returns the reply to send;
+// false for anything that should go upstream.
+func faultCommand(command string, args [][]byte) (string, bool) {
+	switch {
+	case command == "FAULT.START" && len(args) == 2:
+		delay, err := time.ParseDuration(string(args[1]) + "ms")
+		if err != nil {
+			return "-ERR invalid delay argument\r\n", true
+		}
+		activeProfile.Store(nil)
+		injectedDelay.Store(int64(delay))
+		fmt.Printf("Started injecting %v delay.\n", delay)
+		return "+OK\r\n", true
+	case command == "FAULT.PROFILE":
+		profile, err := newDelayProfile(args[1:])
+		if err != nil {
+			return "-ERR " + err.Error() + "\r\n", true
+		}
+		activeProfile.Store(profile)
+		fmt.Printf("Started sampling delays from a %d-value profile.\n", len(profile.delays))
+		return "+OK\r\n", true
+	case command == "FAULT.STOP" && len(args) == 1:
+		activeProfile.Store(nil)
+		injectedDelay.Store(0)
+		fmt.Printf("Stopped injecting delay.\n")
+		return "+OK\r\n", true
+	}
+	return "", false
+}
 
 func main() {
 	listenAddr := "localhost:20000"
@@ -67,31 +193,16 @@ func handleConnection(clientConn net.Conn, upstreamAddr string) {
 
 		command := strings.ToUpper(string(cmd.Args[0]))
 
-		if command == "FAULT.START" && len(cmd.Args) == 2 {
-			delayStr := string(cmd.Args[1])
-			delay, parseErr := time.ParseDuration(delayStr + "ms")
-			if parseErr == nil {
-				injectedDelay = delay
-				delayActive = true
-				fmt.Printf("Started injecting %v delay.\n", injectedDelay)
-				clientConn.Write([]byte("+OK\r\n"))
-			} else {
-				clientConn.Write([]byte("-ERR invalid delay argument\r\n"))
-			}
-			continue
-		}
-
-		if command == "FAULT.STOP" && len(cmd.Args) == 1 {
-			injectedDelay = 0
-			delayActive = false
-			fmt.Printf("Stopped injecting delay.\n")
-			clientConn.Write([]byte("+OK\r\n"))
+		if reply, ok := faultCommand(command, cmd.Args); ok {
+			clientConn.Write([]byte(reply))
 			continue
 		}
 
-		if delayActive && injectedDelay > 0 {
-			fmt.Printf("Applying %v injected delay for command: %s\n", injectedDelay, command)
-			time.Sleep(injectedDelay)
+		if profile := activeProfile.Load(); profile != nil {
+			time.Sleep(profile.sample())
+		} else if delay := time.Duration(injectedDelay.Load()); delay > 0 {
+			fmt.Printf("Applying %v injected delay for command: %s\n", delay, command)
+			time.Sleep(delay)
 		}
 
 		_, err = upstreamConn.Write(cmd.Raw)
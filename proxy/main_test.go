@@ -0,0 +1,174 @@
+package main
+
+import (
+	"math"
+	"strconv"
+	"sync"
+	"testing"
+	"time"
+)
+
+func args(values ...string) [][]byte {
+	out := make([][]byte, len(values))
+	for i, v := range values {
+		out[i] = []byte(v)
+	}
+	return out
+}
+
+func resetFaults() {
+	activeProfile.Store(nil)
+	injectedDelay.Store(0)
+}
+
+func TestProfileRejectsBadArguments(t *testing.T) {
+	for _, bad := range [][]string{
+		{},
+		{"100"},
+		{"abc", "1"},
+		{"-5", "1"},
+		{"100", "-1"},
+		{"100", "0", "200", "0"},
+		// Above the cap, and far enough to overflow time.Duration.
+		{"60000001", "1"},
+		{"9223372036854775807", "1"},
+	} {
+		if _, err := newDelayProfile(args(bad...)); err == nil {
+			t.Errorf("newDelayProfile(%v) accepted bad arguments", bad)
+		}
+	}
+}
+
+func TestProfileAcceptsTheMaximumDelay(t *testing.T) {
+	p, err := newDelayProfile(args("60000000", "1"))
+	if err != nil {
+		t.Fatal(err)
+	}
+	if p.delays[0] != time.Minute {
+		t.Errorf("delay = %v, want 1m", p.delays[0])
+	}
+}
+
+func TestAliasTableIsWellFormed(t *testing.T) {
+	p, err := newDelayProfile(args("100", "1", "200", "0", "300", "7", "400", "2"))
+	if err != nil {
+		t.Fatal(err)
+	}
+	for i, prob := range p.probability {
+		if prob < 0 || prob > 1+1e-9 {
+			t.Errorf("probability[%d] = %v, want within [0, 1]", i, prob)
+		}
+		if prob < 1 && (p.alias[i] < 0 || p.alias[i] >= len(p.delays)) {
+			t.Errorf("alias[%d] = %d is out of range", i, p.alias[i])
+		}
+	}
+}
+
+func TestSampleFollowsTheWeights(t *testing.T) {
+	weights := []float64{1, 0, 7, 2}
+	pairs := make([]string, 0, 2*len(weights))
+	for i, w := range weights {
+		pairs = append(pairs, strconv.Itoa((i+1)*100), strconv.FormatFloat(w, 'f', -1, 64))
+	}
+	p, err := newDelayProfile(args(pairs...))
+	if err != nil {
+		t.Fatal(err)
+	}
+
+	const draws = 200000
+	counts := map[time.Duration]int{}
+	for i := 0; i < draws; i++ {
+		counts[p.sample()]++
+	}
+	for i, w := range weights {
+		delay := time.Duration((i+1)*100) * time.Microsecond
+		got := float64(counts[delay]) / draws
+		want := w / 10
+		if math.Abs(got-want) > 0.01 {
+			t.Errorf("%v drawn %.4f of the time, want %.4f", delay, got, want)
+		}
+	}
+}
+
+func TestSingleValueProfileAlwaysReturnsIt(t *testing.T) {
+	p, err := newDelayProfile(args("250", "3"))
+	if err != nil {
+		t.Fatal(err)
+	}
+	for i := 0; i < 1000; i++ {
+		if d := p.sample(); d != 250*time.Microsecond {
+			t.Fatalf("sample() = %v, want 250µs", d)
+		}
+	}
+}
+
+func TestFaultCommandsSwitchTheDelay(t *testing.T) {
+	defer resetFaults()
+
+	if reply, _ := faultCommand("FAULT.START", args("FAULT.START", "15")); reply != "+OK\r\n" {
+		t.Fatalf("FAULT.START replied %q", reply)
+	}
+	if got := time.Duration(injectedDelay.Load()); got != 15*time.Millisecond {
+		t.Errorf("injected delay = %v, want 15ms", got)
+	}
+
+	faultCommand("FAULT.PROFILE", args("FAULT.PROFILE", "100", "1"))
+	if activeProfile.Load() == nil {
+		t.Error("FAULT.PROFILE did not install a profile")
+	}
+
+	// FAULT.START replaces a profile.
+	faultCommand("FAULT.START", args("FAULT.START", "5"))
+	if activeProfile.Load() != nil {
+		t.Error("FAULT.START left the profile in place")
+	}
+
+	faultCommand("FAULT.STOP", args("FAULT.STOP"))
+	if activeProfile.Load() != nil || injectedDelay.Load() != 0 {
+		t.Error("FAULT.STOP left a delay in place")
+	}
+
+	if reply, _ := faultCommand("FAULT.START", args("FAULT.START", "soon")); reply != "-ERR invalid delay argument\r\n" {
+		t.Errorf("bad FAULT.START replied %q", reply)
+	}
+	if _, ok := faultCommand("GET", args("GET", "k")); ok {
+		t.Error("GET was handled as a fault command")
+	}
+}
+
+// Run with -race: connections change and read the fault state concurrently.
+func TestFaultStateIsSafeAcrossConnections(t *testing.T) {
+	defer resetFaults()
+
+	var wg sync.WaitGroup
+	stop := make(chan struct{})
+	for i := 0; i < 4; i++ {
+		wg.Add(1)
+		go func() {
+			defer wg.Done()
+			for {
+				select {
+				case <-stop:
+					return
+				default:
+				}
+				if profile := activeProfile.Load(); profile != nil {
+					profile.sample()
+				} else {
+					_ = time.Duration(injectedDelay.Load())
+				}
+			}
+		}()
+	}
+	for i := 0; i < 300; i++ {
+		faultCommand("FAULT.START", args("FAULT.START", "1"))
+		faultCommand("FAULT.PROFILE", args("FAULT.PROFILE", "100", "1", "200", "3"))
+		faultCommand("FAULT.STOP", args("FAULT.STOP"))
+	}
+	close(stop)
+	wg.Wait()
+
+	if activeProfile.Load() != nil || injectedDelay.Load() != 0 {
+		t.Error("the last FAULT.STOP did not clear the fault state")
+	}
+}